@@ -0,0 +1,189 @@
+/**
+ * Copyright (C) 2026 Oliver Schünemann
+ * 
+ * This program is free software; you can redistribute it and/or modify it under the terms of the 
+ * GNU General Public License as published by the Free Software Foundation; either version 2 of 
+ * the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; 
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. 
+ * See the GNU General Public License for more details. 
+ * 
+ * You should have received a copy of the GNU General Public License along with this program; 
+ * if not, write to the Free Software Foundation, Inc., 51 Franklin St, Fifth Floor, 
+ * Boston, MA 02110, USA 
+ * 
+ * @since 19.10.2026
+ * @version 1.0
+ * @author oliver
+ */
+package oc.io;
+
+import oc.io.base.MemoryBudget;
+
+/**
+ * Settings of the encoding of the strings in the files of one conversion. The
+ * writers and iterators of a conversion get the same context, its streams
+ * hand it to the elements they serialize, see {@link DictionaryStream}.
+ * Conversions with different contexts can run side by side in one JVM.
+ * 
+ * The dictionary of the context encodes the elements in front of the
+ * dictionary a writer samples for its file. It is written in front of the
+ * first element, so a file can be read with any context. Only files written
+ * before the files had dictionaries of their own are read with the dictionary
+ * of the reading context.
+ * 
+ * The string cache of the context gives the strings read by its iterators
+ * the same instance for the same text.
+ * 
+ * The buffers of the writers, iterators and sorters of the context are
+ * reserved from the memory budget of the context, the global one unless a
+ * budget is given.
+ * 
+ * Instances are immutable.
+ * 
+ * @author oliver
+ */
+public final class CodecContext {
+	/**
+	 * Context of the conversions that are not given one
+	 */
+	private static volatile CodecContext defaultContext = new CodecContext(TagDictionary.EMPTY,
+			TagSampler.DEFAULT_SAMPLES);
+
+	/**
+	 * Dictionary of the elements in front of the sampled dictionary
+	 */
+	private final TagDictionary dictionary;
+	/**
+	 * Number of tags and roles a writer samples, 0 to sample none
+	 */
+	private final int samples;
+	/**
+	 * Cache of the strings read with the context
+	 */
+	private final StringCache stringCache;
+	/**
+	 * Budget the buffers are reserved from, null for the global one
+	 */
+	private final MemoryBudget memoryBudget;
+
+	/**
+	 * Context with a string cache of its own
+	 * 
+	 * @param dictionary
+	 *            dictionary for the elements in front of the sampled one
+	 * @param samples
+	 *            number of tags and roles a writer samples to build the
+	 *            dictionary of its file, 0 to encode the whole file with the
+	 *            dictionary of the context
+	 */
+	public CodecContext(final TagDictionary dictionary, final int samples) {
+		this(dictionary, samples, new StringCache(StringCache.DEFAULT_SIZE));
+	}
+
+	/**
+	 * @param dictionary
+	 *            dictionary for the elements in front of the sampled one
+	 * @param samples
+	 *            number of tags and roles a writer samples to build the
+	 *            dictionary of its file, 0 to encode the whole file with the
+	 *            dictionary of the context
+	 * @param stringCache
+	 *            cache of the short strings read, null to create a new
+	 *            instance for every string
+	 */
+	public CodecContext(final TagDictionary dictionary, final int samples,
+			final StringCache stringCache) {
+		this(dictionary, samples, stringCache, null);
+	}
+
+	/**
+	 * @param dictionary
+	 *            dictionary for the elements in front of the sampled one
+	 * @param samples
+	 *            number of tags and roles a writer samples to build the
+	 *            dictionary of its file, 0 to encode the whole file with the
+	 *            dictionary of the context
+	 * @param stringCache
+	 *            cache of the short strings read, null to create a new
+	 *            instance for every string
+	 * @param memoryBudget
+	 *            budget the buffers are reserved from, null for the global
+	 *            one
+	 */
+	public CodecContext(final TagDictionary dictionary, final int samples,
+			final StringCache stringCache, final MemoryBudget memoryBudget) {
+		super();
+		this.dictionary = dictionary;
+		this.samples = samples;
+		this.stringCache = stringCache;
+		this.memoryBudget = memoryBudget;
+	}
+
+	/**
+	 * @return the context of the writers, iterators and streams that are not
+	 *         given one
+	 */
+	public static CodecContext getDefault() {
+		return defaultContext;
+	}
+
+	/**
+	 * Replaces the default context, only for the deprecated
+	 * {@link StreamIo#setDictionary(java.util.Set)}
+	 * 
+	 * @param context
+	 *            the new default
+	 */
+	static void setDefault(final CodecContext context) {
+		defaultContext = context;
+	}
+
+	/**
+	 * @return the dictionary for the elements in front of the sampled one
+	 */
+	public TagDictionary getDictionary() {
+		return dictionary;
+	}
+
+	/**
+	 * @return number of tags and roles a writer samples, 0 when it does not
+	 *         sample
+	 */
+	public int getSamples() {
+		return samples;
+	}
+
+	/**
+	 * @return cache of the short strings read, null when there is none
+	 */
+	public StringCache getStringCache() {
+		return stringCache;
+	}
+
+	/**
+	 * @return budget the buffers of the writers, iterators and sorters are
+	 *         reserved from
+	 */
+	public MemoryBudget getMemoryBudget() {
+		return memoryBudget == null ? MemoryBudget.getGlobal() : memoryBudget;
+	}
+
+	/**
+	 * @param budget
+	 *            budget the buffers shall be reserved from
+	 * @return a context that differs from this one only in the memory budget
+	 */
+	public CodecContext withMemoryBudget(final MemoryBudget budget) {
+		return new CodecContext(dictionary, samples, stringCache, budget);
+	}
+
+	/**
+	 * @return a new sampler for a writer, null when the writer does not
+	 *         sample
+	 */
+	TagSampler newSampler() {
+		return samples > 0 ? new TagSampler(samples) : null;
+	}
+}
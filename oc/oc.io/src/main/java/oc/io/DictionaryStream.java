@@ -0,0 +1,63 @@
+/**
+ * Copyright (C) 2026 Oliver Schünemann
+ * 
+ * This program is free software; you can redistribute it and/or modify it under the terms of the 
+ * GNU General Public License as published by the Free Software Foundation; either version 2 of 
+ * the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; 
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. 
+ * See the GNU General Public License for more details. 
+ * 
+ * You should have received a copy of the GNU General Public License along with this program; 
+ * if not, write to the Free Software Foundation, Inc., 51 Franklin St, Fifth Floor, 
+ * Boston, MA 02110, USA 
+ * 
+ * @since 19.10.2026
+ * @version 1.0
+ * @author oliver
+ */
+package oc.io;
+
+/**
+ * Implemented by the streams of {@link ExternalizableWriter} and
+ * {@link ExternalizableIterator}. They keep the dictionary the strings of
+ * their file are encoded with, see {@link StreamIo}, and the context of the
+ * conversion. Other streams use the default context.
+ * 
+ * @author oliver
+ */
+public interface DictionaryStream {
+	/**
+	 * @return the context the stream was created with
+	 */
+	CodecContext getContext();
+
+	/**
+	 * @return the dictionary the following strings are encoded with
+	 */
+	TagDictionary getDictionary();
+
+	/**
+	 * @param dictionary
+	 *            the dictionary the following strings are encoded with. A
+	 *            writing stream stops sampling.
+	 */
+	void setDictionary(TagDictionary dictionary);
+
+	/**
+	 * @return the sampler counting the tags that are written, null when the
+	 *         stream is not sampling
+	 */
+	TagSampler getSampler();
+
+	/**
+	 * Called in front of each element written to the stream, see
+	 * {@link StreamIo#writeFormat(java.io.DataOutput)}.
+	 * 
+	 * @return true for the first element of a writing stream, which writes
+	 *         the dictionary of the context in front. So a file can be read
+	 *         with any context, also when it is appended to another file.
+	 */
+	boolean startElement();
+}
@@ -70,11 +70,41 @@ public final class ExternalizableFilter {
 	public static <T extends Externalizable> void filter(final File sourceFile,
 			final File destFile, final File idFile, final ExternalizableFactory<T> factory,
 			final SourceHandler<T> sourceHandler, final boolean whiteList) throws IOException {
+		filter(sourceFile, destFile, idFile, factory, sourceHandler, whiteList,
+				CodecContext.getDefault());
+	}
+
+	/**
+	 * Like {@link #filter(File, File, File, ExternalizableFactory, SourceHandler, boolean)}
+	 * for files written with the given context
+	 * 
+	 * @param sourceFile
+	 *            File containing the superset of elements that shall be
+	 *            filtered
+	 * @param destFile
+	 *            File where the result shall be stored to
+	 * @param idFile
+	 *            ID File containing the elements that shall be filtered out or
+	 *            in depending on the whiteList parameter
+	 * @param factory
+	 *            Factory constructing elements of Type T
+	 * @param sourceHandler
+	 *            handler that evaluates the ID from the source elements
+	 * @param whiteList
+	 *            true when whiteList filtering shall be done
+	 * @param context
+	 *            context of the source and the destination file
+	 * @throws IOException
+	 */
+	public static <T extends Externalizable> void filter(final File sourceFile,
+			final File destFile, final File idFile, final ExternalizableFactory<T> factory,
+			final SourceHandler<T> sourceHandler, final boolean whiteList,
+			final CodecContext context) throws IOException {
 		final ExternalizableIterator<T> sourceIter = new ExternalizableIterator<>(sourceFile,
-				factory);
+				factory, context);
 		final ExternalizableIterator<ID> idIter = new ExternalizableIterator<>(idFile,
-				new IDFactory());
-		final ExternalizableWriter<T> destWriter = new ExternalizableWriter<>(destFile);
+				new IDFactory(), context);
+		final ExternalizableWriter<T> destWriter = new ExternalizableWriter<>(destFile, context);
 		ID id = idIter.hasNext() ? idIter.next() : null;
 		T source = sourceIter.hasNext() ? sourceIter.next() : null;
 		while (!(id == null || source == null)) {
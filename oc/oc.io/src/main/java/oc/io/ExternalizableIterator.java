@@ -24,8 +24,10 @@ import java.io.Externalizable;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.FilterInputStream;
 import java.io.InputStream;
 import java.io.ObjectInputStream;
+import java.io.ObjectStreamConstants;
 import java.io.StreamCorruptedException;
 
 import oc.io.base.DecoupledInputStream;
@@ -35,20 +37,31 @@ import oc.io.base.DecoupledInputStream;
  * It offers a classic Iterator signature to easily consuming the object. When
  * the end of the file or the inputstream is reached it is automatically closed.
  * When there is no need to consume all contained objects the stream can also be
- * closed using the close method.
+ * closed using the close method. The strings are decoded with the dictionary
+ * found in the file, see {@link StreamIo}.
+ * 
+ * The iterator knows the position of the next element in the file, so an
+ * iteration over a file can be continued later on without reading the elements
+ * in front of it again, see {@link #getPosition()}.
  * 
  * @author oliver
  */
 public class ExternalizableIterator<T extends Externalizable> {
 
-	private final ObjectInputStream ois;
+	private final HeaderlessObjectInput ois;
 	private T next = null;
 	private boolean brOpen = true;
 	private final ExternalizableFactory<T> factory;
 	private final DecoupledInputStream dIn;
+	private final BlockTrackingInputStream tracker;
+	private long nextBlock = 0;
+	private int nextSkip = 0;
+	private long nextOffset = 0;
+	private TagDictionary nextDictionary;
 
 	/**
-	 * Constructor for iterating over file containing Externalizables.
+	 * Constructor for iterating over file containing Externalizables written
+	 * with the default context.
 	 * 
 	 * @param f
 	 *            File containing Externalizable object representations.
@@ -59,11 +72,29 @@ public class ExternalizableIterator<T extends Externalizable> {
 	 */
 	public ExternalizableIterator(final File f, final ExternalizableFactory<T> factory)
 			throws IOException {
-		this(new FileInputStream(f), factory);
+		this(f, factory, CodecContext.getDefault());
 	}
 
 	/**
-	 * Constructor for iterating over an InputStream
+	 * Constructor for iterating over file containing Externalizables.
+	 * 
+	 * @param f
+	 *            File containing Externalizable object representations.
+	 * @param factory
+	 *            Factory constructing the concrete implementation of the
+	 *            Externalizable
+	 * @param context
+	 *            encoding of the strings the file was written with
+	 * @throws IOException
+	 */
+	public ExternalizableIterator(final File f, final ExternalizableFactory<T> factory,
+			final CodecContext context) throws IOException {
+		this(new FileInputStream(f), factory, context);
+	}
+
+	/**
+	 * Constructor for iterating over an InputStream written with the default
+	 * context
 	 * 
 	 * @param in
 	 *            InputStream containing Externalizable object representations.
@@ -74,14 +105,91 @@ public class ExternalizableIterator<T extends Externalizable> {
 	 */
 	public ExternalizableIterator(final InputStream in, final ExternalizableFactory<T> factory)
 			throws IOException {
-		dIn = new DecoupledInputStream(in);
-		final ObjectInputStream tempOis = new HeaderlessObjectInput(dIn);
+		this(in, factory, CodecContext.getDefault());
+	}
+
+	/**
+	 * Constructor for iterating over an InputStream
+	 * 
+	 * @param in
+	 *            InputStream containing Externalizable object representations.
+	 * @param factory
+	 *            Factory constructing the concrete implementation of the
+	 *            Externalizable
+	 * @param context
+	 *            encoding of the strings the stream was written with
+	 * @throws IOException
+	 */
+	public ExternalizableIterator(final InputStream in, final ExternalizableFactory<T> factory,
+			final CodecContext context) throws IOException {
+		this(in, factory, context, null);
+	}
+
+	/**
+	 * Constructor for continuing an iteration over a file at a position
+	 * returned by {@link #getPosition()}. The elements in front of it are not
+	 * read.
+	 * 
+	 * @param f
+	 *            File containing Externalizable object representations.
+	 * @param factory
+	 *            Factory constructing the concrete implementation of the
+	 *            Externalizable
+	 * @param context
+	 *            encoding of the strings the file was written with
+	 * @param position
+	 *            position of the first element that shall be returned
+	 * @throws IOException
+	 */
+	ExternalizableIterator(final File f, final ExternalizableFactory<T> factory,
+			final CodecContext context, final Position position) throws IOException {
+		this(open(f, position), factory, context, position);
+	}
+
+	/**
+	 * @param in
+	 *            InputStream containing Externalizable object representations,
+	 *            already at the block of the position
+	 * @param factory
+	 *            Factory constructing the concrete implementation of the
+	 *            Externalizable
+	 * @param context
+	 *            encoding of the strings the stream was written with
+	 * @param position
+	 *            position of the first element or null for the beginning of
+	 *            the stream
+	 * @throws IOException
+	 */
+	private ExternalizableIterator(final InputStream in, final ExternalizableFactory<T> factory,
+			final CodecContext context, final Position position) throws IOException {
+		dIn = new DecoupledInputStream(in, context.getMemoryBudget());
+		tracker = new BlockTrackingInputStream(dIn, position == null ? 0 : position.block);
+		ois = new HeaderlessObjectInput(tracker, context);
 		this.factory = factory;
 		brOpen = true;
-		ois = tempOis;
+		if (position != null) {
+			ois.setDictionary(position.dictionary);
+			ois.skipBytes(position.skip);
+		}
 		next = findNext();
 	}
 
+	/**
+	 * @param f
+	 *            the file
+	 * @param position
+	 *            position the iteration starts at or null
+	 * @return stream of the file starting at the block of the position
+	 * @throws IOException
+	 */
+	private static InputStream open(final File f, final Position position) throws IOException {
+		final FileInputStream in = new FileInputStream(f);
+		if (position != null) {
+			in.getChannel().position(position.block);
+		}
+		return in;
+	}
+
 	/**
 	 * @return true when there is at least one element that can be returned
 	 *         calling next
@@ -103,22 +211,47 @@ public class ExternalizableIterator<T extends Externalizable> {
 	}
 
 	/**
-	 * Finds the next element in the stream.
+	 * @return the position of the element returned by the next call of next()
+	 *         for continuing the iteration later on
+	 */
+	Position getPosition() {
+		return new Position(nextBlock, nextSkip, nextDictionary);
+	}
+
+	/**
+	 * @return offset of the element returned by the next call of next() in the
+	 *         file or stream, the end of it when there is no next element
+	 */
+	long getOffset() {
+		return nextOffset;
+	}
+
+	/**
+	 * Finds the next element in the stream. Only a file ending in front of an
+	 * element ends the iteration, a file ending within an element or corrupt
+	 * data are reported. The stream is closed then.
 	 * 
 	 * @return null when there are no more elements available
+	 * @throws EOFException
+	 *             when the file ends within an element
 	 * @throws IOException
+	 *             when the element cannot be read
 	 */
 	private T findNext() throws IOException {
 		T ret = null;
 		try {
 			if (brOpen) {
 				ret = factory.construct();
+				markPosition();
 				try {
 					ret.readExternal(ois);
 				} catch (final EOFException eof) {
-					ret = null;
-				} catch (final IOException e) {
-					e.printStackTrace();
+					if (tracker.getPosition() != nextOffset) {
+						final EOFException truncated = new EOFException(
+								"File ends within the element at offset " + nextOffset);
+						truncated.initCause(eof);
+						throw truncated;
+					}
 					ret = null;
 				}
 				if (ret == null) {
@@ -127,12 +260,49 @@ public class ExternalizableIterator<T extends Externalizable> {
 				}
 
 			}
+		} catch (final IOException e) {
+			close(e);
+			throw e;
 		} catch (final Exception e) {
+			close(e);
 			throw new IOException("Error reading next", e);
 		}
 		return ret;
 	}
 
+	/**
+	 * Closes the stream after a failure
+	 * 
+	 * @param failure
+	 *            the failure, a failure of closing is added to it
+	 */
+	private void close(final Exception failure) {
+		try {
+			close();
+		} catch (final IOException e) {
+			failure.addSuppressed(e);
+		}
+	}
+
+	/**
+	 * Remembers the position of the element that is read next. The bytes the
+	 * ObjectInputStream has buffered are part of the block the tracker is in.
+	 * 
+	 * @throws IOException
+	 */
+	private void markPosition() throws IOException {
+		final int buffered = ois.available();
+		nextOffset = tracker.getPosition() - buffered;
+		if (buffered == 0 && tracker.isBetweenBlocks()) {
+			nextBlock = tracker.getPosition();
+			nextSkip = 0;
+		} else {
+			nextBlock = tracker.getBlockStart();
+			nextSkip = (int) (tracker.getPosition() - buffered - tracker.getDataStart());
+		}
+		nextDictionary = ois.getDictionary();
+	}
+
 	/**
 	 * Closes the underlaying stream when no more objects are needed. Its not
 	 * necessary to call this method when the iterator is called until hasNext
@@ -145,20 +315,215 @@ public class ExternalizableIterator<T extends Externalizable> {
 		brOpen = false;
 	}
 
+	/**
+	 * Position of an element in a file. The ObjectOutputStream of the
+	 * ExternalizableWriter packs the elements into blocks of data, so the
+	 * position is the start of a block together with the bytes in this block in
+	 * front of the element. The dictionary the element is encoded with is part
+	 * of the position as well.
+	 * 
+	 * @author oliver
+	 */
+	static final class Position {
+		final long block;
+		final int skip;
+		final TagDictionary dictionary;
+
+		/**
+		 * @param block
+		 *            offset of the block header in the file
+		 * @param skip
+		 *            bytes in the block in front of the element
+		 * @param dictionary
+		 *            the dictionary in use at the element
+		 */
+		Position(final long block, final int skip, final TagDictionary dictionary) {
+			this.block = block;
+			this.skip = skip;
+			this.dictionary = dictionary;
+		}
+	}
+
+	/**
+	 * Stream below the ObjectInputStream that follows the block headers of the
+	 * stream to know in which block the ObjectInputStream is reading. It
+	 * reports no available bytes, so ObjectInputStream.available() returns the
+	 * bytes it has buffered of the current block only.
+	 * 
+	 * @author oliver
+	 */
+	private static class BlockTrackingInputStream extends FilterInputStream {
+		private long position;
+		private long blockStart;
+		private long dataStart;
+		private long dataLeft = 0;
+		private int headerRead = 0;
+		private int headerLength = 0;
+		private long length = 0;
+
+		/**
+		 * @param in
+		 *            the source
+		 * @param position
+		 *            offset of the source in the file
+		 */
+		public BlockTrackingInputStream(final InputStream in, final long position) {
+			super(in);
+			this.position = position;
+			blockStart = position;
+			dataStart = position;
+		}
+
+		/**
+		 * @return offset of the next byte that is read
+		 */
+		public long getPosition() {
+			return position;
+		}
+
+		/**
+		 * @return offset of the header of the current block
+		 */
+		public long getBlockStart() {
+			return blockStart;
+		}
+
+		/**
+		 * @return offset of the first data byte of the current block
+		 */
+		public long getDataStart() {
+			return dataStart;
+		}
+
+		/**
+		 * @return true when the next byte that is read starts a block header
+		 */
+		public boolean isBetweenBlocks() {
+			return dataLeft == 0 && headerRead == 0;
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * 
+		 * @see java.io.FilterInputStream#read()
+		 */
+		@Override
+		public int read() throws IOException {
+			final int b = in.read();
+			if (b >= 0) {
+				track((byte) b);
+			}
+			return b;
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * 
+		 * @see java.io.FilterInputStream#read(byte[], int, int)
+		 */
+		@Override
+		public int read(final byte[] b, final int off, final int len) throws IOException {
+			final int n = in.read(b, off, len);
+			int i = off;
+			while (i < off + n) {
+				if (dataLeft > 0) {
+					final int data = (int) Math.min(dataLeft, off + n - i);
+					dataLeft -= data;
+					position += data;
+					i += data;
+				} else {
+					track(b[i++]);
+				}
+			}
+			return n;
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * 
+		 * @see java.io.FilterInputStream#skip(long)
+		 */
+		@Override
+		public long skip(final long n) throws IOException {
+			// the skipped bytes have to be followed as well
+			final byte[] buffer = new byte[(int) Math.min(n, 1 << 10)];
+			long skipped = 0;
+			while (skipped < n) {
+				final int read = read(buffer, 0, (int) Math.min(n - skipped, buffer.length));
+				if (read < 0) {
+					break;
+				}
+				skipped += read;
+			}
+			return skipped;
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * 
+		 * @see java.io.FilterInputStream#available()
+		 */
+		@Override
+		public int available() throws IOException {
+			return 0;
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * 
+		 * @see java.io.FilterInputStream#markSupported()
+		 */
+		@Override
+		public boolean markSupported() {
+			return false;
+		}
+
+		/**
+		 * Follows a single byte of the stream
+		 * 
+		 * @param b
+		 *            the byte
+		 */
+		private void track(final byte b) {
+			if (dataLeft > 0) {
+				dataLeft--;
+			} else if (headerRead == 0) {
+				blockStart = position;
+				headerLength = b == ObjectStreamConstants.TC_BLOCKDATALONG ? 4 : 1;
+				length = 0;
+				headerRead++;
+			} else {
+				length = length << 8 | b & 0xFF;
+				if (headerRead++ == headerLength) {
+					headerRead = 0;
+					dataLeft = length;
+					dataStart = position + 1;
+				}
+			}
+			position++;
+		}
+	}
+
 	/**
 	 * ObjectInputStream that reads a stream created by the ObjectOutputStream
-	 * within ExternalizableWriter
+	 * within ExternalizableWriter. It keeps the dictionary of the file.
 	 * 
 	 * @author oliver
 	 */
-	private static class HeaderlessObjectInput extends ObjectInputStream {
+	private static class HeaderlessObjectInput extends ObjectInputStream implements
+			DictionaryStream {
+		private final CodecContext context;
+		private TagDictionary dictionary;
 
 		/**
 		 * @param in
 		 * @throws IOException
 		 */
-		public HeaderlessObjectInput(final InputStream in) throws IOException {
+		public HeaderlessObjectInput(final InputStream in, final CodecContext context)
+				throws IOException {
 			super(in);
+			this.context = context;
+			dictionary = context.getDictionary();
 		}
 
 		/*
@@ -170,5 +535,56 @@ public class ExternalizableIterator<T extends Externalizable> {
 		protected void readStreamHeader() throws IOException, StreamCorruptedException {
 			// ExternalizableWriter is not writing an ObjectInputStream Header
 		}
+
+		/*
+		 * (non-Javadoc)
+		 * 
+		 * @see oc.io.DictionaryStream#getContext()
+		 */
+		@Override
+		public CodecContext getContext() {
+			return context;
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * 
+		 * @see oc.io.DictionaryStream#getDictionary()
+		 */
+		@Override
+		public TagDictionary getDictionary() {
+			return dictionary;
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * 
+		 * @see oc.io.DictionaryStream#setDictionary(oc.io.TagDictionary)
+		 */
+		@Override
+		public void setDictionary(final TagDictionary dictionary) {
+			this.dictionary = dictionary;
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * 
+		 * @see oc.io.DictionaryStream#getSampler()
+		 */
+		@Override
+		public TagSampler getSampler() {
+			// only written files are sampled
+			return null;
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * 
+		 * @see oc.io.DictionaryStream#startElement()
+		 */
+		@Override
+		public boolean startElement() {
+			return false;
+		}
 	}
 }
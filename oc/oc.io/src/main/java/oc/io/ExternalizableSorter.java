@@ -19,17 +19,36 @@
  */
 package oc.io;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
 import java.io.Externalizable;
 import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 import java.util.ArrayList;
+import java.util.Base64;
 import java.util.Comparator;
 import java.util.Deque;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Properties;
 import java.util.Set;
 import java.util.TreeSet;
 
+import oc.io.ExternalizableIterator.Position;
+import oc.io.base.FileSignature;
+import oc.io.base.MemoryBudget;
+import oc.io.base.MemoryBudget.Reservation;
+import oc.io.base.MemoryBudget.Spillable;
+
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
@@ -39,6 +58,20 @@ import org.apache.logging.log4j.Logger;
  * implement Comparable. This sorter works like a TreeSet, there will not be 2
  * elements in the resulting file where the comparator says that they are equal.
  * 
+ * When a checkpoint file is set, the sorter records its progress there after
+ * each stored first level file and after each merge. A sorter that is started
+ * again with the same checkpoint file continues where the last one stopped,
+ * instead of sorting the complete file again. The position of the first
+ * element that is not stored yet is part of the progress, so the elements in
+ * front of it are not read again.
+ * 
+ * The size of the first level files is limited by the memory the sorter gets
+ * from its {@link MemoryBudget}, the one of its {@link CodecContext} unless
+ * another one is set. The heap size of the elements is estimated
+ * with a {@link SizeEstimator}, a file is stored as soon as the estimated size
+ * of its elements reaches the reserved memory or when the budget asks the
+ * sorter to spill.
+ * 
  * @author oliver
  */
 public class ExternalizableSorter<T extends Externalizable> {
@@ -48,12 +81,31 @@ public class ExternalizableSorter<T extends Externalizable> {
 	protected final ExternalizableFactory<T> factory;
 	protected final int maxSize;
 	protected Deque<File> splittedFiles = new LinkedList<>();
-	protected static final int MaxSize = 50000;
-	protected static final int reservoireSize = 20 * 1024 * 1024; // 20 MB
+	private File checkpointFile = null;
+	private String phase = PHASE_PRESORT;
+	private long consumed = 0;
+	private Position position = null;
+	private int runCounter = 0;
+	private static final String PHASE_PRESORT = "presort";
+	private static final String PHASE_MERGE = "merge";
+	private static final String PHASE_FINAL = "final";
+	private MemoryBudget memoryBudget = null;
+	private CodecContext context = CodecContext.getDefault();
+	private volatile boolean spillRequested = false;
+	/**
+	 * The number of elements in first level files is only limited by the
+	 * memory budget
+	 */
+	public static final int UNLIMITED = Integer.MAX_VALUE;
+	/**
+	 * Part of the share of the memory budget the sorter waits for at least
+	 */
+	private static final int MIN_SHARE_DIVISOR = 8;
 	Logger logger = LogManager.getLogger(ExternalizableSorter.class);
 
 	/**
-	 * Constructor for a MergeSorter with DefaulMaxSize first level sorted files
+	 * Constructor for a MergeSorter with first level sorted files only limited
+	 * by the memory budget
 	 * 
 	 * @param f
 	 *            File that shall be sorted. This file will be replaced by a
@@ -67,7 +119,7 @@ public class ExternalizableSorter<T extends Externalizable> {
 	 */
 	public ExternalizableSorter(final File f, final File tempDir,
 			final ExternalizableFactory<T> factory, final Comparator<T> comparator) {
-		this(f, tempDir, factory, comparator, MaxSize);
+		this(f, tempDir, factory, comparator, UNLIMITED);
 	}
 
 	/**
@@ -83,8 +135,9 @@ public class ExternalizableSorter<T extends Externalizable> {
 	 * @param comparator
 	 *            Comparator that shall be used for sorting
 	 * @param maxSize
-	 *            Size of the first generated files. Note: the bigger this
-	 *            number is, the faster the sorter will work.
+	 *            Maximum number of elements in the first generated files. Note:
+	 *            the bigger this number is, the faster the sorter will work.
+	 *            The memory budget may limit the files further.
 	 */
 	public ExternalizableSorter(final File f, final File tempDir,
 			final ExternalizableFactory<T> factory, final Comparator<T> comparator,
@@ -105,8 +158,8 @@ public class ExternalizableSorter<T extends Externalizable> {
 	 * @throws IOException
 	 */
 	protected void storeToTempFile(final Set<T> data) throws IOException {
-		final File nextFile = File.createTempFile("merge", "dat", tempDir);
-		final ExternalizableWriter<T> writer = new ExternalizableWriter<>(nextFile);
+		final File nextFile = nextRunFile();
+		final ExternalizableWriter<T> writer = new ExternalizableWriter<>(nextFile, context);
 		for (final T t : data) {
 			writer.writeExternalizable(t);
 		}
@@ -114,29 +167,56 @@ public class ExternalizableSorter<T extends Externalizable> {
 		splittedFiles.add(nextFile);
 	}
 
-	private int preSortSingleFile(final ExternalizableIterator<T> iter, final int max)
-			throws IOException {
+	/**
+	 * @param budget
+	 *            the budget the sorter reserves the memory for the first level
+	 *            files from instead of the one of the context
+	 */
+	public void setMemoryBudget(final MemoryBudget budget) {
+		this.memoryBudget = budget;
+	}
+
+	/**
+	 * @param context
+	 *            encoding of the strings in the sorted file and the
+	 *            intermediate files
+	 */
+	public void setCodecContext(final CodecContext context) {
+		this.context = context;
+	}
+
+	private void preSortSingleFile(final ExternalizableIterator<T> iter,
+			final Reservation reservation) throws IOException {
 		final TreeSet<T> preSorter = new TreeSet<>(comparator);
-		int counter = 0;
+		final SizeEstimator<T> estimator = new SizeEstimator<>();
+		long bytes = 0;
+		long counter = 0;
 		while (iter.hasNext()) {
 			counter++;
-			preSorter.add(iter.next());
-			if (preSorter.size() >= max) {
+			final T element = iter.next();
+			bytes += estimator.estimate(element);
+			preSorter.add(element);
+			if (preSorter.size() >= maxSize || bytes >= reservation.getBytes() || spillRequested) {
 				storeToTempFile(preSorter);
 				preSorter.clear();
+				consumed += counter;
+				position = iter.getPosition();
+				counter = 0;
+				bytes = 0;
+				saveCheckpoint();
+				if (spillRequested) {
+					// continue with smaller files to leave memory for others
+					spillRequested = false;
+					reservation.shrink(reservation.getBytes() / 2);
+				}
 			}
 		}
 		if (!preSorter.isEmpty()) {
 			storeToTempFile(preSorter);
 			preSorter.clear();
-		}
-		return counter;
-	}
-
-	private void prepareIterator(final ExternalizableIterator<T> iter, final int count)
-			throws IOException {
-		for (int i = 0; i < count && iter.hasNext(); ++i) {
-			iter.next();
+			consumed += counter;
+			position = iter.getPosition();
+			saveCheckpoint();
 		}
 	}
 
@@ -145,27 +225,34 @@ public class ExternalizableSorter<T extends Externalizable> {
 	 * 
 	 * @throws IOException
 	 */
-	@SuppressWarnings("PMD.AvoidInstantiatingObjectsInLoops")
 	protected void presortFile() throws IOException {
-		ExternalizableIterator<T> iter = new ExternalizableIterator<>(f, factory);
-		int counter = 0;
-		int max = maxSize;
-		while (iter.hasNext() && max > 0) {
-			try {
-				counter += preSortSingleFile(iter, max);
-			} catch (final OutOfMemoryError error) {
-				iter.close();
-				if (counter > 0) {
-					iter = new ExternalizableIterator<>(f, factory);
-				}
-				prepareIterator(iter, counter);
-				max = max >>> 1;
-				logger.warn(
-						"Out of Memory Exception occured. Reduce Max Elements in pre sorted files to {} elements",
-						max);
+		final MemoryBudget budget = this.memoryBudget == null ? context.getMemoryBudget()
+				: this.memoryBudget;
+		final long share = budget.getShare();
+		final Reservation reservation;
+		try {
+			reservation = budget.reserve(share, share / MIN_SHARE_DIVISOR);
+		} catch (final InterruptedException e) {
+			throw new InterruptedIOException("Interrupted while waiting for memory");
+		}
+		final Spillable spillable = new Spillable() {
+			@Override
+			public void spill(final long bytes) {
+				spillRequested = true;
 			}
+		};
+		budget.addSpillable(spillable);
+		// continue behind the elements that are already stored to first level
+		// files
+		final ExternalizableIterator<T> iter = position == null ? new ExternalizableIterator<>(f,
+				factory, context) : new ExternalizableIterator<>(f, factory, context, position);
+		try {
+			preSortSingleFile(iter, reservation);
+		} finally {
+			budget.removeSpillable(spillable);
+			reservation.release();
+			iter.close();
 		}
-		iter.close();
 	}
 
 	/**
@@ -183,9 +270,9 @@ public class ExternalizableSorter<T extends Externalizable> {
 	 */
 	protected void mergeTwoFiles(final File dest, final File source1, final File source2)
 			throws IOException {
-		final ExternalizableWriter<T> writer = new ExternalizableWriter<>(dest);
-		final ExternalizableIterator<T> iter1 = new ExternalizableIterator<>(source1, factory);
-		final ExternalizableIterator<T> iter2 = new ExternalizableIterator<>(source2, factory);
+		final ExternalizableWriter<T> writer = new ExternalizableWriter<>(dest, context);
+		final ExternalizableIterator<T> iter1 = new ExternalizableIterator<>(source1, factory, context);
+		final ExternalizableIterator<T> iter2 = new ExternalizableIterator<>(source2, factory, context);
 		T element1 = iter1.hasNext() ? iter1.next() : null;
 		T element2 = iter2.hasNext() ? iter2.next() : null;
 		while (!(element1 == null || element2 == null)) {
@@ -217,11 +304,11 @@ public class ExternalizableSorter<T extends Externalizable> {
 
 	@SuppressWarnings("PMD.AvoidInstantiatingObjectsInLoops")
 	protected void mergeManyFiles(final File dest, final List<File> source) throws IOException {
-		final ExternalizableWriter<T> writer = new ExternalizableWriter<>(dest);
+		final ExternalizableWriter<T> writer = new ExternalizableWriter<>(dest, context);
 		final TreeSet<SortNode> sortedSet = new TreeSet<>();
 		final List<ExternalizableIterator<T>> iters = new ArrayList<>();
 		for (final File file : source) {
-			final ExternalizableIterator<T> iter = new ExternalizableIterator<>(file, factory);
+			final ExternalizableIterator<T> iter = new ExternalizableIterator<>(file, factory, context);
 			iters.add(iter);
 			final SortNode set = new SortNode(iter);
 			while (set.hasNext() && sortedSet.contains(set)) {
@@ -250,6 +337,22 @@ public class ExternalizableSorter<T extends Externalizable> {
 		writer.close();
 	}
 
+	/**
+	 * Merges files that are sorted with the comparator of the sorter already
+	 * into the file of the sorter, instead of sorting them again. Like the
+	 * sort, elements the comparator says are equal are written once.
+	 * 
+	 * @param sorted
+	 *            the sorted files. They are deleted afterwards.
+	 * @throws IOException
+	 */
+	public void merge(final List<File> sorted) throws IOException {
+		mergeManyFiles(f, sorted);
+		for (final File file : sorted) {
+			file.delete();
+		}
+	}
+
 	/**
 	 * Processes the complete sorting algorithm
 	 * 
@@ -257,7 +360,12 @@ public class ExternalizableSorter<T extends Externalizable> {
 	 */
 	@SuppressWarnings("PMD.AvoidInstantiatingObjectsInLoops")
 	public void process() throws IOException {
-		presortFile();
+		loadCheckpoint();
+		if (PHASE_PRESORT.equals(phase)) {
+			presortFile();
+			phase = PHASE_MERGE;
+			saveCheckpoint();
+		}
 		while (splittedFiles.size() > 2) {
 			logger.debug("Still {} files left", splittedFiles.size());
 			final List<File> files = new ArrayList<>();
@@ -265,16 +373,25 @@ public class ExternalizableSorter<T extends Externalizable> {
 				files.add(splittedFiles.pollFirst());
 			}
 			if (splittedFiles.isEmpty()) {
+				splittedFiles.addAll(files);
+				phase = PHASE_FINAL;
+				saveCheckpoint();
+				splittedFiles.clear();
 				mergeManyFiles(f, files);
 			} else {
-				final File dest = File.createTempFile("merge", "dat", tempDir);
+				final File dest = nextRunFile();
 				mergeManyFiles(dest, files);
 				splittedFiles.addLast(dest);
+				saveCheckpoint();
 			}
 			for (final File file : files) {
 				file.delete();
 			}
 		}
+		if (!splittedFiles.isEmpty()) {
+			phase = PHASE_FINAL;
+			saveCheckpoint();
+		}
 		if (splittedFiles.size() == 2) {
 			final File source1 = splittedFiles.pollFirst();
 			final File source2 = splittedFiles.pollFirst();
@@ -283,8 +400,8 @@ public class ExternalizableSorter<T extends Externalizable> {
 			source2.delete();
 		} else if (splittedFiles.size() == 1) {
 			final File source1 = splittedFiles.pollFirst();
-			final ExternalizableWriter<T> writer = new ExternalizableWriter<>(f);
-			final ExternalizableIterator<T> iter = new ExternalizableIterator<>(source1, factory);
+			final ExternalizableWriter<T> writer = new ExternalizableWriter<>(f, context);
+			final ExternalizableIterator<T> iter = new ExternalizableIterator<>(source1, factory, context);
 			while (iter.hasNext()) {
 				writer.writeExternalizable(iter.next());
 			}
@@ -292,6 +409,191 @@ public class ExternalizableSorter<T extends Externalizable> {
 			source1.delete();
 			iter.close();
 		}
+		if (checkpointFile != null) {
+			checkpointFile.delete();
+		}
+	}
+
+	/**
+	 * Enables resuming an interrupted sort. The progress is stored in the
+	 * given file and the first level files get names derived from it. When the
+	 * file already contains the progress of an interrupted sort of the same
+	 * source, process() continues this sort. The file is deleted when the sort
+	 * is finished.
+	 * 
+	 * @param checkpointFile
+	 *            file for storing the progress, null disables checkpoints
+	 */
+	public void setCheckpointFile(final File checkpointFile) {
+		this.checkpointFile = checkpointFile;
+	}
+
+	/**
+	 * @return the file for the next first level or merge result
+	 * @throws IOException
+	 */
+	private File nextRunFile() throws IOException {
+		if (checkpointFile == null) {
+			return File.createTempFile("merge", "dat", tempDir);
+		}
+		return new File(tempDir, checkpointFile.getName() + ".run" + runCounter++);
+	}
+
+	/**
+	 * Stores the current progress to the checkpoint file. The file is replaced
+	 * atomically, so there is always a consistent state on disk.
+	 * 
+	 * @throws IOException
+	 */
+	private void saveCheckpoint() throws IOException {
+		if (checkpointFile == null) {
+			return;
+		}
+		final Properties state = new Properties();
+		if (!PHASE_FINAL.equals(phase)) {
+			state.setProperty("source", FileSignature.of(f));
+		}
+		state.setProperty("phase", phase);
+		state.setProperty("consumed", Long.toString(consumed));
+		if (position != null) {
+			state.setProperty("block", Long.toString(position.block));
+			state.setProperty("skip", Integer.toString(position.skip));
+			if (position.dictionary != context.getDictionary()) {
+				state.setProperty("dictionary", encode(position.dictionary));
+			}
+		}
+		state.setProperty("runCounter", Integer.toString(runCounter));
+		final StringBuilder runs = new StringBuilder();
+		for (final File run : splittedFiles) {
+			if (runs.length() > 0) {
+				runs.append(',');
+			}
+			runs.append(run.getName());
+		}
+		state.setProperty("runs", runs.toString());
+		final File tempFile = new File(checkpointFile.getPath() + ".tmp");
+		try (OutputStream out = new FileOutputStream(tempFile)) {
+			state.store(out, "ExternalizableSorter checkpoint");
+		}
+		Files.move(tempFile.toPath(), checkpointFile.toPath(),
+				StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+	}
+
+	/**
+	 * Restores the progress of an interrupted sort from the checkpoint file.
+	 * Nothing is restored, when the source file was changed since or first
+	 * level files are missing.
+	 * 
+	 * @throws IOException
+	 */
+	private void loadCheckpoint() throws IOException {
+		if (checkpointFile == null || !checkpointFile.isFile()) {
+			return;
+		}
+		final Properties state = readCheckpoint(checkpointFile);
+		final String storedPhase = state.getProperty("phase", PHASE_PRESORT);
+		final List<File> runs = getRuns(state, tempDir);
+		boolean valid = PHASE_FINAL.equals(storedPhase)
+				|| String.valueOf(FileSignature.of(f)).equals(state.getProperty("source"));
+		for (final File run : runs) {
+			valid &= run.isFile();
+		}
+		if (valid) {
+			phase = storedPhase;
+			consumed = Long.parseLong(state.getProperty("consumed", "0"));
+			runCounter = Integer.parseInt(state.getProperty("runCounter", "0"));
+			if (state.containsKey("block")) {
+				final String dictionary = state.getProperty("dictionary");
+				position = new Position(Long.parseLong(state.getProperty("block")),
+						Integer.parseInt(state.getProperty("skip", "0")),
+						dictionary == null ? context.getDictionary() : decode(dictionary));
+			}
+			splittedFiles.addAll(runs);
+			logger.info("Resume sorting of {} in phase {} with {} sorted files after {} elements",
+					f, phase, runs.size(), consumed);
+		} else {
+			logger.info("Checkpoint of {} is outdated, sort from the beginning", f);
+			for (final File run : runs) {
+				run.delete();
+			}
+			checkpointFile.delete();
+		}
+	}
+
+	/**
+	 * @param dictionary
+	 *            dictionary of the position
+	 * @return the dictionary as text for the checkpoint file
+	 * @throws IOException
+	 */
+	private static String encode(final TagDictionary dictionary) throws IOException {
+		final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		final DataOutputStream out = new DataOutputStream(bytes);
+		dictionary.write(out);
+		out.flush();
+		return Base64.getEncoder().encodeToString(bytes.toByteArray());
+	}
+
+	/**
+	 * @param text
+	 *            dictionary from the checkpoint file
+	 * @return the dictionary
+	 * @throws IOException
+	 */
+	private static TagDictionary decode(final String text) throws IOException {
+		return TagDictionary.read(new DataInputStream(new ByteArrayInputStream(Base64
+				.getDecoder().decode(text))));
+	}
+
+	/**
+	 * @param checkpointFile
+	 *            the checkpoint file
+	 * @return the stored progress
+	 * @throws IOException
+	 */
+	private static Properties readCheckpoint(final File checkpointFile) throws IOException {
+		final Properties state = new Properties();
+		try (InputStream in = new FileInputStream(checkpointFile)) {
+			state.load(in);
+		}
+		return state;
+	}
+
+	/**
+	 * @param state
+	 *            the stored progress
+	 * @param tempDir
+	 *            directory containing the sorted files
+	 * @return the sorted files listed in the progress
+	 */
+	private static List<File> getRuns(final Properties state, final File tempDir) {
+		final List<File> runs = new ArrayList<>();
+		for (final String run : state.getProperty("runs", "").split(",")) {
+			if (!run.isEmpty()) {
+				runs.add(new File(tempDir, run));
+			}
+		}
+		return runs;
+	}
+
+	/**
+	 * Deletes the progress of an interrupted sort together with its sorted
+	 * files, when the results of it must not be used any more.
+	 * 
+	 * @param checkpointFile
+	 *            the checkpoint file
+	 * @param tempDir
+	 *            directory containing the sorted files
+	 * @throws IOException
+	 */
+	public static void discardCheckpoint(final File checkpointFile, final File tempDir)
+			throws IOException {
+		if (checkpointFile.isFile()) {
+			for (final File run : getRuns(readCheckpoint(checkpointFile), tempDir)) {
+				run.delete();
+			}
+			checkpointFile.delete();
+		}
 	}
 
 	/**
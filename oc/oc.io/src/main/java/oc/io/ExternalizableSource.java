@@ -0,0 +1,114 @@
+/**
+ * Copyright (C) 2026 Oliver Schünemann
+ * 
+ * This program is free software; you can redistribute it and/or modify it under the terms of the 
+ * GNU General Public License as published by the Free Software Foundation; either version 2 of 
+ * the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; 
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. 
+ * See the GNU General Public License for more details. 
+ * 
+ * You should have received a copy of the GNU General Public License along with this program; 
+ * if not, write to the Free Software Foundation, Inc., 51 Franklin St, Fifth Floor, 
+ * Boston, MA 02110, USA 
+ * 
+ * @since 19.10.2026
+ * @version 1.0
+ * @author oliver
+ */
+package oc.io;
+
+import java.io.Externalizable;
+import java.io.File;
+import java.io.IOException;
+
+import oc.io.ReferenceResolver.ReferedHandler;
+
+/**
+ * Source of Many instances read from a file written by an
+ * ExternalizableWriter.
+ *
+ * @author oliver
+ */
+class ExternalizableSource<Many extends Externalizable> implements ManySource<Many> {
+	private final File manyFile;
+	private final ExternalizableFactory<Many> manyFactory;
+	private final ReferedHandler<Many> manyHandler;
+	private final CodecContext context;
+
+	/**
+	 * @param manyFile
+	 *            the file containing the many side instances sorted by id
+	 * @param manyFactory
+	 *            Factory constructing Many instances
+	 * @param manyHandler
+	 *            handler returning the ids of the Many instances
+	 * @param context
+	 *            context the file was written with
+	 */
+	ExternalizableSource(final File manyFile, final ExternalizableFactory<Many> manyFactory,
+			final ReferedHandler<Many> manyHandler, final CodecContext context) {
+		super();
+		this.manyFile = manyFile;
+		this.manyFactory = manyFactory;
+		this.manyHandler = manyHandler;
+		this.context = context;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see oc.io.ManySource#open(long)
+	 */
+	@Override
+	public Cursor<Many> open(final long fromId) throws IOException {
+		final ExternalizableIterator<Many> iterator = new ExternalizableIterator<>(manyFile,
+				manyFactory, context);
+		// the first instance not skipped is kept for the first call of next
+		Many first = null;
+		while (first == null && iterator.hasNext()) {
+			final Many many = iterator.next();
+			if (manyHandler.getId(many) >= fromId) {
+				first = many;
+			}
+		}
+		final Many pending = first;
+		return new Cursor<Many>() {
+			private Many next = pending;
+			private Many current = null;
+
+			@Override
+			public boolean next() throws IOException {
+				current = next;
+				next = iterator.hasNext() ? iterator.next() : null;
+				return current != null;
+			}
+
+			@Override
+			public boolean skipTo(final long id) throws IOException {
+				// without an index the instances in front of the id are read
+				boolean found = next();
+				while (found && getId() < id) {
+					found = next();
+				}
+				return found;
+			}
+
+			@Override
+			public long getId() {
+				return manyHandler.getId(current);
+			}
+
+			@Override
+			public Many get() {
+				return current;
+			}
+
+			@Override
+			public void close() throws IOException {
+				iterator.close();
+			}
+		};
+	}
+}
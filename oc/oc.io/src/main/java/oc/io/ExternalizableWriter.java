@@ -27,22 +27,28 @@ import java.io.IOException;
 import java.io.ObjectOutputStream;
 import java.io.OutputStream;
 
-import org.apache.logging.log4j.LogManager;
-import org.apache.logging.log4j.Logger;
+import oc.io.base.MemoryBudget;
+import oc.io.base.MemoryBudget.Reservation;
 
 /**
  * Writer that writes Objects derived from Externalizable to a file or an
  * OutputStream. Files written with this Writer can be read using
- * ExternalizableIterator.
+ * ExternalizableIterator. The write buffer is reserved from the
+ * {@link MemoryBudget} of the context and given back when the writer is closed. The writer
+ * samples the tags of the first elements and encodes the rest of the file with
+ * a dictionary built from them, see {@link StreamIo}.
  * 
  * @author oliver
  */
 public class ExternalizableWriter<T extends Externalizable> {
 	private final ObjectOutputStream oos;
-	private final Logger logger = LogManager.getLogger(ExternalizableWriter.class);
+	private final Reservation buffer;
+	private static final int BUFFER_SIZE = 1 << 20;
+	private static final int MIN_BUFFER_SIZE = 1 << 12;
 
 	/**
-	 * Constructor for writing Externalizable Objects to a File.
+	 * Constructor for writing Externalizable Objects to a File with the
+	 * default context.
 	 * 
 	 * @param f
 	 *            File that is used for writing Externalizables to. An existing
@@ -50,31 +56,49 @@ public class ExternalizableWriter<T extends Externalizable> {
 	 * @throws IOException
 	 */
 	public ExternalizableWriter(final File f) throws IOException {
-		this(new FileOutputStream(f));
+		this(f, CodecContext.getDefault());
 	}
 
 	/**
-	 * Constructor for writing the Externalizable Objects to any OutputStream.
+	 * Constructor for writing Externalizable Objects to a File.
+	 * 
+	 * @param f
+	 *            File that is used for writing Externalizables to. An existing
+	 *            file will be overwritten.
+	 * @param context
+	 *            encoding of the strings
+	 * @throws IOException
+	 */
+	public ExternalizableWriter(final File f, final CodecContext context) throws IOException {
+		this(new FileOutputStream(f), context);
+	}
+
+	/**
+	 * Constructor for writing the Externalizable Objects to any OutputStream
+	 * with the default context.
 	 * 
 	 * @param os
 	 *            destination for the Externalizables.
 	 * @throws IOException
 	 */
 	public ExternalizableWriter(final OutputStream os) throws IOException {
-		ObjectOutputStream tempOos = null;
-		int size = 20;
-		while (tempOos == null && size > 10) {
-			try {
-				tempOos = new HeaderLessObjectOutput(new BufferedOutputStream(os, 1 << size));
-			} catch (final OutOfMemoryError e) {
-				logger.warn("Not enough memory, reduce write cache by half");
-				size--;
-			}
-		}
-		if (tempOos == null) {
-			tempOos = new HeaderLessObjectOutput(os);
-		}
-		this.oos = tempOos;
+		this(os, CodecContext.getDefault());
+	}
+
+	/**
+	 * Constructor for writing the Externalizable Objects to any OutputStream.
+	 * 
+	 * @param os
+	 *            destination for the Externalizables.
+	 * @param context
+	 *            encoding of the strings
+	 * @throws IOException
+	 */
+	public ExternalizableWriter(final OutputStream os, final CodecContext context)
+			throws IOException {
+		buffer = context.getMemoryBudget().reserveNow(BUFFER_SIZE, MIN_BUFFER_SIZE);
+		this.oos = new HeaderLessObjectOutput(new BufferedOutputStream(os,
+				(int) buffer.getBytes()), context);
 	}
 
 	/**
@@ -94,22 +118,36 @@ public class ExternalizableWriter<T extends Externalizable> {
 	 * @throws IOException
 	 */
 	public void close() throws IOException {
-		oos.close();
+		try {
+			oos.close();
+		} finally {
+			buffer.release();
+		}
 	}
 
 	/**
-	 * ObjectOutputStream that is not having a stream header.
+	 * ObjectOutputStream that is not having a stream header. It keeps the
+	 * dictionary of the file.
 	 * 
 	 * @author oliver
 	 */
-	private class HeaderLessObjectOutput extends ObjectOutputStream {
+	private static class HeaderLessObjectOutput extends ObjectOutputStream implements
+			DictionaryStream {
+		private final CodecContext context;
+		private TagDictionary dictionary;
+		private TagSampler sampler;
+		private boolean started = false;
 
 		/**
 		 * @param out
 		 * @throws IOException
 		 */
-		public HeaderLessObjectOutput(final OutputStream out) throws IOException {
+		public HeaderLessObjectOutput(final OutputStream out, final CodecContext context)
+				throws IOException {
 			super(out);
+			this.context = context;
+			dictionary = context.getDictionary();
+			sampler = context.newSampler();
 		}
 
 		/*
@@ -121,5 +159,58 @@ public class ExternalizableWriter<T extends Externalizable> {
 		protected void writeStreamHeader() throws IOException {
 			// Do not write a header, that the stream is connectable .
 		}
+
+		/*
+		 * (non-Javadoc)
+		 * 
+		 * @see oc.io.DictionaryStream#getContext()
+		 */
+		@Override
+		public CodecContext getContext() {
+			return context;
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * 
+		 * @see oc.io.DictionaryStream#getDictionary()
+		 */
+		@Override
+		public TagDictionary getDictionary() {
+			return dictionary;
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * 
+		 * @see oc.io.DictionaryStream#setDictionary(oc.io.TagDictionary)
+		 */
+		@Override
+		public void setDictionary(final TagDictionary dictionary) {
+			this.dictionary = dictionary;
+			sampler = null;
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * 
+		 * @see oc.io.DictionaryStream#getSampler()
+		 */
+		@Override
+		public TagSampler getSampler() {
+			return sampler;
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * 
+		 * @see oc.io.DictionaryStream#startElement()
+		 */
+		@Override
+		public boolean startElement() {
+			final boolean first = !started;
+			started = true;
+			return first;
+		}
 	}
 }
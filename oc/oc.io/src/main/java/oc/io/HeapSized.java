@@ -0,0 +1,36 @@
+/**
+ * Copyright (C) 2026 Oliver Schünemann
+ * 
+ * This program is free software; you can redistribute it and/or modify it under the terms of the 
+ * GNU General Public License as published by the Free Software Foundation; either version 2 of 
+ * the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; 
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. 
+ * See the GNU General Public License for more details. 
+ * 
+ * You should have received a copy of the GNU General Public License along with this program; 
+ * if not, write to the Free Software Foundation, Inc., 51 Franklin St, Fifth Floor, 
+ * Boston, MA 02110, USA 
+ * 
+ * @since 19.10.2026
+ * @version 1.0
+ * @author oliver
+ */
+package oc.io;
+
+/**
+ * Implemented by Externalizables, whose serialized form is no good measure for
+ * their size on the heap, e.g. because they are written in a compact
+ * encoding. The {@link SizeEstimator} asks them instead of measuring the
+ * serialized form.
+ * 
+ * @author oliver
+ */
+public interface HeapSized {
+	/**
+	 * @return estimated amount of heap bytes the instance uses, negative when
+	 *         it is not known, then the serialized form is measured
+	 */
+	long getHeapSize();
+}
@@ -0,0 +1,90 @@
+/**
+ * Copyright (C) 2026 Oliver Schünemann
+ * 
+ * This program is free software; you can redistribute it and/or modify it under the terms of the 
+ * GNU General Public License as published by the Free Software Foundation; either version 2 of 
+ * the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; 
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. 
+ * See the GNU General Public License for more details. 
+ * 
+ * You should have received a copy of the GNU General Public License along with this program; 
+ * if not, write to the Free Software Foundation, Inc., 51 Franklin St, Fifth Floor, 
+ * Boston, MA 02110, USA 
+ * 
+ * @since 19.10.2026
+ * @version 1.0
+ * @author oliver
+ */
+package oc.io;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * The Many side of a reference relation as the resolvers read it. Usually
+ * this is a file of Externalizables, but a source may also keep the instances
+ * in a more compact form and create them only for the ids that are
+ * referenced. The instances must be returned in ascending id order.
+ *
+ * @author oliver
+ *
+ * @param <Many>
+ *            type of the instances
+ */
+public interface ManySource<Many> {
+	/**
+	 * @param fromId
+	 *            the first id of interest
+	 * @return a cursor in front of the first instance with an id not smaller
+	 *         than fromId. Sources without an index read and skip the
+	 *         instances in front of it.
+	 * @throws IOException
+	 *             when reading the source fails
+	 */
+	Cursor<Many> open(long fromId) throws IOException;
+
+	/**
+	 * Walks through the instances of a source.
+	 *
+	 * @author oliver
+	 *
+	 * @param <Many>
+	 *            type of the instances
+	 */
+	interface Cursor<Many> extends Closeable {
+		/**
+		 * Moves to the next instance
+		 *
+		 * @return false when there are no more instances
+		 * @throws IOException
+		 *             when reading the source fails
+		 */
+		boolean next() throws IOException;
+
+		/**
+		 * Moves to the next instance with an id not smaller than the given
+		 * one. Sources with an index do not read the instances in front of
+		 * it.
+		 *
+		 * @param id
+		 *            the id of interest
+		 * @return false when there are no more instances
+		 * @throws IOException
+		 *             when reading the source fails
+		 */
+		boolean skipTo(long id) throws IOException;
+
+		/**
+		 * @return the id of the current instance
+		 */
+		long getId();
+
+		/**
+		 * @return the current instance. It may be reused for the following
+		 *         ones, so it must not be kept after the next call of next.
+		 */
+		Many get();
+	}
+}
@@ -0,0 +1,498 @@
+/**
+ * Copyright (C) 2026 Oliver Schünemann
+ * 
+ * This program is free software; you can redistribute it and/or modify it under the terms of the 
+ * GNU General Public License as published by the Free Software Foundation; either version 2 of 
+ * the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; 
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. 
+ * See the GNU General Public License for more details. 
+ * 
+ * You should have received a copy of the GNU General Public License along with this program; 
+ * if not, write to the Free Software Foundation, Inc., 51 Franklin St, Fifth Floor, 
+ * Boston, MA 02110, USA 
+ * 
+ * @since 19.10.2026
+ * @version 1.0
+ * @author oliver
+ */
+package oc.io;
+
+import java.io.Externalizable;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import oc.io.Reference.ReferenceFactory;
+import oc.io.Reference.SortForManyComparator;
+import oc.io.Reference.SortForOneComparator;
+import oc.io.ReferenceResolver.ReferedHandler;
+import oc.io.ReferenceResolver.RefererHandler;
+
+/**
+ * Resolves several one to many reference relations against the same Many
+ * file. Each registered Referer brings its own One file and its own
+ * destination, but the Many file is read only once for all of them. This is
+ * the fused form of {@link ReferenceResolver}, which is a MultiReferenceResolver
+ * with a single Referer.
+ * 
+ * Optionally all Many instances that are not referenced by any of the Referers
+ * can be written to a separate file during the same scan.
+ * 
+ * Instead of a Many file a {@link ManySource} can be given, e.g. a compact
+ * file that creates the Many instances only when they are referenced.
+ * 
+ * The resolving is split into three phases that can also be called one by one:
+ * <ol>
+ * <li>{@link Referer#prepare()} creates the reference file of a Referer and
+ * sorts it for the Many id</li>
+ * <li>{@link #scan()} reads the Many file once and resolves the references of
+ * all Referers</li>
+ * <li>{@link Referer#finish()} sorts the resolved references for the One id and
+ * writes the destination file of a Referer</li>
+ * </ol>
+ * 
+ * With checkpoints enabled the intermediate files of a Referer get names
+ * derived from its destination file. Then the phases can also be run by
+ * different processes one after another, e.g. when a conversion is restarted,
+ * and the sorting of the intermediate files continues where an interrupted
+ * process stopped.
+ * 
+ * @author oliver
+ */
+public class MultiReferenceResolver<Many extends Externalizable> {
+
+	private final File manyFile;
+	private final ManySource<Many> manySource;
+	private final File tempDir;
+	private final ExternalizableFactory<Many> manyFactory;
+	private final ReferedHandler<Many> manyHandler;
+	private final List<Referer<?>> referers = new ArrayList<>();
+	private File unreferencedFile = null;
+	private boolean checkpoints = false;
+	private CodecContext context = CodecContext.getDefault();
+
+	/**
+	 * Constructor storing the configuration of the Many side
+	 * 
+	 * @param manyFile
+	 *            the file containing the many side instances
+	 * @param tempDir
+	 *            a directory to store intermediate results
+	 * @param manyFactory
+	 *            Factory constructing Many instances
+	 * @param manyHandler
+	 *            handler that sets and gets all needed values from the many
+	 *            class
+	 */
+	public MultiReferenceResolver(final File manyFile, final File tempDir,
+			final ExternalizableFactory<Many> manyFactory, final ReferedHandler<Many> manyHandler) {
+		this(manyFile, null, tempDir, manyFactory, manyHandler);
+	}
+
+	/**
+	 * Constructor for a Many side, that is not read from a file of
+	 * Externalizables
+	 * 
+	 * @param manySource
+	 *            the many side instances
+	 * @param tempDir
+	 *            a directory to store intermediate results
+	 * @param manyFactory
+	 *            Factory constructing Many instances
+	 * @param manyHandler
+	 *            handler that sets and gets all needed values from the many
+	 *            class
+	 */
+	public MultiReferenceResolver(final ManySource<Many> manySource, final File tempDir,
+			final ExternalizableFactory<Many> manyFactory, final ReferedHandler<Many> manyHandler) {
+		this(null, manySource, tempDir, manyFactory, manyHandler);
+	}
+
+	private MultiReferenceResolver(final File manyFile, final ManySource<Many> manySource,
+			final File tempDir, final ExternalizableFactory<Many> manyFactory,
+			final ReferedHandler<Many> manyHandler) {
+		super();
+		this.manyFile = manyFile;
+		this.manySource = manySource;
+		this.tempDir = tempDir;
+		this.manyFactory = manyFactory;
+		this.manyHandler = manyHandler;
+	}
+
+	/**
+	 * Registers a further One file whose references shall be resolved against
+	 * the Many file.
+	 * 
+	 * @param destFile
+	 *            The target file for the one instances containing the resolved
+	 *            many instances
+	 * @param oneFile
+	 *            the file containing the one side instances
+	 * @param oneFactory
+	 *            Factory constructing One instances
+	 * @param oneHandler
+	 *            handler that sets and gets all needed values from the one
+	 *            class
+	 * @param maxSize
+	 *            maximum size for initial SorterFiles in number of elements.
+	 * @return the Referer, that allows to run its phases separately
+	 */
+	public <One extends Externalizable> Referer<One> addReferer(final File destFile,
+			final File oneFile, final ExternalizableFactory<One> oneFactory,
+			final RefererHandler<One, Many> oneHandler, final int maxSize) {
+		final Referer<One> referer = new Referer<>(destFile, oneFile, oneFactory, oneHandler,
+				maxSize);
+		referers.add(referer);
+		return referer;
+	}
+
+	/**
+	 * @param unreferencedFile
+	 *            File where all Many instances are written to, that are not
+	 *            referenced by any of the Referers. Null when they are not
+	 *            needed.
+	 */
+	public void setUnreferencedFile(final File unreferencedFile) {
+		this.unreferencedFile = unreferencedFile;
+	}
+
+	/**
+	 * @param checkpoints
+	 *            true when the intermediate files shall have names derived
+	 *            from the destination files and the sorting shall be
+	 *            resumable
+	 */
+	public void setCheckpoints(final boolean checkpoints) {
+		this.checkpoints = checkpoints;
+	}
+
+	/**
+	 * @param context
+	 *            context of the Many, One and destination files, also used
+	 *            for the intermediate files
+	 */
+	public void setCodecContext(final CodecContext context) {
+		this.context = context;
+	}
+
+	/**
+	 * @param f
+	 *            file that shall be sorted
+	 * @return the checkpoint file for sorting f, null when checkpoints are
+	 *         disabled
+	 */
+	private File sortCheckpoint(final File f) {
+		return checkpoints ? new File(tempDir, f.getName() + ".sort") : null;
+	}
+
+	/**
+	 * Lets the whole resolving algorithm run for all registered Referers. The
+	 * intermediate files are deleted when the resolving is finished.
+	 * 
+	 * @throws IOException
+	 */
+	public void resolve() throws IOException {
+		for (final Referer<?> referer : referers) {
+			referer.prepare();
+		}
+		scan();
+		for (final Referer<?> referer : referers) {
+			referer.finish();
+		}
+	}
+
+	/**
+	 * Reads the many file once and puts the many instances to the references
+	 * of all Referers that seem to search for them. All Referers must be
+	 * prepared before.
+	 * 
+	 * @throws IOException
+	 */
+	@SuppressWarnings("PMD.AvoidInstantiatingObjectsInLoops")
+	public void scan() throws IOException {
+		final List<ReferenceScan> scans = new ArrayList<>();
+		for (final Referer<?> referer : referers) {
+			final File refFile = referer.getReferenceFile();
+			if (refFile == null || !refFile.isFile()) {
+				throw new IOException("Referer for " + referer.oneFile + " is not prepared");
+			}
+			scans.add(new ReferenceScan(referer));
+		}
+		final ExternalizableWriter<Many> unreferencedWriter = unreferencedFile == null ? null
+				: new ExternalizableWriter<Many>(unreferencedFile, context);
+		final ManySource<Many> source = manySource == null ? new ExternalizableSource<>(manyFile,
+				manyFactory, manyHandler, context) : manySource;
+		final ManySource.Cursor<Many> many = source.open(Long.MIN_VALUE);
+		boolean more = many.next();
+		while ((unreferencedWriter != null || isActive(scans)) && more) {
+			final long manyId = many.getId();
+			boolean referenced = false;
+			for (final ReferenceScan scan : scans) {
+				referenced |= scan.offer(many, manyId);
+			}
+			if (unreferencedWriter == null) {
+				// only the referenced instances are needed, a source with an
+				// index skips the others
+				final long next = nextReferenced(scans);
+				more = next != Long.MAX_VALUE && many.skipTo(next);
+			} else {
+				if (!referenced) {
+					unreferencedWriter.writeExternalizable(many.get());
+				}
+				more = many.next();
+			}
+		}
+		many.close();
+		for (final ReferenceScan scan : scans) {
+			scan.close();
+		}
+		if (unreferencedWriter != null) {
+			unreferencedWriter.close();
+		}
+	}
+
+	/**
+	 * @param scans
+	 *            the scans of the referers
+	 * @return the smallest Many id the scans are still searching for,
+	 *         Long.MAX_VALUE when none is searching
+	 */
+	private long nextReferenced(final List<ReferenceScan> scans) {
+		long next = Long.MAX_VALUE;
+		for (final ReferenceScan scan : scans) {
+			if (scan.isActive()) {
+				next = Math.min(next, scan.reference.getManyId());
+			}
+		}
+		return next;
+	}
+
+	private boolean isActive(final List<ReferenceScan> scans) {
+		for (final ReferenceScan scan : scans) {
+			if (scan.isActive()) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * One file with its handler, that refers to the Many file.
+	 * 
+	 * @author oliver
+	 */
+	public final class Referer<One extends Externalizable> {
+		private final File destFile;
+		private final File oneFile;
+		private final ExternalizableFactory<One> oneFactory;
+		private final RefererHandler<One, Many> oneHandler;
+		private final int maxSize;
+		private File referenceFile = null;
+		private File resolvedRefFile = null;
+
+		private Referer(final File destFile, final File oneFile,
+				final ExternalizableFactory<One> oneFactory,
+				final RefererHandler<One, Many> oneHandler, final int maxSize) {
+			super();
+			this.destFile = destFile;
+			this.oneFile = oneFile;
+			this.oneFactory = oneFactory;
+			this.oneHandler = oneHandler;
+			this.maxSize = maxSize;
+		}
+
+		/**
+		 * reads the one file and gets all references to many instances from it
+		 * and stores them sorted for the many id into a reference file.
+		 * 
+		 * @throws IOException
+		 */
+		public void prepare() throws IOException {
+			final File refFile = checkpoints ? getReferenceFile() : File.createTempFile(
+					"reference", "dat", tempDir);
+			final File sortCheckpoint = sortCheckpoint(refFile);
+			// an interrupted sort continues with the already written references
+			if (sortCheckpoint == null || !sortCheckpoint.isFile()) {
+				writeReferences(refFile);
+			}
+			final ExternalizableSorter<Reference<Many>> sorter = new ExternalizableSorter<>(
+					refFile, tempDir, new ReferenceFactory<>(manyFactory, manyHandler),
+					new SortForManyComparator<Many>(), maxSize);
+			sorter.setCheckpointFile(sortCheckpoint);
+			sorter.setCodecContext(context);
+			sorter.process();
+			referenceFile = refFile;
+		}
+
+		/**
+		 * writes a reference for each many instance referenced by a one
+		 * instance to the reference file
+		 * 
+		 * @param refFile
+		 *            destination for the references
+		 * @throws IOException
+		 */
+		@SuppressWarnings("PMD.AvoidInstantiatingObjectsInLoops")
+		private void writeReferences(final File refFile) throws IOException {
+			final ExternalizableWriter<Reference<Many>> refWriter = new ExternalizableWriter<>(
+					refFile, context);
+			final ExternalizableIterator<One> oneIter = new ExternalizableIterator<>(oneFile,
+					oneFactory, context);
+			while (oneIter.hasNext()) {
+				final One one = oneIter.next();
+				final List<Long> refs = oneHandler.getRefs(one);
+				for (final Long refId : refs) {
+					final Many referedMany = manyFactory.construct();
+					manyHandler.setId(referedMany, refId.longValue());
+					refWriter.writeExternalizable(new Reference<>(manyHandler, oneHandler
+							.getId(one), refId.longValue(), referedMany));
+				}
+			}
+			refWriter.close();
+			oneIter.close();
+		}
+
+		/**
+		 * @return the file containing the references sorted for the many id
+		 *         between prepare and scan. With checkpoints enabled the name
+		 *         is known before prepare is called, else null before.
+		 */
+		public File getReferenceFile() {
+			return checkpoints ? new File(tempDir, destFile.getName() + ".reference")
+					: referenceFile;
+		}
+
+		/**
+		 * @return the file containing the resolved references between scan and
+		 *         finish. With checkpoints enabled the name is known before
+		 *         scan is called, else null before.
+		 */
+		public File getResolvedRefFile() {
+			return checkpoints ? new File(tempDir, destFile.getName() + ".resolvedref")
+					: resolvedRefFile;
+		}
+
+		/**
+		 * Deletes the progress of interrupted sorts of this Referer, so that
+		 * the next prepare starts from the beginning. Used when the One file
+		 * was changed since the progress was stored.
+		 * 
+		 * @throws IOException
+		 */
+		public void discardCheckpoints() throws IOException {
+			if (checkpoints) {
+				ExternalizableSorter.discardCheckpoint(sortCheckpoint(getReferenceFile()), tempDir);
+				ExternalizableSorter
+						.discardCheckpoint(sortCheckpoint(getResolvedRefFile()), tempDir);
+			}
+		}
+
+		/**
+		 * Sorts the references resolved by scan for the One id and gives the
+		 * Many instances to the One instances using the setResolvedRefs method
+		 * from the OneHandler.
+		 * 
+		 * @throws IOException
+		 */
+		public void finish() throws IOException {
+			final File refFile = getResolvedRefFile();
+			if (refFile == null || !refFile.isFile()) {
+				throw new IOException("References of " + oneFile + " are not scanned");
+			}
+			final ExternalizableSorter<Reference<Many>> sorter = new ExternalizableSorter<>(
+					refFile, tempDir, new ReferenceFactory<>(manyFactory, manyHandler),
+					new SortForOneComparator<Many>(), maxSize);
+			sorter.setCheckpointFile(sortCheckpoint(refFile));
+			sorter.setCodecContext(context);
+			sorter.process();
+			Reference.writeResolved(destFile, oneFile, refFile, oneFactory, oneHandler,
+					manyFactory, manyHandler, context);
+			refFile.delete();
+			resolvedRefFile = null;
+		}
+	}
+
+	/**
+	 * State of a single Referer while the Many file is scanned. It walks
+	 * through the references sorted by Many id in parallel to the Many file.
+	 * 
+	 * @author oliver
+	 */
+	private class ReferenceScan {
+		private final Referer<?> referer;
+		private final ExternalizableIterator<Reference<Many>> refIterator;
+		private final ExternalizableWriter<Reference<Many>> resolvedWriter;
+		private final File resolvedRefFile;
+		private Reference<Many> reference;
+
+		/**
+		 * @param referer
+		 *            prepared Referer
+		 * @throws IOException
+		 */
+		public ReferenceScan(final Referer<?> referer) throws IOException {
+			this.referer = referer;
+			if (checkpoints) {
+				resolvedRefFile = referer.getResolvedRefFile();
+				// the sort progress belongs to an older version of the file
+				ExternalizableSorter.discardCheckpoint(sortCheckpoint(resolvedRefFile), tempDir);
+			} else {
+				resolvedRefFile = File.createTempFile("resolvedref", "dat", tempDir);
+			}
+			refIterator = new ExternalizableIterator<>(referer.getReferenceFile(),
+					new ReferenceFactory<>(manyFactory, manyHandler), context);
+			resolvedWriter = new ExternalizableWriter<>(resolvedRefFile, context);
+			reference = refIterator.hasNext() ? refIterator.next() : null;
+		}
+
+		/**
+		 * @return true when there are references left, that might be resolved
+		 */
+		public boolean isActive() {
+			return reference != null;
+		}
+
+		/**
+		 * Gives the next Many instance to all references searching for it.
+		 * The instance is only taken from the cursor, when it is searched.
+		 * 
+		 * @param many
+		 *            cursor at the next instance of the Many side
+		 * @param manyId
+		 *            the id of the instance
+		 * @return true when at least one reference searched for it
+		 * @throws IOException
+		 */
+		public boolean offer(final ManySource.Cursor<Many> many, final long manyId)
+				throws IOException {
+			boolean found = false;
+			while (reference != null && reference.getManyId() < manyId) {
+				reference = refIterator.hasNext() ? refIterator.next() : null;
+			}
+			while (reference != null && reference.getManyId() == manyId) {
+				reference.setManyInstance(many.get());
+				resolvedWriter.writeExternalizable(reference);
+				found = true;
+				reference = refIterator.hasNext() ? refIterator.next() : null;
+			}
+			return found;
+		}
+
+		/**
+		 * closes the files and hands over the resolved references to the
+		 * Referer.
+		 * 
+		 * @throws IOException
+		 */
+		public void close() throws IOException {
+			refIterator.close();
+			resolvedWriter.close();
+			referer.getReferenceFile().delete();
+			referer.referenceFile = null;
+			referer.resolvedRefFile = resolvedRefFile;
+		}
+	}
+}
@@ -0,0 +1,662 @@
+/**
+ * Copyright (C) 2026 Oliver Schünemann
+ * 
+ * This program is free software; you can redistribute it and/or modify it under the terms of the 
+ * GNU General Public License as published by the Free Software Foundation; either version 2 of 
+ * the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; 
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. 
+ * See the GNU General Public License for more details. 
+ * 
+ * You should have received a copy of the GNU General Public License along with this program; 
+ * if not, write to the Free Software Foundation, Inc., 51 Franklin St, Fifth Floor, 
+ * Boston, MA 02110, USA 
+ * 
+ * @since 19.10.2026
+ * @version 1.0
+ * @author oliver
+ */
+package oc.io;
+
+import java.io.Externalizable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import oc.io.Reference.ReferenceFactory;
+import oc.io.Reference.SortForManyComparator;
+import oc.io.Reference.SortForOneComparator;
+import oc.io.ReferenceResolver.ReferedHandler;
+import oc.io.ReferenceResolver.RefererHandler;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Parallel version of the {@link ReferenceResolver}. The id space of the One
+ * file and the id space of the Many file are split into the same number of
+ * ranges, the partitions. The One ranges split the One file into parts of the
+ * same size in bytes, the Many ranges are taken from a sample of the referenced
+ * Many ids, so that every partition gets about the same amount of work. The algorithm then works in
+ * these steps, each of them running one worker per partition:
+ * <ol>
+ * <li>The One file is split into one file per partition while the references
+ * are written to one reference file per One partition. At the same time the
+ * Many file is split into one file per Many partition.</li>
+ * <li>Each reference file is sorted for the Many id and split into one bucket
+ * per Many partition.</li>
+ * <li>For each Many partition the sorted buckets of all One partitions are
+ * merged and resolved against the Many partition. The resolved references are
+ * sorted for the One id and split into one bucket per One partition.</li>
+ * <li>For each One partition the sorted resolved buckets are merged and given
+ * to the One partition.</li>
+ * </ol>
+ * When the Many side is given as {@link ManySource} instead of a file, it is
+ * not split. Each partition opens it at the first id of its range, so the
+ * source should be able to find an id without reading all instances in front
+ * of it.
+ * 
+ * At the end the results of the One partitions are concatenated in id order.
+ * This works because the ExternalizableWriter does not write a stream header.
+ * Like the ReferenceResolver it expects the One and the Many file to be
+ * sorted by id.
+ * 
+ * @author oliver
+ */
+public class PartitionedReferenceResolver<One extends Externalizable, Many extends Externalizable> {
+	private static final int SAMPLE_SIZE = 10000;
+	private static final Logger logger = LogManager.getLogger(PartitionedReferenceResolver.class
+			.getName());
+
+	private final File destFile;
+	private final File oneFile;
+	private final File manyFile;
+	private final ManySource<Many> manySource;
+	private final File tempDir;
+	private final ExternalizableFactory<One> oneFactory;
+	private final ExternalizableFactory<Many> manyFactory;
+	private final ReferedHandler<Many> manyHandler;
+	private final RefererHandler<One, Many> oneHandler;
+	private final ReferenceFactory<Many> referenceFactory;
+	private final int maxSize;
+	private final int partitions;
+	private final List<File> tempFiles = new ArrayList<>();
+	private CodecContext context = CodecContext.getDefault();
+
+	private final IdGetter<Reference<Many>> manyIdGetter = new IdGetter<Reference<Many>>() {
+		@Override
+		public long getId(final Reference<Many> reference) {
+			return reference.getManyId();
+		}
+	};
+
+	private final IdGetter<Reference<Many>> oneIdGetter = new IdGetter<Reference<Many>>() {
+		@Override
+		public long getId(final Reference<Many> reference) {
+			return reference.getOneId();
+		}
+	};
+
+	/**
+	 * Constructor storing the configuration.
+	 * 
+	 * @param destFile
+	 *            The target file for the one instances containing the resolved
+	 *            many instances
+	 * @param oneFile
+	 *            the file containing the one side instances
+	 * @param manyFile
+	 *            the file containing the many side instances
+	 * @param tempDir
+	 *            a directory to store intermediate results
+	 * @param oneFactory
+	 *            Factory constructing One instances
+	 * @param manyFactory
+	 *            Factory constructing Many instances
+	 * @param manyHandler
+	 *            handler that sets and gets all needed values from the many
+	 *            class
+	 * @param oneHandler
+	 *            handler that sets and gets all needed values from the one
+	 *            class
+	 * @param maxSize
+	 *            maximum size for initial SorterFiles in number of elements.
+	 * @param partitions
+	 *            number of id ranges, that are resolved in parallel
+	 */
+	public PartitionedReferenceResolver(final File destFile, final File oneFile,
+			final File manyFile, final File tempDir, final ExternalizableFactory<One> oneFactory,
+			final ExternalizableFactory<Many> manyFactory, final ReferedHandler<Many> manyHandler,
+			final RefererHandler<One, Many> oneHandler, final int maxSize, final int partitions) {
+		this(destFile, oneFile, manyFile, null, tempDir, oneFactory, manyFactory, manyHandler,
+				oneHandler, maxSize, partitions);
+	}
+
+	/**
+	 * Constructor for a Many side, that is not read from a file of
+	 * Externalizables.
+	 * 
+	 * @param destFile
+	 *            The target file for the one instances containing the resolved
+	 *            many instances
+	 * @param oneFile
+	 *            the file containing the one side instances
+	 * @param manySource
+	 *            the many side instances, opened once by each partition
+	 * @param tempDir
+	 *            a directory to store intermediate results
+	 * @param oneFactory
+	 *            Factory constructing One instances
+	 * @param manyFactory
+	 *            Factory constructing Many instances
+	 * @param manyHandler
+	 *            handler that sets and gets all needed values from the many
+	 *            class
+	 * @param oneHandler
+	 *            handler that sets and gets all needed values from the one
+	 *            class
+	 * @param maxSize
+	 *            maximum size for initial SorterFiles in number of elements.
+	 * @param partitions
+	 *            number of id ranges, that are resolved in parallel
+	 */
+	public PartitionedReferenceResolver(final File destFile, final File oneFile,
+			final ManySource<Many> manySource, final File tempDir,
+			final ExternalizableFactory<One> oneFactory,
+			final ExternalizableFactory<Many> manyFactory, final ReferedHandler<Many> manyHandler,
+			final RefererHandler<One, Many> oneHandler, final int maxSize, final int partitions) {
+		this(destFile, oneFile, null, manySource, tempDir, oneFactory, manyFactory, manyHandler,
+				oneHandler, maxSize, partitions);
+	}
+
+	private PartitionedReferenceResolver(final File destFile, final File oneFile,
+			final File manyFile, final ManySource<Many> manySource, final File tempDir,
+			final ExternalizableFactory<One> oneFactory,
+			final ExternalizableFactory<Many> manyFactory, final ReferedHandler<Many> manyHandler,
+			final RefererHandler<One, Many> oneHandler, final int maxSize, final int partitions) {
+		super();
+		this.destFile = destFile;
+		this.oneFile = oneFile;
+		this.manyFile = manyFile;
+		this.manySource = manySource;
+		this.tempDir = tempDir;
+		this.oneFactory = oneFactory;
+		this.manyFactory = manyFactory;
+		this.manyHandler = manyHandler;
+		this.oneHandler = oneHandler;
+		this.maxSize = maxSize;
+		this.partitions = partitions;
+		referenceFactory = new ReferenceFactory<>(manyFactory, manyHandler);
+	}
+
+	/**
+	 * @param context
+	 *            context of the Many, One and destination files, also used
+	 *            for the intermediate files
+	 */
+	public void setCodecContext(final CodecContext context) {
+		this.context = context;
+	}
+
+	/**
+	 * @return the source of the Many instances
+	 */
+	private ManySource<Many> manySource() {
+		return manySource == null ? new ExternalizableSource<>(manyFile, manyFactory,
+				manyHandler, context) : manySource;
+	}
+
+	/**
+	 * Lets the whole resolving algorithm run. The intermediate files are
+	 * deleted when the resolving is finished.
+	 * 
+	 * @throws IOException
+	 */
+	public void resolve() throws IOException {
+		final long length = oneFile.length();
+		final int parts = length == 0 ? 1 : partitions;
+		if (parts <= 1) {
+			final MultiReferenceResolver<Many> resolver = new MultiReferenceResolver<>(
+					manySource(), tempDir, manyFactory, manyHandler);
+			resolver.setCodecContext(context);
+			resolver.addReferer(destFile, oneFile, oneFactory, oneHandler, maxSize);
+			resolver.resolve();
+			return;
+		}
+		final ExecutorService executor = Executors.newFixedThreadPool(parts);
+		try {
+			final List<File> oneParts = createTempFiles("onepart", parts);
+			final List<File> refParts = createTempFiles("reference", parts);
+			final long[] oneBounds = new long[parts - 1];
+			final long[] manyBounds = splitOnes(oneParts, refParts, oneBounds, length);
+
+			// a source is read directly by the partitions
+			final List<File> manyParts = manyFile == null ? null : createTempFiles("manypart",
+					parts);
+			final Future<Void> manySplit = manyFile == null ? null : executor
+					.submit(new Callable<Void>() {
+						@Override
+						public Void call() throws IOException {
+							splitSorted(manyFile, manyFactory, new IdGetter<Many>() {
+								@Override
+								public long getId(final Many many) {
+									return manyHandler.getId(many);
+								}
+							}, manyBounds, manyParts);
+							return null;
+						}
+					});
+			final List<List<File>> buckets = new ArrayList<>();
+			final List<Callable<Void>> bucketTasks = new ArrayList<>();
+			for (int o = 0; o < parts; ++o) {
+				final File refPart = refParts.get(o);
+				final List<File> oneBuckets = createTempFiles("bucket", parts);
+				buckets.add(oneBuckets);
+				bucketTasks.add(new Callable<Void>() {
+					@Override
+					public Void call() throws IOException {
+						sortAndSplit(refPart, new SortForManyComparator<Many>(), manyIdGetter,
+								manyBounds, oneBuckets);
+						return null;
+					}
+				});
+			}
+			invokeAll(executor, bucketTasks);
+			if (manySplit != null) {
+				waitFor(manySplit);
+			}
+
+			final List<List<File>> resolvedBuckets = new ArrayList<>();
+			final List<Callable<Void>> resolveTasks = new ArrayList<>();
+			for (int m = 0; m < parts; ++m) {
+				final File manyPart = manyParts == null ? null : manyParts.get(m);
+				final long fromId = m == 0 ? Long.MIN_VALUE : manyBounds[m - 1];
+				final List<File> manyBuckets = new ArrayList<>();
+				for (final List<File> oneBuckets : buckets) {
+					manyBuckets.add(oneBuckets.get(m));
+				}
+				final List<File> resolved = createTempFiles("resolvedref", parts);
+				resolvedBuckets.add(resolved);
+				resolveTasks.add(new Callable<Void>() {
+					@Override
+					public Void call() throws IOException {
+						resolvePartition(manyPart, fromId, manyBuckets, oneBounds, resolved);
+						return null;
+					}
+				});
+			}
+			invokeAll(executor, resolveTasks);
+
+			final List<File> destParts = createTempFiles("destpart", parts);
+			final List<Callable<Void>> finishTasks = new ArrayList<>();
+			for (int o = 0; o < parts; ++o) {
+				final File onePart = oneParts.get(o);
+				final File destPart = destParts.get(o);
+				final List<File> oneResolved = new ArrayList<>();
+				for (final List<File> resolved : resolvedBuckets) {
+					oneResolved.add(resolved.get(o));
+				}
+				finishTasks.add(new Callable<Void>() {
+					@Override
+					public Void call() throws IOException {
+						finishPartition(onePart, oneResolved, destPart);
+						return null;
+					}
+				});
+			}
+			invokeAll(executor, finishTasks);
+			concatenate(destParts, destFile);
+		} finally {
+			executor.shutdownNow();
+			for (final File tempFile : tempFiles) {
+				tempFile.delete();
+			}
+			tempFiles.clear();
+		}
+	}
+
+	/**
+	 * Splits the One file into parts of the same size in bytes and writes the
+	 * references of each part to its own reference file. The part of an
+	 * instance is taken from its offset in the file, so the file is not counted
+	 * before. A part can stay empty, when a single instance covers more than a
+	 * part. The referenced Many ids are sampled to calculate the ranges of the
+	 * Many partitions.
+	 * 
+	 * @param oneParts
+	 *            files for the One partitions
+	 * @param refParts
+	 *            files for the references of the One partitions
+	 * @param oneBounds
+	 *            filled with the first One id of every partition except the
+	 *            first one
+	 * @param length
+	 *            size of the One file in bytes
+	 * @return the first Many id of every Many partition except the first one
+	 * @throws IOException
+	 */
+	@SuppressWarnings("PMD.AvoidInstantiatingObjectsInLoops")
+	private long[] splitOnes(final List<File> oneParts, final List<File> refParts,
+			final long[] oneBounds, final long length) throws IOException {
+		final int parts = oneParts.size();
+		final long[] sample = new long[SAMPLE_SIZE];
+		final Random random = new Random(parts);
+		long references = 0;
+		final ExternalizableIterator<One> oneIter = new ExternalizableIterator<>(oneFile,
+				oneFactory, context);
+		ExternalizableWriter<One> oneWriter = null;
+		ExternalizableWriter<Reference<Many>> refWriter = null;
+		long count = 0;
+		int part = -1;
+		while (oneIter.hasNext()) {
+			final int nextPart = (int) Math.min(parts - 1, oneIter.getOffset() * parts / length);
+			final One one = oneIter.next();
+			final long oneId = oneHandler.getId(one);
+			count++;
+			while (part < nextPart) {
+				if (oneWriter != null) {
+					oneWriter.close();
+					refWriter.close();
+				}
+				if (part >= 0) {
+					oneBounds[part] = oneId;
+				}
+				part++;
+				oneWriter = new ExternalizableWriter<>(oneParts.get(part), context);
+				refWriter = new ExternalizableWriter<>(refParts.get(part), context);
+			}
+			oneWriter.writeExternalizable(one);
+			for (final Long refId : oneHandler.getRefs(one)) {
+				final Many referedMany = manyFactory.construct();
+				manyHandler.setId(referedMany, refId.longValue());
+				refWriter.writeExternalizable(new Reference<>(manyHandler, oneId, refId
+						.longValue(), referedMany));
+				// reservoir sampling of the referenced ids
+				if (references < SAMPLE_SIZE) {
+					sample[(int) references] = refId.longValue();
+				} else {
+					final long slot = (long) (random.nextDouble() * (references + 1));
+					if (slot < SAMPLE_SIZE) {
+						sample[(int) slot] = refId.longValue();
+					}
+				}
+				references++;
+			}
+		}
+		if (oneWriter != null) {
+			oneWriter.close();
+			refWriter.close();
+		}
+		// the remaining parts are empty
+		while (part < parts - 1) {
+			if (part >= 0) {
+				oneBounds[part] = Long.MAX_VALUE;
+			}
+			part++;
+			new ExternalizableWriter<One>(oneParts.get(part), context).close();
+			new ExternalizableWriter<Reference<Many>>(refParts.get(part), context).close();
+		}
+		logger.info("Resolve {} One instances in {} partitions", count, parts);
+		final int sampled = (int) Math.min(references, SAMPLE_SIZE);
+		Arrays.sort(sample, 0, sampled);
+		final long[] manyBounds = new long[parts - 1];
+		for (int m = 0; m < manyBounds.length; ++m) {
+			manyBounds[m] = sampled == 0 ? Long.MAX_VALUE : sample[(m + 1) * sampled / parts];
+		}
+		return manyBounds;
+	}
+
+	/**
+	 * Sorts a reference file and splits it into buckets of the partitions.
+	 * 
+	 * @param refFile
+	 *            the references. The file is deleted afterwards.
+	 * @param comparator
+	 *            comparator sorting the references for the partitioned id
+	 * @param idGetter
+	 *            returns the partitioned id of a reference
+	 * @param bounds
+	 *            bounds of the partitions
+	 * @param targets
+	 *            one bucket for each partition
+	 * @throws IOException
+	 */
+	private void sortAndSplit(final File refFile, final Comparator<Reference<Many>> comparator,
+			final IdGetter<Reference<Many>> idGetter, final long[] bounds,
+			final List<File> targets) throws IOException {
+		final ExternalizableSorter<Reference<Many>> sorter = new ExternalizableSorter<>(refFile,
+				tempDir, referenceFactory, comparator, maxSize);
+		sorter.setCodecContext(context);
+		sorter.process();
+		splitSorted(refFile, referenceFactory, idGetter, bounds, targets);
+		refFile.delete();
+	}
+
+	/**
+	 * Resolves the references of a single Many partition.
+	 * 
+	 * @param manyPart
+	 *            the Many instances of the partition, null when the partition
+	 *            is read from the Many source
+	 * @param fromId
+	 *            the first Many id of the partition
+	 * @param manyBuckets
+	 *            the references to the partition from all One partitions,
+	 *            each of them sorted for the Many id
+	 * @param oneBounds
+	 *            bounds of the One partitions
+	 * @param resolved
+	 *            files for the resolved references of each One partition
+	 * @throws IOException
+	 */
+	private void resolvePartition(final File manyPart, final long fromId,
+			final List<File> manyBuckets, final long[] oneBounds, final List<File> resolved)
+			throws IOException {
+		final File refFile = createTempFiles("reference", 1).get(0);
+		final ExternalizableSorter<Reference<Many>> sorter = new ExternalizableSorter<>(refFile,
+				tempDir, referenceFactory, new SortForManyComparator<Many>(), maxSize);
+		sorter.setCodecContext(context);
+		sorter.merge(manyBuckets);
+
+		final File resolvedFile = createTempFiles("resolvedref", 1).get(0);
+		final ExternalizableIterator<Reference<Many>> refIterator = new ExternalizableIterator<>(
+				refFile, referenceFactory, context);
+		final ExternalizableWriter<Reference<Many>> resolvedWriter = new ExternalizableWriter<>(
+				resolvedFile, context);
+		final ManySource<Many> partSource = manyPart == null ? manySource()
+				: new ExternalizableSource<>(manyPart, manyFactory, manyHandler, context);
+		final ManySource.Cursor<Many> many = partSource.open(fromId);
+		Reference<Many> reference = refIterator.hasNext() ? refIterator.next() : null;
+		while (reference != null && many.next()) {
+			final long manyId = many.getId();
+			while (reference != null && reference.getManyId() < manyId) {
+				reference = refIterator.hasNext() ? refIterator.next() : null;
+			}
+			while (reference != null && reference.getManyId() == manyId) {
+				reference.setManyInstance(many.get());
+				resolvedWriter.writeExternalizable(reference);
+				reference = refIterator.hasNext() ? refIterator.next() : null;
+			}
+		}
+		many.close();
+		refIterator.close();
+		resolvedWriter.close();
+		refFile.delete();
+		if (manyPart != null) {
+			manyPart.delete();
+		}
+		sortAndSplit(resolvedFile, new SortForOneComparator<Many>(), oneIdGetter, oneBounds,
+				resolved);
+	}
+
+	/**
+	 * Gives the resolved Many instances to the One instances of a single One
+	 * partition.
+	 * 
+	 * @param onePart
+	 *            the One instances of the partition
+	 * @param oneResolved
+	 *            the resolved references of the partition from all Many
+	 *            partitions, each of them sorted for the One id
+	 * @param destPart
+	 *            destination for the One instances of the partition
+	 * @throws IOException
+	 */
+	private void finishPartition(final File onePart, final List<File> oneResolved,
+			final File destPart) throws IOException {
+		final File resolvedFile = createTempFiles("resolvedref", 1).get(0);
+		final ExternalizableSorter<Reference<Many>> sorter = new ExternalizableSorter<>(
+				resolvedFile, tempDir, referenceFactory, new SortForOneComparator<Many>(), maxSize);
+		sorter.setCodecContext(context);
+		sorter.merge(oneResolved);
+		Reference.writeResolved(destPart, onePart, resolvedFile, oneFactory, oneHandler,
+				manyFactory, manyHandler, context);
+		resolvedFile.delete();
+		onePart.delete();
+	}
+
+	/**
+	 * Splits a file sorted by id into one file per id range.
+	 * 
+	 * @param source
+	 *            the sorted source file
+	 * @param factory
+	 *            Factory constructing the instances of the file
+	 * @param idGetter
+	 *            returns the id the file is sorted for
+	 * @param bounds
+	 *            the first id of every range except the first one
+	 * @param targets
+	 *            one file for each range
+	 * @throws IOException
+	 */
+	private <T extends Externalizable> void splitSorted(final File source,
+			final ExternalizableFactory<T> factory, final IdGetter<T> idGetter,
+			final long[] bounds, final List<File> targets) throws IOException {
+		final ExternalizableIterator<T> iter = new ExternalizableIterator<>(source, factory, context);
+		int part = 0;
+		ExternalizableWriter<T> writer = new ExternalizableWriter<>(targets.get(part), context);
+		while (iter.hasNext()) {
+			final T t = iter.next();
+			final int nextPart = partitionOf(bounds, idGetter.getId(t));
+			while (part < nextPart) {
+				writer.close();
+				part++;
+				writer = new ExternalizableWriter<>(targets.get(part), context);
+			}
+			writer.writeExternalizable(t);
+		}
+		writer.close();
+		// the remaining ranges are empty
+		while (part < targets.size() - 1) {
+			part++;
+			new ExternalizableWriter<T>(targets.get(part), context).close();
+		}
+	}
+
+	/**
+	 * @param bounds
+	 *            the first id of every range except the first one in ascending
+	 *            order
+	 * @param id
+	 *            the id to look up
+	 * @return the index of the range the id belongs to
+	 */
+	static int partitionOf(final long[] bounds, final long id) {
+		int low = 0;
+		int high = bounds.length;
+		while (low < high) {
+			final int mid = (low + high) >>> 1;
+			if (bounds[mid] <= id) {
+				low = mid + 1;
+			} else {
+				high = mid;
+			}
+		}
+		return low;
+	}
+
+	/**
+	 * Concatenates files written by ExternalizableWriters to a single file
+	 * readable by an ExternalizableIterator.
+	 * 
+	 * @param sources
+	 *            the files to concatenate in the order of the result. They are
+	 *            deleted afterwards.
+	 * @param dest
+	 *            the resulting file
+	 * @throws IOException
+	 */
+	static void concatenate(final List<File> sources, final File dest) throws IOException {
+		try (FileChannel out = new FileOutputStream(dest).getChannel()) {
+			for (final File source : sources) {
+				try (FileChannel in = new FileInputStream(source).getChannel()) {
+					long position = 0;
+					final long size = in.size();
+					while (position < size) {
+						position += in.transferTo(position, size - position, out);
+					}
+				}
+				source.delete();
+			}
+		}
+	}
+
+	private List<File> createTempFiles(final String prefix, final int count) throws IOException {
+		final List<File> files = new ArrayList<>();
+		for (int i = 0; i < count; ++i) {
+			files.add(File.createTempFile(prefix, "dat", tempDir));
+		}
+		synchronized (tempFiles) {
+			tempFiles.addAll(files);
+		}
+		return files;
+	}
+
+	private static void invokeAll(final ExecutorService executor, final List<Callable<Void>> tasks)
+			throws IOException {
+		final List<Future<Void>> futures = new ArrayList<>();
+		for (final Callable<Void> task : tasks) {
+			futures.add(executor.submit(task));
+		}
+		for (final Future<Void> future : futures) {
+			waitFor(future);
+		}
+	}
+
+	private static void waitFor(final Future<Void> future) throws IOException {
+		try {
+			future.get();
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("Interrupted while resolving partitions", e);
+		} catch (final ExecutionException e) {
+			if (e.getCause() instanceof IOException) {
+				throw (IOException) e.getCause();
+			}
+			throw new IOException("Resolving partition failed", e.getCause());
+		}
+	}
+
+	/**
+	 * Returns the id a file is sorted for.
+	 * 
+	 * @author oliver
+	 */
+	private interface IdGetter<T> {
+		long getId(T t);
+	}
+}
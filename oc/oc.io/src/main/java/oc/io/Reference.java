@@ -0,0 +1,403 @@
+/**
+ * Copyright (C) 2014 Oliver Schünemann
+ * 
+ * This program is free software; you can redistribute it and/or modify it under the terms of the 
+ * GNU General Public License as published by the Free Software Foundation; either version 2 of 
+ * the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; 
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. 
+ * See the GNU General Public License for more details. 
+ * 
+ * You should have received a copy of the GNU General Public License along with this program; 
+ * if not, write to the Free Software Foundation, Inc., 51 Franklin St, Fifth Floor, 
+ * Boston, MA 02110, USA 
+ * 
+ * @since 11.10.2014
+ * @version 1.0
+ * @author oliver
+ */
+package oc.io;
+
+import java.io.Externalizable;
+import java.io.File;
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+
+import oc.io.ReferenceResolver.ReferedHandler;
+import oc.io.ReferenceResolver.RefererHandler;
+
+/**
+ * This represents the reference between the Referrer (One) and the Referred
+ * (Many). For each one to many relation one instance of this class will be
+ * created and stored in a file. Later the resolved Many instance will be stored
+ * into it as well.
+ * 
+ * @author oliver
+ */
+class Reference<Many extends Externalizable> implements Externalizable, HeapSized {
+	/**
+	 * Object header and fields of the reference itself
+	 */
+	private static final int HEAP_SIZE = 40;
+
+	private final ReferedHandler<Many> manyHandler;
+	private long oneId;
+	private long manyId;
+	private Many manyInstance;
+
+	/**
+	 * Base constructor for Factory
+	 * 
+	 * @param manyFactory
+	 *            Factory constructing Many instances
+	 * @param manyHandler
+	 *            handler that sets and gets the id of the Many instance
+	 */
+	Reference(final ExternalizableFactory<Many> manyFactory, final ReferedHandler<Many> manyHandler) {
+		super();
+		this.manyHandler = manyHandler;
+		oneId = -1;
+		manyId = -1;
+		manyInstance = manyFactory.construct();
+	}
+
+	/**
+	 * Constructor initializing all fields
+	 * 
+	 * @param manyHandler
+	 *            handler that sets and gets the id of the Many instance
+	 * @param oneId
+	 *            the Id of the Referrer
+	 * @param manyId
+	 *            the id of the Referred.
+	 * @param manyInstance
+	 *            the instance of Many
+	 */
+	Reference(final ReferedHandler<Many> manyHandler, final long oneId, final long manyId,
+			final Many manyInstance) {
+		super();
+		this.manyHandler = manyHandler;
+		this.oneId = oneId;
+		this.manyId = manyId;
+		this.manyInstance = manyInstance;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see java.io.Externalizable#writeExternal(java.io.ObjectOutput)
+	 */
+	@Override
+	public void writeExternal(final ObjectOutput out) throws IOException {
+		out.writeLong(oneId);
+		manyHandler.setId(manyInstance, manyId);
+		manyInstance.writeExternal(out);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see java.io.Externalizable#readExternal(java.io.ObjectInput)
+	 */
+	@Override
+	public void readExternal(final ObjectInput in) throws IOException, ClassNotFoundException {
+		oneId = in.readLong();
+		manyInstance.readExternal(in);
+		manyId = manyHandler.getId(manyInstance);
+	}
+
+	/**
+	 * @return the manyInstance
+	 */
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see oc.io.HeapSized#getHeapSize()
+	 */
+	@Override
+	public long getHeapSize() {
+		if (manyInstance instanceof HeapSized) {
+			final long manySize = ((HeapSized) manyInstance).getHeapSize();
+			return manySize < 0 ? manySize : HEAP_SIZE + manySize;
+		}
+		return -1;
+	}
+
+	public Many getManyInstance() {
+		return manyInstance;
+	}
+
+	/**
+	 * @param manyInstance
+	 *            the manyInstance to set
+	 */
+	public void setManyInstance(final Many manyInstance) {
+		this.manyInstance = manyInstance;
+	}
+
+	/**
+	 * @return the oneId
+	 */
+	public long getOneId() {
+		return oneId;
+	}
+
+	/**
+	 * @return the manyId
+	 */
+	public long getManyId() {
+		return manyId;
+	}
+
+	/**
+	 * Merges a file of resolved references sorted for the One id with the One
+	 * file and gives the Many instances to the One instances using the
+	 * setResolvedRefs method from the OneHandler.
+	 * 
+	 * @param destFile
+	 *            The target file for the one instances containing the resolved
+	 *            many instances
+	 * @param oneFile
+	 *            the file containing the one side instances sorted by id
+	 * @param resolvedRefFile
+	 *            the resolved references sorted for the One id
+	 * @param oneFactory
+	 *            Factory constructing One instances
+	 * @param oneHandler
+	 *            handler that sets and gets all needed values from the one
+	 *            class
+	 * @param manyFactory
+	 *            Factory constructing Many instances
+	 * @param manyHandler
+	 *            handler that sets and gets the id of the Many instance
+	 * @param context
+	 *            context of the files
+	 * @throws IOException
+	 */
+	@SuppressWarnings("PMD.AvoidInstantiatingObjectsInLoops")
+	static <One extends Externalizable, Many extends Externalizable> void writeResolved(
+			final File destFile, final File oneFile, final File resolvedRefFile,
+			final ExternalizableFactory<One> oneFactory,
+			final RefererHandler<One, Many> oneHandler,
+			final ExternalizableFactory<Many> manyFactory, final ReferedHandler<Many> manyHandler,
+			final CodecContext context) throws IOException {
+		final ExternalizableWriter<One> destWriter = new ExternalizableWriter<>(destFile, context);
+		final ResolvedIterator<Many> refIterator = new ResolvedIterator<>(resolvedRefFile,
+				manyFactory, manyHandler, context);
+		final ExternalizableIterator<One> oneIter = new ExternalizableIterator<>(oneFile,
+				oneFactory, context);
+		One oneInstance = oneIter.hasNext() ? oneIter.next() : null;
+		long nextOneId = refIterator.getNextOneId();
+		Map<Long, Many> resolvedMany = refIterator.hasNext() ? refIterator.next()
+				: new HashMap<Long, Many>();
+		while (!(oneInstance == null || resolvedMany.isEmpty())) {
+			while (!resolvedMany.isEmpty() && nextOneId < oneHandler.getId(oneInstance)) {
+				nextOneId = refIterator.getNextOneId();
+				resolvedMany = refIterator.hasNext() ? refIterator.next()
+						: new HashMap<Long, Many>();
+			}
+			if (nextOneId == oneHandler.getId(oneInstance)) {
+				oneHandler.setResolvedRefs(oneInstance, resolvedMany);
+			}
+			destWriter.writeExternalizable(oneInstance);
+			oneInstance = oneIter.hasNext() ? oneIter.next() : null;
+		}
+		while (oneInstance != null) {
+			destWriter.writeExternalizable(oneInstance);
+			oneInstance = oneIter.hasNext() ? oneIter.next() : null;
+		}
+		oneIter.close();
+		refIterator.close();
+		destWriter.close();
+	}
+
+	/**
+	 * Factory creating a reference
+	 * 
+	 * @author oliver
+	 */
+	static class ReferenceFactory<Many extends Externalizable> implements
+			ExternalizableFactory<Reference<Many>> {
+		private final ExternalizableFactory<Many> manyFactory;
+		private final ReferedHandler<Many> manyHandler;
+
+		/**
+		 * @param manyFactory
+		 *            Factory constructing Many instances
+		 * @param manyHandler
+		 *            handler that sets and gets the id of the Many instance
+		 */
+		ReferenceFactory(final ExternalizableFactory<Many> manyFactory,
+				final ReferedHandler<Many> manyHandler) {
+			super();
+			this.manyFactory = manyFactory;
+			this.manyHandler = manyHandler;
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * 
+		 * @see oc.io.ExternalizableFactory#construct()
+		 */
+		@Override
+		public Reference<Many> construct() {
+			return new Reference<>(manyFactory, manyHandler);
+		}
+	}
+
+	/**
+	 * Comparator that allows a ExternalizableSorter to sort the References for
+	 * the One id.
+	 * 
+	 * @author oliver
+	 */
+	static class SortForOneComparator<Many extends Externalizable> implements
+			Comparator<Reference<Many>> {
+
+		/*
+		 * (non-Javadoc)
+		 * 
+		 * @see java.util.Comparator#compare(java.lang.Object, java.lang.Object)
+		 */
+		@Override
+		public int compare(final Reference<Many> o1, final Reference<Many> o2) {
+			if (o1 == null) {
+				return o2 == null ? 0 : -1;
+			} else if (o2 == null) {
+				return 1;
+			}
+
+			long compare = o1.getOneId() - o2.getOneId();
+			if (compare < 0) {
+				return -1;
+			} else if (compare > 0) {
+				return 1;
+			}
+			compare = o1.getManyId() - o2.getManyId();
+			if (compare < 0) {
+				return -1;
+			} else if (compare > 0) {
+				return 1;
+			}
+			return 0;
+		}
+	}
+
+	/**
+	 * Comparator that allows a ExternalizableSorter to sort the References for
+	 * the Many id.
+	 * 
+	 * @author oliver
+	 */
+	static class SortForManyComparator<Many extends Externalizable> implements
+			Comparator<Reference<Many>> {
+
+		/*
+		 * (non-Javadoc)
+		 * 
+		 * @see java.util.Comparator#compare(java.lang.Object, java.lang.Object)
+		 */
+		@Override
+		public int compare(final Reference<Many> o1, final Reference<Many> o2) {
+			if (o1 == null) {
+				return o2 == null ? 0 : -1;
+			} else if (o2 == null) {
+				return 1;
+			}
+
+			long compare = o1.getManyId() - o2.getManyId();
+			if (compare < 0) {
+				return -1;
+			} else if (compare > 0) {
+				return 1;
+			}
+
+			compare = o1.getOneId() - o2.getOneId();
+			if (compare < 0) {
+				return -1;
+			} else if (compare > 0) {
+				return 1;
+			}
+
+			return 0;
+		}
+	}
+
+	/**
+	 * Iterator to iterate over a resolved reference File, that returns all Many
+	 * instances belonging to a One instance
+	 * 
+	 * @author oliver
+	 * 
+	 */
+	static class ResolvedIterator<Many extends Externalizable> {
+		private final ExternalizableIterator<Reference<Many>> iterator;
+		private final ReferedHandler<Many> manyHandler;
+		private Reference<Many> next = null;
+
+		/**
+		 * @param f
+		 *            File containing resolved References
+		 * @param manyFactory
+		 *            Factory constructing Many instances
+		 * @param manyHandler
+		 *            handler that sets and gets the id of the Many instance
+		 * @param context
+		 *            context the file was written with
+		 * @throws IOException
+		 */
+		ResolvedIterator(final File f, final ExternalizableFactory<Many> manyFactory,
+				final ReferedHandler<Many> manyHandler, final CodecContext context)
+				throws IOException {
+			this.manyHandler = manyHandler;
+			iterator = new ExternalizableIterator<>(f, new ReferenceFactory<>(manyFactory,
+					manyHandler), context);
+			next = iterator.hasNext() ? iterator.next() : null;
+		}
+
+		/**
+		 * Closes the iterator when it is no longer needed.
+		 * 
+		 * @throws IOException
+		 */
+		public void close() throws IOException {
+			iterator.close();
+		}
+
+		/**
+		 * @return true when there are further resolved Many instances available
+		 */
+		public boolean hasNext() {
+			return next != null;
+		}
+
+		/**
+		 * @return id of the next One instance. This must be called before
+		 *         next() is called.
+		 */
+		public long getNextOneId() {
+			return next == null ? -1 : next.getOneId();
+		}
+
+		/**
+		 * @return a list containing the Many instances that where resolved
+		 * @throws IOException
+		 */
+		public Map<Long, Many> next() throws IOException {
+			final Map<Long, Many> manies = new HashMap<>();
+			final long searchId = next.getOneId();
+			while (next != null && searchId == next.getOneId()) {
+				final Many many = next.getManyInstance();
+				final Long id = Long.valueOf(manyHandler.getId(many));
+				manies.put(id, many);
+				next = iterator.hasNext() ? iterator.next() : null;
+			}
+			return manies;
+		}
+	}
+}
@@ -0,0 +1,103 @@
+/**
+ * Copyright (C) 2026 Oliver Schünemann
+ * 
+ * This program is free software; you can redistribute it and/or modify it under the terms of the 
+ * GNU General Public License as published by the Free Software Foundation; either version 2 of 
+ * the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; 
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. 
+ * See the GNU General Public License for more details. 
+ * 
+ * You should have received a copy of the GNU General Public License along with this program; 
+ * if not, write to the Free Software Foundation, Inc., 51 Franklin St, Fifth Floor, 
+ * Boston, MA 02110, USA 
+ * 
+ * @since 19.10.2026
+ * @version 1.0
+ * @author oliver
+ */
+package oc.io;
+
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+
+/**
+ * Estimates the heap size of Externalizables from the size of their
+ * serialized form. Serializing every element would double the work of the
+ * components using it, so only every SAMPLE_INTERVAL-th element is measured
+ * and the average is used for the others. Elements implementing
+ * {@link HeapSized} give their size themselves.
+ * 
+ * @author oliver
+ */
+public class SizeEstimator<T extends Externalizable> {
+	/**
+	 * Objects on the heap are bigger than their serialized form, strings use
+	 * two bytes per character and every object has its header
+	 */
+	private static final int HEAP_FACTOR = 3;
+	/**
+	 * Object header and the entry in the collection holding the element
+	 */
+	private static final int ENTRY_OVERHEAD = 64;
+	private static final int SAMPLE_INTERVAL = 64;
+
+	private final CountingOutputStream counter = new CountingOutputStream();
+	private final ObjectOutputStream oos;
+	private long calls = 0;
+	private long samples = 0;
+	private long sampledBytes = 0;
+
+	/**
+	 * @throws IOException
+	 */
+	public SizeEstimator() throws IOException {
+		super();
+		oos = new ObjectOutputStream(counter);
+	}
+
+	/**
+	 * @param element
+	 *            the element to estimate
+	 * @return estimated amount of heap bytes the element uses
+	 * @throws IOException
+	 */
+	public long estimate(final T element) throws IOException {
+		if (element instanceof HeapSized) {
+			final long heapSize = ((HeapSized) element).getHeapSize();
+			if (heapSize >= 0) {
+				return heapSize + ENTRY_OVERHEAD;
+			}
+		}
+		if (calls++ % SAMPLE_INTERVAL == 0) {
+			final long before = counter.count;
+			element.writeExternal(oos);
+			oos.flush();
+			sampledBytes += counter.count - before;
+			samples++;
+		}
+		return sampledBytes / samples * HEAP_FACTOR + ENTRY_OVERHEAD;
+	}
+
+	/**
+	 * OutputStream that only counts the bytes written to it.
+	 * 
+	 * @author oliver
+	 */
+	private static class CountingOutputStream extends OutputStream {
+		private long count = 0;
+
+		@Override
+		public void write(final int b) {
+			count++;
+		}
+
+		@Override
+		public void write(final byte[] b, final int off, final int len) {
+			count += len;
+		}
+	}
+}
@@ -19,12 +19,16 @@
  */
 package oc.io;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.EOFException;
 import java.io.IOException;
 import java.io.ObjectInput;
 import java.io.ObjectOutput;
+import java.io.StreamCorruptedException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
@@ -33,31 +37,139 @@ import java.util.Set;
  * major difference is that it supports a dictionary of often used Strings, that
  * can be stored with a low footprint
  * 
+ * Besides it encodes numbers with a variable length: LEB128 varints with 7
+ * bits per byte, signed numbers zig zag encoded first, so that small absolute
+ * values need few bytes. Ascending ids and neighbouring coordinates are
+ * written as difference to the previous value. None of the number methods
+ * allocates memory.
+ * 
+ * The elements written with the variable length numbers start with the byte
+ * {@link #FORMAT_VARINT}. The formats before start with a long id or an int
+ * string length, whose first byte is 0x00 or 0xFF for all values that occur,
+ * so files of both formats can be read.
+ * 
+ * The dictionary of a file is kept by its stream, see
+ * {@link DictionaryStream}. A writing stream samples the tags of its first
+ * elements and writes the dictionary built from them in front of the next
+ * element, starting with {@link #FORMAT_DICTIONARY}. From there on the
+ * frequent strings and key value pairs are written as their id. Readers take
+ * the dictionary from the file, so each file may have its own one. Elements
+ * in front of it use the dictionary of the {@link CodecContext}, streams
+ * without a context the one of the default context.
+ * 
  * @author oliver
  */
 public final class StreamIo {
 
+	/**
+	 * First byte of an element written with variable length numbers
+	 */
+	public static final int FORMAT_VARINT = 0x81;
+	/**
+	 * First byte of a dictionary written in front of an element
+	 */
+	public static final int FORMAT_DICTIONARY = 0x82;
+	/**
+	 * Maximum number of bytes of a varint
+	 */
+	public static final int MAX_VARINT_BYTES = 10;
+
 	private StreamIo() {
 
 	}
 
-	private static Map<String, Integer> dictionary = new HashMap<String, Integer>();
-	private static List<String> dictList = new ArrayList<>();
-
 	/**
 	 * Sets a dictionary of often used text that can be stored more efficient
-	 * afterwards.
+	 * afterwards. It replaces the dictionary of the default context, which
+	 * affects all conversions in the JVM, that are not given a context.
 	 * 
 	 * @param dictionary
+	 *            the often used text
+	 * @deprecated give the writers and iterators a {@link CodecContext}
+	 *             instead
 	 */
+	@Deprecated
 	public static void setDictionary(final Set<String> dictionary) {
-		StreamIo.dictionary.clear();
-		StreamIo.dictList.clear();
-		int i = 1;
-		for (final String string : dictionary) {
-			StreamIo.dictionary.put(string, Integer.valueOf(i++));
-			dictList.add(string);
+		CodecContext.setDefault(new CodecContext(TagDictionary.of(new ArrayList<>(dictionary)),
+				CodecContext.getDefault().getSamples()));
+	}
+
+	/**
+	 * Buffer the bytes of a string are read to before they are decoded
+	 */
+	private static final ThreadLocal<byte[]> stringBuffer = new ThreadLocal<byte[]>() {
+		@Override
+		protected byte[] initialValue() {
+			return new byte[StringCache.MAX_LENGTH];
+		}
+	};
+
+	private static StringCache stringCache(final Object stream) {
+		if (stream instanceof DictionaryStream) {
+			return ((DictionaryStream) stream).getContext().getStringCache();
+		}
+		return CodecContext.getDefault().getStringCache();
+	}
+
+	private static TagDictionary dictionary(final Object stream) {
+		if (stream instanceof DictionaryStream) {
+			return ((DictionaryStream) stream).getDictionary();
+		}
+		return CodecContext.getDefault().getDictionary();
+	}
+
+	/**
+	 * Writes the first byte of an element in the {@link #FORMAT_VARINT}
+	 * format. When the stream sampled enough tags, the dictionary built from
+	 * them is written in front. The first element of a stream writes the
+	 * dictionary of its context in front, unless it is empty.
+	 * 
+	 * @param out
+	 *            destination
+	 * @throws IOException
+	 *             when writing to the destination fails
+	 */
+	public static void writeFormat(final DataOutput out) throws IOException {
+		if (out instanceof DictionaryStream) {
+			final DictionaryStream stream = (DictionaryStream) out;
+			final boolean first = stream.startElement();
+			final TagSampler sampler = stream.getSampler();
+			if (sampler != null && sampler.isFull()) {
+				final TagDictionary dictionary = sampler.build();
+				stream.setDictionary(dictionary);
+				out.writeByte(FORMAT_DICTIONARY);
+				dictionary.write(out);
+			} else if (first && stream.getDictionary().size() > 0) {
+				out.writeByte(FORMAT_DICTIONARY);
+				stream.getDictionary().write(out);
+			}
+		}
+		out.writeByte(FORMAT_VARINT);
+	}
+
+	/**
+	 * Reads the first byte of an element. A dictionary in front of it is
+	 * passed to the stream.
+	 * 
+	 * @param in
+	 *            source
+	 * @return {@link #FORMAT_VARINT} or the first byte of an element in the
+	 *         format before
+	 * @throws StreamCorruptedException
+	 *             when the stream cannot keep a dictionary
+	 * @throws IOException
+	 *             when reading from the source fails
+	 */
+	public static int readFormat(final DataInput in) throws IOException {
+		int format = in.readUnsignedByte();
+		while (format == FORMAT_DICTIONARY) {
+			if (!(in instanceof DictionaryStream)) {
+				throw new StreamCorruptedException("Dictionary in a stream that cannot keep it");
+			}
+			((DictionaryStream) in).setDictionary(TagDictionary.read(in));
+			format = in.readUnsignedByte();
 		}
+		return format;
 	}
 
 	/**
@@ -68,15 +180,16 @@ public final class StreamIo {
 	 * @param str
 	 *            the string that shall be stored
 	 * @throws IOException
+	 *             when writing to the destination fails
 	 */
 	public static void writeString(final ObjectOutput out, final String str) throws IOException {
-		final byte b[] = str.getBytes();
-		final Integer id = dictionary.get(str);
-		if (id == null) {
+		final int id = dictionary(out).getId(str);
+		if (id == 0) {
+			final byte b[] = str.getBytes(StandardCharsets.UTF_8);
 			out.writeInt(b.length);
 			out.write(b);
 		} else {
-			out.writeInt(-id.intValue());
+			out.writeInt(-id);
 		}
 	}
 
@@ -88,37 +201,583 @@ public final class StreamIo {
 	 *            source from which the string will be read.
 	 * @return the string
 	 * @throws IOException
+	 *             when reading from the source fails
 	 */
 	public static String readString(final ObjectInput in) throws IOException {
-		final int length = in.readInt();
+		return readString(in, in.readInt());
+	}
+
+	/**
+	 * Skips a string that was written with writeString, without decoding it
+	 * 
+	 * @param in
+	 *            source from which the string will be read.
+	 * @throws IOException
+	 *             when reading from the source fails
+	 */
+	public static void skipString(final ObjectInput in) throws IOException {
+		skipBytes(in, in.readInt());
+	}
+
+	private static void skipBytes(final DataInput in, final int length) throws IOException {
+		int skipped = 0;
+		while (skipped < length) {
+			final int got = in.skipBytes(length - skipped);
+			if (got <= 0) {
+				// skipBytes gives up at the end of a block, read on instead
+				in.readByte();
+				skipped++;
+			} else {
+				skipped += got;
+			}
+		}
+	}
+
+	/**
+	 * Reads a string that was written with writeString, after its first byte
+	 * was already read to detect the format of the element.
+	 * 
+	 * @param in
+	 *            source from which the string will be read.
+	 * @param firstByte
+	 *            the first byte of the string
+	 * @return the string
+	 * @throws IOException
+	 *             when reading from the source fails
+	 */
+	public static String completeString(final ObjectInput in, final int firstByte)
+			throws IOException {
+		return readString(in, completeInt(in, firstByte));
+	}
+
+	private static String readString(final ObjectInput in, final int length) throws IOException {
 		if (length < 0) {
-			return dictList.get(-(length + 1));
+			return dictionary(in).getKey(-length);
 		} else {
-			final byte b[] = new byte[length];
-			in.readFully(b);
-			return new String(b);
-		}
-	}
-
-	public static void writeInt(final ObjectOutput out, final int i) throws IOException {
-		final byte b[] = new byte[5];
-		byte count = 1;
-		byte flag = 0;
-		int li = i;
-		if (li < 0) {
-			flag |= 0x01;
-			li = -li;
-		}
-		for (int j = 0; j < 4; ++j) {
-			final byte c = (byte) (li & 0xff);
-			if (c != 0) {
-				b[count] = c;
-				count++;
-				flag |= 1 << count;
+			return readLiteral(in, length);
+		}
+	}
+
+	/**
+	 * Writes a String with a variable length header: the zig zag encoded
+	 * length of its UTF-8 bytes or the negative id in the dictionary.
+	 * 
+	 * @param out
+	 *            the destination for the string
+	 * @param str
+	 *            the string that shall be stored
+	 * @throws IOException
+	 *             when writing to the destination fails
+	 */
+	public static void writeCompactString(final DataOutput out, final String str)
+			throws IOException {
+		final int id = dictionary(out).getId(str);
+		if (id == 0) {
+			writeLiteral(out, str);
+		} else {
+			writeSignedVarint(out, -id);
+		}
+	}
+
+	/**
+	 * Counterpart of {@link #writeCompactString(DataOutput, String)}
+	 * 
+	 * @param in
+	 *            source from which the string will be read.
+	 * @return the string
+	 * @throws IOException
+	 *             when reading from the source fails
+	 */
+	public static String readCompactString(final DataInput in) throws IOException {
+		final int length = readLength(in);
+		if (length >= 0) {
+			return readLiteral(in, length);
+		}
+		final TagDictionary dictionary = dictionary(in);
+		if (dictionary.isPair(-length)) {
+			throw new StreamCorruptedException("Key value pair " + -length + " for a string");
+		}
+		return dictionary.getKey(-length);
+	}
+
+	/**
+	 * Writes a role or another single string like
+	 * {@link #writeCompactString(DataOutput, String)} and counts it for the
+	 * dictionary when the stream samples.
+	 * 
+	 * @param out
+	 *            the destination for the string
+	 * @param str
+	 *            the string that shall be stored
+	 * @throws IOException
+	 *             when writing to the destination fails
+	 */
+	public static void writeSampledString(final DataOutput out, final String str)
+			throws IOException {
+		if (out instanceof DictionaryStream) {
+			final TagSampler sampler = ((DictionaryStream) out).getSampler();
+			if (sampler != null) {
+				sampler.add(str);
+			}
+		}
+		writeCompactString(out, str);
+	}
+
+	/**
+	 * Writes a tag. A key value pair of the dictionary is written as the
+	 * negative id of the pair, otherwise key and value follow as written with
+	 * writeCompactString. The tag is counted for the dictionary when the
+	 * stream samples.
+	 * 
+	 * @param out
+	 *            destination
+	 * @param key
+	 *            key of the tag
+	 * @param value
+	 *            value of the tag
+	 * @throws IOException
+	 *             when writing to the destination fails
+	 */
+	public static void writeProperty(final DataOutput out, final String key, final String value)
+			throws IOException {
+		final TagDictionary dictionary;
+		if (out instanceof DictionaryStream) {
+			final DictionaryStream stream = (DictionaryStream) out;
+			final TagSampler sampler = stream.getSampler();
+			if (sampler != null) {
+				sampler.add(key, value);
+			}
+			dictionary = stream.getDictionary();
+		} else {
+			dictionary = CodecContext.getDefault().getDictionary();
+		}
+		final int pair = dictionary.getPairId(key, value);
+		if (pair != 0) {
+			writeSignedVarint(out, -pair);
+			return;
+		}
+		final int id = dictionary.getId(key);
+		if (id == 0) {
+			writeLiteral(out, key);
+		} else {
+			writeSignedVarint(out, -id);
+		}
+		writeCompactString(out, value);
+	}
+
+	/**
+	 * Counterpart of {@link #writeProperty(DataOutput, String, String)}
+	 * 
+	 * @param in
+	 *            source
+	 * @param props
+	 *            receives the tag
+	 * @throws IOException
+	 *             when reading from the source fails
+	 */
+	public static void readProperty(final DataInput in, final Map<String, String> props)
+			throws IOException {
+		final int length = readLength(in);
+		if (length >= 0) {
+			final String key = readLiteral(in, length);
+			props.put(key, readCompactString(in));
+			return;
+		}
+		final TagDictionary dictionary = dictionary(in);
+		final String key = dictionary.getKey(-length);
+		if (dictionary.isPair(-length)) {
+			props.put(key, dictionary.getValue(-length));
+		} else {
+			props.put(key, readCompactString(in));
+		}
+	}
+
+	/**
+	 * Skips a tag that was written with writeProperty
+	 * 
+	 * @param in
+	 *            source
+	 * @throws IOException
+	 *             when reading from the source fails
+	 */
+	public static void skipProperty(final DataInput in) throws IOException {
+		final int length = readLength(in);
+		if (length >= 0) {
+			skipBytes(in, length);
+		} else if (dictionary(in).isPair(-length)) {
+			return;
+		}
+		skipCompactString(in);
+	}
+
+	private static void writeLiteral(final DataOutput out, final String str) throws IOException {
+		final byte b[] = str.getBytes(StandardCharsets.UTF_8);
+		writeSignedVarint(out, b.length);
+		out.write(b);
+	}
+
+	/**
+	 * Reads the UTF-8 bytes of a string into the buffer of the thread and
+	 * decodes them, a short string is taken from the cache of the stream.
+	 * 
+	 * @param in
+	 *            source
+	 * @param length
+	 *            number of bytes of the string
+	 * @return the string
+	 * @throws IOException
+	 *             when reading from the source fails
+	 */
+	private static String readLiteral(final DataInput in, final int length) throws IOException {
+		byte b[] = stringBuffer.get();
+		if (b.length < length) {
+			b = new byte[Math.max(length, 2 * b.length)];
+			stringBuffer.set(b);
+		}
+		in.readFully(b, 0, length);
+		final StringCache cache = stringCache(in);
+		if (cache == null) {
+			return new String(b, 0, length, StandardCharsets.UTF_8);
+		}
+		return cache.get(b, length);
+	}
+
+	/**
+	 * Skips a string that was written with writeCompactString, without
+	 * decoding it
+	 * 
+	 * @param in
+	 *            source from which the string will be read.
+	 * @throws IOException
+	 *             when reading from the source fails
+	 */
+	public static void skipCompactString(final DataInput in) throws IOException {
+		final int length = readLength(in);
+		if (length > 0) {
+			skipBytes(in, length);
+		}
+	}
+
+	private static int readLength(final DataInput in) throws IOException {
+		final long length = readSignedVarint(in);
+		if (length > Integer.MAX_VALUE || length < Integer.MIN_VALUE) {
+			throw new StreamCorruptedException("String of length " + length);
+		}
+		return (int) length;
+	}
+
+	/**
+	 * Writes a number with 7 bits per byte, the highest bit marks that
+	 * further bytes follow.
+	 * 
+	 * @param out
+	 *            destination
+	 * @param value
+	 *            the number, treated as unsigned
+	 * @throws IOException
+	 *             when writing to the destination fails
+	 */
+	public static void writeVarint(final DataOutput out, final long value) throws IOException {
+		long rest = value;
+		while ((rest & ~0x7FL) != 0) {
+			out.writeByte((int) (rest & 0x7F | 0x80));
+			rest >>>= 7;
+		}
+		out.writeByte((int) rest);
+	}
+
+	/**
+	 * @param in
+	 *            source
+	 * @return the number written with writeVarint
+	 * @throws StreamCorruptedException
+	 *             when the number is longer than a long
+	 * @throws IOException
+	 *             when reading from the source fails
+	 */
+	public static long readVarint(final DataInput in) throws IOException {
+		long value = 0;
+		for (int shift = 0; shift < 64; shift += 7) {
+			final byte b = in.readByte();
+			value |= (long) (b & 0x7F) << shift;
+			if (b >= 0) {
+				return value;
 			}
-			li = li >>> 8;
 		}
-		b[0] = flag;
-		out.write(b, 0, count);
+		throw new StreamCorruptedException("Number is longer than " + MAX_VARINT_BYTES
+				+ " bytes");
+	}
+
+	/**
+	 * @param in
+	 *            source
+	 * @return a count or size written with writeVarint
+	 * @throws StreamCorruptedException
+	 *             when the number exceeds the int range
+	 * @throws IOException
+	 *             when reading from the source fails
+	 */
+	public static int readSize(final DataInput in) throws IOException {
+		final long size = readVarint(in);
+		if (size < 0 || size > Integer.MAX_VALUE) {
+			throw new StreamCorruptedException("Size " + size + " exceeds the int range");
+		}
+		return (int) size;
+	}
+
+	/**
+	 * Writes a signed number, zig zag encoded.
+	 * 
+	 * @param out
+	 *            destination
+	 * @param value
+	 *            the number
+	 * @throws IOException
+	 *             when writing to the destination fails
+	 */
+	public static void writeSignedVarint(final DataOutput out, final long value)
+			throws IOException {
+		writeVarint(out, zigZag(value));
+	}
+
+	/**
+	 * @param in
+	 *            source
+	 * @return the number written with writeSignedVarint
+	 * @throws IOException
+	 *             when reading from the source fails
+	 */
+	public static long readSignedVarint(final DataInput in) throws IOException {
+		return unZigZag(readVarint(in));
+	}
+
+	/**
+	 * Writes the difference of a value to the previous one. The caller keeps
+	 * the previous value, usually in a local variable:
+	 * 
+	 * <pre>
+	 * previous = StreamIo.writeDelta(out, value, previous);
+	 * </pre>
+	 * 
+	 * @param out
+	 *            destination
+	 * @param value
+	 *            the value to write
+	 * @param previous
+	 *            the value written before, 0 for the first one
+	 * @return value, the previous value for the next call
+	 * @throws IOException
+	 *             when writing to the destination fails
+	 */
+	public static long writeDelta(final DataOutput out, final long value, final long previous)
+			throws IOException {
+		writeSignedVarint(out, value - previous);
+		return value;
+	}
+
+	/**
+	 * Counterpart of {@link #writeDelta(DataOutput, long, long)}
+	 * 
+	 * @param in
+	 *            source
+	 * @param previous
+	 *            the value read before, 0 for the first one
+	 * @return the value
+	 * @throws IOException
+	 *             when reading from the source fails
+	 */
+	public static long readDelta(final DataInput in, final long previous) throws IOException {
+		return previous + readSignedVarint(in);
+	}
+
+	/**
+	 * @param value
+	 *            signed number
+	 * @return the number with the sign in the lowest bit, small absolute
+	 *         values give small numbers
+	 */
+	public static long zigZag(final long value) {
+		return value << 1 ^ value >> 63;
+	}
+
+	/**
+	 * @param value
+	 *            zig zag encoded number
+	 * @return the signed number
+	 */
+	public static long unZigZag(final long value) {
+		return value >>> 1 ^ -(value & 1);
+	}
+
+	/**
+	 * Encodes a number like {@link #writeVarint(DataOutput, long)} into a
+	 * buffer.
+	 * 
+	 * @param buffer
+	 *            destination, needs up to MAX_VARINT_BYTES bytes
+	 * @param offset
+	 *            position of the first byte in the buffer
+	 * @param value
+	 *            the number, treated as unsigned
+	 * @return position behind the last byte written
+	 */
+	public static int writeVarint(final byte buffer[], final int offset, final long value) {
+		int pos = offset;
+		long rest = value;
+		while ((rest & ~0x7FL) != 0) {
+			buffer[pos++] = (byte) (rest & 0x7F | 0x80);
+			rest >>>= 7;
+		}
+		buffer[pos++] = (byte) rest;
+		return pos;
+	}
+
+	/**
+	 * @param buffer
+	 *            source
+	 * @return the next variable length number
+	 * @throws EOFException
+	 *             when the buffer ends within the number
+	 * @throws StreamCorruptedException
+	 *             when the number is longer than a long
+	 */
+	public static long readVarint(final ByteBuffer buffer) throws IOException {
+		long value = 0;
+		for (int shift = 0; shift < 64; shift += 7) {
+			if (!buffer.hasRemaining()) {
+				throw new EOFException("Buffer ends within a number");
+			}
+			final byte b = buffer.get();
+			value |= (long) (b & 0x7F) << shift;
+			if (b >= 0) {
+				return value;
+			}
+		}
+		throw new StreamCorruptedException("Number is longer than " + MAX_VARINT_BYTES
+				+ " bytes");
+	}
+
+	/**
+	 * Encodes values as zig zag differences to their predecessor, the first
+	 * one to 0.
+	 * 
+	 * @param buffer
+	 *            destination, needs up to length * MAX_VARINT_BYTES bytes
+	 * @param offset
+	 *            position of the first byte in the buffer
+	 * @param values
+	 *            the values
+	 * @param length
+	 *            number of values to encode
+	 * @return position behind the last byte written
+	 */
+	public static int writeDeltas(final byte buffer[], final int offset, final long values[],
+			final int length) {
+		int pos = offset;
+		long previous = 0;
+		for (int i = 0; i < length; ++i) {
+			pos = writeVarint(buffer, pos, zigZag(values[i] - previous));
+			previous = values[i];
+		}
+		return pos;
+	}
+
+	/**
+	 * Encodes values as zig zag differences to their predecessor, the first
+	 * one to 0.
+	 * 
+	 * @param buffer
+	 *            destination, needs up to length * MAX_VARINT_BYTES bytes
+	 * @param offset
+	 *            position of the first byte in the buffer
+	 * @param values
+	 *            the values
+	 * @param length
+	 *            number of values to encode
+	 * @return position behind the last byte written
+	 */
+	public static int writeDeltas(final byte buffer[], final int offset, final int values[],
+			final int length) {
+		int pos = offset;
+		int previous = 0;
+		for (int i = 0; i < length; ++i) {
+			// in long, the difference of two ints may exceed the int range
+			pos = writeVarint(buffer, pos, zigZag((long) values[i] - previous));
+			previous = values[i];
+		}
+		return pos;
+	}
+
+	/**
+	 * Counterpart of {@link #writeDeltas(byte[], int, long[], int)}
+	 * 
+	 * @param buffer
+	 *            source
+	 * @param values
+	 *            receives the values
+	 * @param length
+	 *            number of values to decode
+	 * @throws IOException
+	 *             when the buffer ends early or is corrupt
+	 */
+	public static void readDeltas(final ByteBuffer buffer, final long values[], final int length)
+			throws IOException {
+		long value = 0;
+		for (int i = 0; i < length; ++i) {
+			value += unZigZag(readVarint(buffer));
+			values[i] = value;
+		}
+	}
+
+	/**
+	 * Counterpart of {@link #writeDeltas(byte[], int, int[], int)}
+	 * 
+	 * @param buffer
+	 *            source
+	 * @param values
+	 *            receives the values
+	 * @param length
+	 *            number of values to decode
+	 * @throws IOException
+	 *             when the buffer ends early or is corrupt
+	 */
+	public static void readDeltas(final ByteBuffer buffer, final int values[], final int length)
+			throws IOException {
+		long value = 0;
+		for (int i = 0; i < length; ++i) {
+			value += unZigZag(readVarint(buffer));
+			values[i] = (int) value;
+		}
+	}
+
+	/**
+	 * Reads the remaining 7 bytes of a long written with writeLong.
+	 * 
+	 * @param in
+	 *            source
+	 * @param firstByte
+	 *            the first byte, already read to detect the format
+	 * @return the long
+	 * @throws IOException
+	 *             when reading from the source fails
+	 */
+	public static long completeLong(final DataInput in, final int firstByte) throws IOException {
+		return (long) firstByte << 56 | (in.readInt() & 0xFFFFFFFFL) << 24
+				| (long) in.readUnsignedShort() << 8 | in.readUnsignedByte();
+	}
+
+	/**
+	 * Reads the remaining 3 bytes of an int written with writeInt.
+	 * 
+	 * @param in
+	 *            source
+	 * @param firstByte
+	 *            the first byte, already read to detect the format
+	 * @return the int
+	 * @throws IOException
+	 *             when reading from the source fails
+	 */
+	public static int completeInt(final DataInput in, final int firstByte) throws IOException {
+		return firstByte << 24 | in.readUnsignedByte() << 16 | in.readUnsignedShort();
 	}
 }
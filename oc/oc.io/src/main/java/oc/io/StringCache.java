@@ -0,0 +1,206 @@
+/**
+ * Copyright (C) 2026 Oliver Schünemann
+ * 
+ * This program is free software; you can redistribute it and/or modify it under the terms of the 
+ * GNU General Public License as published by the Free Software Foundation; either version 2 of 
+ * the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; 
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. 
+ * See the GNU General Public License for more details. 
+ * 
+ * You should have received a copy of the GNU General Public License along with this program; 
+ * if not, write to the Free Software Foundation, Inc., 51 Franklin St, Fifth Floor, 
+ * Boston, MA 02110, USA 
+ * 
+ * @since 19.10.2026
+ * @version 1.0
+ * @author oliver
+ */
+package oc.io;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Bounded cache of the short strings read from the files. Most tag values and
+ * roles are a few frequent words like "yes", "residential" or "outer", that
+ * would be held as millions of copies by a stage keeping resolved elements in
+ * memory. The cache returns the same instance for the same UTF-8 bytes, on a
+ * hit no String is decoded at all.
+ * 
+ * The slots are split into stripes with a lock each, so the threads of the
+ * stages reading in parallel rarely wait for each other. Each slot keeps the
+ * last string whose bytes were hashed to it, so the cache never grows and the
+ * frequent strings stay in it.
+ * 
+ * @author oliver
+ */
+public final class StringCache {
+	/**
+	 * Longest string in UTF-8 bytes, that is cached
+	 */
+	public static final int MAX_LENGTH = 32;
+	/**
+	 * Number of slots of the default cache
+	 */
+	public static final int DEFAULT_SIZE = 1 << 14;
+	private static final int STRIPES = 16;
+	/**
+	 * String object and the header of its character array on the heap
+	 */
+	private static final int STRING_HEAP_SIZE = 40;
+
+	private final Stripe[] stripes = new Stripe[STRIPES];
+	private final int slotMask;
+
+	/**
+	 * @param size
+	 *            number of slots, rounded up to a power of two
+	 */
+	public StringCache(final int size) {
+		super();
+		int slots = 1;
+		while (slots * STRIPES < size) {
+			slots <<= 1;
+		}
+		slotMask = slots - 1;
+		for (int i = 0; i < STRIPES; ++i) {
+			stripes[i] = new Stripe(slots);
+		}
+	}
+
+	/**
+	 * @param bytes
+	 *            buffer containing the UTF-8 bytes of the string
+	 * @param length
+	 *            number of bytes of the string at the beginning of the buffer
+	 * @return the string decoded from the bytes, the cached instance when
+	 *         the same bytes were read before
+	 */
+	public String get(final byte[] bytes, final int length) {
+		if (length > MAX_LENGTH) {
+			return new String(bytes, 0, length, StandardCharsets.UTF_8);
+		}
+		int hash = length;
+		for (int i = 0; i < length; ++i) {
+			hash = 31 * hash + bytes[i];
+		}
+		hash ^= hash >>> 16;
+		final Stripe stripe = stripes[hash & (STRIPES - 1)];
+		final int slot = (hash >>> 4) & slotMask;
+		synchronized (stripe) {
+			final byte[] cached = stripe.bytes[slot];
+			if (cached != null && cached.length == length && equals(cached, bytes)) {
+				final String string = stripe.strings[slot];
+				stripe.hits++;
+				stripe.saved += heapSize(string);
+				return string;
+			}
+			final String string = new String(bytes, 0, length, StandardCharsets.UTF_8);
+			stripe.bytes[slot] = Arrays.copyOf(bytes, length);
+			stripe.strings[slot] = string;
+			stripe.misses++;
+			return string;
+		}
+	}
+
+	private static boolean equals(final byte[] cached, final byte[] bytes) {
+		for (int i = 0; i < cached.length; ++i) {
+			if (cached[i] != bytes[i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * @param string
+	 *            a string
+	 * @return estimated heap bytes of a copy of the string
+	 */
+	private static long heapSize(final String string) {
+		return STRING_HEAP_SIZE + ((2L * string.length() + 7) & ~7L);
+	}
+
+	/**
+	 * @return number of strings found in the cache
+	 */
+	public long getHits() {
+		long hits = 0;
+		for (final Stripe stripe : stripes) {
+			synchronized (stripe) {
+				hits += stripe.hits;
+			}
+		}
+		return hits;
+	}
+
+	/**
+	 * @return number of short strings, that were not found in the cache
+	 */
+	public long getMisses() {
+		long misses = 0;
+		for (final Stripe stripe : stripes) {
+			synchronized (stripe) {
+				misses += stripe.misses;
+			}
+		}
+		return misses;
+	}
+
+	/**
+	 * @return share of the short strings found in the cache, 0 when none was
+	 *         read
+	 */
+	public double getHitRate() {
+		final long hits = getHits();
+		final long all = hits + getMisses();
+		return all == 0 ? 0 : (double) hits / all;
+	}
+
+	/**
+	 * @return estimated heap bytes of the copies, that were not created,
+	 *         because the cached instance was returned
+	 */
+	public long getSavedBytes() {
+		long saved = 0;
+		for (final Stripe stripe : stripes) {
+			synchronized (stripe) {
+				saved += stripe.saved;
+			}
+		}
+		return saved;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString() {
+		final long hits = getHits();
+		return hits + " strings read from the cache, hit rate "
+				+ Math.round(getHitRate() * 100) + " %, " + (getSavedBytes() >> 10)
+				+ " kB not allocated";
+	}
+
+	/**
+	 * Slots guarded by the same lock
+	 * 
+	 * @author oliver
+	 */
+	private static final class Stripe {
+		private final byte[][] bytes;
+		private final String[] strings;
+		private long hits = 0;
+		private long misses = 0;
+		private long saved = 0;
+
+		Stripe(final int slots) {
+			bytes = new byte[slots][];
+			strings = new String[slots];
+		}
+	}
+}
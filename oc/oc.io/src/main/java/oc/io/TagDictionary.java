@@ -0,0 +1,240 @@
+/**
+ * Copyright (C) 2026 Oliver Schünemann
+ * 
+ * This program is free software; you can redistribute it and/or modify it under the terms of the 
+ * GNU General Public License as published by the Free Software Foundation; either version 2 of 
+ * the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; 
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. 
+ * See the GNU General Public License for more details. 
+ * 
+ * You should have received a copy of the GNU General Public License along with this program; 
+ * if not, write to the Free Software Foundation, Inc., 51 Franklin St, Fifth Floor, 
+ * Boston, MA 02110, USA 
+ * 
+ * @since 19.10.2026
+ * @version 1.0
+ * @author oliver
+ */
+package oc.io;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Dictionary of often used strings and key value pairs of tags. An entry is
+ * stored as its id, entries are numbered from 1 in the order they were added,
+ * so the most frequent ones should come first to get the shortest ids.
+ * Instances are immutable after they are built.
+ * 
+ * @author oliver
+ */
+public final class TagDictionary {
+	/**
+	 * Maximum number of entries, their ids need up to 2 bytes
+	 */
+	public static final int MAX_ENTRIES = 1 << 13;
+	/**
+	 * Dictionary without entries
+	 */
+	public static final TagDictionary EMPTY = new TagDictionary();
+
+	private static final int STRING = 0;
+	private static final int PAIR = 1;
+
+	/**
+	 * Key or string of an entry, value or null for strings
+	 */
+	private final List<String> keys = new ArrayList<>();
+	private final List<String> values = new ArrayList<>();
+	private final Map<String, Integer> strings = new HashMap<>();
+	private final Map<String, Map<String, Integer>> pairs = new HashMap<>();
+
+	private TagDictionary() {
+		super();
+	}
+
+	/**
+	 * @param strings
+	 *            the strings in the order of their ids
+	 * @return dictionary of the strings
+	 */
+	public static TagDictionary of(final Collection<String> strings) {
+		final TagDictionary dictionary = new TagDictionary();
+		for (final String string : strings) {
+			dictionary.add(string, null);
+		}
+		return dictionary;
+	}
+
+	/**
+	 * Adds an entry, used while the dictionary is built
+	 * 
+	 * @param key
+	 *            the string or the key of a pair
+	 * @param value
+	 *            value of a pair, null for a string
+	 */
+	void add(final String key, final String value) {
+		final Integer id = Integer.valueOf(keys.size() + 1);
+		keys.add(key);
+		values.add(value);
+		if (value == null) {
+			strings.put(key, id);
+		} else {
+			Map<String, Integer> byValue = pairs.get(key);
+			if (byValue == null) {
+				byValue = new HashMap<>();
+				pairs.put(key, byValue);
+			}
+			byValue.put(value, id);
+		}
+	}
+
+	/**
+	 * @return number of entries
+	 */
+	public int size() {
+		return keys.size();
+	}
+
+	/**
+	 * @param string
+	 *            a string
+	 * @return the id of the string or 0 when it is not contained
+	 */
+	public int getId(final String string) {
+		final Integer id = strings.get(string);
+		return id == null ? 0 : id.intValue();
+	}
+
+	/**
+	 * @param key
+	 *            key of a tag
+	 * @param value
+	 *            value of a tag
+	 * @return the id of the pair or 0 when it is not contained
+	 */
+	public int getPairId(final String key, final String value) {
+		final Map<String, Integer> byValue = pairs.get(key);
+		if (byValue == null) {
+			return 0;
+		}
+		final Integer id = byValue.get(value);
+		return id == null ? 0 : id.intValue();
+	}
+
+	/**
+	 * @param id
+	 *            id of an entry
+	 * @return true when the entry is a key value pair
+	 * @throws StreamCorruptedException
+	 *             when there is no such entry
+	 */
+	public boolean isPair(final int id) throws StreamCorruptedException {
+		check(id);
+		return values.get(id - 1) != null;
+	}
+
+	/**
+	 * @param id
+	 *            id of an entry
+	 * @return the string or the key of a pair
+	 * @throws StreamCorruptedException
+	 *             when there is no such entry
+	 */
+	public String getKey(final int id) throws StreamCorruptedException {
+		check(id);
+		return keys.get(id - 1);
+	}
+
+	/**
+	 * @param id
+	 *            id of an entry
+	 * @return the value of a pair, null for a string
+	 * @throws StreamCorruptedException
+	 *             when there is no such entry
+	 */
+	public String getValue(final int id) throws StreamCorruptedException {
+		check(id);
+		return values.get(id - 1);
+	}
+
+	private void check(final int id) throws StreamCorruptedException {
+		if (id < 1 || id > keys.size()) {
+			throw new StreamCorruptedException("No entry " + id + " in a dictionary of "
+					+ keys.size());
+		}
+	}
+
+	/**
+	 * Writes the entries: varint count, per entry a byte marking strings and
+	 * pairs followed by one or two strings, each a varint length and UTF-8
+	 * bytes.
+	 * 
+	 * @param out
+	 *            destination
+	 * @throws IOException
+	 */
+	public void write(final DataOutput out) throws IOException {
+		StreamIo.writeVarint(out, keys.size());
+		for (int i = 0; i < keys.size(); ++i) {
+			final String value = values.get(i);
+			out.writeByte(value == null ? STRING : PAIR);
+			writeEntry(out, keys.get(i));
+			if (value != null) {
+				writeEntry(out, value);
+			}
+		}
+	}
+
+	/**
+	 * Counterpart of {@link #write(DataOutput)}
+	 * 
+	 * @param in
+	 *            source
+	 * @return the dictionary
+	 * @throws IOException
+	 */
+	public static TagDictionary read(final DataInput in) throws IOException {
+		final int size = StreamIo.readSize(in);
+		if (size > MAX_ENTRIES) {
+			throw new StreamCorruptedException("Dictionary of " + size + " entries");
+		}
+		final TagDictionary dictionary = new TagDictionary();
+		for (int i = 0; i < size; ++i) {
+			final int kind = in.readByte();
+			final String key = readEntry(in);
+			if (kind == PAIR) {
+				dictionary.add(key, readEntry(in));
+			} else if (kind == STRING) {
+				dictionary.add(key, null);
+			} else {
+				throw new StreamCorruptedException("Unknown dictionary entry " + kind);
+			}
+		}
+		return dictionary;
+	}
+
+	private static void writeEntry(final DataOutput out, final String string)
+			throws IOException {
+		final byte b[] = string.getBytes(StandardCharsets.UTF_8);
+		StreamIo.writeVarint(out, b.length);
+		out.write(b);
+	}
+
+	private static String readEntry(final DataInput in) throws IOException {
+		final byte b[] = new byte[StreamIo.readSize(in)];
+		in.readFully(b);
+		return new String(b, StandardCharsets.UTF_8);
+	}
+}
@@ -0,0 +1,164 @@
+/**
+ * Copyright (C) 2026 Oliver Schünemann
+ * 
+ * This program is free software; you can redistribute it and/or modify it under the terms of the 
+ * GNU General Public License as published by the Free Software Foundation; either version 2 of 
+ * the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; 
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. 
+ * See the GNU General Public License for more details. 
+ * 
+ * You should have received a copy of the GNU General Public License along with this program; 
+ * if not, write to the Free Software Foundation, Inc., 51 Franklin St, Fifth Floor, 
+ * Boston, MA 02110, USA 
+ * 
+ * @since 19.10.2026
+ * @version 1.0
+ * @author oliver
+ */
+package oc.io;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Counts the tags and roles of the first elements written to a file, to
+ * build a dictionary of the strings and key value pairs that occur often.
+ * 
+ * @author oliver
+ */
+public final class TagSampler {
+	/**
+	 * Number of tags and roles sampled by default
+	 */
+	public static final int DEFAULT_SAMPLES = 1 << 12;
+	/**
+	 * Minimum number of occurrences in the sample for an entry of the
+	 * dictionary
+	 */
+	static final int MIN_COUNT = 3;
+
+	private final int samples;
+	private int sampled = 0;
+	private final Map<String, int[]> strings = new HashMap<>();
+	private final Map<String, Map<String, int[]>> pairs = new HashMap<>();
+
+	/**
+	 * @param samples
+	 *            number of tags and roles to sample
+	 */
+	public TagSampler(final int samples) {
+		super();
+		this.samples = samples;
+	}
+
+	/**
+	 * Counts a tag
+	 * 
+	 * @param key
+	 *            key of the tag
+	 * @param value
+	 *            value of the tag
+	 */
+	public void add(final String key, final String value) {
+		count(strings, key);
+		count(strings, value);
+		Map<String, int[]> byValue = pairs.get(key);
+		if (byValue == null) {
+			byValue = new HashMap<>();
+			pairs.put(key, byValue);
+		}
+		count(byValue, value);
+		sampled++;
+	}
+
+	/**
+	 * Counts a single string, e.g. the role of a member
+	 * 
+	 * @param string
+	 *            the string
+	 */
+	public void add(final String string) {
+		count(strings, string);
+		sampled++;
+	}
+
+	private static void count(final Map<String, int[]> counts, final String string) {
+		final int count[] = counts.get(string);
+		if (count == null) {
+			counts.put(string, new int[] { 1 });
+		} else {
+			count[0]++;
+		}
+	}
+
+	/**
+	 * @return true when enough strings were sampled
+	 */
+	public boolean isFull() {
+		return sampled >= samples;
+	}
+
+	/**
+	 * @return dictionary of the strings and pairs that occurred at least
+	 *         MIN_COUNT times, the most frequent first. The order of entries
+	 *         with the same count is fixed, so the same sample gives the same
+	 *         dictionary.
+	 */
+	public TagDictionary build() {
+		final List<Entry> entries = new ArrayList<>();
+		for (final Map.Entry<String, int[]> string : strings.entrySet()) {
+			if (string.getValue()[0] >= MIN_COUNT) {
+				entries.add(new Entry(string.getKey(), null, string.getValue()[0]));
+			}
+		}
+		for (final Map.Entry<String, Map<String, int[]>> key : pairs.entrySet()) {
+			for (final Map.Entry<String, int[]> value : key.getValue().entrySet()) {
+				if (value.getValue()[0] >= MIN_COUNT) {
+					entries.add(new Entry(key.getKey(), value.getKey(), value.getValue()[0]));
+				}
+			}
+		}
+		Collections.sort(entries, new Comparator<Entry>() {
+			@Override
+			public int compare(final Entry o1, final Entry o2) {
+				if (o1.count != o2.count) {
+					return o1.count > o2.count ? -1 : 1;
+				}
+				final int keys = o1.key.compareTo(o2.key);
+				if (keys != 0) {
+					return keys;
+				}
+				if (o1.value == null || o2.value == null) {
+					return o1.value == null ? o2.value == null ? 0 : -1 : 1;
+				}
+				return o1.value.compareTo(o2.value);
+			}
+		});
+		final TagDictionary dictionary = TagDictionary.of(Collections.<String> emptyList());
+		for (int i = 0; i < entries.size() && i < TagDictionary.MAX_ENTRIES; ++i) {
+			dictionary.add(entries.get(i).key, entries.get(i).value);
+		}
+		return dictionary;
+	}
+
+	/**
+	 * Candidate for the dictionary
+	 */
+	private static final class Entry {
+		private final String key;
+		private final String value;
+		private final int count;
+
+		Entry(final String key, final String value, final int count) {
+			this.key = key;
+			this.value = value;
+			this.count = count;
+		}
+	}
+}
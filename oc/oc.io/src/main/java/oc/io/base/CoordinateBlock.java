@@ -0,0 +1,94 @@
+/**
+ * Copyright (C) 2026 Oliver Schünemann
+ * 
+ * This program is free software; you can redistribute it and/or modify it under the terms of the 
+ * GNU General Public License as published by the Free Software Foundation; either version 2 of 
+ * the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; 
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. 
+ * See the GNU General Public License for more details. 
+ * 
+ * You should have received a copy of the GNU General Public License along with this program; 
+ * if not, write to the Free Software Foundation, Inc., 51 Franklin St, Fifth Floor, 
+ * Boston, MA 02110, USA 
+ * 
+ * @since 19.10.2026
+ * @version 1.0
+ * @author oliver
+ */
+package oc.io.base;
+
+/**
+ * The decoded entries of a block of a coordinate file as three parallel
+ * arrays. An instance is reused for all blocks read, see
+ * {@link CoordinateFileReader#decode(int, CoordinateBlock)}.
+ *
+ * @author oliver
+ */
+public class CoordinateBlock {
+	/**
+	 * Ids of the entries
+	 */
+	private long ids[] = new long[0];
+	/**
+	 * First coordinates of the entries
+	 */
+	private int lats[] = new int[0];
+	/**
+	 * Second coordinates of the entries
+	 */
+	private int lons[] = new int[0];
+	/**
+	 * Number of valid entries in the arrays
+	 */
+	private int size = 0;
+
+	/**
+	 * @return the ids, valid up to {@link #getSize()}
+	 */
+	public long[] getIds() {
+		return ids;
+	}
+
+	/**
+	 * @return the first coordinates, valid up to {@link #getSize()}
+	 */
+	public int[] getLats() {
+		return lats;
+	}
+
+	/**
+	 * @return the second coordinates, valid up to {@link #getSize()}
+	 */
+	public int[] getLons() {
+		return lons;
+	}
+
+	/**
+	 * @return number of entries in the block
+	 */
+	public int getSize() {
+		return size;
+	}
+
+	/**
+	 * @param size
+	 *            number of entries decoded into the arrays
+	 */
+	void setSize(final int size) {
+		this.size = size;
+	}
+
+	/**
+	 * @param capacity
+	 *            number of entries the arrays must hold
+	 */
+	void ensureCapacity(final int capacity) {
+		if (ids.length < capacity) {
+			ids = new long[capacity];
+			lats = new int[capacity];
+			lons = new int[capacity];
+		}
+	}
+}
@@ -0,0 +1,188 @@
+/**
+ * Copyright (C) 2026 Oliver Schünemann
+ * 
+ * This program is free software; you can redistribute it and/or modify it under the terms of the 
+ * GNU General Public License as published by the Free Software Foundation; either version 2 of 
+ * the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; 
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. 
+ * See the GNU General Public License for more details. 
+ * 
+ * You should have received a copy of the GNU General Public License along with this program; 
+ * if not, write to the Free Software Foundation, Inc., 51 Franklin St, Fifth Floor, 
+ * Boston, MA 02110, USA 
+ * 
+ * @since 19.10.2026
+ * @version 1.0
+ * @author oliver
+ */
+package oc.io.base;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import oc.io.StreamIo;
+
+/**
+ * Reads a file written by the {@link CoordinateFileWriter}. The file is mapped
+ * into memory and decoded block by block into the arrays of a
+ * {@link CoordinateBlock}, no object is created per entry. The index of the
+ * blocks is read when the file is opened, so a reader can start at the block
+ * of any id.
+ *
+ * @author oliver
+ */
+public class CoordinateFileReader implements Closeable {
+	/**
+	 * The coordinate file, named in the error messages
+	 */
+	private final File f;
+	/**
+	 * Content of the file
+	 */
+	private final MappedFile in;
+	/**
+	 * Number of entries in the file
+	 */
+	private final long count;
+	/**
+	 * First id of every block
+	 */
+	private final long firstIds[];
+	/**
+	 * Position of every block in the file
+	 */
+	private final long positions[];
+
+	/**
+	 * Opens the file and reads its index.
+	 *
+	 * @param f
+	 *            the coordinate file
+	 * @throws EOFException
+	 *             when the file is truncated
+	 * @throws IOException
+	 *             when the file is no coordinate file
+	 */
+	public CoordinateFileReader(final File f) throws IOException {
+		super();
+		this.f = f;
+		in = new MappedFile(f);
+		try {
+			if (in.size() < CoordinateFileWriter.HEADER_SIZE + CoordinateFileWriter.TRAILER_SIZE) {
+				throw new EOFException("Coordinate file " + f + " is truncated");
+			}
+			if (in.slice(0, 4).getInt() != CoordinateFileWriter.MAGIC) {
+				throw new IOException(f + " is no coordinate file");
+			}
+			final ByteBuffer trailer = in.slice(in.size() - CoordinateFileWriter.TRAILER_SIZE,
+					CoordinateFileWriter.TRAILER_SIZE);
+			final long indexPosition = trailer.getLong();
+			count = trailer.getLong();
+			final int blocks = trailer.getInt();
+			if (trailer.getInt() != CoordinateFileWriter.MAGIC || blocks < 0
+					|| indexPosition + 16L * blocks + CoordinateFileWriter.TRAILER_SIZE != in.size()) {
+				throw new EOFException("Coordinate file " + f + " is truncated");
+			}
+			firstIds = new long[blocks];
+			positions = new long[blocks + 1];
+			final ByteBuffer index = in.slice(indexPosition, 16 * blocks);
+			for (int b = 0; b < blocks; ++b) {
+				firstIds[b] = index.getLong();
+				positions[b] = index.getLong();
+			}
+			positions[blocks] = indexPosition;
+		} catch (final IOException e) {
+			in.close();
+			throw e;
+		}
+	}
+
+	/**
+	 * @return number of entries in the file
+	 */
+	public long getCount() {
+		return count;
+	}
+
+	/**
+	 * @return number of blocks in the file
+	 */
+	public int getBlockCount() {
+		return firstIds.length;
+	}
+
+	/**
+	 * @param block
+	 *            index of the block
+	 * @return the id of the first entry in the block
+	 */
+	public long getFirstId(final int block) {
+		return firstIds[block];
+	}
+
+	/**
+	 * Searches the block an id belongs to, the ids must be written in
+	 * ascending order.
+	 *
+	 * @param id
+	 *            the id to look up
+	 * @return index of the last block whose first id is not bigger than the
+	 *         id, 0 when the id is smaller than all ids of the file
+	 */
+	public int findBlock(final long id) {
+		int low = 0;
+		int high = firstIds.length;
+		while (low < high) {
+			final int mid = (low + high) >>> 1;
+			if (firstIds[mid] <= id) {
+				low = mid + 1;
+			} else {
+				high = mid;
+			}
+		}
+		return Math.max(0, low - 1);
+	}
+
+	/**
+	 * Decodes all entries of a block.
+	 *
+	 * @param block
+	 *            index of the block
+	 * @param target
+	 *            receives the entries, its arrays grow when they are too
+	 *            small
+	 * @return number of entries in the block
+	 * @throws IOException
+	 *             when the block is corrupt
+	 */
+	public int decode(final int block, final CoordinateBlock target) throws IOException {
+		final long start = positions[block];
+		final ByteBuffer buffer = in.slice(start, (int) (positions[block + 1] - start));
+		final long size = StreamIo.readVarint(buffer);
+		if (size <= 0 || size > buffer.remaining()) {
+			throw new IOException("Block " + block + " of " + f + " is corrupt");
+		}
+		final int entries = (int) size;
+		target.ensureCapacity(entries);
+		StreamIo.readDeltas(buffer, target.getIds(), entries);
+		StreamIo.readDeltas(buffer, target.getLats(), entries);
+		StreamIo.readDeltas(buffer, target.getLons(), entries);
+		target.setSize(entries);
+		return entries;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.io.Closeable#close()
+	 */
+	@Override
+	public void close() throws IOException {
+		in.close();
+	}
+}
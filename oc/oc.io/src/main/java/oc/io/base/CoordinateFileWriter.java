@@ -0,0 +1,259 @@
+/**
+ * Copyright (C) 2026 Oliver Schünemann
+ * 
+ * This program is free software; you can redistribute it and/or modify it under the terms of the 
+ * GNU General Public License as published by the Free Software Foundation; either version 2 of 
+ * the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; 
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. 
+ * See the GNU General Public License for more details. 
+ * 
+ * You should have received a copy of the GNU General Public License along with this program; 
+ * if not, write to the Free Software Foundation, Inc., 51 Franklin St, Fifth Floor, 
+ * Boston, MA 02110, USA 
+ * 
+ * @since 19.10.2026
+ * @version 1.0
+ * @author oliver
+ */
+package oc.io.base;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+import oc.io.StreamIo;
+
+/**
+ * Writes ids with two int coordinates each, e.g. the nodes reduced to what
+ * the resolvers need, to a compact columnar file read by the
+ * {@link CoordinateFileReader}. The entries are collected into blocks of a
+ * fixed number. A block stores the ids, the latitudes and the longitudes as
+ * three columns, each value as zig zag encoded difference to its predecessor
+ * in variable length. The ids of a node file are sorted and nearly
+ * consecutive and neighbouring nodes are close to each other, so most entries
+ * need 4 to 5 bytes instead of the 20 bytes of a serialized node.
+ *
+ * The file starts with a header of magic number and block size. The blocks
+ * are followed by an index holding the first id and the position of every
+ * block and a trailer of fixed size, that locates the index:
+ *
+ * <pre>
+ * header  : int magic, int blockSize
+ * block   : varint count, count ids, count lats, count lons
+ * index   : per block long firstId, long position
+ * trailer : long indexPosition, long count, int blocks, int magic
+ * </pre>
+ *
+ * The index can only be searched by id, when the ids are written in ascending
+ * order.
+ *
+ * @author oliver
+ */
+public class CoordinateFileWriter implements Closeable {
+	/**
+	 * Identifies the file, written to header and trailer
+	 */
+	static final int MAGIC = 0x4F43434F;
+	/**
+	 * Bytes of magic number and block size in front of the first block
+	 */
+	static final int HEADER_SIZE = 8;
+	/**
+	 * Bytes of the trailer behind the index
+	 */
+	static final int TRAILER_SIZE = 24;
+	/**
+	 * Number of entries in a block
+	 */
+	public static final int DEFAULT_BLOCK_SIZE = 4096;
+
+	/**
+	 * Destination of the file
+	 */
+	private final DataOutputStream out;
+	/**
+	 * Number of entries in a block
+	 */
+	private final int blockSize;
+	/**
+	 * Ids of the entries collected for the next block
+	 */
+	private final long ids[];
+	/**
+	 * First coordinates of the entries collected for the next block
+	 */
+	private final int lats[];
+	/**
+	 * Second coordinates of the entries collected for the next block
+	 */
+	private final int lons[];
+	/**
+	 * Buffer a block is encoded to, large enough for the longest block
+	 */
+	private final byte encoded[];
+	/**
+	 * Number of entries collected for the next block
+	 */
+	private int size = 0;
+	/**
+	 * Number of bytes written to the file
+	 */
+	private long position = 0;
+	/**
+	 * Number of entries in the written blocks
+	 */
+	private long count = 0;
+	/**
+	 * Number of written blocks
+	 */
+	private int blocks = 0;
+	/**
+	 * First id of every written block, for the index
+	 */
+	private long firstIds[] = new long[64];
+	/**
+	 * Position of every written block, for the index
+	 */
+	private long positions[] = new long[64];
+	/**
+	 * Whether the index and trailer are written
+	 */
+	private boolean closed = false;
+
+	/**
+	 * @param f
+	 *            the file to write
+	 * @throws IOException
+	 *             when the file cannot be created or written
+	 */
+	public CoordinateFileWriter(final File f) throws IOException {
+		this(new BufferedOutputStream(new FileOutputStream(f)), DEFAULT_BLOCK_SIZE);
+	}
+
+	/**
+	 * @param out
+	 *            destination of the file, closed by {@link #close()}
+	 * @throws IOException
+	 *             when writing the file fails
+	 */
+	public CoordinateFileWriter(final OutputStream out) throws IOException {
+		this(out, DEFAULT_BLOCK_SIZE);
+	}
+
+	/**
+	 * @param out
+	 *            destination of the file, closed by {@link #close()}
+	 * @param blockSize
+	 *            number of entries in a block
+	 * @throws IOException
+	 *             when writing the file fails
+	 */
+	public CoordinateFileWriter(final OutputStream out, final int blockSize) throws IOException {
+		super();
+		if (blockSize <= 0) {
+			throw new IllegalArgumentException("Block size must be positive, not " + blockSize);
+		}
+		this.out = new DataOutputStream(out);
+		this.blockSize = blockSize;
+		ids = new long[blockSize];
+		lats = new int[blockSize];
+		lons = new int[blockSize];
+		encoded = new byte[StreamIo.MAX_VARINT_BYTES * (3 * blockSize + 1)];
+		this.out.writeInt(MAGIC);
+		this.out.writeInt(blockSize);
+		position = HEADER_SIZE;
+	}
+
+	/**
+	 * Adds the next entry.
+	 *
+	 * @param id
+	 *            id of the entry
+	 * @param lat
+	 *            first coordinate
+	 * @param lon
+	 *            second coordinate
+	 * @throws IOException
+	 *             when the writer is closed or writing the file fails
+	 */
+	public void write(final long id, final int lat, final int lon) throws IOException {
+		if (closed) {
+			throw new IOException("Coordinate file is already closed");
+		}
+		ids[size] = id;
+		lats[size] = lat;
+		lons[size] = lon;
+		size++;
+		if (size == blockSize) {
+			writeBlock();
+		}
+	}
+
+	/**
+	 * @return number of entries written so far
+	 */
+	public long getCount() {
+		return count + size;
+	}
+
+	/**
+	 * Writes the collected entries as a block and adds it to the index
+	 *
+	 * @throws IOException
+	 *             when writing the file fails
+	 */
+	private void writeBlock() throws IOException {
+		if (blocks == firstIds.length) {
+			firstIds = Arrays.copyOf(firstIds, blocks * 2);
+			positions = Arrays.copyOf(positions, blocks * 2);
+		}
+		firstIds[blocks] = ids[0];
+		positions[blocks] = position;
+		blocks++;
+		int length = StreamIo.writeVarint(encoded, 0, size);
+		length = StreamIo.writeDeltas(encoded, length, ids, size);
+		length = StreamIo.writeDeltas(encoded, length, lats, size);
+		length = StreamIo.writeDeltas(encoded, length, lons, size);
+		out.write(encoded, 0, length);
+		position += length;
+		count += size;
+		size = 0;
+	}
+
+	/**
+	 * Writes the last block, the index and the trailer and closes the stream.
+	 *
+	 * @throws IOException
+	 *             when writing the file fails
+	 */
+	@Override
+	public void close() throws IOException {
+		if (closed) {
+			return;
+		}
+		closed = true;
+		try {
+			if (size > 0) {
+				writeBlock();
+			}
+			final long indexPosition = position;
+			for (int b = 0; b < blocks; ++b) {
+				out.writeLong(firstIds[b]);
+				out.writeLong(positions[b]);
+			}
+			out.writeLong(indexPosition);
+			out.writeLong(count);
+			out.writeInt(blocks);
+			out.writeInt(MAGIC);
+		} finally {
+			out.close();
+		}
+	}
+}
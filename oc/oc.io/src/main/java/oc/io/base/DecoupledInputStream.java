@@ -35,7 +35,8 @@ import org.apache.logging.log4j.Logger;
  * input stream. When there is a blocking device behind this thread, the user of
  * the DecoupledInputstream might not been blocked, because it can read data out
  * of the buffer. Only when buffer is empty it must wait until the reader thread
- * has gathered enough data for continuing.
+ * has gathered enough data for continuing. The buffer is reserved from a
+ * {@link MemoryBudget} and given back when the stream is closed.
  * 
  * @author oliver
  * 
@@ -45,20 +46,52 @@ public class DecoupledInputStream extends InputStream {
 	private final Thread readerThread;
 	private static int defaultBufferSize = 1 << 20;
 	private static int defaultReadBufferSize = 1 << 16;
+	/**
+	 * The reader thread needs room for two read buffers in the ring
+	 */
+	private static int minBufferSize = 4 * defaultReadBufferSize;
 	private final Lock bufferLock = new ReentrantLock();
 	private final Semaphore readTrigger = new Semaphore(1);
 	private final Semaphore availableTrigger = new Semaphore(1);
 	private final Semaphore closeSemaphore = new Semaphore(0);
-	private final byte b[] = new byte[defaultBufferSize];
-	private int free = defaultBufferSize;
+	private final MemoryBudget.Reservation reservation;
+	private final int bufferSize;
+	private final byte b[];
+	private int free;
 	private int in = 0;
 	private int out = 0;
-	private boolean closing = false;
-	private boolean sourceClosed = false;
+	private volatile boolean closing = false;
+	/**
+	 * Set by the reader thread behind its last bytes
+	 */
+	private volatile boolean sourceClosed = false;
 	private static final Logger logger = LogManager.getLogger(DecoupledInputStream.class);
 
+	/**
+	 * Stream with a buffer from the global {@link MemoryBudget}
+	 * 
+	 * @param source
+	 *            the stream read by the second thread
+	 * @throws IOException
+	 */
 	public DecoupledInputStream(final InputStream source) throws IOException {
+		this(source, MemoryBudget.getGlobal());
+	}
+
+	/**
+	 * @param source
+	 *            the stream read by the second thread
+	 * @param budget
+	 *            the budget the buffer is reserved from
+	 * @throws IOException
+	 */
+	public DecoupledInputStream(final InputStream source, final MemoryBudget budget)
+			throws IOException {
 		super();
+		reservation = budget.reserveNow(defaultBufferSize, minBufferSize);
+		bufferSize = (int) reservation.getBytes();
+		b = new byte[bufferSize];
+		free = bufferSize;
 		readerThread = new Thread(new SourceReader(source));
 		readerThread.start();
 	}
@@ -76,7 +109,12 @@ public class DecoupledInputStream extends InputStream {
 	private int waitAvailable(final int amount) throws IOException {
 		final int maxAmount = amount > defaultReadBufferSize ? defaultReadBufferSize : amount;
 		int currAvailable = available();
-		while (!sourceClosed && currAvailable < maxAmount) {
+		while (currAvailable < maxAmount) {
+			if (sourceClosed) {
+				// the last bytes may have arrived since the check above
+				currAvailable = available();
+				break;
+			}
 			try {
 				availableTrigger.tryAcquire(1, TimeUnit.SECONDS);
 				currAvailable = available();
@@ -99,16 +137,13 @@ public class DecoupledInputStream extends InputStream {
 		try {
 			if (got >= 1) {
 				final int r = b[out];
-				out = (out + 1) % defaultBufferSize;
+				out = (out + 1) % bufferSize;
 				free++;
 				if (free > defaultReadBufferSize) {
 					readTrigger.release();
 				}
 				return r;
 			}
-			if (available() > 0) {
-				System.out.println("hier");
-			}
 			return -1;
 		} finally {
 			bufferLock.unlock();
@@ -141,13 +176,13 @@ public class DecoupledInputStream extends InputStream {
 				if (total + copy > len) {
 					copy = len - total;
 				}
-				if (out + copy > defaultBufferSize) {
-					copy = defaultBufferSize - out;
+				if (out + copy > bufferSize) {
+					copy = bufferSize - out;
 				}
 				System.arraycopy(b, out, bb, off + total, copy);
 				total += copy;
 				free += copy;
-				out = (out + copy) % defaultBufferSize;
+				out = (out + copy) % bufferSize;
 				if (free > defaultReadBufferSize) {
 					readTrigger.release();
 				}
@@ -160,10 +195,6 @@ public class DecoupledInputStream extends InputStream {
 				bufferLock.unlock();
 			}
 		}
-		if (total <= 0 && available() > 0) {
-			System.out.println("hier");
-		}
-
 		return total > 0 ? total : -1;
 	}
 
@@ -194,7 +225,7 @@ public class DecoupledInputStream extends InputStream {
 	public int available() throws IOException {
 		bufferLock.lock();
 		try {
-			return defaultBufferSize - free;
+			return bufferSize - free;
 		} finally {
 			bufferLock.unlock();
 		}
@@ -215,6 +246,7 @@ public class DecoupledInputStream extends InputStream {
 			// release closeSemaphore if InputStream is closed a second time
 			closeSemaphore.release();
 		}
+		reservation.release();
 	}
 
 	/*
@@ -276,14 +308,14 @@ public class DecoupledInputStream extends InputStream {
 					bufferLock.lock();
 					try {
 						if (free > defaultReadBufferSize) {
-							if (in + got < defaultBufferSize) {
+							if (in + got < bufferSize) {
 								System.arraycopy(rb, 0, b, in, got);
 							} else {
-								System.arraycopy(rb, 0, b, in, defaultBufferSize - in);
-								System.arraycopy(rb, defaultBufferSize - in, b, 0, got
-										- (defaultBufferSize - in));
+								System.arraycopy(rb, 0, b, in, bufferSize - in);
+								System.arraycopy(rb, bufferSize - in, b, 0, got
+										- (bufferSize - in));
 							}
-							in = (in + got) % defaultBufferSize;
+							in = (in + got) % bufferSize;
 							free -= got;
 							availableTrigger.release();
 							if (free > defaultReadBufferSize) {
@@ -300,6 +332,8 @@ public class DecoupledInputStream extends InputStream {
 				logger.error("IOException during source reading", e);
 			} finally {
 				sourceClosed = true;
+				// a reader waiting for more bytes gets the last ones now
+				availableTrigger.release();
 				closeSemaphore.release();
 			}
 		}
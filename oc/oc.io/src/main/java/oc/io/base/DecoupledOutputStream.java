@@ -0,0 +1,245 @@
+/**
+ * Copyright (C) 2026 Oliver Schünemann
+ * 
+ * This program is free software; you can redistribute it and/or modify it under the terms of the 
+ * GNU General Public License as published by the Free Software Foundation; either version 2 of 
+ * the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; 
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. 
+ * See the GNU General Public License for more details. 
+ * 
+ * You should have received a copy of the GNU General Public License along with this program; 
+ * if not, write to the Free Software Foundation, Inc., 51 Franklin St, Fifth Floor, 
+ * Boston, MA 02110, USA 
+ * 
+ * @since 19.10.2026
+ * @version 1.0
+ * @author oliver
+ */
+package oc.io.base;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Counterpart of the {@link DecoupledInputStream}: this OutputStream uses a
+ * second thread for writing the data to the target output stream. The data is
+ * copied into chunks, full chunks are queued for the writer thread and
+ * recycled when written. The user of the stream is only blocked when all
+ * chunks wait for a slow target. The chunks are reserved from a
+ * {@link MemoryBudget} and given back when the stream is closed.
+ * 
+ * A failure of the target is thrown by the next write after it happened, or
+ * by close at the latest.
+ * 
+ * @author oliver
+ */
+public class DecoupledOutputStream extends OutputStream {
+
+	private static int defaultBufferSize = 1 << 20;
+	private static int chunkSize = 1 << 16;
+	/**
+	 * One chunk is filled while the other one is written
+	 */
+	private static int minBufferSize = 2 * chunkSize;
+	/**
+	 * Queued behind the last chunk
+	 */
+	private static final byte END[] = new byte[0];
+
+	private final Thread writerThread;
+	private final MemoryBudget.Reservation reservation;
+	private final BlockingQueue<byte[]> free;
+	private final BlockingQueue<byte[]> filled;
+	private final BlockingQueue<Integer> lengths;
+	private byte chunk[];
+	private int length = 0;
+	private boolean closed = false;
+	private volatile IOException failure = null;
+	private static final Logger logger = LogManager.getLogger(DecoupledOutputStream.class);
+
+	/**
+	 * Stream with chunks from the global {@link MemoryBudget}
+	 * 
+	 * @param target
+	 *            the stream written by the second thread
+	 * @throws IOException
+	 */
+	public DecoupledOutputStream(final OutputStream target) throws IOException {
+		this(target, MemoryBudget.getGlobal());
+	}
+
+	/**
+	 * @param target
+	 *            the stream written by the second thread
+	 * @param budget
+	 *            the budget the chunks are reserved from
+	 * @throws IOException
+	 */
+	public DecoupledOutputStream(final OutputStream target, final MemoryBudget budget)
+			throws IOException {
+		super();
+		reservation = budget.reserveNow(defaultBufferSize, minBufferSize);
+		final int chunks = (int) (reservation.getBytes() / chunkSize);
+		free = new ArrayBlockingQueue<>(chunks);
+		filled = new ArrayBlockingQueue<>(chunks + 1);
+		lengths = new ArrayBlockingQueue<>(chunks + 1);
+		for (int i = 1; i < chunks; ++i) {
+			free.add(new byte[chunkSize]);
+		}
+		chunk = new byte[chunkSize];
+		writerThread = new Thread(new TargetWriter(target));
+		writerThread.start();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see java.io.OutputStream#write(int)
+	 */
+	@Override
+	public void write(final int b) throws IOException {
+		if (length == chunk.length) {
+			handOver();
+		}
+		chunk[length++] = (byte) b;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see java.io.OutputStream#write(byte[], int, int)
+	 */
+	@Override
+	public void write(final byte[] b, final int off, final int len) throws IOException {
+		int done = 0;
+		while (done < len) {
+			if (length == chunk.length) {
+				handOver();
+			}
+			final int copy = Math.min(len - done, chunk.length - length);
+			System.arraycopy(b, off + done, chunk, length, copy);
+			length += copy;
+			done += copy;
+		}
+	}
+
+	/**
+	 * Queues the current chunk for the writer thread and takes a free one
+	 * 
+	 * @throws IOException
+	 *             when the writer thread failed
+	 */
+	private void handOver() throws IOException {
+		checkFailure();
+		try {
+			lengths.put(Integer.valueOf(length));
+			filled.put(chunk);
+			chunk = free.take();
+		} catch (final InterruptedException e) {
+			throw new InterruptedIOException("Thread was interrupted while writing");
+		}
+		length = 0;
+	}
+
+	private void checkFailure() throws IOException {
+		if (failure != null) {
+			throw new IOException("Writing to the target stream failed", failure);
+		}
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see java.io.OutputStream#flush()
+	 */
+	@Override
+	public void flush() throws IOException {
+		// the writer thread writes the chunks as soon as they are full, a
+		// partial chunk is written on close
+		checkFailure();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see java.io.OutputStream#close()
+	 */
+	@Override
+	public void close() throws IOException {
+		if (closed) {
+			return;
+		}
+		closed = true;
+		try {
+			if (length > 0) {
+				lengths.put(Integer.valueOf(length));
+				filled.put(chunk);
+			}
+			filled.put(END);
+			writerThread.join();
+		} catch (final InterruptedException e) {
+			throw new InterruptedIOException("Thread was interrupted while closing");
+		} finally {
+			reservation.release();
+		}
+		checkFailure();
+	}
+
+	/**
+	 * This Runnable writes the filled chunks to the target output stream and
+	 * gives them back for reuse.
+	 * 
+	 * @author oliver
+	 */
+	private class TargetWriter implements Runnable {
+		private final OutputStream target;
+
+		public TargetWriter(final OutputStream target) {
+			super();
+			this.target = target;
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * 
+		 * @see java.lang.Runnable#run()
+		 */
+		@Override
+		public void run() {
+			try {
+				byte written[] = filled.take();
+				while (written != END) {
+					final int writtenLength = lengths.take().intValue();
+					if (failure == null) {
+						try {
+							target.write(written, 0, writtenLength);
+						} catch (final IOException e) {
+							logger.error("IOException during target writing", e);
+							failure = e;
+						}
+					}
+					// keep taking chunks after a failure, so the user is not
+					// blocked until it notices the failure
+					free.put(written);
+					written = filled.take();
+				}
+				target.close();
+			} catch (final IOException e) {
+				logger.error("IOException during closing the target", e);
+				if (failure == null) {
+					failure = e;
+				}
+			} catch (final InterruptedException e) {
+				failure = new InterruptedIOException("Writer thread was interrupted");
+			}
+		}
+	}
+}
@@ -0,0 +1,76 @@
+/**
+ * Copyright (C) 2026 Oliver Schünemann
+ * 
+ * This program is free software; you can redistribute it and/or modify it under the terms of the 
+ * GNU General Public License as published by the Free Software Foundation; either version 2 of 
+ * the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; 
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. 
+ * See the GNU General Public License for more details. 
+ * 
+ * You should have received a copy of the GNU General Public License along with this program; 
+ * if not, write to the Free Software Foundation, Inc., 51 Franklin St, Fifth Floor, 
+ * Boston, MA 02110, USA 
+ * 
+ * @since 19.10.2026
+ * @version 1.0
+ * @author oliver
+ */
+package oc.io.base;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.zip.CRC32;
+
+/**
+ * Calculates a cheap signature of a file, that is used to find out whether a
+ * file was changed since it was written. Reading complete files of several
+ * gigabytes just for a checksum would take as long as some of the processing
+ * steps, so the CRC only covers a number of blocks spread evenly over the file
+ * together with its size.
+ * 
+ * @author oliver
+ */
+public final class FileSignature {
+	private static final int SAMPLES = 16;
+	private static final int SAMPLE_SIZE = 1 << 16;
+
+	private FileSignature() {
+		super();
+	}
+
+	/**
+	 * @param f
+	 *            the file to calculate the signature for
+	 * @return the signature as String in the form size:crc, or null when the
+	 *         file does not exist
+	 * @throws IOException
+	 */
+	public static String of(final File f) throws IOException {
+		if (!f.isFile()) {
+			return null;
+		}
+		final CRC32 crc = new CRC32();
+		final byte[] buffer = new byte[SAMPLE_SIZE];
+		try (RandomAccessFile raf = new RandomAccessFile(f, "r")) {
+			final long length = raf.length();
+			if (length <= (long) SAMPLES * SAMPLE_SIZE) {
+				int read = raf.read(buffer);
+				while (read > 0) {
+					crc.update(buffer, 0, read);
+					read = raf.read(buffer);
+				}
+			} else {
+				final long step = (length - SAMPLE_SIZE) / (SAMPLES - 1);
+				for (int i = 0; i < SAMPLES; ++i) {
+					raf.seek(i * step);
+					raf.readFully(buffer);
+					crc.update(buffer, 0, buffer.length);
+				}
+			}
+			return length + ":" + Long.toHexString(crc.getValue());
+		}
+	}
+}
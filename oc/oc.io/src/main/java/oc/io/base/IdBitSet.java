@@ -0,0 +1,255 @@
+/**
+ * Copyright (C) 2026 Oliver Schünemann
+ * 
+ * This program is free software; you can redistribute it and/or modify it under the terms of the 
+ * GNU General Public License as published by the Free Software Foundation; either version 2 of 
+ * the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; 
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. 
+ * See the GNU General Public License for more details. 
+ * 
+ * You should have received a copy of the GNU General Public License along with this program; 
+ * if not, write to the Free Software Foundation, Inc., 51 Franklin St, Fifth Floor, 
+ * Boston, MA 02110, USA 
+ * 
+ * @since 19.10.2026
+ * @version 1.0
+ * @author oliver
+ */
+package oc.io.base;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import oc.io.base.MemoryBudget.Reservation;
+
+/**
+ * Set of ids, stored as bitmap with one bit per id. The bitmap is split into
+ * pages of 64k ids, which are only allocated when an id within them is set,
+ * so sparse ranges of ids cost nothing. For the dense ids of osm elements it
+ * needs an eighth byte per id of the covered range, far less than any set of
+ * boxed numbers. Negative ids are kept in pages of their own.
+ * 
+ * A set given a {@link MemoryBudget} reserves its pages from it, the pages
+ * of the ids of a planet file take more than a GB. As the pages are allocated
+ * while the ids are added, the reservations never wait. The memory is given
+ * back by {@link #release()}.
+ * 
+ * The set is not thread safe.
+ * 
+ * @author oliver
+ */
+public final class IdBitSet {
+	private static final int PAGE_BITS = 16;
+	private static final int PAGE_WORDS = 1 << PAGE_BITS - 6;
+	/**
+	 * Ids up to 2^42, far beyond the ids of osm
+	 */
+	private static final long MAX_PAGES = 1L << 26;
+	/**
+	 * Bytes of a page
+	 */
+	private static final long PAGE_BYTES = PAGE_WORDS * 8L;
+	/**
+	 * Number of pages reserved at once from the budget
+	 */
+	private static final int RESERVED_PAGES = 128;
+
+	private final MemoryBudget budget;
+	private final List<Reservation> reservations = new ArrayList<>();
+	private long unusedPages = 0;
+	private long positive[][] = new long[0][];
+	private long negative[][] = new long[0][];
+	private long cardinality = 0;
+
+	/**
+	 * Set whose pages are not reserved from a budget
+	 */
+	public IdBitSet() {
+		this(null);
+	}
+
+	/**
+	 * @param budget
+	 *            budget the pages are reserved from, null to reserve them
+	 *            from none
+	 */
+	public IdBitSet(final MemoryBudget budget) {
+		super();
+		this.budget = budget;
+	}
+
+	/**
+	 * @param id
+	 *            id to add to the set
+	 * @throws IllegalArgumentException
+	 *             when the absolute value of the id is larger than 2^42
+	 */
+	public void set(final long id) {
+		final long index = id >= 0 ? id : ~id;
+		if (index >>> PAGE_BITS >= MAX_PAGES) {
+			throw new IllegalArgumentException("Id " + id + " is out of the range of the set");
+		}
+		final int page = (int) (index >>> PAGE_BITS);
+		long pages[][] = id >= 0 ? positive : negative;
+		if (page >= pages.length) {
+			pages = Arrays.copyOf(pages, Math.max(page + 1, pages.length * 2));
+			if (id >= 0) {
+				positive = pages;
+			} else {
+				negative = pages;
+			}
+		}
+		if (pages[page] == null) {
+			pages[page] = newPage();
+		}
+		final int word = (int) (index >>> 6) & PAGE_WORDS - 1;
+		final long bit = 1L << index;
+		if ((pages[page][word] & bit) == 0) {
+			pages[page][word] |= bit;
+			cardinality++;
+		}
+	}
+
+	/**
+	 * @param id
+	 *            id to look for
+	 * @return true when the id was added to the set
+	 */
+	public boolean get(final long id) {
+		final long index = id >= 0 ? id : ~id;
+		final long pages[][] = id >= 0 ? positive : negative;
+		final long page = index >>> PAGE_BITS;
+		if (page >= pages.length || pages[(int) page] == null) {
+			return false;
+		}
+		return (pages[(int) page][(int) (index >>> 6) & PAGE_WORDS - 1] & 1L << index) != 0;
+	}
+
+	/**
+	 * @return a page, reserved from the budget
+	 */
+	private long[] newPage() {
+		if (budget != null && unusedPages == 0) {
+			reservations.add(budget.reserveNow(RESERVED_PAGES * PAGE_BYTES, RESERVED_PAGES
+					* PAGE_BYTES));
+			unusedPages = RESERVED_PAGES;
+		}
+		unusedPages--;
+		return new long[PAGE_WORDS];
+	}
+
+	/**
+	 * Empties the set and gives the memory of its pages back to the budget.
+	 */
+	public void release() {
+		positive = new long[0][];
+		negative = new long[0][];
+		cardinality = 0;
+		for (final Reservation reservation : reservations) {
+			reservation.release();
+		}
+		reservations.clear();
+		unusedPages = 0;
+	}
+
+	/**
+	 * @return number of ids in the set
+	 */
+	public long cardinality() {
+		return cardinality;
+	}
+
+	/**
+	 * Writes the set to a file, only the allocated pages are written.
+	 * 
+	 * @param f
+	 *            the file, an existing one is overwritten
+	 * @throws IOException
+	 */
+	public void writeTo(final File f) throws IOException {
+		try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+				new FileOutputStream(f)))) {
+			out.writeLong(cardinality);
+			writePages(out, positive);
+			writePages(out, negative);
+		}
+	}
+
+	private static void writePages(final DataOutputStream out, final long pages[][])
+			throws IOException {
+		out.writeInt(pages.length);
+		for (int page = 0; page < pages.length; ++page) {
+			if (pages[page] != null) {
+				out.writeInt(page);
+				for (final long word : pages[page]) {
+					out.writeLong(word);
+				}
+			}
+		}
+		out.writeInt(-1);
+	}
+
+	/**
+	 * @param f
+	 *            file written by {@link #writeTo(File)}
+	 * @return the set read from the file
+	 * @throws IOException
+	 */
+	public static IdBitSet readFrom(final File f) throws IOException {
+		return readFrom(f, null);
+	}
+
+	/**
+	 * @param f
+	 *            file written by {@link #writeTo(File)}
+	 * @param budget
+	 *            budget the pages are reserved from, null to reserve them
+	 *            from none
+	 * @return the set read from the file
+	 * @throws IOException
+	 */
+	public static IdBitSet readFrom(final File f, final MemoryBudget budget) throws IOException {
+		final IdBitSet set = new IdBitSet(budget);
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(
+				new FileInputStream(f)))) {
+			set.cardinality = in.readLong();
+			set.positive = set.readPages(in);
+			set.negative = set.readPages(in);
+		} catch (final IOException e) {
+			set.release();
+			throw e;
+		}
+		return set;
+	}
+
+	private long[][] readPages(final DataInputStream in) throws IOException {
+		final int length = in.readInt();
+		if (length < 0) {
+			throw new IOException("Corrupt id set with " + length + " pages");
+		}
+		final long pages[][] = new long[length][];
+		int page = in.readInt();
+		while (page >= 0) {
+			if (page >= length) {
+				throw new IOException("Corrupt id set with page " + page + " of " + length);
+			}
+			pages[page] = newPage();
+			for (int word = 0; word < PAGE_WORDS; ++word) {
+				pages[page][word] = in.readLong();
+			}
+			page = in.readInt();
+		}
+		return pages;
+	}
+}
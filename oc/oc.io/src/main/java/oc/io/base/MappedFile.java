@@ -0,0 +1,157 @@
+/**
+ * Copyright (C) 2026 Oliver Schünemann
+ * 
+ * This program is free software; you can redistribute it and/or modify it under the terms of the 
+ * GNU General Public License as published by the Free Software Foundation; either version 2 of 
+ * the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; 
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. 
+ * See the GNU General Public License for more details. 
+ * 
+ * You should have received a copy of the GNU General Public License along with this program; 
+ * if not, write to the Free Software Foundation, Inc., 51 Franklin St, Fifth Floor, 
+ * Boston, MA 02110, USA 
+ * 
+ * @since 19.10.2026
+ * @version 1.0
+ * @author oliver
+ */
+package oc.io.base;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+
+/**
+ * Read only view of a file that is mapped into memory. A ByteBuffer can only
+ * address 2 GB, so bigger files are mapped through a window that is moved
+ * forward when a requested range is not contained in it. Ranges are handed out
+ * as slices of the window, the bytes are never copied.
+ * 
+ * @author oliver
+ */
+public class MappedFile implements Closeable {
+	/**
+	 * Size of the mapped window. Every range handed out must fit into it.
+	 */
+	public static final int DEFAULT_WINDOW_SIZE = 1 << 30;
+
+	private final RandomAccessFile raf;
+	private final FileChannel channel;
+	private final long size;
+	private final int windowSize;
+	private MappedByteBuffer window = null;
+	private long windowStart = 0;
+
+	/**
+	 * @param f
+	 *            the file to map
+	 * @throws IOException
+	 */
+	public MappedFile(final File f) throws IOException {
+		this(f, DEFAULT_WINDOW_SIZE);
+	}
+
+	/**
+	 * @param f
+	 *            the file to map
+	 * @param windowSize
+	 *            size of the mapped window
+	 * @throws IOException
+	 */
+	public MappedFile(final File f, final int windowSize) throws IOException {
+		super();
+		this.windowSize = windowSize;
+		raf = new RandomAccessFile(f, "r");
+		channel = raf.getChannel();
+		size = channel.size();
+	}
+
+	/**
+	 * @return size of the file in bytes
+	 */
+	public long size() {
+		return size;
+	}
+
+	/**
+	 * @param position
+	 *            position in the file
+	 * @return the byte at the position as unsigned value, -1 when the position
+	 *         is behind the end of the file
+	 * @throws IOException
+	 */
+	public int get(final long position) throws IOException {
+		if (position >= size) {
+			return -1;
+		}
+		moveWindow(position, 1);
+		return window.get((int) (position - windowStart)) & 0xff;
+	}
+
+	/**
+	 * @param position
+	 *            position of the first byte in the file
+	 * @param length
+	 *            number of bytes
+	 * @return a buffer containing the bytes of the range at positions 0 to
+	 *         length - 1. It shares the memory with the mapping.
+	 * @throws EOFException
+	 *             when the range reaches behind the end of the file
+	 * @throws IOException
+	 */
+	public ByteBuffer slice(final long position, final int length) throws IOException {
+		if (length < 0 || length > windowSize) {
+			throw new IOException("Range of " + length + " bytes at " + position
+					+ " does not fit into the mapped window");
+		}
+		if (position + length > size) {
+			throw new EOFException("Range of " + length + " bytes at " + position
+					+ " reaches behind the end of the file with " + size + " bytes");
+		}
+		moveWindow(position, length);
+		final ByteBuffer slice = window.duplicate();
+		final int offset = (int) (position - windowStart);
+		slice.position(offset);
+		slice.limit(offset + length);
+		return slice.slice();
+	}
+
+	/**
+	 * Maps a new window starting at the position, when the range is not
+	 * contained in the current one.
+	 * 
+	 * @param position
+	 *            position of the first byte in the file
+	 * @param length
+	 *            number of bytes
+	 * @throws IOException
+	 */
+	private void moveWindow(final long position, final int length) throws IOException {
+		if (window == null || position < windowStart
+				|| position + length > windowStart + window.capacity()) {
+			windowStart = position;
+			window = channel.map(MapMode.READ_ONLY, position,
+					Math.min(windowSize, size - position));
+		}
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see java.io.Closeable#close()
+	 */
+	@Override
+	public void close() throws IOException {
+		// the mapping itself is released by the garbage collector
+		window = null;
+		raf.close();
+	}
+}
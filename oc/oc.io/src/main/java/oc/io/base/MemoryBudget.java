@@ -0,0 +1,292 @@
+/**
+ * Copyright (C) 2026 Oliver Schünemann
+ * 
+ * This program is free software; you can redistribute it and/or modify it under the terms of the 
+ * GNU General Public License as published by the Free Software Foundation; either version 2 of 
+ * the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; 
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. 
+ * See the GNU General Public License for more details. 
+ * 
+ * You should have received a copy of the GNU General Public License along with this program; 
+ * if not, write to the Free Software Foundation, Inc., 51 Franklin St, Fifth Floor, 
+ * Boston, MA 02110, USA 
+ * 
+ * @since 19.10.2026
+ * @version 1.0
+ * @author oliver
+ */
+package oc.io.base;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Central account of the heap memory the components of the resolving may use.
+ * Sorters, writers and read buffers reserve the bytes they need from the
+ * budget before they allocate them, instead of allocating blindly and catching
+ * OutOfMemoryErrors.
+ * 
+ * There are two ways to reserve memory. Big reservations like the elements of
+ * a sort run use {@link #reserve(long, long)}, which waits until at least the
+ * minimum is available. Small buffers use {@link #reserveNow(long, long)},
+ * which never waits and grants at least the minimum even when the budget is
+ * exhausted. That way a component holding buffers can not block another one,
+ * that waits for a big reservation.
+ * 
+ * Components that can give memory back on request, register themselves as
+ * {@link Spillable}. They are asked to spill before a reservation starts to
+ * wait.
+ * 
+ * @author oliver
+ */
+public class MemoryBudget {
+
+	/**
+	 * Component that is able to free reserved memory on request, for example
+	 * by writing data to disk earlier than planned.
+	 * 
+	 * @author oliver
+	 */
+	public interface Spillable {
+		/**
+		 * Asks the component to free memory. The component releases the memory
+		 * by shrinking or releasing its reservations, that may happen later
+		 * from its own thread.
+		 * 
+		 * @param bytes
+		 *            amount of bytes that are needed
+		 */
+		void spill(long bytes);
+	}
+
+	private static MemoryBudget global = new MemoryBudget(Runtime.getRuntime().maxMemory() / 4 * 3);
+
+	private final long total;
+	private long reserved = 0;
+	private int parallelism = 1;
+	private final List<Spillable> spillables = new ArrayList<>();
+	private static final Logger logger = LogManager.getLogger(MemoryBudget.class);
+
+	/**
+	 * @param total
+	 *            amount of bytes that may be reserved together
+	 */
+	public MemoryBudget(final long total) {
+		super();
+		this.total = total;
+	}
+
+	/**
+	 * @return the budget all components reserve from. By default three
+	 *         quarters of the maximum heap size.
+	 */
+	public static synchronized MemoryBudget getGlobal() {
+		return global;
+	}
+
+	/**
+	 * @param budget
+	 *            the budget all components shall reserve from
+	 */
+	public static synchronized void setGlobal(final MemoryBudget budget) {
+		global = budget;
+	}
+
+	/**
+	 * @return amount of bytes that may be reserved together
+	 */
+	public long getTotal() {
+		return total;
+	}
+
+	/**
+	 * @return amount of bytes currently reserved
+	 */
+	public synchronized long getReserved() {
+		return reserved;
+	}
+
+	/**
+	 * @return amount of bytes that can be reserved without waiting
+	 */
+	public synchronized long getAvailable() {
+		return Math.max(0, total - reserved);
+	}
+
+	/**
+	 * @param parallelism
+	 *            number of memory hungry components expected to run at the
+	 *            same time
+	 */
+	public synchronized void setParallelism(final int parallelism) {
+		this.parallelism = Math.max(1, parallelism);
+	}
+
+	/**
+	 * @return the part of the budget a single memory hungry component like a
+	 *         sorter should plan with
+	 */
+	public synchronized long getShare() {
+		return total / parallelism;
+	}
+
+	/**
+	 * @param spillable
+	 *            component that shall be asked to free memory when a
+	 *            reservation has to wait
+	 */
+	public synchronized void addSpillable(final Spillable spillable) {
+		spillables.add(spillable);
+	}
+
+	/**
+	 * @param spillable
+	 *            component that does not hold memory any more
+	 */
+	public synchronized void removeSpillable(final Spillable spillable) {
+		spillables.remove(spillable);
+	}
+
+	/**
+	 * Reserves memory, waits when less than the minimum is available.
+	 * Spillables are asked to free memory before waiting. A minimum bigger
+	 * than the whole budget is reduced to the budget, so it is granted when
+	 * nothing else is reserved.
+	 * 
+	 * @param preferred
+	 *            amount of bytes the caller would like to get
+	 * @param minimum
+	 *            amount of bytes the caller needs at least
+	 * @return the reservation, that grants between minimum and preferred
+	 *         bytes
+	 * @throws InterruptedException
+	 *             when the thread is interrupted while waiting
+	 */
+	public Reservation reserve(final long preferred, final long minimum)
+			throws InterruptedException {
+		final long needed = Math.min(Math.min(minimum, preferred), total);
+		List<Spillable> toAsk = null;
+		synchronized (this) {
+			if (total - reserved < needed) {
+				toAsk = new ArrayList<>(spillables);
+			}
+		}
+		if (toAsk != null) {
+			// outside of the lock, spillables may release memory directly
+			for (final Spillable spillable : toAsk) {
+				spillable.spill(needed);
+			}
+		}
+		synchronized (this) {
+			if (total - reserved < needed) {
+				logger.debug("Wait for {} bytes of memory, {} of {} are reserved", needed,
+						reserved, total);
+			}
+			while (total - reserved < needed) {
+				wait();
+			}
+			return grant(Math.max(needed, Math.min(preferred, total - reserved)));
+		}
+	}
+
+	/**
+	 * Reserves memory without waiting. The minimum is always granted, even
+	 * when it exceeds the budget, so it should be small compared to it.
+	 * 
+	 * @param preferred
+	 *            amount of bytes the caller would like to get
+	 * @param minimum
+	 *            amount of bytes the caller needs at least
+	 * @return the reservation, that grants between minimum and preferred
+	 *         bytes
+	 */
+	public synchronized Reservation reserveNow(final long preferred, final long minimum) {
+		return grant(Math.max(Math.min(minimum, preferred), Math.min(preferred, total - reserved)));
+	}
+
+	/**
+	 * @param bytes
+	 *            amount of bytes to grant
+	 * @return the reservation
+	 */
+	private Reservation grant(final long bytes) {
+		reserved += bytes;
+		return new Reservation(bytes);
+	}
+
+	/**
+	 * @param bytes
+	 *            amount of bytes given back
+	 */
+	private synchronized void giveBack(final long bytes) {
+		reserved -= bytes;
+		notifyAll();
+	}
+
+	/**
+	 * Memory reserved from the budget. The memory is given back by calling
+	 * {@link #release()}, which may be called more than once.
+	 * 
+	 * @author oliver
+	 */
+	public final class Reservation implements AutoCloseable {
+		private long bytes;
+
+		/**
+		 * @param bytes
+		 *            amount of granted bytes
+		 */
+		private Reservation(final long bytes) {
+			super();
+			this.bytes = bytes;
+		}
+
+		/**
+		 * @return amount of granted bytes
+		 */
+		public synchronized long getBytes() {
+			return bytes;
+		}
+
+		/**
+		 * Gives a part of the reserved memory back.
+		 * 
+		 * @param newBytes
+		 *            amount of bytes still needed
+		 */
+		public void shrink(final long newBytes) {
+			long freed = 0;
+			synchronized (this) {
+				if (newBytes < bytes) {
+					freed = bytes - Math.max(0, newBytes);
+					bytes -= freed;
+				}
+			}
+			if (freed > 0) {
+				giveBack(freed);
+			}
+		}
+
+		/**
+		 * Gives the reserved memory back.
+		 */
+		public void release() {
+			shrink(0);
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * 
+		 * @see java.lang.AutoCloseable#close()
+		 */
+		@Override
+		public void close() {
+			release();
+		}
+	}
+}
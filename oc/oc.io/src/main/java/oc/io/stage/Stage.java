@@ -0,0 +1,204 @@
+/**
+ * Copyright (C) 2026 Oliver Schünemann
+ * 
+ * This program is free software; you can redistribute it and/or modify it under the terms of the 
+ * GNU General Public License as published by the Free Software Foundation; either version 2 of 
+ * the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; 
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. 
+ * See the GNU General Public License for more details. 
+ * 
+ * You should have received a copy of the GNU General Public License along with this program; 
+ * if not, write to the Free Software Foundation, Inc., 51 Franklin St, Fifth Floor, 
+ * Boston, MA 02110, USA 
+ * 
+ * @since 19.10.2026
+ * @version 1.0
+ * @author oliver
+ */
+package oc.io.stage;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * A single step of a processing pipeline, that is run by the
+ * {@link StageScheduler}. Each stage declares the files it reads and the files
+ * it writes. A stage that reads a file depends on the stage that writes it.
+ * Dependencies that are not visible as files, e.g. intermediate results that
+ * are handed over in memory, can be declared with {@link #addDependency(Stage)}.
+ * Parameters that influence the results of the stage, but are not visible in
+ * its input files, are declared with {@link #addParameter(String, Object)}.
+ * 
+ * @author oliver
+ */
+public abstract class Stage {
+	private final String name;
+	private final long memory;
+	private final List<File> inputs = new ArrayList<>();
+	private final List<File> outputs = new ArrayList<>();
+	private final List<Stage> dependencies = new ArrayList<>();
+	private final Map<String, String> parameters = new TreeMap<>();
+	private long duration = 0;
+	private boolean resumed = false;
+
+	/**
+	 * @param name
+	 *            name of the stage used for logging
+	 * @param memory
+	 *            estimated number of bytes the stage needs while it is running
+	 */
+	public Stage(final String name, final long memory) {
+		super();
+		this.name = name;
+		this.memory = memory;
+	}
+
+	/**
+	 * Does the work of the stage. It is called by the scheduler as soon as all
+	 * stages it depends on are finished.
+	 * 
+	 * @throws IOException
+	 */
+	public abstract void run() throws IOException;
+
+	/**
+	 * @param files
+	 *            files that are read by this stage
+	 * @return this stage
+	 */
+	public Stage addInput(final File... files) {
+		inputs.addAll(Arrays.asList(files));
+		return this;
+	}
+
+	/**
+	 * @param files
+	 *            files that are written by this stage
+	 * @return this stage
+	 */
+	public Stage addOutput(final File... files) {
+		outputs.addAll(Arrays.asList(files));
+		return this;
+	}
+
+	/**
+	 * @param stage
+	 *            stage that must be finished before this stage can run
+	 * @return this stage
+	 */
+	public Stage addDependency(final Stage stage) {
+		dependencies.add(stage);
+		return this;
+	}
+
+	/**
+	 * @param key
+	 *            name of the parameter
+	 * @param value
+	 *            value of the parameter
+	 * @return this stage
+	 */
+	public Stage addParameter(final String key, final Object value) {
+		parameters.put(key, String.valueOf(value));
+		return this;
+	}
+
+	/**
+	 * @return the name
+	 */
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * @return the estimated memory in bytes
+	 */
+	public long getMemory() {
+		return memory;
+	}
+
+	/**
+	 * @return the files read by this stage
+	 */
+	public List<File> getInputs() {
+		return Collections.unmodifiableList(inputs);
+	}
+
+	/**
+	 * @return the files written by this stage
+	 */
+	public List<File> getOutputs() {
+		return Collections.unmodifiableList(outputs);
+	}
+
+	/**
+	 * @return the explicitly declared dependencies
+	 */
+	public List<Stage> getDependencies() {
+		return Collections.unmodifiableList(dependencies);
+	}
+
+	/**
+	 * @return the parameters as String in the form key=value;key=value
+	 */
+	public String getParameters() {
+		final StringBuilder builder = new StringBuilder();
+		for (final Map.Entry<String, String> parameter : parameters.entrySet()) {
+			if (builder.length() > 0) {
+				builder.append(';');
+			}
+			builder.append(parameter.getKey()).append('=').append(parameter.getValue());
+		}
+		return builder.toString();
+	}
+
+	/**
+	 * @return true when the stage was interrupted before with the same inputs
+	 *         and parameters, so that it may continue with the intermediate
+	 *         results of the interrupted run
+	 */
+	public boolean isResumed() {
+		return resumed;
+	}
+
+	/**
+	 * @param resumed
+	 *            true when the stage continues an interrupted run
+	 */
+	void setResumed(final boolean resumed) {
+		this.resumed = resumed;
+	}
+
+	/**
+	 * @return the time in milliseconds the last run took
+	 */
+	public long getDuration() {
+		return duration;
+	}
+
+	/**
+	 * @param duration
+	 *            the time in milliseconds the last run took
+	 */
+	void setDuration(final long duration) {
+		this.duration = duration;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString() {
+		return name;
+	}
+}
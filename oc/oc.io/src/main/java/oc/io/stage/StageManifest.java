@@ -0,0 +1,197 @@
+/**
+ * Copyright (C) 2026 Oliver Schünemann
+ * 
+ * This program is free software; you can redistribute it and/or modify it under the terms of the 
+ * GNU General Public License as published by the Free Software Foundation; either version 2 of 
+ * the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; 
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. 
+ * See the GNU General Public License for more details. 
+ * 
+ * You should have received a copy of the GNU General Public License along with this program; 
+ * if not, write to the Free Software Foundation, Inc., 51 Franklin St, Fifth Floor, 
+ * Boston, MA 02110, USA 
+ * 
+ * @since 19.10.2026
+ * @version 1.0
+ * @author oliver
+ */
+package oc.io.stage;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Properties;
+
+import oc.io.base.FileSignature;
+
+/**
+ * Persistent record of the stages a {@link StageScheduler} has run. For each
+ * stage it stores the parameters and the signatures of the input files when
+ * the stage was started, and the signatures of the output files when it was
+ * completed. The manifest is written after every change, so that a process
+ * that is started again after a failure can find out, which stages do not
+ * have to run again.
+ * 
+ * @author oliver
+ */
+public class StageManifest {
+	private static final String STARTED = "started";
+	private static final String COMPLETE = "complete";
+	private static final String PARAMETERS = "parameters";
+	private static final String INPUT = "input.";
+	private static final String OUTPUT = "output.";
+
+	private final File manifestFile;
+	private final Properties entries = new Properties();
+
+	/**
+	 * Loads the manifest from the file, when it exists.
+	 * 
+	 * @param manifestFile
+	 *            file the manifest is stored in
+	 * @throws IOException
+	 */
+	public StageManifest(final File manifestFile) throws IOException {
+		super();
+		this.manifestFile = manifestFile;
+		if (manifestFile.isFile()) {
+			try (InputStream in = new FileInputStream(manifestFile)) {
+				entries.load(in);
+			}
+		}
+	}
+
+	/**
+	 * @param stage
+	 *            the stage
+	 * @param key
+	 *            key of the value within the entry of the stage
+	 * @return the key of the value in the properties
+	 */
+	private static String key(final Stage stage, final String key) {
+		return stage.getName().replaceAll("[^A-Za-z0-9]", "_") + "." + key;
+	}
+
+	/**
+	 * @param stage
+	 *            the stage
+	 * @return true when the stage was completed with the same parameters
+	 */
+	public synchronized boolean isComplete(final Stage stage) {
+		return Boolean.parseBoolean(entries.getProperty(key(stage, COMPLETE)))
+				&& stage.getParameters().equals(entries.getProperty(key(stage, PARAMETERS)));
+	}
+
+	/**
+	 * @param stage
+	 *            the stage
+	 * @return true when the stage was started before with the same parameters
+	 *         and the same input files, but did not complete. Such a stage may
+	 *         continue with the intermediate results of the interrupted run.
+	 * @throws IOException
+	 */
+	public synchronized boolean isInterrupted(final Stage stage) throws IOException {
+		if (!Boolean.parseBoolean(entries.getProperty(key(stage, STARTED)))
+				|| Boolean.parseBoolean(entries.getProperty(key(stage, COMPLETE)))
+				|| !stage.getParameters().equals(entries.getProperty(key(stage, PARAMETERS)))) {
+			return false;
+		}
+		for (final File input : stage.getInputs()) {
+			if (!String.valueOf(FileSignature.of(input)).equals(getInputSignature(stage, input))) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * @param stage
+	 *            the stage
+	 * @param input
+	 *            an input file of the stage
+	 * @return the signature the file had when the stage was started, null when
+	 *         it is not known
+	 */
+	public synchronized String getInputSignature(final Stage stage, final File input) {
+		return entries.getProperty(key(stage, INPUT + input.getPath()));
+	}
+
+	/**
+	 * @param stage
+	 *            the stage
+	 * @param output
+	 *            an output file of the stage
+	 * @return the signature the file had when the stage was completed, null
+	 *         when it is not known
+	 */
+	public synchronized String getOutputSignature(final Stage stage, final File output) {
+		return entries.getProperty(key(stage, OUTPUT + output.getPath()));
+	}
+
+	/**
+	 * Records the start of a stage together with the signatures of its input
+	 * files.
+	 * 
+	 * @param stage
+	 *            the started stage
+	 * @throws IOException
+	 */
+	public synchronized void started(final Stage stage) throws IOException {
+		final String prefix = key(stage, "");
+		for (final String name : entries.stringPropertyNames()) {
+			if (name.startsWith(prefix)) {
+				entries.remove(name);
+			}
+		}
+		entries.setProperty(key(stage, STARTED), "true");
+		entries.setProperty(key(stage, PARAMETERS), stage.getParameters());
+		for (final File input : stage.getInputs()) {
+			final String signature = FileSignature.of(input);
+			if (signature != null) {
+				entries.setProperty(key(stage, INPUT + input.getPath()), signature);
+			}
+		}
+		store();
+	}
+
+	/**
+	 * Records the completion of a stage together with the signatures of its
+	 * output files.
+	 * 
+	 * @param stage
+	 *            the completed stage
+	 * @throws IOException
+	 */
+	public synchronized void completed(final Stage stage) throws IOException {
+		for (final File output : stage.getOutputs()) {
+			final String signature = FileSignature.of(output);
+			if (signature != null) {
+				entries.setProperty(key(stage, OUTPUT + output.getPath()), signature);
+			}
+		}
+		entries.setProperty(key(stage, COMPLETE), "true");
+		store();
+	}
+
+	/**
+	 * Writes the manifest. The file is replaced atomically, so a failure while
+	 * writing does not destroy the last state.
+	 * 
+	 * @throws IOException
+	 */
+	private void store() throws IOException {
+		final File tempFile = new File(manifestFile.getPath() + ".tmp");
+		try (OutputStream out = new FileOutputStream(tempFile)) {
+			entries.store(out, "Stage manifest");
+		}
+		Files.move(tempFile.toPath(), manifestFile.toPath(), StandardCopyOption.REPLACE_EXISTING,
+				StandardCopyOption.ATOMIC_MOVE);
+	}
+}
@@ -0,0 +1,461 @@
+/**
+ * Copyright (C) 2026 Oliver Schünemann
+ * 
+ * This program is free software; you can redistribute it and/or modify it under the terms of the 
+ * GNU General Public License as published by the Free Software Foundation; either version 2 of 
+ * the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; 
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. 
+ * See the GNU General Public License for more details. 
+ * 
+ * You should have received a copy of the GNU General Public License along with this program; 
+ * if not, write to the Free Software Foundation, Inc., 51 Franklin St, Fifth Floor, 
+ * Boston, MA 02110, USA 
+ * 
+ * @since 19.10.2026
+ * @version 1.0
+ * @author oliver
+ */
+package oc.io.stage;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import oc.io.base.FileSignature;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Runs a directed acyclic graph of {@link Stage}s. The edges of the graph are
+ * taken from the files the stages read and write and from the explicitly
+ * declared dependencies. Stages that do not depend on each other are run
+ * concurrently, as long as the number of running stages does not exceed the
+ * thread budget and the sum of their estimated memory does not exceed the
+ * memory budget. A stage that alone needs more memory than the budget is run
+ * when no other stage is running.
+ * 
+ * After each stage the critical path leading to it is logged, i.e. the
+ * longest chain of stages that had to be finished before it plus the stage
+ * itself. At the end the critical path of the whole pipeline is logged.
+ * 
+ * With a {@link StageManifest} the scheduler skips all stages whose results
+ * are still valid from an earlier run. A stage is skipped when it was
+ * completed with the same parameters, its input files did not change, all
+ * stages it depends on are skipped and each of its output files is either
+ * unchanged or was consumed by stages that are skipped as well.
+ * 
+ * @author oliver
+ */
+public class StageScheduler {
+	private final int threads;
+	private final long memoryBudget;
+	private final List<Stage> stages = new ArrayList<>();
+	private final Map<Stage, Long> criticalPath = new HashMap<>();
+	private final Map<Stage, Stage> criticalPredecessor = new HashMap<>();
+	private StageManifest manifest = null;
+	private static final Logger logger = LogManager.getLogger(StageScheduler.class.getName());
+
+	/**
+	 * @param threads
+	 *            maximum number of stages running at the same time
+	 * @param memoryBudget
+	 *            maximum sum of estimated memory in bytes of the stages
+	 *            running at the same time
+	 */
+	public StageScheduler(final int threads, final long memoryBudget) {
+		super();
+		if (threads < 1) {
+			throw new IllegalArgumentException("At least one thread is needed");
+		}
+		this.threads = threads;
+		this.memoryBudget = memoryBudget;
+	}
+
+	/**
+	 * @param stage
+	 *            stage that shall be run by this scheduler
+	 * @return the given stage
+	 */
+	public Stage addStage(final Stage stage) {
+		stages.add(stage);
+		return stage;
+	}
+
+	/**
+	 * @param manifest
+	 *            manifest recording the progress, null when all stages shall
+	 *            always run
+	 */
+	public void setManifest(final StageManifest manifest) {
+		this.manifest = manifest;
+	}
+
+	/**
+	 * Calculates for each stage the stages it depends on.
+	 * 
+	 * @return Map from stage to the stages it depends on
+	 */
+	private Map<Stage, Set<Stage>> resolveDependencies() {
+		final Map<File, Stage> producers = new HashMap<>();
+		for (final Stage stage : stages) {
+			for (final File output : stage.getOutputs()) {
+				final Stage producer = producers.put(output, stage);
+				if (producer != null && producer != stage) {
+					throw new IllegalArgumentException(output + " is written by " + producer
+							+ " and " + stage);
+				}
+			}
+		}
+		final Map<Stage, Set<Stage>> dependencies = new HashMap<>();
+		for (final Stage stage : stages) {
+			final Set<Stage> stageDependencies = new LinkedHashSet<>();
+			for (final Stage dependency : stage.getDependencies()) {
+				if (!stages.contains(dependency)) {
+					throw new IllegalArgumentException(stage + " depends on unknown stage "
+							+ dependency);
+				}
+				stageDependencies.add(dependency);
+			}
+			for (final File input : stage.getInputs()) {
+				final Stage producer = producers.get(input);
+				if (producer != null && producer != stage) {
+					stageDependencies.add(producer);
+				}
+			}
+			dependencies.put(stage, stageDependencies);
+		}
+		return dependencies;
+	}
+
+	/**
+	 * Runs all added stages and returns when all of them are finished. When a
+	 * stage fails no further stages are started, the running ones are awaited
+	 * and the failure is thrown.
+	 * 
+	 * @throws IOException
+	 *             thrown by a failing stage
+	 */
+	public void run() throws IOException {
+		final Map<Stage, Set<Stage>> dependencies = resolveDependencies();
+		final List<Stage> pending = new LinkedList<>(stages);
+		final Set<Stage> finished = new LinkedHashSet<>();
+		criticalPath.clear();
+		criticalPredecessor.clear();
+		if (manifest != null) {
+			final Set<Stage> skipped = new SkipCheck(dependencies).getSkipped();
+			for (final Stage stage : stages) {
+				if (skipped.contains(stage)) {
+					logger.info("Skip stage {}, its results are still valid", stage);
+					pending.remove(stage);
+					stage.setDuration(0);
+					finished.add(stage);
+					criticalPath.put(stage, Long.valueOf(0));
+				}
+			}
+		}
+		final ExecutorService executor = Executors.newFixedThreadPool(threads);
+		final CompletionService<Stage> completion = new ExecutorCompletionService<>(executor);
+		final Map<Stage, Long> reserved = new HashMap<>();
+		long usedMemory = 0;
+		Throwable failure = null;
+		try {
+			while (!pending.isEmpty() || !reserved.isEmpty()) {
+				final Iterator<Stage> pendingIter = pending.iterator();
+				while (pendingIter.hasNext() && reserved.size() < threads) {
+					final Stage stage = pendingIter.next();
+					final long memory = Math.min(stage.getMemory(), memoryBudget);
+					if (finished.containsAll(dependencies.get(stage))
+							&& (reserved.isEmpty() || usedMemory + memory <= memoryBudget)) {
+						pendingIter.remove();
+						reserved.put(stage, Long.valueOf(memory));
+						usedMemory += memory;
+						if (manifest != null) {
+							stage.setResumed(manifest.isInterrupted(stage));
+							manifest.started(stage);
+						}
+						logger.info(stage.isResumed() ? "Resume stage {}" : "Start stage {}",
+								stage);
+						completion.submit(new StageTask(stage));
+					}
+				}
+				if (reserved.isEmpty()) {
+					throw new IllegalStateException("Cyclic dependency between stages " + pending);
+				}
+				Stage done = null;
+				try {
+					done = completion.take().get();
+				} catch (final ExecutionException e) {
+					final StageException stageException = (StageException) e.getCause();
+					done = stageException.stage;
+					if (failure == null) {
+						failure = stageException.getCause();
+						logger.error("Stage {} failed, waiting for running stages", done);
+						pending.clear();
+					}
+				}
+				usedMemory -= reserved.remove(done).longValue();
+				if (failure == null) {
+					if (manifest != null) {
+						manifest.completed(done);
+					}
+					finished.add(done);
+					logCriticalPath(done, dependencies.get(done));
+				}
+			}
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("Interrupted while waiting for stages", e);
+		} finally {
+			executor.shutdownNow();
+		}
+		if (failure instanceof IOException) {
+			throw (IOException) failure;
+		} else if (failure instanceof RuntimeException) {
+			throw (RuntimeException) failure;
+		} else if (failure instanceof Error) {
+			throw (Error) failure;
+		} else if (failure != null) {
+			throw new IOException(failure);
+		}
+		logPipelineCriticalPath(finished);
+	}
+
+	private void logCriticalPath(final Stage stage, final Set<Stage> stageDependencies) {
+		long longest = 0;
+		Stage predecessor = null;
+		for (final Stage dependency : stageDependencies) {
+			final long path = criticalPath.get(dependency).longValue();
+			if (predecessor == null || path > longest) {
+				longest = path;
+				predecessor = dependency;
+			}
+		}
+		final long path = longest + stage.getDuration();
+		criticalPath.put(stage, Long.valueOf(path));
+		criticalPredecessor.put(stage, predecessor);
+		logger.info("Finished stage {} in {} ms, critical path {} ms : {}", stage,
+				stage.getDuration(), path, describePath(stage));
+	}
+
+	private void logPipelineCriticalPath(final Set<Stage> finished) {
+		Stage last = null;
+		for (final Stage stage : finished) {
+			if (last == null
+					|| criticalPath.get(stage).longValue() > criticalPath.get(last).longValue()) {
+				last = stage;
+			}
+		}
+		if (last != null) {
+			logger.info("Critical path of all stages {} ms : {}", criticalPath.get(last),
+					describePath(last));
+		}
+	}
+
+	private String describePath(final Stage stage) {
+		final LinkedList<String> names = new LinkedList<>();
+		for (Stage next = stage; next != null; next = criticalPredecessor.get(next)) {
+			names.addFirst(next.getName() + " (" + next.getDuration() + " ms)");
+		}
+		final StringBuilder builder = new StringBuilder();
+		for (final String name : names) {
+			if (builder.length() > 0) {
+				builder.append(" -> ");
+			}
+			builder.append(name);
+		}
+		return builder.toString();
+	}
+
+	/**
+	 * @param stage
+	 *            a finished stage
+	 * @return the length of the critical path up to and including the stage
+	 *         in milliseconds, -1 when the stage did not finish
+	 */
+	public long getCriticalPath(final Stage stage) {
+		final Long path = criticalPath.get(stage);
+		return path == null ? -1 : path.longValue();
+	}
+
+	/**
+	 * Finds out which stages can be skipped, because their results from an
+	 * earlier run recorded in the manifest are still valid.
+	 * 
+	 * @author oliver
+	 */
+	private class SkipCheck {
+		private final Map<Stage, Set<Stage>> dependencies;
+		private final Map<File, List<Stage>> consumers = new HashMap<>();
+		private final Set<File> produced = new HashSet<>();
+		private final Map<Stage, Boolean> upToDate = new HashMap<>();
+		private final Map<Stage, Boolean> skippable = new HashMap<>();
+
+		/**
+		 * @param dependencies
+		 *            the stages each stage depends on
+		 */
+		public SkipCheck(final Map<Stage, Set<Stage>> dependencies) {
+			super();
+			this.dependencies = dependencies;
+			final Set<String> names = new HashSet<>();
+			for (final Stage stage : stages) {
+				if (!names.add(stage.getName())) {
+					throw new IllegalStateException("Stage name " + stage
+							+ " is used twice, the manifest can not tell them apart");
+				}
+				produced.addAll(stage.getOutputs());
+				for (final File input : stage.getInputs()) {
+					List<Stage> fileConsumers = consumers.get(input);
+					if (fileConsumers == null) {
+						fileConsumers = new ArrayList<>();
+						consumers.put(input, fileConsumers);
+					}
+					fileConsumers.add(stage);
+				}
+			}
+		}
+
+		/**
+		 * @return all stages that can be skipped
+		 * @throws IOException
+		 */
+		public Set<Stage> getSkipped() throws IOException {
+			final Set<Stage> skipped = new HashSet<>();
+			for (final Stage stage : stages) {
+				if (isSkippable(stage)) {
+					skipped.add(stage);
+				}
+			}
+			return skipped;
+		}
+
+		/**
+		 * Looks at the stage and the stages before it.
+		 * 
+		 * @param stage
+		 *            the stage to check
+		 * @return true when the stage and all stages it depends on were
+		 *         completed with the current inputs and parameters
+		 * @throws IOException
+		 */
+		private boolean isUpToDate(final Stage stage) throws IOException {
+			Boolean result = upToDate.get(stage);
+			if (result == null) {
+				boolean valid = manifest.isComplete(stage);
+				for (final File input : stage.getInputs()) {
+					final String signature = FileSignature.of(input);
+					if (signature == null) {
+						// only intermediate results may be consumed
+						valid &= produced.contains(input);
+					} else {
+						valid &= signature.equals(manifest.getInputSignature(stage, input));
+					}
+				}
+				for (final Stage dependency : dependencies.get(stage)) {
+					valid = valid && isUpToDate(dependency);
+				}
+				result = Boolean.valueOf(valid);
+				upToDate.put(stage, result);
+			}
+			return result.booleanValue();
+		}
+
+		/**
+		 * Looks at the stage and the stages after it.
+		 * 
+		 * @param stage
+		 *            the stage to check
+		 * @return true when the stage does not need to run again
+		 * @throws IOException
+		 */
+		private boolean isSkippable(final Stage stage) throws IOException {
+			Boolean result = skippable.get(stage);
+			if (result == null) {
+				boolean valid = isUpToDate(stage);
+				for (final File output : stage.getOutputs()) {
+					if (!valid) {
+						break;
+					}
+					final String signature = FileSignature.of(output);
+					if (signature != null) {
+						valid = signature.equals(manifest.getOutputSignature(stage, output));
+					} else {
+						final List<Stage> fileConsumers = consumers.get(output);
+						valid = fileConsumers != null;
+						for (final Stage consumer : fileConsumers == null ? new ArrayList<Stage>()
+								: fileConsumers) {
+							valid = valid && consumer != stage && isSkippable(consumer);
+						}
+					}
+				}
+				result = Boolean.valueOf(valid);
+				skippable.put(stage, result);
+			}
+			return result.booleanValue();
+		}
+	}
+
+	/**
+	 * Task running a single stage and measuring its duration
+	 * 
+	 * @author oliver
+	 */
+	private static class StageTask implements Callable<Stage> {
+		private final Stage stage;
+
+		public StageTask(final Stage stage) {
+			super();
+			this.stage = stage;
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * 
+		 * @see java.util.concurrent.Callable#call()
+		 */
+		@Override
+		public Stage call() throws StageException {
+			final long start = System.currentTimeMillis();
+			try {
+				stage.run();
+			} catch (final IOException | RuntimeException | Error e) {
+				throw new StageException(stage, e);
+			} finally {
+				stage.setDuration(System.currentTimeMillis() - start);
+			}
+			return stage;
+		}
+	}
+
+	/**
+	 * Carries the failing stage together with its failure to the scheduler
+	 * 
+	 * @author oliver
+	 */
+	private static class StageException extends Exception {
+		private static final long serialVersionUID = 1L;
+		private final transient Stage stage;
+
+		public StageException(final Stage stage, final Throwable cause) {
+			super(cause);
+			this.stage = stage;
+		}
+	}
+}
@@ -0,0 +1,232 @@
+/**
+ * Copyright (C) 2026 Oliver Schünemann
+ * 
+ * This program is free software; you can redistribute it and/or modify it under the terms of the 
+ * GNU General Public License as published by the Free Software Foundation; either version 2 of 
+ * the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; 
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. 
+ * See the GNU General Public License for more details. 
+ * 
+ * You should have received a copy of the GNU General Public License along with this program; 
+ * if not, write to the Free Software Foundation, Inc., 51 Franklin St, Fifth Floor, 
+ * Boston, MA 02110, USA 
+ * 
+ * @since 19.10.2026
+ * @version 1.0
+ * @author oliver
+ */
+package oc.io;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.Externalizable;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import oc.io.base.MemoryBudget;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * @author oliver
+ * 
+ */
+public class CodecContextTestCase {
+	private static final int COUNT = 1000;
+
+	private final CodecContext highway = new CodecContext(TagDictionary.of(Arrays.asList(
+			"highway", "residential")), 0);
+	private final CodecContext building = new CodecContext(TagDictionary.of(Arrays.asList(
+			"building", "yes")), 0);
+	private File highwayFile;
+	private File buildingFile;
+
+	@Before
+	public void setUp() throws IOException {
+		highwayFile = File.createTempFile("highway", "dat");
+		buildingFile = File.createTempFile("building", "dat");
+	}
+
+	@After
+	public void tearDown() {
+		highwayFile.delete();
+		buildingFile.delete();
+	}
+
+	/**
+	 * Writers with different contexts write side by side, each file is
+	 * encoded with the dictionary of its own context
+	 * 
+	 * @throws IOException
+	 */
+	@Test
+	public void testSideBySide() throws IOException {
+		final ExternalizableWriter<Tagged> highwayWriter = new ExternalizableWriter<>(
+				highwayFile, highway);
+		final ExternalizableWriter<Tagged> buildingWriter = new ExternalizableWriter<>(
+				buildingFile, building);
+		for (int i = 0; i < COUNT; ++i) {
+			highwayWriter.writeExternalizable(new Tagged("highway", "residential"));
+			buildingWriter.writeExternalizable(new Tagged("building", "yes"));
+		}
+		highwayWriter.close();
+		buildingWriter.close();
+		// one byte of the format, the count and the id of the key
+		assertTrue(highwayFile.length() < COUNT * (4 + "residential".length()));
+		assertTrue(buildingFile.length() < COUNT * (4 + "yes".length()));
+
+		final ExternalizableIterator<Tagged> highways = new ExternalizableIterator<>(
+				highwayFile, new TaggedFactory(), highway);
+		final ExternalizableIterator<Tagged> buildings = new ExternalizableIterator<>(
+				buildingFile, new TaggedFactory(), building);
+		for (int i = 0; i < COUNT; ++i) {
+			assertEquals("residential", highways.next().tags.get("highway"));
+			assertEquals("yes", buildings.next().tags.get("building"));
+		}
+		assertFalse(highways.hasNext());
+		assertFalse(buildings.hasNext());
+		highways.close();
+		buildings.close();
+	}
+
+	/**
+	 * The dictionary of the context is written in front of the first element,
+	 * so the file is read with any context, also behind another file
+	 * 
+	 * @throws IOException
+	 */
+	@Test
+	public void testOtherContext() throws IOException {
+		write(highwayFile, highway, "highway", "residential");
+		write(buildingFile, building, "building", "yes");
+		final File both = File.createTempFile("both", "dat");
+		try {
+			try (FileOutputStream out = new FileOutputStream(both)) {
+				Files.copy(highwayFile.toPath(), out);
+				Files.copy(buildingFile.toPath(), out);
+			}
+			final ExternalizableIterator<Tagged> iter = new ExternalizableIterator<>(both,
+					new TaggedFactory(), CodecContext.getDefault());
+			for (int i = 0; i < COUNT; ++i) {
+				assertEquals("residential", iter.next().tags.get("highway"));
+			}
+			for (int i = 0; i < COUNT; ++i) {
+				assertEquals("yes", iter.next().tags.get("building"));
+			}
+			assertFalse(iter.hasNext());
+			iter.close();
+		} finally {
+			both.delete();
+		}
+	}
+
+	/**
+	 * Without samples the whole file is encoded with the dictionary of the
+	 * context
+	 * 
+	 * @throws IOException
+	 */
+	@Test
+	public void testNoSamples() throws IOException {
+		final CodecContext sampling = new CodecContext(TagDictionary.EMPTY, 10);
+		write(highwayFile, sampling, "highway", "residential");
+		write(buildingFile, new CodecContext(TagDictionary.EMPTY, 0), "highway", "residential");
+		// the sampled dictionary encodes the tag with a single byte
+		assertTrue(highwayFile.length() < buildingFile.length() / 4);
+		assertEquals(null, new CodecContext(TagDictionary.EMPTY, 0).newSampler());
+	}
+
+	/**
+	 * The buffers of writers and iterators are reserved from the memory budget
+	 * of their context, not from the global one
+	 * 
+	 * @throws IOException
+	 */
+	@Test
+	public void testMemoryBudget() throws IOException {
+		final MemoryBudget budget = new MemoryBudget(1 << 24);
+		final CodecContext budgeted = highway.withMemoryBudget(budget);
+		assertEquals(MemoryBudget.getGlobal(), highway.getMemoryBudget());
+		assertEquals(budget, budgeted.getMemoryBudget());
+		assertEquals(highway.getDictionary(), budgeted.getDictionary());
+		final long global = MemoryBudget.getGlobal().getReserved();
+		final ExternalizableWriter<Tagged> writer = new ExternalizableWriter<>(highwayFile,
+				budgeted);
+		assertTrue(budget.getReserved() > 0);
+		writer.writeExternalizable(new Tagged("highway", "residential"));
+		writer.close();
+		assertEquals(0, budget.getReserved());
+		final ExternalizableIterator<Tagged> iter = new ExternalizableIterator<>(highwayFile,
+				new TaggedFactory(), budgeted);
+		assertTrue(budget.getReserved() > 0);
+		assertEquals(global, MemoryBudget.getGlobal().getReserved());
+		assertEquals("residential", iter.next().tags.get("highway"));
+		iter.close();
+	}
+
+	private static void write(final File f, final CodecContext context, final String key,
+			final String value) throws IOException {
+		final ExternalizableWriter<Tagged> writer = new ExternalizableWriter<>(f, context);
+		for (int i = 0; i < COUNT; ++i) {
+			writer.writeExternalizable(new Tagged(key, value));
+		}
+		writer.close();
+	}
+
+	/**
+	 * Element with a single tag
+	 * 
+	 * @author oliver
+	 */
+	public static class Tagged implements Externalizable {
+		private final Map<String, String> tags = new HashMap<>();
+
+		public Tagged() {
+			super();
+		}
+
+		Tagged(final String key, final String value) {
+			super();
+			tags.put(key, value);
+		}
+
+		@Override
+		public void writeExternal(final ObjectOutput out) throws IOException {
+			StreamIo.writeFormat(out);
+			StreamIo.writeVarint(out, tags.size());
+			for (final Map.Entry<String, String> tag : tags.entrySet()) {
+				StreamIo.writeProperty(out, tag.getKey(), tag.getValue());
+			}
+		}
+
+		@Override
+		public void readExternal(final ObjectInput in) throws IOException {
+			tags.clear();
+			StreamIo.readFormat(in);
+			final int size = StreamIo.readSize(in);
+			for (int i = 0; i < size; ++i) {
+				StreamIo.readProperty(in, tags);
+			}
+		}
+	}
+
+	private static class TaggedFactory implements ExternalizableFactory<Tagged> {
+		@Override
+		public Tagged construct() {
+			return new Tagged();
+		}
+	}
+}
@@ -0,0 +1,230 @@
+/**
+ * Copyright (C) 2026 Oliver Schünemann
+ * 
+ * This program is free software; you can redistribute it and/or modify it under the terms of the 
+ * GNU General Public License as published by the Free Software Foundation; either version 2 of 
+ * the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; 
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. 
+ * See the GNU General Public License for more details. 
+ * 
+ * You should have received a copy of the GNU General Public License along with this program; 
+ * if not, write to the Free Software Foundation, Inc., 51 Franklin St, Fifth Floor, 
+ * Boston, MA 02110, USA 
+ * 
+ * @since 19.10.2026
+ * @version 1.0
+ * @author oliver
+ */
+package oc.io;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.EOFException;
+import java.io.Externalizable;
+import java.io.File;
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import oc.io.ExternalizableIterator.Position;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * @author oliver
+ * 
+ */
+public class ExternalizableIteratorTestCase {
+	private static final int COUNT = 3000;
+	private File file;
+
+	@Before
+	public void setUp() throws IOException {
+		file = File.createTempFile("iterator", "dat");
+	}
+
+	@After
+	public void tearDown() {
+		file.delete();
+	}
+
+	/**
+	 * Test method for
+	 * {@link oc.io.ExternalizableIterator#getPosition()}. An iteration
+	 * continued at a position returns the same elements like the first one,
+	 * also behind the dictionary sampled within the file and across the
+	 * blocks of the stream.
+	 * 
+	 * @throws IOException
+	 */
+	@Test
+	public void testContinueAtPosition() throws IOException {
+		final CodecContext context = new CodecContext(TagDictionary.EMPTY, 100);
+		final ExternalizableWriter<Numbered> writer = new ExternalizableWriter<>(file, context);
+		for (int i = 0; i < COUNT; ++i) {
+			writer.writeExternalizable(new Numbered(i));
+		}
+		writer.close();
+
+		final List<Position> positions = new ArrayList<>();
+		final ExternalizableIterator<Numbered> iter = new ExternalizableIterator<>(file,
+				new NumberedFactory(), context);
+		while (iter.hasNext()) {
+			positions.add(iter.getPosition());
+			iter.next();
+		}
+		assertEquals(COUNT, positions.size());
+		for (int i = 0; i < COUNT; i += 29) {
+			final ExternalizableIterator<Numbered> continued = new ExternalizableIterator<>(file,
+					new NumberedFactory(), context, positions.get(i));
+			for (int expected = i; expected < Math.min(COUNT, i + 50); ++expected) {
+				assertEquals(expected, continued.next().getNumber());
+			}
+			continued.close();
+		}
+		final ExternalizableIterator<Numbered> last = new ExternalizableIterator<>(file,
+				new NumberedFactory(), context, positions.get(COUNT - 1));
+		assertEquals(COUNT - 1, last.next().getNumber());
+		assertFalse(last.hasNext());
+	}
+
+	/**
+	 * A file ending within an element is reported instead of ending the
+	 * iteration.
+	 * 
+	 * @throws IOException
+	 */
+	@Test
+	public void testTruncated() throws IOException {
+		writeNumbered();
+		try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+			raf.setLength(raf.length() - 3);
+		}
+		try {
+			readNumbered();
+			fail("Truncated file was not reported");
+		} catch (final IOException e) {
+			// expected, the stream reports the end within a block as corrupt
+		}
+	}
+
+	/**
+	 * Corrupt data is reported instead of ending the iteration.
+	 * 
+	 * @throws IOException
+	 */
+	@Test
+	public void testCorrupt() throws IOException {
+		writeNumbered();
+		try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+			raf.seek(raf.length() / 2);
+			for (int i = 0; i < 32; ++i) {
+				raf.write(0xFF);
+			}
+		}
+		try {
+			readNumbered();
+			fail("Corrupt file was not reported");
+		} catch (final IOException e) {
+			assertFalse(e instanceof EOFException);
+		}
+	}
+
+	/**
+	 * Writes COUNT numbered elements to the file
+	 * 
+	 * @throws IOException
+	 */
+	private void writeNumbered() throws IOException {
+		final ExternalizableWriter<Numbered> writer = new ExternalizableWriter<>(file,
+				CodecContext.getDefault());
+		for (int i = 0; i < COUNT; ++i) {
+			writer.writeExternalizable(new Numbered(i));
+		}
+		writer.close();
+		assertEquals(COUNT, readNumbered());
+	}
+
+	/**
+	 * @return number of the elements in the file
+	 * @throws IOException
+	 */
+	private int readNumbered() throws IOException {
+		final ExternalizableIterator<Numbered> iter = new ExternalizableIterator<>(file,
+				new NumberedFactory(), CodecContext.getDefault());
+		int count = 0;
+		while (iter.hasNext()) {
+			assertTrue(iter.next().getNumber() >= 0);
+			count++;
+		}
+		return count;
+	}
+
+	/**
+	 * Element with a number and tags of varying length
+	 * 
+	 * @author oliver
+	 */
+	public static class Numbered implements Externalizable {
+		private final Map<String, String> tags = new HashMap<>();
+
+		public Numbered() {
+			super();
+		}
+
+		Numbered(final int number) {
+			super();
+			tags.put("number", Integer.toString(number));
+			tags.put("type", "type" + number % 7);
+			if (number % 11 == 0) {
+				final StringBuilder name = new StringBuilder();
+				for (int i = 0; i < number % 500; ++i) {
+					name.append('n');
+				}
+				tags.put("name", name.toString());
+			}
+		}
+
+		int getNumber() {
+			return Integer.parseInt(tags.get("number"));
+		}
+
+		@Override
+		public void writeExternal(final ObjectOutput out) throws IOException {
+			StreamIo.writeFormat(out);
+			StreamIo.writeVarint(out, tags.size());
+			for (final Map.Entry<String, String> tag : tags.entrySet()) {
+				StreamIo.writeProperty(out, tag.getKey(), tag.getValue());
+			}
+		}
+
+		@Override
+		public void readExternal(final ObjectInput in) throws IOException {
+			tags.clear();
+			StreamIo.readFormat(in);
+			final int size = StreamIo.readSize(in);
+			for (int i = 0; i < size; ++i) {
+				StreamIo.readProperty(in, tags);
+			}
+		}
+	}
+
+	private static class NumberedFactory implements ExternalizableFactory<Numbered> {
+		@Override
+		public Numbered construct() {
+			return new Numbered();
+		}
+	}
+}
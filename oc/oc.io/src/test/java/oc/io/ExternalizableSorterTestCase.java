@@ -19,14 +19,19 @@
  */
 package oc.io;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
 
+import oc.io.base.MemoryBudget;
 import oc.io.help.TestExternalizable;
 
 import org.junit.Test;
@@ -80,4 +85,151 @@ public class ExternalizableSorterTestCase {
 		tempFile.delete();
 		tempDir.delete();
 	}
+
+	/**
+	 * Test method for
+	 * {@link mm.io.ExternalizableSorter#setCheckpointFile(java.io.File)}.
+	 * 
+	 * @throws IOException
+	 */
+	@Test
+	public void testResumeInterruptedSort() throws IOException {
+		final File tempFile = File.createTempFile("sorter", "dat");
+		final File tempDir = File.createTempFile("sortertemp", "");
+		tempDir.delete();
+		tempDir.mkdirs();
+		final File checkpointFile = new File(tempDir, "sorter.sort");
+		final ExternalizableWriter<TestExternalizable> writer = new ExternalizableWriter<>(tempFile);
+		final List<Integer> values = new ArrayList<>();
+		for (int i = 0; i < 5000; ++i) {
+			values.add(Integer.valueOf(i));
+		}
+		Collections.shuffle(values);
+		for (final Integer integer : values) {
+			writer.writeExternalizable(new TestExternalizable(integer));
+		}
+		writer.close();
+
+		final Comparator<TestExternalizable> comparator = TestExternalizable
+				.getTestExternalizableComparator();
+		// fails in the middle of the presort
+		final ExternalizableSorter<TestExternalizable> failingSorter = new ExternalizableSorter<>(
+				tempFile, tempDir, TestExternalizable.getTestExternalizableFactory(),
+				new Comparator<TestExternalizable>() {
+					private int calls = 0;
+
+					@Override
+					public int compare(final TestExternalizable o1, final TestExternalizable o2) {
+						if (++calls > 20000) {
+							throw new IllegalStateException("interrupted");
+						}
+						return comparator.compare(o1, o2);
+					}
+				}, 500);
+		failingSorter.setCheckpointFile(checkpointFile);
+		try {
+			failingSorter.process();
+			fail("Sort was not interrupted");
+		} catch (final IllegalStateException e) {
+			assertEquals("interrupted", e.getMessage());
+		}
+		assertTrue(checkpointFile.isFile());
+
+		final ExternalizableSorter<TestExternalizable> sorter = new ExternalizableSorter<>(
+				tempFile, tempDir, TestExternalizable.getTestExternalizableFactory(), comparator,
+				500);
+		sorter.setCheckpointFile(checkpointFile);
+		sorter.process();
+		assertFalse(checkpointFile.exists());
+		int expected = 0;
+		for (final ExternalizableIterator<TestExternalizable> iter = new ExternalizableIterator<>(
+				tempFile, TestExternalizable.getTestExternalizableFactory()); iter.hasNext();) {
+			assertEquals(expected++, iter.next().getMyId());
+		}
+		assertEquals(5000, expected);
+		assertEquals(0, tempDir.list().length);
+		tempFile.delete();
+		tempDir.delete();
+	}
+
+	/**
+	 * Test method for
+	 * {@link mm.io.ExternalizableSorter#setMemoryBudget(oc.io.base.MemoryBudget)}
+	 * .
+	 * 
+	 * @throws IOException
+	 */
+	@Test
+	public void testMemoryBudget() throws IOException {
+		final File tempFile = File.createTempFile("sorter", "dat");
+		final File tempDir = File.createTempFile("sortertemp", "");
+		tempDir.delete();
+		tempDir.mkdirs();
+		final ExternalizableWriter<TestExternalizable> writer = new ExternalizableWriter<>(tempFile);
+		final List<Integer> values = new ArrayList<>();
+		for (int i = 0; i < 20000; ++i) {
+			values.add(Integer.valueOf(i));
+		}
+		Collections.shuffle(values);
+		for (final Integer integer : values) {
+			writer.writeExternalizable(new TestExternalizable(integer));
+		}
+		writer.close();
+		// only room for some hundred elements per first level file
+		final MemoryBudget budget = new MemoryBudget(50000);
+		final ExternalizableSorter<TestExternalizable> sorter = new ExternalizableSorter<>(
+				tempFile, tempDir, TestExternalizable.getTestExternalizableFactory(),
+				TestExternalizable.getTestExternalizableComparator());
+		sorter.setMemoryBudget(budget);
+		sorter.process();
+		assertEquals(0, budget.getReserved());
+		int expected = 0;
+		for (final ExternalizableIterator<TestExternalizable> iter = new ExternalizableIterator<>(
+				tempFile, TestExternalizable.getTestExternalizableFactory()); iter.hasNext();) {
+			assertEquals(expected++, iter.next().getMyId());
+		}
+		assertEquals(20000, expected);
+		tempFile.delete();
+		tempDir.delete();
+	}
+
+	/**
+	 * Test method for {@link mm.io.ExternalizableSorter#merge(java.util.List)}.
+	 * 
+	 * @throws IOException
+	 */
+	@Test
+	public void testMerge() throws IOException {
+		final File tempFile = File.createTempFile("sorter", "dat");
+		final File tempDir = File.createTempFile("sortertemp", "");
+		tempDir.delete();
+		tempDir.mkdirs();
+		final List<File> sorted = new ArrayList<>();
+		for (int f = 0; f < 3; ++f) {
+			final File file = new File(tempDir, "sorted" + f);
+			final ExternalizableWriter<TestExternalizable> writer = new ExternalizableWriter<>(file);
+			// every third value, the first file also has the values of the
+			// second one
+			for (int i = f == 0 ? 0 : f; i < 3000; i += f == 0 ? 1 : 3) {
+				if (f > 0 || i % 3 != 2) {
+					writer.writeExternalizable(new TestExternalizable(i));
+				}
+			}
+			writer.close();
+			sorted.add(file);
+		}
+		final ExternalizableSorter<TestExternalizable> sorter = new ExternalizableSorter<>(
+				tempFile, tempDir, TestExternalizable.getTestExternalizableFactory(),
+				TestExternalizable.getTestExternalizableComparator());
+		sorter.merge(sorted);
+		int expected = 0;
+		for (final ExternalizableIterator<TestExternalizable> iter = new ExternalizableIterator<>(
+				tempFile, TestExternalizable.getTestExternalizableFactory()); iter.hasNext();) {
+			assertEquals(expected++, iter.next().getMyId());
+		}
+		assertEquals(3000, expected);
+		assertEquals(0, tempDir.list().length);
+		tempFile.delete();
+		tempDir.delete();
+	}
 }
@@ -0,0 +1,200 @@
+/**
+ * Copyright (C) 2026 Oliver Schünemann
+ * 
+ * This program is free software; you can redistribute it and/or modify it under the terms of the 
+ * GNU General Public License as published by the Free Software Foundation; either version 2 of 
+ * the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; 
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. 
+ * See the GNU General Public License for more details. 
+ * 
+ * You should have received a copy of the GNU General Public License along with this program; 
+ * if not, write to the Free Software Foundation, Inc., 51 Franklin St, Fifth Floor, 
+ * Boston, MA 02110, USA 
+ * 
+ * @since 19.10.2026
+ * @version 1.0
+ * @author oliver
+ */
+package oc.io;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import oc.io.ReferenceResolver.ReferedHandler;
+import oc.io.ReferenceResolver.RefererHandler;
+import oc.io.help.TestManyExternalizable;
+import oc.io.help.TestOneExternalizable;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * @author oliver
+ * 
+ */
+public class MultiReferenceResolverTestCase {
+
+	private static final int MANY_AMOUNT = 200;
+	private static final int ONE_AMOUNT = 20;
+	private static final int MANY_TO_ONE = 3;
+
+	private File manyFile = null;
+	private File firstOneFile = null;
+	private File secondOneFile = null;
+	private final Set<Integer> referencedIds = new HashSet<>();
+
+	private final ExternalizableFactory<TestOneExternalizable> oneFactory = new ExternalizableFactory<TestOneExternalizable>() {
+
+		@Override
+		public TestOneExternalizable construct() {
+			return new TestOneExternalizable();
+		}
+	};
+
+	private final ExternalizableFactory<TestManyExternalizable> manyFactory = new ExternalizableFactory<TestManyExternalizable>() {
+
+		@Override
+		public TestManyExternalizable construct() {
+			return new TestManyExternalizable();
+		}
+	};
+
+	private final RefererHandler<TestOneExternalizable, TestManyExternalizable> oneHandler = new RefererHandler<TestOneExternalizable, TestManyExternalizable>() {
+
+		@Override
+		public long getId(final TestOneExternalizable one) {
+			return one.getMyId();
+		}
+
+		@Override
+		public List<Long> getRefs(final TestOneExternalizable one) {
+			final List<Long> refs = new ArrayList<>();
+			for (final TestManyExternalizable many : one.getManies()) {
+				refs.add(Long.valueOf(many.getMyId()));
+			}
+			return refs;
+		}
+
+		@Override
+		public void setResolvedRefs(final TestOneExternalizable one,
+				final Map<Long, TestManyExternalizable> manies) {
+			one.setManies(manies);
+		}
+	};
+
+	private final ReferedHandler<TestManyExternalizable> manyHandler = new ReferedHandler<TestManyExternalizable>() {
+
+		@Override
+		public long getId(final TestManyExternalizable many) {
+			return many.getMyId();
+		}
+
+		@Override
+		public void setId(final TestManyExternalizable many, final long id) {
+			many.setMyId((int) id);
+		}
+	};
+
+	@Before
+	public void setup() throws IOException {
+		manyFile = File.createTempFile("manyfile", "dat");
+		firstOneFile = File.createTempFile("onefile", "dat");
+		secondOneFile = File.createTempFile("onefile", "dat");
+		referencedIds.clear();
+		final ExternalizableWriter<TestManyExternalizable> manyWriter = new ExternalizableWriter<>(
+				manyFile);
+		final List<Integer> ids = new ArrayList<>();
+		for (int i = 0; i < MANY_AMOUNT; ++i) {
+			ids.add(Integer.valueOf(i));
+			manyWriter.writeExternalizable(new TestManyExternalizable(i, true));
+		}
+		manyWriter.close();
+		Collections.shuffle(ids);
+		writeOneFile(firstOneFile, ids.subList(0, ONE_AMOUNT * MANY_TO_ONE));
+		writeOneFile(secondOneFile,
+				ids.subList(ONE_AMOUNT * MANY_TO_ONE / 2, ONE_AMOUNT * MANY_TO_ONE * 3 / 2));
+	}
+
+	private void writeOneFile(final File oneFile, final List<Integer> manyIds) throws IOException {
+		final ExternalizableWriter<TestOneExternalizable> oneWriter = new ExternalizableWriter<>(
+				oneFile);
+		for (int i = 0; i < ONE_AMOUNT; ++i) {
+			final List<TestManyExternalizable> oneManies = new ArrayList<>();
+			for (int j = 0; j < MANY_TO_ONE; ++j) {
+				final Integer manyId = manyIds.get(i * MANY_TO_ONE + j);
+				oneManies.add(new TestManyExternalizable(manyId.intValue(), false));
+				referencedIds.add(manyId);
+			}
+			oneWriter.writeExternalizable(new TestOneExternalizable(i, oneManies));
+		}
+		oneWriter.close();
+	}
+
+	private void examinResolved(final File destFile) throws IOException {
+		final ExternalizableIterator<TestOneExternalizable> iter = new ExternalizableIterator<>(
+				destFile, oneFactory);
+		int count = 0;
+		while (iter.hasNext()) {
+			final TestOneExternalizable one = iter.next();
+			assertEquals(count, one.getMyId());
+			assertEquals(MANY_TO_ONE, one.getManies().size());
+			for (final TestManyExternalizable many : one.getManies()) {
+				assertTrue(many.isResolved());
+			}
+			count++;
+		}
+		assertEquals(ONE_AMOUNT, count);
+	}
+
+	/**
+	 * Test method for {@link oc.io.MultiReferenceResolver#resolve()}.
+	 * 
+	 * @throws IOException
+	 */
+	@Test
+	public void testResolve() throws IOException {
+		final File tempDir = File.createTempFile("resolvetemp", "");
+		tempDir.delete();
+		tempDir.mkdirs();
+		final File firstDestFile = File.createTempFile("resolved", "dat");
+		final File secondDestFile = File.createTempFile("resolved", "dat");
+		final File unreferencedFile = File.createTempFile("unreferenced", "dat");
+
+		final MultiReferenceResolver<TestManyExternalizable> resolver = new MultiReferenceResolver<>(
+				manyFile, tempDir, manyFactory, manyHandler);
+		resolver.addReferer(firstDestFile, firstOneFile, oneFactory, oneHandler, 10);
+		resolver.addReferer(secondDestFile, secondOneFile, oneFactory, oneHandler, 10);
+		resolver.setUnreferencedFile(unreferencedFile);
+		resolver.resolve();
+
+		examinResolved(firstDestFile);
+		examinResolved(secondDestFile);
+
+		final ExternalizableIterator<TestManyExternalizable> iter = new ExternalizableIterator<>(
+				unreferencedFile, manyFactory);
+		int count = 0;
+		while (iter.hasNext()) {
+			assertFalse(referencedIds.contains(Integer.valueOf(iter.next().getMyId())));
+			count++;
+		}
+		assertEquals(MANY_AMOUNT - referencedIds.size(), count);
+		assertEquals(0, tempDir.list().length);
+
+		firstDestFile.delete();
+		secondDestFile.delete();
+		unreferencedFile.delete();
+		tempDir.delete();
+	}
+}
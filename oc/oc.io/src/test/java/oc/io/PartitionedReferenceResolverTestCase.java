@@ -0,0 +1,273 @@
+/**
+ * Copyright (C) 2026 Oliver Schünemann
+ * 
+ * This program is free software; you can redistribute it and/or modify it under the terms of the 
+ * GNU General Public License as published by the Free Software Foundation; either version 2 of 
+ * the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; 
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. 
+ * See the GNU General Public License for more details. 
+ * 
+ * You should have received a copy of the GNU General Public License along with this program; 
+ * if not, write to the Free Software Foundation, Inc., 51 Franklin St, Fifth Floor, 
+ * Boston, MA 02110, USA 
+ * 
+ * @since 19.10.2026
+ * @version 1.0
+ * @author oliver
+ */
+package oc.io;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import oc.io.ReferenceResolver.ReferedHandler;
+import oc.io.ReferenceResolver.RefererHandler;
+import oc.io.help.TestManyExternalizable;
+import oc.io.help.TestOneExternalizable;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * @author oliver
+ * 
+ */
+public class PartitionedReferenceResolverTestCase {
+
+	private static final int MANY_AMOUNT = 3000;
+	private static final int ONE_AMOUNT = 400;
+	private static final int MAX_MANY_TO_ONE = 8;
+
+	private File oneFile = null;
+	private File manyFile = null;
+	private File tempDir = null;
+
+	private final ExternalizableFactory<TestOneExternalizable> oneFactory = new ExternalizableFactory<TestOneExternalizable>() {
+
+		@Override
+		public TestOneExternalizable construct() {
+			return new TestOneExternalizable();
+		}
+	};
+
+	private final ExternalizableFactory<TestManyExternalizable> manyFactory = new ExternalizableFactory<TestManyExternalizable>() {
+
+		@Override
+		public TestManyExternalizable construct() {
+			return new TestManyExternalizable();
+		}
+	};
+
+	private final RefererHandler<TestOneExternalizable, TestManyExternalizable> oneHandler = new RefererHandler<TestOneExternalizable, TestManyExternalizable>() {
+
+		@Override
+		public long getId(final TestOneExternalizable one) {
+			return one.getMyId();
+		}
+
+		@Override
+		public List<Long> getRefs(final TestOneExternalizable one) {
+			final List<Long> refs = new ArrayList<>();
+			for (final TestManyExternalizable many : one.getManies()) {
+				refs.add(Long.valueOf(many.getMyId()));
+			}
+			return refs;
+		}
+
+		@Override
+		public void setResolvedRefs(final TestOneExternalizable one,
+				final Map<Long, TestManyExternalizable> manies) {
+			one.setManies(manies);
+		}
+	};
+
+	private final ReferedHandler<TestManyExternalizable> manyHandler = new ReferedHandler<TestManyExternalizable>() {
+
+		@Override
+		public long getId(final TestManyExternalizable many) {
+			return many.getMyId();
+		}
+
+		@Override
+		public void setId(final TestManyExternalizable many, final long id) {
+			many.setMyId((int) id);
+		}
+	};
+
+	@Before
+	public void setup() throws IOException {
+		oneFile = File.createTempFile("onefile", "dat");
+		manyFile = File.createTempFile("manyfile", "dat");
+		tempDir = File.createTempFile("resolvetemp", "");
+		tempDir.delete();
+		tempDir.mkdirs();
+		final Random random = new Random(4711);
+		final ExternalizableWriter<TestManyExternalizable> manyWriter = new ExternalizableWriter<>(
+				manyFile);
+		for (int i = 0; i < MANY_AMOUNT; ++i) {
+			manyWriter.writeExternalizable(new TestManyExternalizable(i, true));
+		}
+		manyWriter.close();
+		final ExternalizableWriter<TestOneExternalizable> oneWriter = new ExternalizableWriter<>(
+				oneFile);
+		for (int i = 0; i < ONE_AMOUNT; ++i) {
+			final List<TestManyExternalizable> oneManies = new ArrayList<>();
+			// some of the ones do not reference anything
+			final int manyCount = random.nextInt(MAX_MANY_TO_ONE);
+			for (int j = 0; j < manyCount; ++j) {
+				// skewed towards small ids, that the partitions are uneven
+				final int manyId = (int) (MANY_AMOUNT * Math.pow(random.nextDouble(), 3));
+				oneManies.add(new TestManyExternalizable(manyId, false));
+			}
+			oneWriter.writeExternalizable(new TestOneExternalizable(i * 3, oneManies));
+		}
+		oneWriter.close();
+	}
+
+	/**
+	 * Test method for {@link oc.io.PartitionedReferenceResolver#resolve()}.
+	 * 
+	 * @throws IOException
+	 */
+	@Test
+	public void testResolve() throws IOException {
+		final File expectedFile = File.createTempFile("expected", "dat");
+		final File destFile = File.createTempFile("resolved", "dat");
+
+		ReferenceResolver.resolveReferences(expectedFile, oneFile, manyFile, tempDir,
+				oneFactory, manyFactory, manyHandler, oneHandler, 100);
+		ReferenceResolver.resolveReferences(destFile, oneFile, manyFile, tempDir, oneFactory,
+				manyFactory, manyHandler, oneHandler, 100, 4);
+
+		final ExternalizableIterator<TestOneExternalizable> expectedIter = new ExternalizableIterator<>(
+				expectedFile, oneFactory);
+		final ExternalizableIterator<TestOneExternalizable> iter = new ExternalizableIterator<>(
+				destFile, oneFactory);
+		int count = 0;
+		while (expectedIter.hasNext()) {
+			assertTrue(iter.hasNext());
+			final TestOneExternalizable expected = expectedIter.next();
+			final TestOneExternalizable one = iter.next();
+			assertEquals(expected.getMyId(), one.getMyId());
+			assertEquals(expected.getManies().size(), one.getManies().size());
+			for (int i = 0; i < one.getManies().size(); ++i) {
+				assertEquals(expected.getManies().get(i).getMyId(), one.getManies().get(i)
+						.getMyId());
+				assertTrue(one.getManies().get(i).isResolved());
+			}
+			count++;
+		}
+		assertFalse(iter.hasNext());
+		assertEquals(ONE_AMOUNT, count);
+		assertEquals(0, tempDir.list().length);
+
+		expectedFile.delete();
+		destFile.delete();
+		tempDir.delete();
+	}
+
+	/**
+	 * The partitions read the Many side from a source instead of splitting it
+	 * 
+	 * @throws IOException
+	 */
+	@Test
+	public void testResolveSource() throws IOException {
+		final File expectedFile = File.createTempFile("expected", "dat");
+		final File destFile = File.createTempFile("resolved", "dat");
+
+		ReferenceResolver.resolveReferences(expectedFile, oneFile, manyFile, tempDir,
+				oneFactory, manyFactory, manyHandler, oneHandler, 100);
+		new PartitionedReferenceResolver<>(destFile, oneFile, new ExternalizableSource<>(
+				manyFile, manyFactory, manyHandler, CodecContext.getDefault()), tempDir,
+				oneFactory, manyFactory, manyHandler, oneHandler, 100, 4).resolve();
+
+		final ExternalizableIterator<TestOneExternalizable> expectedIter = new ExternalizableIterator<>(
+				expectedFile, oneFactory);
+		final ExternalizableIterator<TestOneExternalizable> iter = new ExternalizableIterator<>(
+				destFile, oneFactory);
+		int count = 0;
+		while (expectedIter.hasNext()) {
+			assertTrue(iter.hasNext());
+			final TestOneExternalizable expected = expectedIter.next();
+			final TestOneExternalizable one = iter.next();
+			assertEquals(expected.getMyId(), one.getMyId());
+			assertEquals(expected.getManies().size(), one.getManies().size());
+			for (int i = 0; i < one.getManies().size(); ++i) {
+				assertEquals(expected.getManies().get(i).getMyId(), one.getManies().get(i)
+						.getMyId());
+				assertTrue(one.getManies().get(i).isResolved());
+			}
+			count++;
+		}
+		assertFalse(iter.hasNext());
+		assertEquals(ONE_AMOUNT, count);
+		assertEquals(0, tempDir.list().length);
+
+		expectedFile.delete();
+		destFile.delete();
+		tempDir.delete();
+	}
+
+	/**
+	 * The One file is split by size, with more partitions than One instances
+	 * some of the partitions stay empty
+	 * 
+	 * @throws IOException
+	 */
+	@Test
+	public void testEmptyPartitions() throws IOException {
+		final File smallFile = File.createTempFile("smallone", "dat");
+		final File destFile = File.createTempFile("resolved", "dat");
+		final ExternalizableWriter<TestOneExternalizable> oneWriter = new ExternalizableWriter<>(
+				smallFile);
+		for (int i = 0; i < 3; ++i) {
+			final List<TestManyExternalizable> oneManies = new ArrayList<>();
+			oneManies.add(new TestManyExternalizable(i, false));
+			oneManies.add(new TestManyExternalizable(MANY_AMOUNT - 1 - i, false));
+			oneWriter.writeExternalizable(new TestOneExternalizable(i, oneManies));
+		}
+		oneWriter.close();
+
+		ReferenceResolver.resolveReferences(destFile, smallFile, manyFile, tempDir, oneFactory,
+				manyFactory, manyHandler, oneHandler, 100, 8);
+
+		final ExternalizableIterator<TestOneExternalizable> iter = new ExternalizableIterator<>(
+				destFile, oneFactory);
+		for (int i = 0; i < 3; ++i) {
+			final TestOneExternalizable one = iter.next();
+			assertEquals(i, one.getMyId());
+			assertEquals(i, one.getManies().get(0).getMyId());
+			assertEquals(MANY_AMOUNT - 1 - i, one.getManies().get(1).getMyId());
+			assertTrue(one.getManies().get(0).isResolved());
+			assertTrue(one.getManies().get(1).isResolved());
+		}
+		assertFalse(iter.hasNext());
+		assertEquals(0, tempDir.list().length);
+
+		smallFile.delete();
+		destFile.delete();
+		tempDir.delete();
+	}
+
+	@Test
+	public void testPartitionOf() {
+		final long[] bounds = new long[] { 10, 20, 20, 30 };
+		assertEquals(0, PartitionedReferenceResolver.partitionOf(bounds, 5));
+		assertEquals(1, PartitionedReferenceResolver.partitionOf(bounds, 10));
+		assertEquals(1, PartitionedReferenceResolver.partitionOf(bounds, 19));
+		assertEquals(3, PartitionedReferenceResolver.partitionOf(bounds, 20));
+		assertEquals(4, PartitionedReferenceResolver.partitionOf(bounds, 30));
+		assertEquals(0, PartitionedReferenceResolver.partitionOf(new long[0], 30));
+	}
+}
@@ -0,0 +1,122 @@
+/**
+ * Copyright (C) 2026 Oliver Schünemann
+ * 
+ * This program is free software; you can redistribute it and/or modify it under the terms of the 
+ * GNU General Public License as published by the Free Software Foundation; either version 2 of 
+ * the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; 
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. 
+ * See the GNU General Public License for more details. 
+ * 
+ * You should have received a copy of the GNU General Public License along with this program; 
+ * if not, write to the Free Software Foundation, Inc., 51 Franklin St, Fifth Floor, 
+ * Boston, MA 02110, USA 
+ * 
+ * @since 19.10.2026
+ * @version 1.0
+ * @author oliver
+ */
+package oc.io;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Test;
+
+/**
+ * @author oliver
+ * 
+ */
+public class StringCacheTestCase {
+
+	private static String get(final StringCache cache, final String string) {
+		final byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+		// the buffer is longer than the string like the buffer of a stream
+		final byte[] buffer = new byte[bytes.length + 10];
+		System.arraycopy(bytes, 0, buffer, 0, bytes.length);
+		return cache.get(buffer, bytes.length);
+	}
+
+	@Test
+	public void testSameInstance() {
+		final StringCache cache = new StringCache(64);
+		final String first = get(cache, "residential");
+		assertEquals("residential", first);
+		assertSame(first, get(cache, "residential"));
+		assertEquals("yes", get(cache, "yes"));
+		assertEquals("Straße", get(cache, "Straße"));
+		assertSame(get(cache, "Straße"), get(cache, "Straße"));
+		assertEquals("", get(cache, ""));
+		assertEquals(3, cache.getHits());
+		assertEquals(4, cache.getMisses());
+		assertEquals(3.0 / 7, cache.getHitRate(), 1e-9);
+		assertTrue(cache.getSavedBytes() > 3 * 40);
+	}
+
+	@Test
+	public void testLongString() {
+		final StringCache cache = new StringCache(64);
+		final StringBuilder builder = new StringBuilder();
+		for (int i = 0; i <= StringCache.MAX_LENGTH; ++i) {
+			builder.append('x');
+		}
+		final String first = get(cache, builder.toString());
+		assertEquals(builder.toString(), first);
+		assertNotSame(first, get(cache, builder.toString()));
+		assertEquals(0, cache.getHits());
+		assertEquals(0, cache.getMisses());
+		assertEquals(0, cache.getHitRate(), 1e-9);
+	}
+
+	/**
+	 * More strings than slots, each lookup still returns the right text
+	 */
+	@Test
+	public void testBounded() {
+		final StringCache cache = new StringCache(16);
+		for (int round = 0; round < 3; ++round) {
+			for (int i = 0; i < 1000; ++i) {
+				assertEquals("value" + i, get(cache, "value" + i));
+			}
+		}
+		assertEquals(3000, cache.getHits() + cache.getMisses());
+	}
+
+	@Test
+	public void testThreads() throws Exception {
+		final StringCache cache = new StringCache(StringCache.DEFAULT_SIZE);
+		final ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			final List<Future<Void>> futures = new ArrayList<>();
+			for (int t = 0; t < 4; ++t) {
+				futures.add(executor.submit(new Callable<Void>() {
+					@Override
+					public Void call() {
+						for (int i = 0; i < 10000; ++i) {
+							assertEquals("value" + i % 100, get(cache, "value" + i % 100));
+						}
+						return null;
+					}
+				}));
+			}
+			for (final Future<Void> future : futures) {
+				future.get();
+			}
+		} finally {
+			executor.shutdown();
+		}
+		assertEquals(40000, cache.getHits() + cache.getMisses());
+		assertTrue(cache.getHitRate() > 0.9);
+	}
+}
@@ -0,0 +1,112 @@
+/**
+ * Copyright (C) 2026 Oliver Schünemann
+ * 
+ * This program is free software; you can redistribute it and/or modify it under the terms of the 
+ * GNU General Public License as published by the Free Software Foundation; either version 2 of 
+ * the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; 
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. 
+ * See the GNU General Public License for more details. 
+ * 
+ * You should have received a copy of the GNU General Public License along with this program; 
+ * if not, write to the Free Software Foundation, Inc., 51 Franklin St, Fifth Floor, 
+ * Boston, MA 02110, USA 
+ * 
+ * @since 19.10.2026
+ * @version 1.0
+ * @author oliver
+ */
+package oc.io;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+import java.util.Arrays;
+
+import org.junit.Test;
+
+/**
+ * @author oliver
+ * 
+ */
+public class TagDictionaryTestCase {
+
+	private static TagDictionary sample() {
+		final TagSampler sampler = new TagSampler(10);
+		for (int i = 0; i < 5; ++i) {
+			sampler.add("highway", "residential");
+			sampler.add("building", "yes");
+			sampler.add("name", "Street " + i);
+		}
+		sampler.add("highway", "primary");
+		sampler.add("outer");
+		sampler.add("outer");
+		sampler.add("outer");
+		sampler.add("inner");
+		assertTrue(sampler.isFull());
+		return sampler.build();
+	}
+
+	@Test
+	public void testBuild() throws IOException {
+		final TagDictionary dictionary = sample();
+		// the most frequent entries get the smallest ids
+		assertEquals("highway", dictionary.getKey(1));
+		assertFalse(dictionary.isPair(1));
+		final int pair = dictionary.getPairId("highway", "residential");
+		assertTrue(pair > 0);
+		assertTrue(dictionary.isPair(pair));
+		assertEquals("highway", dictionary.getKey(pair));
+		assertEquals("residential", dictionary.getValue(pair));
+		assertTrue(dictionary.getPairId("building", "yes") > 0);
+		assertTrue(dictionary.getId("outer") > 0);
+		// seen less than three times
+		assertEquals(0, dictionary.getPairId("highway", "primary"));
+		assertEquals(0, dictionary.getId("inner"));
+		assertEquals(0, dictionary.getId("Street 1"));
+		// the same sample gives the same dictionary
+		final TagDictionary again = sample();
+		assertEquals(dictionary.size(), again.size());
+		for (int id = 1; id <= dictionary.size(); ++id) {
+			assertEquals(dictionary.getKey(id), again.getKey(id));
+			assertEquals(dictionary.getValue(id), again.getValue(id));
+		}
+	}
+
+	@Test
+	public void testWriteRead() throws IOException {
+		final TagDictionary dictionary = sample();
+		final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		dictionary.write(new DataOutputStream(bytes));
+		final TagDictionary read = TagDictionary.read(new DataInputStream(
+				new ByteArrayInputStream(bytes.toByteArray())));
+		assertEquals(dictionary.size(), read.size());
+		for (int id = 1; id <= dictionary.size(); ++id) {
+			assertEquals(dictionary.getKey(id), read.getKey(id));
+			assertEquals(dictionary.getValue(id), read.getValue(id));
+		}
+		assertEquals(dictionary.getPairId("building", "yes"), read.getPairId("building", "yes"));
+		assertEquals(dictionary.getId("outer"), read.getId("outer"));
+	}
+
+	@Test
+	public void testOf() throws IOException {
+		final TagDictionary dictionary = TagDictionary.of(Arrays.asList("a", "b"));
+		assertEquals(2, dictionary.getId("b"));
+		assertEquals("a", dictionary.getKey(1));
+		assertEquals(0, dictionary.getPairId("a", "b"));
+	}
+
+	@Test(expected = StreamCorruptedException.class)
+	public void testUnknownId() throws IOException {
+		TagDictionary.of(Arrays.asList("a")).getKey(2);
+	}
+}
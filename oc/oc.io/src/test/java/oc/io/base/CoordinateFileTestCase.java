@@ -0,0 +1,172 @@
+/**
+ * Copyright (C) 2026 Oliver Schünemann
+ * 
+ * This program is free software; you can redistribute it and/or modify it under the terms of the 
+ * GNU General Public License as published by the Free Software Foundation; either version 2 of 
+ * the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; 
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. 
+ * See the GNU General Public License for more details. 
+ * 
+ * You should have received a copy of the GNU General Public License along with this program; 
+ * if not, write to the Free Software Foundation, Inc., 51 Franklin St, Fifth Floor, 
+ * Boston, MA 02110, USA 
+ * 
+ * @since 19.10.2026
+ * @version 1.0
+ * @author oliver
+ */
+package oc.io.base;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.Random;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * @author oliver
+ * 
+ */
+public class CoordinateFileTestCase {
+
+	private static final int COUNT = 10000;
+	private static final int BLOCK_SIZE = 100;
+
+	private File f = null;
+	private final long ids[] = new long[COUNT];
+	private final int lats[] = new int[COUNT];
+	private final int lons[] = new int[COUNT];
+
+	@Before
+	public void setUp() throws IOException {
+		f = File.createTempFile("coordinates", "dat");
+		final Random random = new Random(11);
+		long id = -5000;
+		int lat = 520000000;
+		int lon = 130000000;
+		for (int i = 0; i < COUNT; ++i) {
+			// mostly consecutive ids and close coordinates, some jumps
+			id += random.nextInt(50) == 0 ? random.nextInt(1 << 30) : 1 + random.nextInt(3);
+			lat += random.nextInt(2000) - 1000;
+			lon += random.nextInt(2000) - 1000;
+			ids[i] = id;
+			lats[i] = lat;
+			lons[i] = lon;
+		}
+		// extreme coordinates must survive the differences
+		lats[7] = Integer.MAX_VALUE;
+		lats[8] = Integer.MIN_VALUE;
+		lons[BLOCK_SIZE] = Integer.MIN_VALUE;
+	}
+
+	@After
+	public void tearDown() {
+		f.delete();
+	}
+
+	private void write(final int count) throws IOException {
+		try (CoordinateFileWriter writer = new CoordinateFileWriter(new FileOutputStream(f),
+				BLOCK_SIZE)) {
+			for (int i = 0; i < count; ++i) {
+				writer.write(ids[i], lats[i], lons[i]);
+			}
+			assertEquals(count, writer.getCount());
+		}
+	}
+
+	@Test
+	public void testReadAll() throws IOException {
+		write(COUNT - 1);
+		try (CoordinateFileReader reader = new CoordinateFileReader(f)) {
+			assertEquals(COUNT - 1, reader.getCount());
+			assertEquals(BLOCK_SIZE, reader.getBlockCount());
+			final CoordinateBlock block = new CoordinateBlock();
+			int index = 0;
+			for (int b = 0; b < reader.getBlockCount(); ++b) {
+				final int size = reader.decode(b, block);
+				assertEquals(b == BLOCK_SIZE - 1 ? BLOCK_SIZE - 1 : BLOCK_SIZE, size);
+				assertEquals(ids[index], reader.getFirstId(b));
+				for (int i = 0; i < size; ++i) {
+					assertEquals(ids[index], block.getIds()[i]);
+					assertEquals(lats[index], block.getLats()[i]);
+					assertEquals(lons[index], block.getLons()[i]);
+					index++;
+				}
+			}
+			assertEquals(COUNT - 1, index);
+		}
+	}
+
+	@Test
+	public void testFindBlock() throws IOException {
+		write(COUNT);
+		try (CoordinateFileReader reader = new CoordinateFileReader(f)) {
+			assertEquals(0, reader.findBlock(Long.MIN_VALUE));
+			assertEquals(0, reader.findBlock(ids[0]));
+			assertEquals(0, reader.findBlock(ids[BLOCK_SIZE] - 1));
+			assertEquals(1, reader.findBlock(ids[BLOCK_SIZE]));
+			assertEquals(57, reader.findBlock(ids[57 * BLOCK_SIZE + 13]));
+			assertEquals(reader.getBlockCount() - 1, reader.findBlock(Long.MAX_VALUE));
+		}
+	}
+
+	/**
+	 * Nodes with nearly consecutive ids and close coordinates need a quarter
+	 * of the 20 bytes of a serialized node.
+	 * 
+	 * @throws IOException
+	 */
+	@Test
+	public void testSize() throws IOException {
+		for (int i = 0; i < COUNT; ++i) {
+			ids[i] = 1000000000L + i;
+			lats[i] = 520000000 + (i % 100) * 37;
+			lons[i] = 130000000 - i * 11;
+		}
+		write(COUNT);
+		assertTrue(f.length() + " bytes", f.length() < COUNT * 5);
+	}
+
+	@Test
+	public void testEmpty() throws IOException {
+		write(0);
+		try (CoordinateFileReader reader = new CoordinateFileReader(f)) {
+			assertEquals(0, reader.getCount());
+			assertEquals(0, reader.getBlockCount());
+			assertEquals(0, reader.findBlock(17));
+		}
+	}
+
+	@Test
+	public void testTruncated() throws IOException {
+		write(COUNT);
+		try (RandomAccessFile raf = new RandomAccessFile(f, "rw")) {
+			raf.setLength(raf.length() - 5);
+		}
+		try {
+			new CoordinateFileReader(f).close();
+			fail("Truncated file was opened");
+		} catch (final EOFException e) {
+			// expected
+		}
+	}
+
+	@Test(expected = IOException.class)
+	public void testNoCoordinateFile() throws IOException {
+		try (FileOutputStream out = new FileOutputStream(f)) {
+			out.write(new byte[100]);
+		}
+		new CoordinateFileReader(f).close();
+	}
+}
@@ -0,0 +1,123 @@
+/**
+ * Copyright (C) 2026 Oliver Schünemann
+ * 
+ * This program is free software; you can redistribute it and/or modify it under the terms of the 
+ * GNU General Public License as published by the Free Software Foundation; either version 2 of 
+ * the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; 
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. 
+ * See the GNU General Public License for more details. 
+ * 
+ * You should have received a copy of the GNU General Public License along with this program; 
+ * if not, write to the Free Software Foundation, Inc., 51 Franklin St, Fifth Floor, 
+ * Boston, MA 02110, USA 
+ * 
+ * @since 19.10.2026
+ * @version 1.0
+ * @author oliver
+ */
+package oc.io.base;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Random;
+
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.core.LoggerContext;
+import org.apache.logging.log4j.core.config.Configuration;
+import org.apache.logging.log4j.core.config.LoggerConfig;
+import org.junit.Test;
+
+/**
+ * @author oliver
+ * 
+ */
+public class DecoupledOutputStreamTestCase {
+
+	/**
+	 * Writes single bytes and arrays crossing the chunks
+	 * 
+	 * @throws IOException
+	 */
+	@Test
+	public void testWrite() throws IOException {
+		final byte data[] = new byte[3 << 20];
+		new Random(42).nextBytes(data);
+		final ByteArrayOutputStream target = new ByteArrayOutputStream();
+		final DecoupledOutputStream out = new DecoupledOutputStream(target);
+		int position = 0;
+		int length = 1;
+		while (position < data.length) {
+			final int len = Math.min(length, data.length - position);
+			if (len == 1) {
+				out.write(data[position]);
+			} else {
+				out.write(data, position, len);
+			}
+			position += len;
+			length = length * 3 % 200003;
+		}
+		out.close();
+		assertArrayEquals(data, target.toByteArray());
+	}
+
+	@Test
+	public void testClose() throws IOException {
+		final int closed[] = new int[1];
+		final ByteArrayOutputStream target = new ByteArrayOutputStream() {
+			@Override
+			public void close() {
+				closed[0]++;
+			}
+		};
+		final DecoupledOutputStream out = new DecoupledOutputStream(target);
+		out.write(7);
+		out.close();
+		out.close();
+		assertEquals(1, closed[0]);
+		assertArrayEquals(new byte[] { 7 }, target.toByteArray());
+	}
+
+	/**
+	 * Tests that the failure of the target stream is thrown
+	 * 
+	 * @throws IOException
+	 */
+	@Test
+	public void testWriteException() throws IOException {
+		// Temporary disable logging for avoiding annoying Exception trace
+		final LoggerContext ctx = (LoggerContext) LogManager.getContext(false);
+		final Configuration config = ctx.getConfiguration();
+		final LoggerConfig loggerConfig = config.getLoggerConfig(LogManager.ROOT_LOGGER_NAME);
+		final Level currentLevel = loggerConfig.getLevel();
+		loggerConfig.setLevel(Level.FATAL);
+		ctx.updateLoggers();
+		try {
+			final OutputStream failing = new OutputStream() {
+				@Override
+				public void write(final int b) throws IOException {
+					throw new IOException("This exception is thrown due to a test scenario.");
+				}
+			};
+			final DecoupledOutputStream out = new DecoupledOutputStream(failing);
+			try {
+				out.write(new byte[8 << 20]);
+				out.close();
+				fail("Failure of the target was not thrown");
+			} catch (final IOException e) {
+				assertEquals("This exception is thrown due to a test scenario.", e.getCause()
+						.getMessage());
+			}
+		} finally {
+			loggerConfig.setLevel(currentLevel);
+			ctx.updateLoggers();
+		}
+	}
+}
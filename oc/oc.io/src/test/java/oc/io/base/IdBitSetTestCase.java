@@ -0,0 +1,120 @@
+/**
+ * Copyright (C) 2026 Oliver Schünemann
+ * 
+ * This program is free software; you can redistribute it and/or modify it under the terms of the 
+ * GNU General Public License as published by the Free Software Foundation; either version 2 of 
+ * the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; 
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. 
+ * See the GNU General Public License for more details. 
+ * 
+ * You should have received a copy of the GNU General Public License along with this program; 
+ * if not, write to the Free Software Foundation, Inc., 51 Franklin St, Fifth Floor, 
+ * Boston, MA 02110, USA 
+ * 
+ * @since 19.10.2026
+ * @version 1.0
+ * @author oliver
+ */
+package oc.io.base;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * @author oliver
+ * 
+ */
+public class IdBitSetTestCase {
+
+	private static final long IDS[] = { 0, 1, 63, 64, 65535, 65536, 12000000000L, -1, -2,
+			-70000, 1L << 36, -(1L << 36) };
+
+	@Test
+	public void testSet() {
+		final IdBitSet set = new IdBitSet();
+		for (final long id : IDS) {
+			assertFalse(set.get(id));
+			set.set(id);
+			assertTrue(set.get(id));
+		}
+		set.set(64);
+		set.set(-2);
+		assertEquals(IDS.length, set.cardinality());
+		for (final long id : new long[] { 2, 62, 66, 65534, 12000000001L, -3, 1L << 40 }) {
+			assertFalse(String.valueOf(id), set.get(id));
+		}
+		assertFalse(set.get(Long.MAX_VALUE));
+		assertFalse(set.get(Long.MIN_VALUE));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testOutOfRange() {
+		new IdBitSet().set(1L << 42);
+	}
+
+	@Test
+	public void testFile() throws IOException {
+		final IdBitSet set = new IdBitSet();
+		final Random random = new Random(3);
+		final long ids[] = new long[5000];
+		for (int i = 0; i < ids.length; ++i) {
+			ids[i] = random.nextInt(1 << 24) - (1 << 20);
+			set.set(ids[i]);
+		}
+		final File f = File.createTempFile("ids", "bits");
+		try {
+			set.writeTo(f);
+			final IdBitSet read = IdBitSet.readFrom(f);
+			assertEquals(set.cardinality(), read.cardinality());
+			for (final long id : ids) {
+				assertTrue(read.get(id));
+			}
+			for (int id = -(1 << 20); id < 1 << 24; id += 7) {
+				assertEquals(set.get(id), read.get(id));
+			}
+		} finally {
+			f.delete();
+		}
+	}
+
+	/**
+	 * The pages are reserved from the budget in chunks of 128 pages of 8 KB.
+	 * 
+	 * @throws IOException
+	 */
+	@Test
+	public void testBudget() throws IOException {
+		final MemoryBudget budget = new MemoryBudget(64L << 20);
+		final IdBitSet set = new IdBitSet(budget);
+		assertEquals(0, budget.getReserved());
+		set.set(1);
+		assertEquals(1L << 20, budget.getReserved());
+		for (long page = 0; page < 200; ++page) {
+			set.set(page << 16);
+		}
+		assertEquals(2L << 20, budget.getReserved());
+		final File f = File.createTempFile("idbitset", "bin");
+		try {
+			set.writeTo(f);
+			set.release();
+			assertEquals(0, budget.getReserved());
+			assertFalse(set.get(1));
+			final IdBitSet read = IdBitSet.readFrom(f, budget);
+			assertEquals(2L << 20, budget.getReserved());
+			assertTrue(read.get(199L << 16));
+			read.release();
+			assertEquals(0, budget.getReserved());
+		} finally {
+			f.delete();
+		}
+	}
+}
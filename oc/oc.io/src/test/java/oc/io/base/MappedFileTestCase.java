@@ -0,0 +1,90 @@
+/**
+ * Copyright (C) 2026 Oliver Schünemann
+ * 
+ * This program is free software; you can redistribute it and/or modify it under the terms of the 
+ * GNU General Public License as published by the Free Software Foundation; either version 2 of 
+ * the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; 
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. 
+ * See the GNU General Public License for more details. 
+ * 
+ * You should have received a copy of the GNU General Public License along with this program; 
+ * if not, write to the Free Software Foundation, Inc., 51 Franklin St, Fifth Floor, 
+ * Boston, MA 02110, USA 
+ * 
+ * @since 19.10.2026
+ * @version 1.0
+ * @author oliver
+ */
+package oc.io.base;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * @author oliver
+ * 
+ */
+public class MappedFileTestCase {
+
+	private static final int FILE_SIZE = 10000;
+	private File file = null;
+
+	@Before
+	public void setup() throws IOException {
+		file = File.createTempFile("mapped", "dat");
+		try (OutputStream out = new FileOutputStream(file)) {
+			for (int i = 0; i < FILE_SIZE; ++i) {
+				out.write(i % 251);
+			}
+		}
+	}
+
+	@After
+	public void tearDown() {
+		file.delete();
+	}
+
+	@Test
+	public void testSlices() throws IOException {
+		// small window, the slices force it to move forward and back
+		try (MappedFile mapped = new MappedFile(file, 1000)) {
+			assertEquals(FILE_SIZE, mapped.size());
+			for (final long position : new long[] { 0, 990, 5000, 100, 9000 }) {
+				final ByteBuffer slice = mapped.slice(position, 1000);
+				assertEquals(0, slice.position());
+				assertEquals(1000, slice.limit());
+				for (int i = 0; i < 1000; ++i) {
+					assertEquals((position + i) % 251, slice.get() & 0xff);
+				}
+			}
+			assertEquals(9999 % 251, mapped.get(9999));
+			assertEquals(-1, mapped.get(FILE_SIZE));
+		}
+	}
+
+	@Test(expected = EOFException.class)
+	public void testSliceBehindEnd() throws IOException {
+		try (MappedFile mapped = new MappedFile(file, 1000)) {
+			mapped.slice(9500, 501);
+		}
+	}
+
+	@Test(expected = IOException.class)
+	public void testSliceBiggerThanWindow() throws IOException {
+		try (MappedFile mapped = new MappedFile(file, 1000)) {
+			mapped.slice(0, 1001);
+		}
+	}
+}
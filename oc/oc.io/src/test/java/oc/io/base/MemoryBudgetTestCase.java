@@ -0,0 +1,126 @@
+/**
+ * Copyright (C) 2026 Oliver Schünemann
+ * 
+ * This program is free software; you can redistribute it and/or modify it under the terms of the 
+ * GNU General Public License as published by the Free Software Foundation; either version 2 of 
+ * the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; 
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. 
+ * See the GNU General Public License for more details. 
+ * 
+ * You should have received a copy of the GNU General Public License along with this program; 
+ * if not, write to the Free Software Foundation, Inc., 51 Franklin St, Fifth Floor, 
+ * Boston, MA 02110, USA 
+ * 
+ * @since 19.10.2026
+ * @version 1.0
+ * @author oliver
+ */
+package oc.io.base;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import oc.io.base.MemoryBudget.Reservation;
+import oc.io.base.MemoryBudget.Spillable;
+
+import org.junit.Test;
+
+/**
+ * @author oliver
+ * 
+ */
+public class MemoryBudgetTestCase {
+
+	@Test
+	public void testReserveNow() {
+		final MemoryBudget budget = new MemoryBudget(1000);
+		final Reservation first = budget.reserveNow(800, 100);
+		assertEquals(800, first.getBytes());
+		final Reservation second = budget.reserveNow(800, 100);
+		assertEquals(200, second.getBytes());
+		// the minimum is granted even when the budget is exhausted
+		final Reservation third = budget.reserveNow(800, 100);
+		assertEquals(100, third.getBytes());
+		assertEquals(1100, budget.getReserved());
+		assertEquals(0, budget.getAvailable());
+		first.release();
+		first.release();
+		second.release();
+		third.release();
+		assertEquals(0, budget.getReserved());
+	}
+
+	@Test
+	public void testShrink() {
+		final MemoryBudget budget = new MemoryBudget(1000);
+		final Reservation reservation = budget.reserveNow(1000, 100);
+		reservation.shrink(400);
+		assertEquals(400, reservation.getBytes());
+		assertEquals(600, budget.getAvailable());
+		reservation.shrink(800);
+		assertEquals(400, reservation.getBytes());
+	}
+
+	@Test
+	public void testReserveWaits() throws InterruptedException {
+		final MemoryBudget budget = new MemoryBudget(1000);
+		final Reservation first = budget.reserveNow(900, 900);
+		final CountDownLatch granted = new CountDownLatch(1);
+		final AtomicLong bytes = new AtomicLong();
+		final Thread waiting = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				try {
+					bytes.set(budget.reserve(1000, 500).getBytes());
+					granted.countDown();
+				} catch (final InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}
+		});
+		waiting.start();
+		assertTrue(!granted.await(100, TimeUnit.MILLISECONDS));
+		first.shrink(300);
+		assertTrue(granted.await(10, TimeUnit.SECONDS));
+		assertEquals(700, bytes.get());
+		waiting.join();
+	}
+
+	@Test
+	public void testSpill() throws InterruptedException {
+		final MemoryBudget budget = new MemoryBudget(1000);
+		final Reservation held = budget.reserveNow(1000, 1000);
+		final AtomicLong requested = new AtomicLong();
+		budget.addSpillable(new Spillable() {
+			@Override
+			public void spill(final long bytes) {
+				requested.set(bytes);
+				held.shrink(held.getBytes() - bytes);
+			}
+		});
+		final Reservation reservation = budget.reserve(600, 200);
+		assertEquals(200, requested.get());
+		assertEquals(200, reservation.getBytes());
+	}
+
+	@Test
+	public void testOversizedMinimum() throws InterruptedException {
+		final MemoryBudget budget = new MemoryBudget(1000);
+		// a minimum bigger than the budget must not wait forever
+		assertEquals(1000, budget.reserve(5000, 2000).getBytes());
+	}
+
+	@Test
+	public void testShare() {
+		final MemoryBudget budget = new MemoryBudget(1000);
+		assertEquals(1000, budget.getShare());
+		budget.setParallelism(4);
+		assertEquals(250, budget.getShare());
+	}
+}
@@ -19,16 +19,22 @@
  */
 package oc.io.base;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
 import java.io.IOException;
 import java.io.ObjectInput;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutput;
 import java.io.ObjectOutputStream;
+import java.io.StreamCorruptedException;
+import java.nio.ByteBuffer;
 import java.util.Arrays;
 import java.util.HashSet;
 
@@ -86,4 +92,194 @@ public class StreamIoTestCase {
 		assertEquals(testString, StreamIo.readString(ooi));
 		ooi.close();
 	}
+
+	/**
+	 * Skipped strings of the dictionary and longer than a block of the stream
+	 * 
+	 * @throws IOException
+	 */
+	@Test
+	public void testSkipString() throws IOException {
+		final char chars[] = new char[3000];
+		Arrays.fill(chars, 'x');
+		final String longString = new String(chars);
+		StreamIo.setDictionary(new HashSet<String>(Arrays.asList("highway")));
+		final ByteArrayOutputStream bao = new ByteArrayOutputStream();
+		final ObjectOutput oos = new ObjectOutputStream(bao);
+		StreamIo.writeString(oos, "highway");
+		StreamIo.writeString(oos, longString);
+		StreamIo.writeString(oos, "");
+		StreamIo.writeString(oos, "end");
+		oos.close();
+		final ObjectInput ooi = new ObjectInputStream(new ByteArrayInputStream(bao.toByteArray()));
+		StreamIo.skipString(ooi);
+		StreamIo.skipString(ooi);
+		StreamIo.skipString(ooi);
+		assertEquals("end", StreamIo.readString(ooi));
+		ooi.close();
+		StreamIo.setDictionary(new HashSet<String>());
+	}
+
+	/**
+	 * Strings with a variable length header, UTF-8 encoded
+	 * 
+	 * @throws IOException
+	 */
+	@Test
+	public void testCompactString() throws IOException {
+		final char chars[] = new char[3000];
+		Arrays.fill(chars, '\u00fc');
+		final String longString = new String(chars);
+		StreamIo.setDictionary(new HashSet<String>(Arrays.asList("highway")));
+		final ByteArrayOutputStream bao = new ByteArrayOutputStream();
+		final ObjectOutput oos = new ObjectOutputStream(bao);
+		StreamIo.writeCompactString(oos, "highway");
+		StreamIo.writeCompactString(oos, "Stra\u00dfe");
+		StreamIo.writeCompactString(oos, longString);
+		StreamIo.writeCompactString(oos, "");
+		StreamIo.writeCompactString(oos, "highway");
+		StreamIo.writeCompactString(oos, "end");
+		oos.close();
+		final ObjectInput ooi = new ObjectInputStream(new ByteArrayInputStream(bao.toByteArray()));
+		assertEquals("highway", StreamIo.readCompactString(ooi));
+		assertEquals("Stra\u00dfe", StreamIo.readCompactString(ooi));
+		StreamIo.skipCompactString(ooi);
+		assertEquals("", StreamIo.readCompactString(ooi));
+		StreamIo.skipCompactString(ooi);
+		assertEquals("end", StreamIo.readCompactString(ooi));
+		ooi.close();
+		StreamIo.setDictionary(new HashSet<String>());
+	}
+
+	/**
+	 * Unsigned, signed and delta coded numbers at the limits of their ranges
+	 * 
+	 * @throws IOException
+	 */
+	@Test
+	public void testVarint() throws IOException {
+		final long values[] = { 0, 1, 127, 128, 16383, 16384, Integer.MAX_VALUE,
+				Long.MAX_VALUE, -1, Long.MIN_VALUE };
+		final ByteArrayOutputStream bao = new ByteArrayOutputStream();
+		final DataOutputStream out = new DataOutputStream(bao);
+		long previous = 0;
+		for (final long value : values) {
+			StreamIo.writeVarint(out, value);
+			StreamIo.writeSignedVarint(out, value);
+			previous = StreamIo.writeDelta(out, value, previous);
+		}
+		out.close();
+		final DataInputStream in = new DataInputStream(new ByteArrayInputStream(
+				bao.toByteArray()));
+		previous = 0;
+		for (final long value : values) {
+			assertEquals(value, StreamIo.readVarint(in));
+			assertEquals(value, StreamIo.readSignedVarint(in));
+			previous = StreamIo.readDelta(in, previous);
+			assertEquals(value, previous);
+		}
+		assertEquals(0, in.available());
+	}
+
+	@Test
+	public void testVarintLength() throws IOException {
+		final ByteArrayOutputStream bao = new ByteArrayOutputStream();
+		final DataOutputStream out = new DataOutputStream(bao);
+		StreamIo.writeVarint(out, 127);
+		assertEquals(1, bao.size());
+		StreamIo.writeVarint(out, 128);
+		assertEquals(3, bao.size());
+		StreamIo.writeSignedVarint(out, -64);
+		assertEquals(4, bao.size());
+		StreamIo.writeVarint(out, -1);
+		assertEquals(4 + StreamIo.MAX_VARINT_BYTES, bao.size());
+		assertEquals(1, StreamIo.zigZag(-1));
+		assertEquals(2, StreamIo.zigZag(1));
+		assertEquals(Long.MIN_VALUE, StreamIo.unZigZag(StreamIo.zigZag(Long.MIN_VALUE)));
+	}
+
+	@Test(expected = StreamCorruptedException.class)
+	public void testVarintTooLong() throws IOException {
+		final byte bytes[] = new byte[StreamIo.MAX_VARINT_BYTES + 1];
+		Arrays.fill(bytes, (byte) 0x80);
+		StreamIo.readVarint(new DataInputStream(new ByteArrayInputStream(bytes)));
+	}
+
+	@Test(expected = StreamCorruptedException.class)
+	public void testSizeOutOfRange() throws IOException {
+		final ByteArrayOutputStream bao = new ByteArrayOutputStream();
+		StreamIo.writeVarint(new DataOutputStream(bao), 1L << 31);
+		StreamIo.readSize(new DataInputStream(new ByteArrayInputStream(bao.toByteArray())));
+	}
+
+	/**
+	 * Bulk encoding into a buffer gives the same bytes as the stream methods
+	 * 
+	 * @throws IOException
+	 */
+	@Test
+	public void testDeltas() throws IOException {
+		final long ids[] = { 5, 6, 1000, 1000, -3, Long.MAX_VALUE };
+		final int lats[] = { Integer.MIN_VALUE, Integer.MAX_VALUE, 0, -1, 17, 17 };
+		final byte buffer[] = new byte[2 * ids.length * StreamIo.MAX_VARINT_BYTES];
+		int length = StreamIo.writeDeltas(buffer, 0, ids, ids.length);
+		length = StreamIo.writeDeltas(buffer, length, lats, lats.length);
+
+		final ByteArrayOutputStream bao = new ByteArrayOutputStream();
+		final DataOutputStream out = new DataOutputStream(bao);
+		long previous = 0;
+		for (final long id : ids) {
+			previous = StreamIo.writeDelta(out, id, previous);
+		}
+		previous = 0;
+		for (final int lat : lats) {
+			previous = StreamIo.writeDelta(out, lat, previous);
+		}
+		assertArrayEquals(bao.toByteArray(), Arrays.copyOf(buffer, length));
+
+		final ByteBuffer in = ByteBuffer.wrap(buffer, 0, length);
+		final long readIds[] = new long[ids.length];
+		final int readLats[] = new int[lats.length];
+		StreamIo.readDeltas(in, readIds, ids.length);
+		StreamIo.readDeltas(in, readLats, lats.length);
+		assertArrayEquals(ids, readIds);
+		assertArrayEquals(lats, readLats);
+		assertEquals(0, in.remaining());
+	}
+
+	@Test(expected = EOFException.class)
+	public void testDeltasTruncated() throws IOException {
+		final byte buffer[] = new byte[StreamIo.MAX_VARINT_BYTES];
+		final int length = StreamIo.writeVarint(buffer, 0, 300);
+		StreamIo.readDeltas(ByteBuffer.wrap(buffer, 0, length - 1), new long[1], 1);
+	}
+
+	/**
+	 * Numbers of the fixed size formats whose first byte was read to detect the
+	 * format
+	 * 
+	 * @throws IOException
+	 */
+	@Test
+	public void testComplete() throws IOException {
+		final long longs[] = { 0, 4000000000L, -17, Long.MAX_VALUE, Long.MIN_VALUE };
+		final int ints[] = { 0, 7, -1, -900, Integer.MAX_VALUE };
+		final ByteArrayOutputStream bao = new ByteArrayOutputStream();
+		final DataOutputStream out = new DataOutputStream(bao);
+		for (final long value : longs) {
+			out.writeLong(value);
+		}
+		for (final int value : ints) {
+			out.writeInt(value);
+		}
+		out.close();
+		final DataInputStream in = new DataInputStream(new ByteArrayInputStream(
+				bao.toByteArray()));
+		for (final long value : longs) {
+			assertEquals(value, StreamIo.completeLong(in, in.readUnsignedByte()));
+		}
+		for (final int value : ints) {
+			assertEquals(value, StreamIo.completeInt(in, in.readUnsignedByte()));
+		}
+	}
 }
@@ -0,0 +1,185 @@
+/**
+ * Copyright (C) 2026 Oliver Schünemann
+ * 
+ * This program is free software; you can redistribute it and/or modify it under the terms of the 
+ * GNU General Public License as published by the Free Software Foundation; either version 2 of 
+ * the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; 
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. 
+ * See the GNU General Public License for more details. 
+ * 
+ * You should have received a copy of the GNU General Public License along with this program; 
+ * if not, write to the Free Software Foundation, Inc., 51 Franklin St, Fifth Floor, 
+ * Boston, MA 02110, USA 
+ * 
+ * @since 19.10.2026
+ * @version 1.0
+ * @author oliver
+ */
+package oc.io.stage;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * @author oliver
+ * 
+ */
+public class StageManifestTestCase {
+
+	private final List<String> order = Collections.synchronizedList(new ArrayList<String>());
+	private File tempDir = null;
+	private File source = null;
+	private File intermediate = null;
+	private File result = null;
+	private File manifestFile = null;
+
+	@Before
+	public void setup() throws IOException {
+		tempDir = File.createTempFile("manifesttemp", "");
+		tempDir.delete();
+		tempDir.mkdirs();
+		source = new File(tempDir, "source.dat");
+		intermediate = new File(tempDir, "intermediate.dat");
+		result = new File(tempDir, "result.dat");
+		manifestFile = new File(tempDir, "stages.manifest");
+		write(source, "source");
+	}
+
+	@After
+	public void tearDown() {
+		for (final File f : tempDir.listFiles()) {
+			f.delete();
+		}
+		tempDir.delete();
+	}
+
+	private static void write(final File f, final String content) throws IOException {
+		try (Writer writer = new FileWriter(f)) {
+			writer.write(content);
+		}
+	}
+
+	/**
+	 * Builds a pipeline source -> intermediate -> result. The intermediate file
+	 * is consumed by the last stage.
+	 * 
+	 * @param failLast
+	 *            true when the last stage shall fail
+	 * @return the scheduler
+	 * @throws IOException
+	 */
+	private StageScheduler pipeline(final boolean failLast) throws IOException {
+		final StageScheduler scheduler = new StageScheduler(1, 100);
+		scheduler.setManifest(new StageManifest(manifestFile));
+		scheduler.addStage(new Stage("first", 10) {
+			@Override
+			public void run() throws IOException {
+				order.add(getName());
+				write(intermediate, "intermediate");
+			}
+		}).addInput(source).addOutput(intermediate);
+		scheduler.addStage(new Stage("last", 10) {
+			@Override
+			public void run() throws IOException {
+				order.add(getName() + (isResumed() ? " resumed" : ""));
+				if (failLast) {
+					throw new IOException("failed");
+				}
+				write(result, "result");
+				intermediate.delete();
+			}
+		}).addInput(intermediate).addOutput(result);
+		return scheduler;
+	}
+
+	@Test
+	public void testSkipCompletedStages() throws IOException {
+		pipeline(false).run();
+		assertEquals(2, order.size());
+		assertFalse(intermediate.exists());
+		order.clear();
+		// the consumed intermediate file does not force the first stage to run
+		pipeline(false).run();
+		assertTrue(order.isEmpty());
+	}
+
+	@Test
+	public void testChangedInput() throws IOException {
+		pipeline(false).run();
+		order.clear();
+		write(source, "changed source");
+		pipeline(false).run();
+		assertEquals(2, order.size());
+		assertEquals("first", order.get(0));
+		assertEquals("last", order.get(1));
+	}
+
+	@Test
+	public void testChangedOutput() throws IOException {
+		pipeline(false).run();
+		order.clear();
+		write(result, "changed result");
+		// the last stage needs the intermediate file again
+		pipeline(false).run();
+		assertEquals(2, order.size());
+	}
+
+	@Test
+	public void testResumeInterruptedStage() throws IOException {
+		try {
+			pipeline(true).run();
+			fail("Failure of stage not thrown");
+		} catch (final IOException e) {
+			assertEquals("failed", e.getMessage());
+		}
+		order.clear();
+		pipeline(false).run();
+		assertEquals(1, order.size());
+		assertEquals("last resumed", order.get(0));
+		assertTrue(new StageManifest(manifestFile).isComplete(new Stage("last", 10) {
+			@Override
+			public void run() throws IOException {
+				// only used as key
+			}
+		}));
+	}
+
+	@Test
+	public void testChangedParameter() throws IOException {
+		final StageScheduler scheduler = new StageScheduler(1, 100);
+		scheduler.setManifest(new StageManifest(manifestFile));
+		scheduler.addStage(new Stage("parameter", 10) {
+			@Override
+			public void run() throws IOException {
+				order.add(getName());
+			}
+		}).addInput(source).addParameter("value", Integer.valueOf(1));
+		scheduler.run();
+		final StageScheduler changed = new StageScheduler(1, 100);
+		changed.setManifest(new StageManifest(manifestFile));
+		changed.addStage(new Stage("parameter", 10) {
+			@Override
+			public void run() throws IOException {
+				order.add(getName());
+			}
+		}).addInput(source).addParameter("value", Integer.valueOf(2));
+		changed.run();
+		assertEquals(2, order.size());
+	}
+}
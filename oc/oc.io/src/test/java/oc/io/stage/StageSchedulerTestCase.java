@@ -0,0 +1,150 @@
+/**
+ * Copyright (C) 2026 Oliver Schünemann
+ * 
+ * This program is free software; you can redistribute it and/or modify it under the terms of the 
+ * GNU General Public License as published by the Free Software Foundation; either version 2 of 
+ * the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; 
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. 
+ * See the GNU General Public License for more details. 
+ * 
+ * You should have received a copy of the GNU General Public License along with this program; 
+ * if not, write to the Free Software Foundation, Inc., 51 Franklin St, Fifth Floor, 
+ * Boston, MA 02110, USA 
+ * 
+ * @since 19.10.2026
+ * @version 1.0
+ * @author oliver
+ */
+package oc.io.stage;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+/**
+ * @author oliver
+ * 
+ */
+public class StageSchedulerTestCase {
+
+	private final List<String> order = Collections.synchronizedList(new ArrayList<String>());
+
+	private Stage recordingStage(final String name, final long memory) {
+		return new Stage(name, memory) {
+			@Override
+			public void run() throws IOException {
+				order.add(name);
+			}
+		};
+	}
+
+	@Test
+	public void testFileDependencies() throws IOException {
+		final File a = new File("a.dat");
+		final File b = new File("b.dat");
+		final StageScheduler scheduler = new StageScheduler(4, 100);
+		// added in reverse order, the files must define the order
+		final Stage last = scheduler.addStage(recordingStage("last", 10)).addInput(b);
+		final Stage middle = scheduler.addStage(recordingStage("middle", 10)).addInput(a)
+				.addOutput(b);
+		final Stage first = scheduler.addStage(recordingStage("first", 10)).addOutput(a);
+		scheduler.run();
+		assertEquals(3, order.size());
+		assertEquals("first", order.get(0));
+		assertEquals("middle", order.get(1));
+		assertEquals("last", order.get(2));
+		assertTrue(scheduler.getCriticalPath(last) >= scheduler.getCriticalPath(middle));
+		assertTrue(scheduler.getCriticalPath(middle) >= scheduler.getCriticalPath(first));
+	}
+
+	@Test
+	public void testParallelStages() throws IOException {
+		final CountDownLatch latch = new CountDownLatch(2);
+		final StageScheduler scheduler = new StageScheduler(2, 100);
+		for (int i = 0; i < 2; ++i) {
+			scheduler.addStage(new Stage("parallel" + i, 50) {
+				@Override
+				public void run() throws IOException {
+					latch.countDown();
+					try {
+						// only returns in time when both stages run at once
+						if (!latch.await(10, TimeUnit.SECONDS)) {
+							throw new IOException("Stages did not run in parallel");
+						}
+					} catch (final InterruptedException e) {
+						throw new IOException(e);
+					}
+				}
+			});
+		}
+		scheduler.run();
+	}
+
+	@Test
+	public void testMemoryBudget() throws IOException {
+		final AtomicInteger running = new AtomicInteger();
+		final AtomicInteger maxRunning = new AtomicInteger();
+		final StageScheduler scheduler = new StageScheduler(4, 100);
+		for (int i = 0; i < 4; ++i) {
+			// the last one exceeds the budget alone and must run anyway
+			scheduler.addStage(new Stage("memory" + i, i == 3 ? 200 : 60) {
+				@Override
+				public void run() throws IOException {
+					maxRunning.set(Math.max(maxRunning.get(), running.incrementAndGet()));
+					try {
+						Thread.sleep(50);
+					} catch (final InterruptedException e) {
+						throw new IOException(e);
+					}
+					running.decrementAndGet();
+				}
+			});
+		}
+		scheduler.run();
+		assertEquals(1, maxRunning.get());
+	}
+
+	@Test
+	public void testFailingStage() {
+		final StageScheduler scheduler = new StageScheduler(1, 100);
+		final File a = new File("a.dat");
+		scheduler.addStage(new Stage("failing", 10) {
+			@Override
+			public void run() throws IOException {
+				throw new IOException("failed");
+			}
+		}).addOutput(a);
+		scheduler.addStage(recordingStage("dependent", 10)).addInput(a);
+		try {
+			scheduler.run();
+			fail("Failure of stage not thrown");
+		} catch (final IOException e) {
+			assertEquals("failed", e.getMessage());
+		}
+		assertFalse(order.contains("dependent"));
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void testCycle() throws IOException {
+		final StageScheduler scheduler = new StageScheduler(2, 100);
+		final Stage first = scheduler.addStage(recordingStage("first", 10));
+		final Stage second = scheduler.addStage(recordingStage("second", 10));
+		first.addDependency(second);
+		second.addDependency(first);
+		scheduler.run();
+	}
+}
@@ -0,0 +1,105 @@
+/**
+ * Copyright (C) 2026 Oliver Schünemann
+ * 
+ * This program is free software; you can redistribute it and/or modify it under the terms of the 
+ * GNU General Public License as published by the Free Software Foundation; either version 2 of 
+ * the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; 
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. 
+ * See the GNU General Public License for more details. 
+ * 
+ * You should have received a copy of the GNU General Public License along with this program; 
+ * if not, write to the Free Software Foundation, Inc., 51 Franklin St, Fifth Floor, 
+ * Boston, MA 02110, USA 
+ * 
+ * @since 19.10.2026
+ * @version 1.0
+ * @author oliver
+ */
+package oc.o5m.reader;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import oc.io.base.MappedFile;
+
+/**
+ * Header of a single block within an o5m file. Blocks with a type up to 0xEF
+ * are datasets followed by their length, the others consist of the type byte
+ * only. The instance is reused for all blocks of a file, reading the header
+ * does not touch the data of the block.
+ * 
+ * @author oliver
+ */
+final class O5mBlock {
+	private static final int MAX_DATASET_TYPE = 0xEF;
+
+	private int type;
+	private long dataStart;
+	private int length;
+
+	/**
+	 * Reads the header of the block at the position.
+	 * 
+	 * @param in
+	 *            the mapped file
+	 * @param position
+	 *            position of the type byte of the block
+	 * @throws EOFException
+	 *             when the file ends before the block
+	 * @throws IOException
+	 */
+	void read(final MappedFile in, final long position) throws IOException {
+		type = in.get(position);
+		if (type < 0) {
+			throw new EOFException("O5M file is truncated, end of file marker is missing");
+		}
+		dataStart = position + 1;
+		length = 0;
+		if (type <= MAX_DATASET_TYPE) {
+			// the length is a variable length number of at most 5 bytes
+			int shift = 0;
+			int b;
+			do {
+				b = in.get(dataStart++);
+				if (b < 0) {
+					throw new EOFException("O5M file is truncated in the length of a dataset at "
+							+ position);
+				}
+				length |= (b & 0x7f) << shift;
+				shift += 7;
+			} while ((b & 0x80) == 0x80);
+			if (dataStart + length > in.size()) {
+				throw new EOFException("O5M file is truncated, dataset of type " + type + " at "
+						+ position + " needs " + length + " bytes, but only "
+						+ (in.size() - dataStart) + " are left");
+			}
+		}
+	}
+
+	/**
+	 * @return type of the block
+	 */
+	int getType() {
+		return type;
+	}
+
+	/**
+	 * @return position of the next block
+	 */
+	long getEnd() {
+		return dataStart + length;
+	}
+
+	/**
+	 * @param in
+	 *            the mapped file
+	 * @return the data of the dataset as a slice of the mapping
+	 * @throws IOException
+	 */
+	ByteBuffer getData(final MappedFile in) throws IOException {
+		return in.slice(dataStart, length);
+	}
+}
@@ -21,8 +21,7 @@ package oc.o5m.reader;
 
 import java.io.IOException;
 import java.nio.ByteBuffer;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.Arrays;
 
 /**
  * base class for O5M data that is able to read common informations all kind of
@@ -38,7 +37,9 @@ public class O5mDataObject {
 	private int lastChangeSet;
 	private String author;
 	private String uid;
-	protected Map<String, String> props = new HashMap<>();
+	private String keys[] = new String[16];
+	private String values[] = new String[16];
+	private int tags;
 
 	/**
 	 * base class for read operations. this must be called by derived classes,
@@ -49,11 +50,12 @@ public class O5mDataObject {
 	 * @throws IOException
 	 */
 	public void readFromBuffer(final ByteBuffer buffer, final O5mReader reader) throws IOException {
-		props.clear();
+		tags = 0;
 	}
 
 	/**
-	 * Reads Author and Timestamp from buffer
+	 * Reads Author and Timestamp from buffer, or skips them when the reader is
+	 * told to skip metadata
 	 * 
 	 * @param buffer
 	 * @param reader
@@ -61,6 +63,15 @@ public class O5mDataObject {
 	 */
 	public void readUidAuthorTSFromBuffer(final ByteBuffer buffer, final O5mReader reader)
 			throws IOException {
+		if (reader.isSkipMetadata()) {
+			version = 0;
+			timeStamp = 0;
+			changeSet = 0;
+			uid = null;
+			author = null;
+			skipUidAuthorTS(buffer, reader);
+			return;
+		}
 		version = reader.readUnsigned32(buffer);
 		if (version != 0) {
 			lastTimeStamp = timeStamp = lastTimeStamp + reader.readSigned32(buffer);
@@ -73,9 +84,74 @@ public class O5mDataObject {
 		}
 	}
 
+	/**
+	 * Advances the buffer behind version, timestamp, changeset and author.
+	 * Only the timestamp is kept for the relative values, a new author is
+	 * stored in the string table without being decoded.
+	 * 
+	 * @param buffer
+	 * @param reader
+	 * @throws IOException
+	 */
+	public void skipUidAuthorTS(final ByteBuffer buffer, final O5mReader reader)
+			throws IOException {
+		if (reader.readUnsigned32(buffer) != 0) {
+			lastTimeStamp += reader.readSigned32(buffer);
+			if (lastTimeStamp != 0) {
+				lastChangeSet += reader.readSigned32(buffer);
+				reader.skipStrings(buffer, 2);
+			}
+		}
+	}
+
+	/**
+	 * Advances the buffer behind the properties, new strings are only stored in
+	 * the string table.
+	 * 
+	 * @param buffer
+	 * @param reader
+	 */
+	public void skipProps(final ByteBuffer buffer, final O5mReader reader) {
+		while (buffer.hasRemaining()) {
+			reader.skipStrings(buffer, 2);
+		}
+	}
+
+	/**
+	 * Advances through an element that is not wanted by the reader. The
+	 * element leaves nothing but its new strings in the string table, because
+	 * later elements of other types may refer to them.
+	 * 
+	 * @param buffer
+	 * @param reader
+	 * @throws IOException
+	 */
+	public void skipBuffer(final ByteBuffer buffer, final O5mReader reader) throws IOException {
+		reader.readSigned64(buffer);
+		if (buffer.hasRemaining()) {
+			skipUidAuthorTS(buffer, reader);
+		}
+		if (buffer.hasRemaining()) {
+			skipBody(buffer, reader);
+		}
+		skipProps(buffer, reader);
+	}
+
+	/**
+	 * Advances behind the element specific part between the author and the
+	 * properties.
+	 * 
+	 * @param buffer
+	 * @param reader
+	 * @throws IOException
+	 */
+	protected void skipBody(final ByteBuffer buffer, final O5mReader reader) throws IOException {
+		// no element specific data
+	}
+
 	/**
 	 * Every element within osm data can contain properties. This is for reading
-	 * them
+	 * them into the key and value arrays, which are reused for every element
 	 * 
 	 * @param buffer
 	 * @param reader
@@ -84,9 +160,13 @@ public class O5mDataObject {
 	public void readProps(final ByteBuffer buffer, final O5mReader reader) throws IOException {
 		while (buffer.hasRemaining()) {
 			final String prop[] = reader.readStringPair(buffer);
-			final String key = prop[0];
-			final String val = prop[1];
-			props.put(key, val);
+			if (tags == keys.length) {
+				keys = Arrays.copyOf(keys, tags * 2);
+				values = Arrays.copyOf(values, tags * 2);
+			}
+			keys[tags] = prop[0];
+			values[tags] = prop[1];
+			tags++;
 		}
 	}
 
@@ -135,9 +215,23 @@ public class O5mDataObject {
 	}
 
 	/**
-	 * @return the props
+	 * @return the keys of the properties, valid up to {@link #getTagCount()}
+	 */
+	public String[] getKeys() {
+		return keys;
+	}
+
+	/**
+	 * @return the values of the properties, valid up to {@link #getTagCount()}
+	 */
+	public String[] getValues() {
+		return values;
+	}
+
+	/**
+	 * @return the number of properties
 	 */
-	public Map<String, String> getProps() {
-		return props;
+	public int getTagCount() {
+		return tags;
 	}
 }
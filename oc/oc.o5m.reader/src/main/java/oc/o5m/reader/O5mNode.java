@@ -22,8 +22,6 @@ package oc.o5m.reader;
 import java.io.IOException;
 import java.nio.ByteBuffer;
 
-import oc.osm.type.Node;
-
 /**
  * helper for O5mReader to read nodes from o5m files. This is needed because
  * some informations within the stream are given only relative like relationId
@@ -62,6 +60,15 @@ public class O5mNode extends O5mDataObject {
 		super.readProps(buffer, reader);
 	}
 
+	/**
+	 * skips the coordinates, they are relative to the last node read
+	 */
+	@Override
+	protected void skipBody(final ByteBuffer buffer, final O5mReader reader) {
+		reader.readSigned32(buffer);
+		reader.readSigned32(buffer);
+	}
+
 	/**
 	 * Must be called when a reset flag is within file to reset the stored
 	 * values for relative data
@@ -74,20 +81,6 @@ public class O5mNode extends O5mDataObject {
 		super.reset();
 	}
 
-	/**
-	 * Converts the read informations to a Node instance for further processing
-	 * 
-	 * @return Node matching the last read O5MNode
-	 */
-	public Node getAsNode() {
-		final Node node = new Node();
-		node.setId(nodeId);
-		node.setLat(lat);
-		node.setLon(lon);
-		node.setProps(props);
-		return node;
-	}
-
 	/**
 	 * @return the nodeId
 	 */
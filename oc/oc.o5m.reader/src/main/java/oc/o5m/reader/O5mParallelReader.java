@@ -0,0 +1,144 @@
+/**
+ * Copyright (C) 2026 Oliver Schünemann
+ * 
+ * This program is free software; you can redistribute it and/or modify it under the terms of the 
+ * GNU General Public License as published by the Free Software Foundation; either version 2 of 
+ * the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; 
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. 
+ * See the GNU General Public License for more details. 
+ * 
+ * You should have received a copy of the GNU General Public License along with this program; 
+ * if not, write to the Free Software Foundation, Inc., 51 Franklin St, Fifth Floor, 
+ * Boston, MA 02110, USA 
+ * 
+ * @since 19.10.2026
+ * @version 1.0
+ * @author oliver
+ */
+package oc.o5m.reader;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import oc.io.base.MappedFile;
+import oc.osm.handler.ConcurrentOsmHandler;
+import oc.osm.handler.OsmHandler;
+import oc.osm.handler.OsmHandlerAdapter;
+import oc.osm.handler.ParallelDecoder;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Decodes an o5m file with several threads. All relative values and the
+ * string table start from scratch at a reset block, so the parts of the
+ * file between reset blocks can be decoded independently. A pre-scan reads
+ * only the block headers to find the reset blocks and splits the file into
+ * tasks. Each task is decoded by its own O5mReader, with
+ * the settings of the reader that started the parallel reading.
+ * 
+ * The handler gets the elements in file order, unless it is a
+ * {@link ConcurrentOsmHandler}, see {@link ParallelDecoder}.
+ * 
+ * @author oliver
+ */
+final class O5mParallelReader {
+	/**
+	 * Reset blocks closer to each other are decoded by the same task
+	 */
+	static final long MIN_TASK_SIZE = 4L << 20;
+
+	private final O5mReader settings;
+	private final File f;
+	private final int threads;
+	private final long minTaskSize;
+	private static final Logger logger = LogManager.getLogger(O5mParallelReader.class.getName());
+
+	/**
+	 * @param f
+	 *            the o5m file
+	 * @param threads
+	 *            number of threads decoding the file
+	 */
+	O5mParallelReader(final File f, final int threads) {
+		this(new O5mReader(), f, threads, MIN_TASK_SIZE);
+	}
+
+	/**
+	 * @param settings
+	 *            reader whose settings are used for every task
+	 * @param f
+	 *            the o5m file
+	 * @param threads
+	 *            number of threads decoding the file
+	 * @param minTaskSize
+	 *            minimum number of bytes decoded by a task
+	 */
+	O5mParallelReader(final O5mReader settings, final File f, final int threads,
+			final long minTaskSize) {
+		super();
+		this.settings = settings;
+		this.f = f;
+		this.threads = threads;
+		this.minTaskSize = minTaskSize;
+	}
+
+	/**
+	 * Reads the complete file.
+	 * 
+	 * @param handler
+	 *            callback for the elements
+	 * @throws IOException
+	 */
+	void read(final OsmHandler handler) throws IOException {
+		final List<long[]> tasks = split();
+		if (threads <= 1 || tasks.size() <= 1) {
+			settings.copySettings().readFile(f, handler);
+			return;
+		}
+		logger.debug("Decode {} parts of {} with {} threads", tasks.size(), f, threads);
+		new ParallelDecoder(f.toString(), threads) {
+			@Override
+			protected void decode(final long[] task, final OsmHandler taskHandler)
+					throws IOException {
+				try (MappedFile in = new MappedFile(f)) {
+					settings.copySettings().decode(in, task[0], task[1],
+							new OsmHandlerAdapter(taskHandler));
+				}
+			}
+		}.decode(tasks, handler);
+	}
+
+	/**
+	 * Reads all block headers and splits the file in front of reset blocks.
+	 * 
+	 * @return start and end position of each task
+	 * @throws IOException
+	 */
+	List<long[]> split() throws IOException {
+		final List<long[]> tasks = new ArrayList<>();
+		final O5mBlock block = new O5mBlock();
+		try (MappedFile in = new MappedFile(f)) {
+			long taskStart = 0;
+			long position = 0;
+			boolean goOn = true;
+			while (goOn) {
+				block.read(in, position);
+				if (block.getType() == O5mReader.END_OF_FILE) {
+					goOn = false;
+				} else if (block.getType() == O5mReader.RESET && position > taskStart
+						&& position - taskStart >= minTaskSize) {
+					tasks.add(new long[] { taskStart, position });
+					taskStart = position;
+				}
+				position = block.getEnd();
+			}
+			tasks.add(new long[] { taskStart, position });
+		}
+		return tasks;
+	}
+}
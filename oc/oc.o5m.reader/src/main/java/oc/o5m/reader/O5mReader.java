@@ -19,15 +19,17 @@
  */
 package oc.o5m.reader;
 
-import java.io.BufferedInputStream;
-import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.ByteBuffer;
 
+import oc.io.base.MappedFile;
+import oc.osm.handler.ConcurrentOsmHandler;
 import oc.osm.handler.OsmHandler;
+import oc.osm.handler.OsmHandlerAdapter;
+import oc.osm.handler.PrimitiveOsmHandler;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -40,6 +42,9 @@ import org.apache.logging.log4j.Logger;
  * no check whether the elements in the osm file have ascending ids. This must
  * be checked by the user of it.
  * 
+ * The file is mapped into memory and every dataset is handed to the element
+ * readers as a slice of the mapping, so the data is not copied on its way.
+ * 
  * @author oliver
  */
 public final class O5mReader {
@@ -58,17 +63,107 @@ public final class O5mReader {
 	public static final int END_OF_FILE = 0xFE;
 	public static final int RESET = 0xFF;
 
-	private final String stringPairs[][] = new String[STRING_PAIR_CACHE_SIZE][2];
-	private int cacheWritePos = 0;
+	/**
+	 * Bits of the type mask selecting the elements to read
+	 */
+	public static final int NODES = 1;
+	public static final int WAYS = 2;
+	public static final int RELATIONS = 4;
+	public static final int ALL_TYPES = NODES | WAYS | RELATIONS;
+
+	private final O5mStringTable strings = new O5mStringTable();
+	private int typeMask = ALL_TYPES;
+	private boolean skipMetadata = false;
 
 	private static final Logger logger = LogManager.getLogger(O5mReader.class.getName());
 
-	@SuppressWarnings("PMD.AvoidInstantiatingObjectsInLoops")
+	/**
+	 * Reads the complete file and calls the handler for each element in it.
+	 * 
+	 * @param f
+	 *            the o5m file
+	 * @param handler
+	 *            callback for the elements
+	 * @throws EOFException
+	 *             when the file is truncated
+	 * @throws IOException
+	 */
 	public void readFile(final File f, final OsmHandler handler) throws IOException {
-		ByteBuffer buffer = null;
-		final BufferedInputStream in = new BufferedInputStream(new FileInputStream(f), 1 << 16);
-		final int bufferSize = 1000;
-		byte readBuffer[] = new byte[bufferSize];
+		readFile(f, new OsmHandlerAdapter(handler));
+	}
+
+	/**
+	 * Reads the complete file and calls the primitive handler for each element
+	 * in it, without creating Node, Way or Relation instances.
+	 * 
+	 * @param f
+	 *            the o5m file
+	 * @param handler
+	 *            callback for the elements
+	 * @throws EOFException
+	 *             when the file is truncated
+	 * @throws IOException
+	 */
+	public void readFile(final File f, final PrimitiveOsmHandler handler) throws IOException {
+		try (MappedFile in = new MappedFile(f)) {
+			if (!decode(in, 0, in.size(), handler)) {
+				throw new EOFException("O5M file is truncated, end of file marker is missing");
+			}
+		}
+	}
+
+	/**
+	 * Reads the complete file with several threads. The file is split at its
+	 * reset blocks, the parts between them are decoded in parallel. The handler
+	 * gets the elements in the order of the file, unless it is a
+	 * {@link ConcurrentOsmHandler}.
+	 * 
+	 * @param f
+	 *            the o5m file
+	 * @param handler
+	 *            callback for the elements
+	 * @param threads
+	 *            number of threads decoding the file
+	 * @throws EOFException
+	 *             when the file is truncated
+	 * @throws IOException
+	 */
+	public void readFile(final File f, final OsmHandler handler, final int threads)
+			throws IOException {
+		new O5mParallelReader(this, f, threads, O5mParallelReader.MIN_TASK_SIZE).read(handler);
+	}
+
+	/**
+	 * @return a new reader with the same settings, but an empty string table
+	 *         and no relative values
+	 */
+	O5mReader copySettings() {
+		final O5mReader ret = new O5mReader();
+		ret.typeMask = typeMask;
+		ret.skipMetadata = skipMetadata;
+		return ret;
+	}
+
+	/**
+	 * Decodes all blocks between start and end. At start the relative values
+	 * and the string table must be in their initial state, that is at the
+	 * beginning of the file or at a reset block.
+	 * 
+	 * @param in
+	 *            the mapped o5m file
+	 * @param start
+	 *            position of the first block
+	 * @param end
+	 *            position behind the last block
+	 * @param handler
+	 *            callback for the elements
+	 * @return true when the end of file marker was found
+	 * @throws IOException
+	 */
+	boolean decode(final MappedFile in, final long start, final long end,
+			final PrimitiveOsmHandler handler) throws IOException {
+		final O5mBlock block = new O5mBlock();
+		long position = start;
 		long numberOfNodes = 0;
 		long numberOfWays = 0;
 		long numberOfRelations = 0;
@@ -76,28 +171,37 @@ public final class O5mReader {
 		final O5mNode node = new O5mNode();
 		final O5mWay way = new O5mWay();
 		final O5mRelation relation = new O5mRelation();
-		while (goOn) {
-			final int blockType = in.read();
-
-			if (blockType >= 0 && blockType <= 0xEF) {
-				final int blockLength = readUnsigned32(in);
-				if (blockLength > readBuffer.length) {
-					readBuffer = new byte[blockLength + bufferSize];
-				}
-				int got = in.read(readBuffer, 0, blockLength);
-				while (got < blockLength) {
-					got += in.read(readBuffer, got, blockLength - got);
+		long trackUntil = start;
+		long skippedBytes = 0;
+		while (goOn && position < end) {
+			block.read(in, position);
+			if (block.getType() >= NODE_ENTRY && block.getType() <= RELATION_ENTRY
+					&& !isWanted(block.getType())) {
+				if (position >= trackUntil) {
+					final long skipEnd = scanAhead(in, position, end);
+					if (skipEnd >= 0) {
+						skippedBytes += skipEnd - position;
+						position = skipEnd;
+						continue;
+					}
+					trackUntil = -1 - skipEnd;
 				}
-				buffer = ByteBuffer.wrap(readBuffer, 0, blockLength);
+				// a wanted element follows before the next reset, so the
+				// strings of this one must get into the string table
+				position = block.getEnd();
+				skipElement(block.getType(), block.getData(in), node, way, relation);
+				continue;
 			}
-			switch (blockType) {
+			position = block.getEnd();
+			switch (block.getType()) {
 			case NODE_ENTRY:
 				numberOfNodes++;
 				if (numberOfNodes % 100000000 == 0) {
 					logger.debug("Number of Nodes read : {}", numberOfNodes);
 				}
-				node.readFromBuffer(buffer, this);
-				handler.newNode(node.getAsNode());
+				node.readFromBuffer(block.getData(in), this);
+				handler.node(node.getNodeId(), node.getLat(), node.getLon(), node.getKeys(),
+						node.getValues(), node.getTagCount());
 				break;
 			case WAY_ENTRY:
 				if (numberOfWays == 0) {
@@ -107,8 +211,9 @@ public final class O5mReader {
 				if (numberOfWays % 10000000 == 0) {
 					logger.debug("Number of Ways read : {}", numberOfWays);
 				}
-				way.readFromBuffer(buffer, this);
-				handler.newWay(way.getAsWay());
+				way.readFromBuffer(block.getData(in), this);
+				handler.way(way.getWayId(), way.getRefs(), way.getRefCount(), way.getKeys(),
+						way.getValues(), way.getTagCount());
 				break;
 			case RELATION_ENTRY:
 				if (numberOfRelations == 0) {
@@ -118,8 +223,10 @@ public final class O5mReader {
 				if (numberOfRelations % 1000000 == 0) {
 					logger.debug("Number of Relation read : {}", numberOfRelations);
 				}
-				relation.readFromBuffer(buffer, this);
-				handler.newRelation(relation.getAsRelation());
+				relation.readFromBuffer(block.getData(in), this);
+				handler.relation(relation.getRelationId(), relation.getMemberTypes(),
+						relation.getMemberIds(), relation.getRoles(), relation.getMemberCount(),
+						relation.getKeys(), relation.getValues(), relation.getTagCount());
 				break;
 			case BOUNDING_BOX:
 			case FILE_TIMESTAMP:
@@ -131,95 +238,196 @@ public final class O5mReader {
 				node.reset();
 				way.reset();
 				relation.reset();
+				strings.reset();
 				break;
 			case END_OF_FILE:
 				goOn = false;
 				break;
 			default:
-				throw new IOException("Unexpected Block Type in File " + blockType);
+				throw new IOException("Unexpected Block Type in File " + block.getType());
 			}
 		}
 		logger.debug("Number of Nodes     : {}", numberOfNodes);
 		logger.debug("Number of Ways      : {}", numberOfWays);
 		logger.debug("Number of Relations : {}", numberOfRelations);
+		if (skippedBytes > 0) {
+			logger.debug("Skipped bytes       : {}", skippedBytes);
+		}
+		return !goOn;
 	}
 
 	/**
-	 * returns a string pair from the string cache
+	 * Selects the elements to read. Elements of other types are skipped by
+	 * their length without decoding them, as long as no wanted element
+	 * depends on their strings.
 	 * 
-	 * @param rel
-	 *            number of entries in cache before current write position
-	 * @return the string pair at the cache position
+	 * @param typeMask
+	 *            combination of {@link #NODES}, {@link #WAYS} and
+	 *            {@link #RELATIONS}
 	 */
-	private String[] getRelStringPair(final int rel) {
-		return stringPairs[(STRING_PAIR_CACHE_SIZE + cacheWritePos - rel) % STRING_PAIR_CACHE_SIZE]
-				.clone();
+	public void setTypeMask(final int typeMask) {
+		this.typeMask = typeMask;
 	}
 
 	/**
-	 * Stores a string within string cache
+	 * @return the selected element types
+	 */
+	public int getTypeMask() {
+		return typeMask;
+	}
+
+	/**
+	 * Lets the reader skip version, timestamp, changeset and author of the
+	 * elements. Authors are still stored in the string table, but no strings
+	 * are created for them, and the elements report no metadata.
 	 * 
-	 * @param pair
-	 *            of strings to store within cache
+	 * @param skipMetadata
+	 *            true to skip the metadata
 	 */
-	private void storeStringPair(final String pair[]) {
-		stringPairs[cacheWritePos][0] = pair[0];
-		stringPairs[cacheWritePos][1] = pair[1];
-		cacheWritePos++;
-		cacheWritePos %= STRING_PAIR_CACHE_SIZE;
+	public void setSkipMetadata(final boolean skipMetadata) {
+		this.skipMetadata = skipMetadata;
 	}
 
 	/**
-	 * reads the author of an osm element from the stream
+	 * @return true when the metadata of the elements is skipped
+	 */
+	public boolean isSkipMetadata() {
+		return skipMetadata;
+	}
+
+	/**
+	 * @param type
+	 *            dataset type of an element
+	 * @return true when elements of the type are read
+	 */
+	private boolean isWanted(final int type) {
+		return (typeMask & 1 << type - NODE_ENTRY) != 0;
+	}
+
+	/**
+	 * @param from
+	 *            first dataset type
+	 * @param to
+	 *            last dataset type
+	 * @return true when no element type between from and to is wanted, false
+	 *         as well when the types are out of order
+	 */
+	private boolean noneWanted(final int from, final int to) {
+		if (to < from) {
+			return false;
+		}
+		for (int type = Math.max(from, NODE_ENTRY); type <= Math.min(to, RELATION_ENTRY); ++type) {
+			if (isWanted(type)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Looks for the end of a run of unwanted elements by reading block headers
+	 * only. The run can be skipped when it ends with a reset block, because the
+	 * strings of the unwanted elements are not needed behind it. Jump points
+	 * are followed when the element types in front of the jump point and
+	 * behind its target show that only unwanted elements are in between. This
+	 * relies on the elements being in the usual order of nodes, ways and
+	 * relations.
 	 * 
-	 * @param buffer
-	 *            buffer containing author information next
-	 * @return string pair containing author information. [0] = UID and [1] =
-	 *         author name
+	 * @param in
+	 *            the mapped o5m file
+	 * @param from
+	 *            position of an unwanted element
+	 * @param end
+	 *            position behind the last block to decode
+	 * @return the position of the reset block or end of file marker ending the
+	 *         run, or -1 - position of the first wanted element when no reset
+	 *         comes before it
 	 * @throws IOException
 	 */
-	public String[] readAuthor(final ByteBuffer buffer) throws IOException {
-		final ByteArrayOutputStream bao[] = new ByteArrayOutputStream[] {
-				new ByteArrayOutputStream(), new ByteArrayOutputStream() };
-		final int reference = readUnsigned32(buffer);
-		String ret[] = null;
-		if (reference == 0) {
-			int wc = 0; // Word Counter
-			int bc = 0; // Byte Counter
-			ret = new String[2];
-			while (wc < 2) {
-				final byte b = buffer.get();
-				bc++;
-				if (b == 0) {
-					wc++;
-				} else {
-					bao[wc].write(b);
-				}
+	private long scanAhead(final MappedFile in, final long from, final long end)
+			throws IOException {
+		final O5mBlock block = new O5mBlock();
+		long position = from;
+		int lastType = NODE_ENTRY;
+		while (position < end) {
+			block.read(in, position);
+			final int type = block.getType();
+			if (type == RESET || type == END_OF_FILE) {
+				return position;
 			}
-			if (bao[0].size() > 0) {
-				final long uid = readUnsigned64(ByteBuffer.wrap(bao[0].toByteArray()));
-				if (uid == 0) {
-					ret[0] = "0";
-				} else {
-					ret[0] = Long.toString(uid);
+			if (type >= NODE_ENTRY && type <= RELATION_ENTRY) {
+				if (isWanted(type)) {
+					return -1 - position;
+				}
+				lastType = type;
+			} else if (type == JUMP_POINT) {
+				final long target = position + readUnsigned64(block.getData(in));
+				if (target > position && target < end
+						&& noneWanted(lastType, peekType(in, target, end))) {
+					position = target;
+					continue;
 				}
-			} else {
-				ret[0] = "";
-			}
-			if (bao[1].size() > 0) {
-				ret[1] = new String(bao[1].toByteArray(), "UTF-8");
-			} else {
-				ret[1] = "";
 			}
-			if (bc <= MAX_CACHEABLE_STRING_LENGTH) {
-				storeStringPair(ret);
+			position = block.getEnd();
+		}
+		return end;
+	}
+
+	/**
+	 * @param in
+	 *            the mapped o5m file
+	 * @param from
+	 *            position of a block
+	 * @param end
+	 *            position behind the last block to decode
+	 * @return the type of the first element at or behind from, or
+	 *         {@link #END_OF_FILE} when there is none
+	 * @throws IOException
+	 */
+	private static int peekType(final MappedFile in, final long from, final long end)
+			throws IOException {
+		final O5mBlock block = new O5mBlock();
+		long position = from;
+		while (position < end) {
+			block.read(in, position);
+			if (block.getType() == END_OF_FILE
+					|| block.getType() >= NODE_ENTRY && block.getType() <= RELATION_ENTRY) {
+				return block.getType();
 			}
-		} else {
-			ret = getRelStringPair(reference);
+			position = block.getEnd();
 		}
+		return END_OF_FILE;
+	}
 
-		return ret;
+	/**
+	 * Advances through an unwanted element, keeping only its strings
+	 */
+	private void skipElement(final int type, final ByteBuffer buffer, final O5mNode node,
+			final O5mWay way, final O5mRelation relation) throws IOException {
+		switch (type) {
+		case NODE_ENTRY:
+			node.skipBuffer(buffer, this);
+			break;
+		case WAY_ENTRY:
+			way.skipBuffer(buffer, this);
+			break;
+		default:
+			relation.skipBuffer(buffer, this);
+		}
+	}
 
+	/**
+	 * reads the author of an osm element from the stream
+	 * 
+	 * @param buffer
+	 *            buffer containing author information next
+	 * @return string pair containing author information. [0] = UID and [1] =
+	 *         author name. The array belongs to the string table and is only
+	 *         valid until the next string is read.
+	 * @throws IOException
+	 */
+	public String[] readAuthor(final ByteBuffer buffer) throws IOException {
+		return strings.getAuthor(readUnsigned32(buffer), buffer);
 	}
 
 	/**
@@ -227,37 +435,12 @@ public final class O5mReader {
 	 * 
 	 * @param buffer
 	 *            containing a string pair next
-	 * @return the string pair
+	 * @return the string pair. The array belongs to the string table and is
+	 *         only valid until the next string is read.
 	 * @throws IOException
 	 */
 	public String[] readStringPair(final ByteBuffer buffer) throws IOException {
-		final ByteArrayOutputStream bao[] = new ByteArrayOutputStream[] {
-				new ByteArrayOutputStream(), new ByteArrayOutputStream() };
-		final int reference = readUnsigned32(buffer);
-		String ret[] = null;
-		if (reference == 0) {
-			int wc = 0; // Word Counter
-			int bc = 0; // Byte Counter
-			ret = new String[2];
-			while (wc < 2) {
-				final byte b = buffer.get();
-				bc++;
-				if (b == 0) {
-					wc++;
-				} else {
-					bao[wc].write(b);
-				}
-			}
-			ret[0] = new String(bao[0].toByteArray(), "UTF-8");
-			ret[1] = new String(bao[1].toByteArray(), "UTF-8");
-			if (bc <= MAX_CACHEABLE_STRING_LENGTH) {
-				storeStringPair(ret);
-			}
-		} else {
-			ret = getRelStringPair(reference);
-		}
-
-		return ret;
+		return strings.getPair(readUnsigned32(buffer), buffer);
 	}
 
 	/**
@@ -269,32 +452,33 @@ public final class O5mReader {
 	 * @throws IOException
 	 */
 	public String readSingleString(final ByteBuffer buffer) throws IOException {
-		final ByteArrayOutputStream bao = new ByteArrayOutputStream();
-		final int reference = readUnsigned32(buffer);
-		String ret[] = null;
-		if (reference == 0) {
-			int wc = 0; // Word Counter
-			int bc = 0; // Byte Counter
-			ret = new String[2];
-			while (wc < 1) {
-				final byte b = buffer.get();
-				bc++;
-				if (b == 0) {
-					wc++;
-				} else {
-					bao.write(b);
-				}
-			}
-			ret[0] = new String(bao.toByteArray(), "UTF-8");
-			ret[1] = "";
-			if (bc <= MAX_CACHEABLE_STRING_LENGTH) {
-				storeStringPair(ret);
-			}
-		} else {
-			ret = getRelStringPair(reference);
-		}
+		return strings.getSingle(readUnsigned32(buffer), buffer);
+	}
+
+	/**
+	 * reads the type and role of a relation member from the byte stream
+	 * 
+	 * @param buffer
+	 *            containing a single stream next
+	 * @return [0] = the type character followed by the role and [1] = the role
+	 *         alone. The array belongs to the string table and is only valid
+	 *         until the next string is read.
+	 * @throws IOException
+	 */
+	public String[] readRole(final ByteBuffer buffer) throws IOException {
+		return strings.getRole(readUnsigned32(buffer), buffer);
+	}
 
-		return ret[0];
+	/**
+	 * stores new strings in the string table without decoding them
+	 * 
+	 * @param buffer
+	 *            containing a string reference or new strings next
+	 * @param count
+	 *            number of strings, 2 for pairs and authors
+	 */
+	public void skipStrings(final ByteBuffer buffer, final int count) {
+		strings.skip(readUnsigned32(buffer), buffer, count);
 	}
 
 	/**
@@ -344,11 +528,11 @@ public final class O5mReader {
 	 */
 	public long readUnsigned64(final InputStream in) throws IOException {
 		int shift = 0;
-		int b = in.read();
+		int b = readByte(in);
 		long ret = b & 0x7f;
 		while ((b & 0x80) == 0x80) {
 			shift += 7;
-			b = in.read();
+			b = readByte(in);
 			ret += ((long) b & 0x7f) << shift;
 		}
 		return ret;
@@ -363,16 +547,32 @@ public final class O5mReader {
 	 */
 	public int readUnsigned32(final InputStream in) throws IOException {
 		int shift = 0;
-		int b = in.read();
+		int b = readByte(in);
 		int ret = b & 0x7f;
 		while ((b & 0x80) == 0x80) {
 			shift += 7;
-			b = in.read();
+			b = readByte(in);
 			ret += (b & 0x7f) << shift;
 		}
 		return ret;
 	}
 
+	/**
+	 * @param in
+	 *            the stream
+	 * @return the next byte of the stream
+	 * @throws EOFException
+	 *             when the stream ends in the middle of a number
+	 * @throws IOException
+	 */
+	private static int readByte(final InputStream in) throws IOException {
+		final int b = in.read();
+		if (b < 0) {
+			throw new EOFException("Stream ends within a number");
+		}
+		return b;
+	}
+
 	/**
 	 * reads a Unsigned long from a ByteBuffer. Note that the result is a signed
 	 * value, maybe you have to do something magical in case of negative values
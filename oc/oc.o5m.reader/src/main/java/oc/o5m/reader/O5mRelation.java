@@ -21,14 +21,9 @@ package oc.o5m.reader;
 
 import java.io.IOException;
 import java.nio.ByteBuffer;
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Arrays;
 
-import oc.osm.type.Member;
 import oc.osm.type.Member.Type;
-import oc.osm.type.Node;
-import oc.osm.type.Relation;
-import oc.osm.type.Way;
 
 /**
  * helper for O5mReader to read relations from o5m files. This is needed because
@@ -40,19 +35,23 @@ import oc.osm.type.Way;
  */
 public class O5mRelation extends O5mDataObject {
 
+	private static final Type types[] = Type.values();
+
 	private long lastRelationId;
 	private long relationId;
 	private final long lastReference[] = new long[Type.MAX.ordinal()];
-	private final List<Reference> refs = new ArrayList<>();
+	private Type memberTypes[] = new Type[64];
+	private long memberIds[] = new long[64];
+	private String roles[] = new String[64];
+	private int memberCount;
 
 	/**
 	 * reads the next relation from the stream
 	 */
 	@Override
-	@SuppressWarnings("PMD.AvoidInstantiatingObjectsInLoops")
 	public void readFromBuffer(final ByteBuffer buffer, final O5mReader reader) throws IOException {
 		super.readFromBuffer(buffer, reader);
-		refs.clear();
+		memberCount = 0;
 		lastRelationId = relationId = lastRelationId + reader.readSigned64(buffer);
 		if (buffer.hasRemaining()) {
 			super.readUidAuthorTSFromBuffer(buffer, reader);
@@ -63,7 +62,7 @@ public class O5mRelation extends O5mDataObject {
 			final int sizeOfRefs = reader.readUnsigned32(buffer);
 			final int refstart = buffer.position();
 			while (buffer.position() < sizeOfRefs + refstart) {
-				refs.add(new Reference(buffer, reader));
+				readMember(buffer, reader);
 			}
 		} else {
 			return;
@@ -71,6 +70,47 @@ public class O5mRelation extends O5mDataObject {
 		super.readProps(buffer, reader);
 	}
 
+	/**
+	 * Reads a member of the relation, which can be a Node, Way or other
+	 * Relation. Members of unknown type are skipped.
+	 * 
+	 * @param buffer
+	 *            buffer containing a Member
+	 * @param reader
+	 *            active O5mReader that contains stored history
+	 * @throws IOException
+	 */
+	private void readMember(final ByteBuffer buffer, final O5mReader reader) throws IOException {
+		final long deltaId = reader.readSigned64(buffer);
+		final String role[] = reader.readRole(buffer);
+		final int rawType = role[0].isEmpty() ? -1 : role[0].charAt(0) - 0x30;
+		if (rawType < 0 || rawType >= Type.MAX.ordinal()) {
+			return;
+		}
+		if (memberCount == memberIds.length) {
+			memberTypes = Arrays.copyOf(memberTypes, memberCount * 2);
+			memberIds = Arrays.copyOf(memberIds, memberCount * 2);
+			roles = Arrays.copyOf(roles, memberCount * 2);
+		}
+		memberTypes[memberCount] = types[rawType];
+		memberIds[memberCount] = lastReference[rawType] += deltaId;
+		roles[memberCount] = role[1];
+		memberCount++;
+	}
+
+	/**
+	 * skips the members, their roles are kept in the string table
+	 */
+	@Override
+	protected void skipBody(final ByteBuffer buffer, final O5mReader reader) {
+		final int sizeOfRefs = reader.readUnsigned32(buffer);
+		final int refstart = buffer.position();
+		while (buffer.position() < sizeOfRefs + refstart) {
+			reader.readSigned64(buffer);
+			reader.skipStrings(buffer, 1);
+		}
+	}
+
 	/**
 	 * Must be called when a reset flag is within file to reset the stored
 	 * values for relative data
@@ -82,48 +122,10 @@ public class O5mRelation extends O5mDataObject {
 		for (int i = 0; i < lastReference.length; ++i) {
 			lastReference[i] = 0;
 		}
-		refs.clear();
+		memberCount = 0;
 		super.reset();
 	}
 
-	/**
-	 * Converts the read informations to a Relation instance for further
-	 * processing
-	 * 
-	 * @return Relation matching the last read O5MRelation
-	 */
-	@SuppressWarnings("PMD.AvoidInstantiatingObjectsInLoops")
-	public Relation getAsRelation() {
-		final Relation relation = new Relation();
-		relation.setId(relationId);
-		relation.setProps(props);
-		for (final Reference reference : refs) {
-			final Member member = new Member();
-			member.setRole(reference.getRole());
-			switch (reference.getType()) {
-			case NODE:
-				final Node node = new Node();
-				node.setId(reference.getId());
-				member.setRef(node);
-				break;
-			case WAY:
-				final Way way = new Way();
-				way.setId(reference.getId());
-				member.setRef(way);
-				break;
-			case RELATION:
-				final Relation rel = new Relation();
-				rel.setId(reference.getId());
-				member.setRef(rel);
-				break;
-			default:
-				continue;
-			}
-			relation.addMember(member);
-		}
-		return relation;
-	}
-
 	/**
 	 * @return the relation
 	 */
@@ -132,65 +134,32 @@ public class O5mRelation extends O5mDataObject {
 	}
 
 	/**
-	 * this corresponds to the member node within osm xml data
-	 * 
-	 * @return the refs
+	 * @return the types of the members, valid up to {@link #getMemberCount()}
 	 */
-	public List<Reference> getRefs() {
-		return refs;
+	public Type[] getMemberTypes() {
+		return memberTypes;
 	}
 
 	/**
-	 * Member of a Relation, that can be Nodes, Ways or other Relations.
-	 * 
-	 * @author oliver
+	 * @return the ids of the members, valid up to {@link #getMemberCount()}
 	 */
-	public class Reference {
-		private final long id;
-		private final Type type;
-		private final String role;
-
-		/**
-		 * Constructor reading the Reference from the given ByteBuffer.
-		 * 
-		 * @param buffer
-		 *            buffer containing a Member
-		 * @param reader
-		 *            active O4mReader that contains stored history
-		 * @throws IOException
-		 */
-		public Reference(final ByteBuffer buffer, final O5mReader reader) throws IOException {
-			final long deltaId = reader.readSigned64(buffer);
-			final String rawRole = reader.readSingleString(buffer);
-			final int rawType = rawRole.charAt(0) - 0x30;
-			if (rawType >= 0 && rawType < Type.MAX.ordinal()) {
-				type = Type.values()[rawType];
-			} else {
-				type = Type.MAX;
-			}
-			id = lastReference[type.ordinal()] += deltaId;
-			role = rawRole.substring(1);
-		}
-
-		/**
-		 * @return the id
-		 */
-		public long getId() {
-			return id;
-		}
+	public long[] getMemberIds() {
+		return memberIds;
+	}
 
-		/**
-		 * @return the type
-		 */
-		public Type getType() {
-			return type;
-		}
+	/**
+	 * @return the roles of the members, valid up to {@link #getMemberCount()}
+	 */
+	public String[] getRoles() {
+		return roles;
+	}
 
-		/**
-		 * @return the role
-		 */
-		public String getRole() {
-			return role;
-		}
+	/**
+	 * this corresponds to the member node within osm xml data
+	 * 
+	 * @return the number of members
+	 */
+	public int getMemberCount() {
+		return memberCount;
 	}
 }
@@ -0,0 +1,313 @@
+/**
+ * Copyright (C) 2026 Oliver Schünemann
+ * 
+ * This program is free software; you can redistribute it and/or modify it under the terms of the 
+ * GNU General Public License as published by the Free Software Foundation; either version 2 of 
+ * the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; 
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. 
+ * See the GNU General Public License for more details. 
+ * 
+ * You should have received a copy of the GNU General Public License along with this program; 
+ * if not, write to the Free Software Foundation, Inc., 51 Franklin St, Fifth Floor, 
+ * Boston, MA 02110, USA 
+ * 
+ * @since 19.10.2026
+ * @version 1.0
+ * @author oliver
+ */
+package oc.o5m.reader;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * The string table of an o5m file. New strings are copied as raw UTF-8 bytes
+ * into their slot of one ring array, which holds the last
+ * {@link O5mReader#STRING_PAIR_CACHE_SIZE} entries. The bytes are decoded to
+ * strings the first time an entry is asked for, and later references to the
+ * entry return the same strings without copying.
+ * 
+ * Short strings are decoded through a small intern table, so frequent keys and
+ * values like "highway" or "yes" are not allocated again for every element. A
+ * string stays in the intern table as long as it is hit more often than other
+ * strings competing for its slot.
+ * 
+ * The arrays returned by the table belong to it and are only valid until the
+ * next string is read.
+ * 
+ * @author oliver
+ */
+final class O5mStringTable {
+	private static final int SIZE = O5mReader.STRING_PAIR_CACHE_SIZE;
+	private static final int SLOT_SIZE = O5mReader.MAX_CACHEABLE_STRING_LENGTH;
+	/**
+	 * Index of the entry used for strings too long for the table
+	 */
+	private static final int SPARE = SIZE;
+
+	private static final int INTERN_SIZE = 1 << 12;
+	private static final int MAX_INTERN_LENGTH = 32;
+	private static final int MAX_INTERN_HITS = 1 << 10;
+
+	private final byte ring[] = new byte[SIZE * SLOT_SIZE];
+	private byte spare[] = new byte[SLOT_SIZE];
+	private final int firstLength[] = new int[SIZE + 1];
+	private final int secondLength[] = new int[SIZE + 1];
+	private final String decoded[][] = new String[SIZE + 1][2];
+	private int writePos = 0;
+	private int entries = 0;
+
+	private final byte internBytes[][] = new byte[INTERN_SIZE][];
+	private final String internStrings[] = new String[INTERN_SIZE];
+	private final int internHits[] = new int[INTERN_SIZE];
+
+	/**
+	 * Forgets all entries, the intern table is kept.
+	 */
+	void reset() {
+		for (final String[] pair : decoded) {
+			pair[0] = null;
+			pair[1] = null;
+		}
+		writePos = 0;
+		entries = 0;
+	}
+
+	/**
+	 * @param reference
+	 *            0 when the pair follows in the buffer, otherwise the number of
+	 *            entries stored since the pair
+	 * @param buffer
+	 *            buffer positioned behind the reference
+	 * @return key and value
+	 * @throws IOException
+	 */
+	String[] getPair(final int reference, final ByteBuffer buffer) throws IOException {
+		final int entry = reference == 0 ? read(buffer, 2) : lookup(reference);
+		final String pair[] = decoded[entry];
+		if (pair[0] == null) {
+			final byte bytes[] = bytes(entry);
+			final int offset = offset(entry);
+			pair[0] = decode(bytes, offset, firstLength[entry]);
+			pair[1] = decode(bytes, offset + firstLength[entry], secondLength[entry]);
+		}
+		return pair;
+	}
+
+	/**
+	 * @param reference
+	 *            0 when the string follows in the buffer, otherwise the number
+	 *            of entries stored since the string
+	 * @param buffer
+	 *            buffer positioned behind the reference
+	 * @return the string
+	 * @throws IOException
+	 */
+	String getSingle(final int reference, final ByteBuffer buffer) throws IOException {
+		return getRole(reference, buffer)[0];
+	}
+
+	/**
+	 * The role of a relation member is a single string starting with the type
+	 * of the member.
+	 * 
+	 * @param reference
+	 *            0 when the string follows in the buffer, otherwise the number
+	 *            of entries stored since the string
+	 * @param buffer
+	 *            buffer positioned behind the reference
+	 * @return [0] = the complete string and [1] = the string without its first
+	 *         character
+	 * @throws IOException
+	 */
+	String[] getRole(final int reference, final ByteBuffer buffer) throws IOException {
+		final int entry = reference == 0 ? read(buffer, 1) : lookup(reference);
+		final String pair[] = decoded[entry];
+		if (pair[0] == null) {
+			final byte bytes[] = bytes(entry);
+			final int offset = offset(entry);
+			final int length = firstLength[entry];
+			pair[0] = decode(bytes, offset, length);
+			pair[1] = length == 0 ? "" : decode(bytes, offset + 1, length - 1);
+		}
+		return pair;
+	}
+
+	/**
+	 * @param reference
+	 *            0 when the author follows in the buffer, otherwise the number
+	 *            of entries stored since the author
+	 * @param buffer
+	 *            buffer positioned behind the reference
+	 * @return [0] = UID and [1] = author name
+	 * @throws IOException
+	 */
+	String[] getAuthor(final int reference, final ByteBuffer buffer) throws IOException {
+		final int entry = reference == 0 ? read(buffer, 2) : lookup(reference);
+		final String pair[] = decoded[entry];
+		if (pair[0] == null) {
+			final byte bytes[] = bytes(entry);
+			final int offset = offset(entry);
+			pair[0] = decodeUid(bytes, offset, firstLength[entry]);
+			pair[1] = decode(bytes, offset + firstLength[entry], secondLength[entry]);
+		}
+		return pair;
+	}
+
+	/**
+	 * Stores a new entry without decoding it, so later references stay valid.
+	 * 
+	 * @param reference
+	 *            0 when the strings follow in the buffer, otherwise the number
+	 *            of entries stored since them
+	 * @param buffer
+	 *            buffer positioned behind the reference
+	 * @param strings
+	 *            number of strings of the entry
+	 */
+	void skip(final int reference, final ByteBuffer buffer, final int strings) {
+		if (reference == 0) {
+			read(buffer, strings);
+		}
+	}
+
+	/**
+	 * Copies the zero terminated strings of a new entry from the buffer into
+	 * the table, or into the spare entry when they are too long for it.
+	 * 
+	 * @param buffer
+	 *            buffer positioned at the first string
+	 * @param strings
+	 *            number of strings of the entry
+	 * @return index of the entry
+	 */
+	private int read(final ByteBuffer buffer, final int strings) {
+		final int start = buffer.position();
+		int end = start;
+		while (buffer.get(end) != 0) {
+			end++;
+		}
+		final int first = end - start;
+		int second = 0;
+		if (strings == 2) {
+			end++;
+			while (buffer.get(end) != 0) {
+				end++;
+			}
+			second = end - start - first - 1;
+		}
+		final int entry;
+		final byte bytes[];
+		int offset;
+		if (end + 1 - start <= SLOT_SIZE) {
+			entry = writePos;
+			bytes = ring;
+			offset = entry * SLOT_SIZE;
+			writePos = (writePos + 1) % SIZE;
+			entries = Math.min(entries + 1, SIZE);
+		} else {
+			entry = SPARE;
+			if (spare.length < first + second) {
+				spare = new byte[first + second];
+			}
+			bytes = spare;
+			offset = 0;
+		}
+		buffer.get(bytes, offset, first);
+		buffer.get();
+		if (strings == 2) {
+			buffer.get(bytes, offset + first, second);
+			buffer.get();
+		}
+		firstLength[entry] = first;
+		secondLength[entry] = second;
+		decoded[entry][0] = null;
+		decoded[entry][1] = null;
+		return entry;
+	}
+
+	/**
+	 * @param reference
+	 *            number of entries stored since the wanted one
+	 * @return index of the entry
+	 * @throws IOException
+	 *             when the reference points outside of the table
+	 */
+	private int lookup(final int reference) throws IOException {
+		if (reference < 0 || reference > entries) {
+			throw new IOException("Invalid string reference " + reference + ", table holds "
+					+ entries + " entries");
+		}
+		return (SIZE + writePos - reference) % SIZE;
+	}
+
+	private byte[] bytes(final int entry) {
+		return entry == SPARE ? spare : ring;
+	}
+
+	private static int offset(final int entry) {
+		return entry == SPARE ? 0 : entry * SLOT_SIZE;
+	}
+
+	/**
+	 * The uid of an author is stored as unsigned number in place of a string
+	 */
+	private static String decodeUid(final byte bytes[], final int offset, final int length) {
+		if (length == 0) {
+			return "";
+		}
+		long uid = 0;
+		int shift = 0;
+		for (int i = offset; i < offset + length; ++i) {
+			uid |= ((long) bytes[i] & 0x7f) << shift;
+			shift += 7;
+		}
+		return Long.toString(uid);
+	}
+
+	/**
+	 * Decodes UTF-8 bytes, short strings are taken from the intern table.
+	 */
+	private String decode(final byte bytes[], final int offset, final int length) {
+		if (length == 0) {
+			return "";
+		}
+		if (length > MAX_INTERN_LENGTH) {
+			return new String(bytes, offset, length, StandardCharsets.UTF_8);
+		}
+		int hash = 0;
+		for (int i = offset; i < offset + length; ++i) {
+			hash = 31 * hash + bytes[i];
+		}
+		final int slot = (hash ^ hash >>> 16) & INTERN_SIZE - 1;
+		final byte known[] = internBytes[slot];
+		if (known != null && known.length == length && equals(known, bytes, offset)) {
+			if (internHits[slot] < MAX_INTERN_HITS) {
+				internHits[slot]++;
+			}
+			return internStrings[slot];
+		}
+		final String ret = new String(bytes, offset, length, StandardCharsets.UTF_8);
+		if (internHits[slot] == 0) {
+			internBytes[slot] = Arrays.copyOfRange(bytes, offset, offset + length);
+			internStrings[slot] = ret;
+			internHits[slot] = 1;
+		} else {
+			internHits[slot]--;
+		}
+		return ret;
+	}
+
+	private static boolean equals(final byte known[], final byte bytes[], final int offset) {
+		for (int i = 0; i < known.length; ++i) {
+			if (known[i] != bytes[offset + i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+}
@@ -21,11 +21,7 @@ package oc.o5m.reader;
 
 import java.io.IOException;
 import java.nio.ByteBuffer;
-import java.util.ArrayList;
-import java.util.List;
-
-import oc.osm.type.Node;
-import oc.osm.type.Way;
+import java.util.Arrays;
 
 /**
  * Helper for O5mReader to read ways from o5m files. This is needed because some
@@ -38,7 +34,8 @@ public class O5mWay extends O5mDataObject {
 	private long lastWayId;
 	private long wayId;
 	private long lastReference;
-	private final List<Long> refs = new ArrayList<>();
+	private long refs[] = new long[256];
+	private int refCount;
 
 	/**
 	 * reads the next way from the stream
@@ -46,7 +43,7 @@ public class O5mWay extends O5mDataObject {
 	@Override
 	public void readFromBuffer(final ByteBuffer buffer, final O5mReader reader) throws IOException {
 		super.readFromBuffer(buffer, reader);
-		refs.clear();
+		refCount = 0;
 		lastWayId = wayId = lastWayId + reader.readSigned64(buffer);
 		if (buffer.hasRemaining()) {
 			super.readUidAuthorTSFromBuffer(buffer, reader);
@@ -58,7 +55,10 @@ public class O5mWay extends O5mDataObject {
 			final int refstart = buffer.position();
 			while (buffer.position() < sizeOfRefs + refstart) {
 				lastReference += reader.readSigned64(buffer);
-				refs.add(Long.valueOf(lastReference));
+				if (refCount == refs.length) {
+					refs = Arrays.copyOf(refs, refCount * 2);
+				}
+				refs[refCount++] = lastReference;
 			}
 		} else {
 			return;
@@ -66,6 +66,15 @@ public class O5mWay extends O5mDataObject {
 		super.readProps(buffer, reader);
 	}
 
+	/**
+	 * skips the node references by their length
+	 */
+	@Override
+	protected void skipBody(final ByteBuffer buffer, final O5mReader reader) {
+		final int sizeOfRefs = reader.readUnsigned32(buffer);
+		buffer.position(buffer.position() + sizeOfRefs);
+	}
+
 	/**
 	 * Must be called when a reset flag is within file to reset the stored
 	 * values for relative data
@@ -74,28 +83,10 @@ public class O5mWay extends O5mDataObject {
 	public void reset() {
 		lastWayId = 0;
 		lastReference = 0;
-		refs.clear();
+		refCount = 0;
 		super.reset();
 	}
 
-	/**
-	 * Converts the read informations to a Way instance for further processing
-	 * 
-	 * @return Way matching the last read O5MWay
-	 */
-	@SuppressWarnings("PMD.AvoidInstantiatingObjectsInLoops")
-	public Way getAsWay() {
-		final Way way = new Way();
-		way.setId(wayId);
-		way.setProps(props);
-		for (final Long nodeRef : refs) {
-			final Node node = new Node();
-			node.setId(nodeRef);
-			way.addNode(node);
-		}
-		return way;
-	}
-
 	/**
 	 * @return the wayId
 	 */
@@ -104,9 +95,16 @@ public class O5mWay extends O5mDataObject {
 	}
 
 	/**
-	 * @return the refs
+	 * @return the node ids of the way, valid up to {@link #getRefCount()}
 	 */
-	public List<Long> getRefs() {
+	public long[] getRefs() {
 		return refs;
 	}
+
+	/**
+	 * @return the number of node ids
+	 */
+	public int getRefCount() {
+		return refCount;
+	}
 }
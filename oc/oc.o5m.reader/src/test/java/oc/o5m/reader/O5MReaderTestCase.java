@@ -22,17 +22,21 @@ package oc.o5m.reader;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
+import java.io.EOFException;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.Arrays;
 
 import oc.osm.handler.OsmHandler;
+import oc.osm.handler.PrimitiveOsmHandler;
 import oc.osm.type.Member;
 import oc.osm.type.Node;
 import oc.osm.type.Relation;
 import oc.osm.type.Way;
 
 import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
 import org.junit.Test;
 
 /**
@@ -90,4 +94,94 @@ public class O5MReaderTestCase {
 		});
 	}
 
+	/**
+	 * Test method for
+	 * {@link oc.o5m.reader.O5mReader#readFile(java.io.File, oc.osm.handler.PrimitiveOsmHandler)}
+	 * .
+	 * 
+	 * @throws IOException
+	 */
+	@Test
+	public void testReadFilePrimitive() throws IOException {
+		final InputStream is = O5MReaderTestCase.class.getResourceAsStream("junit.o5m");
+		final File f = File.createTempFile("junit_test", "o5m");
+		FileUtils.copyInputStreamToFile(is, f);
+		final int calls[] = new int[1];
+
+		new O5mReader().readFile(f, new PrimitiveOsmHandler() {
+
+			@Override
+			public void way(final long id, final long[] refs, final int refCount,
+					final String[] keys, final String[] values, final int tags) throws IOException {
+				assertEquals(2, id);
+				assertEquals(1, refCount);
+				assertEquals(1, refs[0]);
+				assertEquals(1, tags);
+				assertEquals("highway", keys[0]);
+				assertEquals("motorway", values[0]);
+				calls[0]++;
+			}
+
+			@Override
+			public void relation(final long id, final Member.Type[] memberTypes,
+					final long[] memberIds, final String[] roles, final int memberCount,
+					final String[] keys, final String[] values, final int tags) throws IOException {
+				assertEquals(3, id);
+				assertEquals(1, memberCount);
+				assertEquals(Member.Type.WAY, memberTypes[0]);
+				assertEquals(2, memberIds[0]);
+				assertEquals("inner", roles[0]);
+				assertEquals(2, tags);
+				final int type = "type".equals(keys[0]) ? 0 : 1;
+				assertEquals("type", keys[type]);
+				assertEquals("multipolygon", values[type]);
+				calls[0]++;
+			}
+
+			@Override
+			public void node(final long id, final int lat, final int lon, final String[] keys,
+					final String[] values, final int tags) throws IOException {
+				assertEquals(1, id);
+				assertTrue(520000000 < lat);
+				assertTrue(530000000 > lat);
+				assertTrue(130000000 < lon);
+				assertTrue(140000000 > lon);
+				assertEquals("name", keys[0]);
+				assertEquals("Test Punkt", values[0]);
+				calls[0]++;
+			}
+		});
+		assertEquals(3, calls[0]);
+	}
+
+	/**
+	 * A file that ends within a dataset must be reported.
+	 * 
+	 * @throws IOException
+	 */
+	@Test(expected = EOFException.class)
+	public void testTruncatedFile() throws IOException {
+		final InputStream is = O5MReaderTestCase.class.getResourceAsStream("junit.o5m");
+		final byte[] content = IOUtils.toByteArray(is);
+		final File f = File.createTempFile("junit_test", "o5m");
+		f.deleteOnExit();
+		FileUtils.writeByteArrayToFile(f, Arrays.copyOf(content, content.length - 5));
+		new O5mReader().readFile(f, new OsmHandler() {
+
+			@Override
+			public void newWay(final Way way) throws IOException {
+				// not of interest
+			}
+
+			@Override
+			public void newRelation(final Relation relation) throws IOException {
+				// not of interest
+			}
+
+			@Override
+			public void newNode(final Node node) throws IOException {
+				// not of interest
+			}
+		});
+	}
 }
@@ -0,0 +1,325 @@
+/**
+ * Copyright (C) 2026 Oliver Schünemann
+ * 
+ * This program is free software; you can redistribute it and/or modify it under the terms of the 
+ * GNU General Public License as published by the Free Software Foundation; either version 2 of 
+ * the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; 
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. 
+ * See the GNU General Public License for more details. 
+ * 
+ * You should have received a copy of the GNU General Public License along with this program; 
+ * if not, write to the Free Software Foundation, Inc., 51 Franklin St, Fifth Floor, 
+ * Boston, MA 02110, USA 
+ * 
+ * @since 19.10.2026
+ * @version 1.0
+ * @author oliver
+ */
+package oc.o5m.reader;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import oc.osm.type.Member.Type;
+
+import org.apache.commons.io.FileUtils;
+
+/**
+ * Writes o5m files for the tests. Ids and coordinates are given absolute and
+ * are written relative, strings are written as references when they are
+ * within the string table, like osmconvert does.
+ * 
+ * @author oliver
+ */
+public class O5mFileBuilder {
+	private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+	private final Map<String, Integer> strings = new HashMap<>();
+	private final List<Integer> jumpPoints = new ArrayList<>();
+	private int stringCount;
+	private long lastNodeId;
+	private int lastLon;
+	private int lastLat;
+	private long lastWayId;
+	private long lastWayRef;
+	private long lastRelationId;
+	private final long lastMember[] = new long[Type.MAX.ordinal()];
+	private long lastTimeStamp;
+	private long lastChangeSet;
+	private long uid;
+	private String user;
+
+	/**
+	 * All following elements are written with version, timestamp, changeset
+	 * and this author
+	 * 
+	 * @param uid
+	 *            id of the author
+	 * @param user
+	 *            name of the author
+	 * @return this
+	 */
+	public O5mFileBuilder author(final long uid, final String user) {
+		this.uid = uid;
+		this.user = user;
+		return this;
+	}
+
+	/**
+	 * @return this
+	 * @throws IOException
+	 */
+	public O5mFileBuilder header() throws IOException {
+		final ByteArrayOutputStream data = new ByteArrayOutputStream();
+		data.write("o5m2".getBytes(StandardCharsets.UTF_8));
+		dataset(O5mReader.HEADER, data);
+		return this;
+	}
+
+	/**
+	 * Writes a reset block and resets all relative values
+	 * 
+	 * @return this
+	 */
+	public O5mFileBuilder reset() {
+		out.write(O5mReader.RESET);
+		strings.clear();
+		stringCount = 0;
+		lastNodeId = lastWayId = lastRelationId = lastWayRef = 0;
+		lastLon = lastLat = 0;
+		lastTimeStamp = lastChangeSet = 0;
+		for (int i = 0; i < lastMember.length; ++i) {
+			lastMember[i] = 0;
+		}
+		return this;
+	}
+
+	/**
+	 * Writes bytes as they are, for broken files
+	 * 
+	 * @param bytes
+	 *            bytes to write
+	 * @return this
+	 */
+	public O5mFileBuilder raw(final int... bytes) {
+		for (final int b : bytes) {
+			out.write(b);
+		}
+		return this;
+	}
+
+	/**
+	 * Writes a jump point, the distances are filled in by {@link #build()}
+	 * 
+	 * @return this
+	 */
+	public O5mFileBuilder jumpPoint() {
+		jumpPoints.add(out.size());
+		out.write(O5mReader.JUMP_POINT);
+		out.write(10);
+		for (int i = 0; i < 10; ++i) {
+			out.write(i % 5 == 4 ? 0 : 0x80);
+		}
+		return this;
+	}
+
+	/**
+	 * @param tags
+	 *            keys and values alternating
+	 * @return this
+	 * @throws IOException
+	 */
+	public O5mFileBuilder node(final long id, final int lon, final int lat, final String... tags)
+			throws IOException {
+		final ByteArrayOutputStream data = new ByteArrayOutputStream();
+		writeSigned(data, id - lastNodeId);
+		lastNodeId = id;
+		metadata(data);
+		writeSigned(data, lon - lastLon);
+		lastLon = lon;
+		writeSigned(data, lat - lastLat);
+		lastLat = lat;
+		tags(data, tags);
+		dataset(O5mReader.NODE_ENTRY, data);
+		return this;
+	}
+
+	/**
+	 * @param tags
+	 *            keys and values alternating
+	 * @return this
+	 * @throws IOException
+	 */
+	public O5mFileBuilder way(final long id, final long refs[], final String... tags)
+			throws IOException {
+		final ByteArrayOutputStream data = new ByteArrayOutputStream();
+		writeSigned(data, id - lastWayId);
+		lastWayId = id;
+		metadata(data);
+		final ByteArrayOutputStream refData = new ByteArrayOutputStream();
+		for (final long ref : refs) {
+			writeSigned(refData, ref - lastWayRef);
+			lastWayRef = ref;
+		}
+		writeUnsigned(data, refData.size());
+		refData.writeTo(data);
+		tags(data, tags);
+		dataset(O5mReader.WAY_ENTRY, data);
+		return this;
+	}
+
+	/**
+	 * @param tags
+	 *            keys and values alternating
+	 * @return this
+	 * @throws IOException
+	 */
+	public O5mFileBuilder relation(final long id, final Type types[], final long ids[],
+			final String roles[], final String... tags) throws IOException {
+		final ByteArrayOutputStream data = new ByteArrayOutputStream();
+		writeSigned(data, id - lastRelationId);
+		lastRelationId = id;
+		metadata(data);
+		final ByteArrayOutputStream refData = new ByteArrayOutputStream();
+		for (int i = 0; i < ids.length; ++i) {
+			final int type = types[i].ordinal();
+			writeSigned(refData, ids[i] - lastMember[type]);
+			lastMember[type] = ids[i];
+			string(refData, type + roles[i]);
+		}
+		writeUnsigned(data, refData.size());
+		refData.writeTo(data);
+		tags(data, tags);
+		dataset(O5mReader.RELATION_ENTRY, data);
+		return this;
+	}
+
+	/**
+	 * Writes the end of file marker and fills in the jump points, each one
+	 * pointing to the next and the previous one.
+	 * 
+	 * @return the complete file
+	 */
+	public byte[] build() {
+		out.write(O5mReader.END_OF_FILE);
+		final byte file[] = out.toByteArray();
+		for (int i = 0; i < jumpPoints.size(); ++i) {
+			final int position = jumpPoints.get(i);
+			final int next = i + 1 < jumpPoints.size() ? jumpPoints.get(i + 1) - position : 0;
+			final int previous = i > 0 ? position - jumpPoints.get(i - 1) : 0;
+			writePadded(file, position + 2, next);
+			writePadded(file, position + 7, previous);
+		}
+		return file;
+	}
+
+	/**
+	 * @param f
+	 *            file to write
+	 * @throws IOException
+	 */
+	public void writeTo(final File f) throws IOException {
+		FileUtils.writeByteArrayToFile(f, build());
+	}
+
+	private void metadata(final ByteArrayOutputStream data) throws IOException {
+		if (user == null) {
+			data.write(0);
+		} else {
+			writeUnsigned(data, 1);
+			lastTimeStamp += 1000;
+			writeSigned(data, 1000);
+			lastChangeSet += 7;
+			writeSigned(data, 7);
+			final ByteArrayOutputStream uidBytes = new ByteArrayOutputStream();
+			writeUnsigned(uidBytes, uid);
+			pair(data, new String(uidBytes.toByteArray(), StandardCharsets.ISO_8859_1), user,
+					uidBytes.toByteArray());
+		}
+	}
+
+	private void tags(final ByteArrayOutputStream data, final String tags[]) throws IOException {
+		for (int i = 0; i < tags.length; i += 2) {
+			pair(data, tags[i], tags[i + 1], tags[i].getBytes(StandardCharsets.UTF_8));
+		}
+	}
+
+	private void pair(final ByteArrayOutputStream data, final String first, final String second,
+			final byte firstBytes[]) throws IOException {
+		final String key = first + '\0' + second;
+		if (reference(data, key)) {
+			return;
+		}
+		final byte secondBytes[] = second.getBytes(StandardCharsets.UTF_8);
+		data.write(0);
+		data.write(firstBytes);
+		data.write(0);
+		data.write(secondBytes);
+		data.write(0);
+		store(key, firstBytes.length + secondBytes.length + 2);
+	}
+
+	private void string(final ByteArrayOutputStream data, final String string)
+			throws IOException {
+		if (reference(data, string)) {
+			return;
+		}
+		final byte bytes[] = string.getBytes(StandardCharsets.UTF_8);
+		data.write(0);
+		data.write(bytes);
+		data.write(0);
+		store(string, bytes.length + 1);
+	}
+
+	private boolean reference(final ByteArrayOutputStream data, final String key) {
+		final Integer index = strings.get(key);
+		if (index != null && stringCount - index <= O5mReader.STRING_PAIR_CACHE_SIZE) {
+			writeUnsigned(data, stringCount - index);
+			return true;
+		}
+		return false;
+	}
+
+	private void store(final String key, final int length) {
+		if (length <= O5mReader.MAX_CACHEABLE_STRING_LENGTH) {
+			strings.put(key, stringCount++);
+		}
+	}
+
+	private void dataset(final int type, final ByteArrayOutputStream data) throws IOException {
+		out.write(type);
+		writeUnsigned(out, data.size());
+		data.writeTo(out);
+	}
+
+	private static void writePadded(final byte file[], final int position, final int value) {
+		for (int i = 0; i < 5; ++i) {
+			file[position + i] = (byte) (value >>> 7 * i & 0x7f | (i < 4 ? 0x80 : 0));
+		}
+	}
+
+	private static void writeUnsigned(final OutputStream out, final long value) {
+		try {
+			long rest = value;
+			while (rest >= 0x80) {
+				out.write((int) (rest & 0x7f) | 0x80);
+				rest >>>= 7;
+			}
+			out.write((int) rest);
+		} catch (final IOException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private static void writeSigned(final OutputStream out, final long value) {
+		writeUnsigned(out, value < 0 ? (-value - 1) << 1 | 1 : value << 1);
+	}
+}
@@ -0,0 +1,229 @@
+/**
+ * Copyright (C) 2026 Oliver Schünemann
+ * 
+ * This program is free software; you can redistribute it and/or modify it under the terms of the 
+ * GNU General Public License as published by the Free Software Foundation; either version 2 of 
+ * the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; 
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. 
+ * See the GNU General Public License for more details. 
+ * 
+ * You should have received a copy of the GNU General Public License along with this program; 
+ * if not, write to the Free Software Foundation, Inc., 51 Franklin St, Fifth Floor, 
+ * Boston, MA 02110, USA 
+ * 
+ * @since 19.10.2026
+ * @version 1.0
+ * @author oliver
+ */
+package oc.o5m.reader;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+import oc.osm.handler.ConcurrentOsmHandler;
+import oc.osm.handler.OsmHandler;
+import oc.osm.handler.ParallelDecoder;
+import oc.osm.type.Node;
+import oc.osm.type.Relation;
+import oc.osm.type.Way;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * @author oliver
+ * 
+ */
+public class O5mParallelReaderTestCase {
+
+	private static final int SEGMENTS = 5;
+	private static final int NODES_PER_SEGMENT = 500;
+
+	private File file = null;
+
+	/**
+	 * Writes a file with reset blocks between segments of nodes. The tags of
+	 * the nodes repeat, so the string table is used within the segments.
+	 * 
+	 * @throws IOException
+	 */
+	@Before
+	public void setup() throws IOException {
+		file = File.createTempFile("parallel", "o5m");
+		final O5mFileBuilder builder = new O5mFileBuilder();
+		builder.reset().header();
+		long id = 0;
+		for (int segment = 0; segment < SEGMENTS; ++segment) {
+			if (segment > 0) {
+				builder.reset();
+			}
+			for (int i = 0; i < NODES_PER_SEGMENT; ++i) {
+				id += 3;
+				builder.node(id, 130000000 + i, 520000000 + i, "name", "node" + i % 7);
+			}
+		}
+		builder.writeTo(file);
+	}
+
+	@After
+	public void tearDown() {
+		file.delete();
+	}
+
+	/**
+	 * Handler recording the nodes as id:name
+	 * 
+	 * @author oliver
+	 */
+	private static class RecordingHandler implements OsmHandler {
+		protected final List<String> nodes = Collections.synchronizedList(new ArrayList<String>());
+
+		@Override
+		public void newNode(final Node node) throws IOException {
+			nodes.add(node.getId() + ":" + node.getLat() + ":" + node.getProperty("name"));
+		}
+
+		@Override
+		public void newWay(final Way way) throws IOException {
+			throw new IOException("No ways in file");
+		}
+
+		@Override
+		public void newRelation(final Relation relation) throws IOException {
+			throw new IOException("No relations in file");
+		}
+	}
+
+	@Test
+	public void testSplit() throws IOException {
+		assertEquals(SEGMENTS, new O5mParallelReader(new O5mReader(), file, 4, 0).split().size());
+		assertEquals(1, new O5mParallelReader(file, 4).split().size());
+	}
+
+	@Test
+	public void testOrdered() throws IOException {
+		final RecordingHandler expected = new RecordingHandler();
+		new O5mReader().readFile(file, expected);
+		assertEquals(SEGMENTS * NODES_PER_SEGMENT, expected.nodes.size());
+		final RecordingHandler parallel = new RecordingHandler();
+		new O5mParallelReader(new O5mReader(), file, 3, 0).read(parallel);
+		assertEquals(expected.nodes, parallel.nodes);
+	}
+
+	@Test
+	public void testUnordered() throws IOException {
+		final RecordingHandler expected = new RecordingHandler();
+		new O5mReader().readFile(file, expected);
+		final RecordingHandler parallel = new ConcurrentRecordingHandler();
+		new O5mParallelReader(new O5mReader(), file, 3, 0).read(parallel);
+		final Set<String> expectedSet = new TreeSet<>(expected.nodes);
+		assertEquals(expectedSet, new TreeSet<>(parallel.nodes));
+		assertEquals(expected.nodes.size(), parallel.nodes.size());
+	}
+
+	@Test
+	public void testFailure() {
+		final RecordingHandler failing = new RecordingHandler() {
+			@Override
+			public void newNode(final Node node) throws IOException {
+				if (node.getId() > 1000) {
+					throw new IOException("failed");
+				}
+				super.newNode(node);
+			}
+		};
+		try {
+			new O5mParallelReader(new O5mReader(), file, 3, 0).read(failing);
+			fail("Failure of the handler was not reported");
+		} catch (final IOException e) {
+			assertEquals("failed", e.getMessage());
+		}
+		assertTrue(failing.nodes.size() < SEGMENTS * NODES_PER_SEGMENT);
+	}
+
+	/**
+	 * A failing handler must not leave decoding threads waiting for room in
+	 * the queues of their tasks. The segments are larger than the queues.
+	 * 
+	 * @throws IOException
+	 * @throws InterruptedException
+	 */
+	@Test
+	public void testFailureEndsThreads() throws IOException, InterruptedException {
+		final File large = File.createTempFile("parallel", "o5m");
+		try {
+			final O5mFileBuilder builder = new O5mFileBuilder();
+			builder.reset().header();
+			long id = 0;
+			for (int segment = 0; segment < 8; ++segment) {
+				builder.reset();
+				for (int i = 0; i < 8000; ++i) {
+					id += 3;
+					builder.node(id, 130000000 + i, 520000000 + i, "name", "node" + i % 7);
+				}
+			}
+			builder.writeTo(large);
+			final RecordingHandler failing = new RecordingHandler() {
+				@Override
+				public void newNode(final Node node) throws IOException {
+					throw new IOException("failed");
+				}
+			};
+			try {
+				new O5mParallelReader(new O5mReader(), large, 3, 0).read(failing);
+				fail("Failure of the handler was not reported");
+			} catch (final IOException e) {
+				assertEquals("failed", e.getMessage());
+			}
+			final long end = System.currentTimeMillis() + 10000;
+			while (decodingThreads() > 0 && System.currentTimeMillis() < end) {
+				Thread.sleep(10);
+			}
+			assertEquals(0, decodingThreads());
+		} finally {
+			large.delete();
+		}
+	}
+
+	/**
+	 * @return number of living threads running a task of a
+	 *         {@link ParallelDecoder}
+	 */
+	private static int decodingThreads() {
+		int count = 0;
+		for (final Map.Entry<Thread, StackTraceElement[]> entry : Thread.getAllStackTraces()
+				.entrySet()) {
+			for (final StackTraceElement element : entry.getValue()) {
+				if (element.getClassName().startsWith(ParallelDecoder.class.getName())) {
+					assertTrue(entry.getKey().isDaemon());
+					count++;
+					break;
+				}
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * Thread safe variant of the recording handler
+	 * 
+	 * @author oliver
+	 */
+	private static class ConcurrentRecordingHandler extends RecordingHandler implements
+			ConcurrentOsmHandler {
+		// the list is synchronized already
+	}
+}
@@ -0,0 +1,104 @@
+/**
+ * Copyright (C) 2026 Oliver Schünemann
+ * 
+ * This program is free software; you can redistribute it and/or modify it under the terms of the 
+ * GNU General Public License as published by the Free Software Foundation; either version 2 of 
+ * the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; 
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. 
+ * See the GNU General Public License for more details. 
+ * 
+ * You should have received a copy of the GNU General Public License along with this program; 
+ * if not, write to the Free Software Foundation, Inc., 51 Franklin St, Fifth Floor, 
+ * Boston, MA 02110, USA 
+ * 
+ * @since 19.10.2026
+ * @version 1.0
+ * @author oliver
+ */
+package oc.o5m.reader;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.Test;
+
+/**
+ * @author oliver
+ * 
+ */
+public class O5mStringTableTestCase {
+
+	private static ByteBuffer strings(final String... strings) throws IOException {
+		final ByteArrayOutputStream out = new ByteArrayOutputStream();
+		for (final String string : strings) {
+			out.write(string.getBytes(StandardCharsets.UTF_8));
+			out.write(0);
+		}
+		return ByteBuffer.wrap(out.toByteArray());
+	}
+
+	@Test
+	public void testBackReference() throws IOException {
+		final O5mStringTable table = new O5mStringTable();
+		final String first[] = table.getPair(0, strings("highway", "residential")).clone();
+		table.getPair(0, strings("name", "Straße"));
+		final String second[] = table.getPair(2, null);
+		assertEquals("highway", second[0]);
+		assertEquals("residential", second[1]);
+		assertSame(first[0], second[0]);
+		assertSame(first[1], second[1]);
+		assertEquals("Straße", table.getPair(1, null)[1]);
+		assertEquals("inner", table.getSingle(0, strings("inner")));
+		assertEquals("inner", table.getSingle(1, null));
+	}
+
+	@Test
+	public void testInterning() throws IOException {
+		final O5mStringTable table = new O5mStringTable();
+		final String first = table.getPair(0, strings("highway", "yes"))[0];
+		final String second = table.getPair(0, strings("highway", "no"))[0];
+		assertSame(first, second);
+	}
+
+	@Test
+	public void testLongStrings() throws IOException {
+		final StringBuilder builder = new StringBuilder();
+		for (int i = 0; i < 300; ++i) {
+			builder.append((char) ('a' + i % 26));
+		}
+		final String longValue = builder.toString();
+		final O5mStringTable table = new O5mStringTable();
+		table.getPair(0, strings("key", "value"));
+		assertEquals(longValue, table.getPair(0, strings("description", longValue))[1]);
+		// too long to be stored, the last entry is still the short pair
+		assertEquals("value", table.getPair(1, null)[1]);
+	}
+
+	@Test
+	public void testAuthor() throws IOException {
+		final O5mStringTable table = new O5mStringTable();
+		final ByteBuffer buffer = ByteBuffer.wrap(new byte[] { (byte) 0xfc, 0x07, 0x00, 0x4a,
+				0x6f, 0x68, 0x4e, 0x00 });
+		String author[] = table.getAuthor(0, buffer);
+		assertEquals("1020", author[0]);
+		assertEquals("JohN", author[1]);
+		author = table.getAuthor(1, null);
+		assertEquals("1020", author[0]);
+		assertEquals("JohN", author[1]);
+	}
+
+	@Test(expected = IOException.class)
+	public void testReset() throws IOException {
+		final O5mStringTable table = new O5mStringTable();
+		table.getPair(0, strings("highway", "yes"));
+		table.reset();
+		table.getPair(1, null);
+	}
+}
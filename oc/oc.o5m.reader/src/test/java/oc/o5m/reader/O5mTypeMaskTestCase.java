@@ -0,0 +1,199 @@
+/**
+ * Copyright (C) 2026 Oliver Schünemann
+ * 
+ * This program is free software; you can redistribute it and/or modify it under the terms of the 
+ * GNU General Public License as published by the Free Software Foundation; either version 2 of 
+ * the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; 
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. 
+ * See the GNU General Public License for more details. 
+ * 
+ * You should have received a copy of the GNU General Public License along with this program; 
+ * if not, write to the Free Software Foundation, Inc., 51 Franklin St, Fifth Floor, 
+ * Boston, MA 02110, USA 
+ * 
+ * @since 19.10.2026
+ * @version 1.0
+ * @author oliver
+ */
+package oc.o5m.reader;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import oc.osm.handler.OsmHandler;
+import oc.osm.type.Member;
+import oc.osm.type.Member.Type;
+import oc.osm.type.Node;
+import oc.osm.type.Relation;
+import oc.osm.type.Way;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * @author oliver
+ * 
+ */
+public class O5mTypeMaskTestCase {
+
+	private File file = null;
+
+	@Before
+	public void setup() throws IOException {
+		file = File.createTempFile("mask", "o5m");
+	}
+
+	@After
+	public void tearDown() {
+		file.delete();
+	}
+
+	/**
+	 * Handler recording the elements as text
+	 * 
+	 * @author oliver
+	 */
+	private static class RecordingHandler implements OsmHandler {
+		private final List<String> elements = new ArrayList<>();
+
+		@Override
+		public void newNode(final Node node) throws IOException {
+			elements.add("n" + node.getId() + node.getProps());
+		}
+
+		@Override
+		public void newWay(final Way way) throws IOException {
+			final StringBuilder builder = new StringBuilder("w" + way.getId());
+			for (final Node node : way.getNodes()) {
+				builder.append(',').append(node.getId());
+			}
+			elements.add(builder.append(way.getProps()).toString());
+		}
+
+		@Override
+		public void newRelation(final Relation relation) throws IOException {
+			final StringBuilder builder = new StringBuilder("r" + relation.getId());
+			for (final Member member : relation.getMembers()) {
+				builder.append(',').append(member.getType()).append(':').append(member.getRole());
+			}
+			elements.add(builder.append(relation.getProps()).toString());
+		}
+	}
+
+	private List<String> read(final int typeMask) throws IOException {
+		final O5mReader reader = new O5mReader();
+		reader.setTypeMask(typeMask);
+		final RecordingHandler handler = new RecordingHandler();
+		reader.readFile(file, handler);
+		return handler.elements;
+	}
+
+	private static List<String> filter(final List<String> elements, final String prefix) {
+		final List<String> ret = new ArrayList<>();
+		for (final String element : elements) {
+			if (element.startsWith(prefix)) {
+				ret.add(element);
+			}
+		}
+		return ret;
+	}
+
+	private static void writeSections(final O5mFileBuilder builder, final boolean resets)
+			throws IOException {
+		builder.header().reset();
+		for (int i = 1; i <= 100; ++i) {
+			builder.node(i, i * 10, i * 20, "name", "node" + i % 3);
+			if (i % 25 == 0) {
+				builder.jumpPoint();
+			}
+		}
+		if (resets) {
+			builder.reset();
+		}
+		for (int i = 1; i <= 20; ++i) {
+			builder.way(i, new long[] { i, i + 1 }, "name", "node" + i % 3, "highway", "track");
+		}
+		builder.jumpPoint();
+		if (resets) {
+			builder.reset();
+		}
+		for (int i = 1; i <= 5; ++i) {
+			builder.relation(i, new Type[] { Type.WAY, Type.NODE }, new long[] { i, i },
+					new String[] { "outer", "label" }, "type", "multipolygon", "highway", "track");
+		}
+	}
+
+	@Test
+	public void testSections() throws IOException {
+		final O5mFileBuilder builder = new O5mFileBuilder();
+		writeSections(builder, true);
+		builder.writeTo(file);
+		final List<String> all = read(O5mReader.ALL_TYPES);
+		assertEquals(125, all.size());
+		assertEquals(filter(all, "n"), read(O5mReader.NODES));
+		assertEquals(filter(all, "w"), read(O5mReader.WAYS));
+		assertEquals(filter(all, "r"), read(O5mReader.RELATIONS));
+		final List<String> nodesAndRelations = filter(all, "n");
+		nodesAndRelations.addAll(filter(all, "r"));
+		assertEquals(nodesAndRelations, read(O5mReader.NODES | O5mReader.RELATIONS));
+	}
+
+	/**
+	 * Without reset blocks the strings of the skipped elements are referred to
+	 * by the wanted ones.
+	 * 
+	 * @throws IOException
+	 */
+	@Test
+	public void testSectionsWithoutReset() throws IOException {
+		final O5mFileBuilder builder = new O5mFileBuilder();
+		writeSections(builder, false);
+		builder.writeTo(file);
+		final List<String> all = read(O5mReader.ALL_TYPES);
+		assertEquals(125, all.size());
+		assertEquals(filter(all, "w"), read(O5mReader.WAYS));
+		assertEquals(filter(all, "r"), read(O5mReader.RELATIONS));
+	}
+
+	/**
+	 * The nodes between two jump points contain a broken dataset, which is
+	 * only noticed when the nodes are not jumped over.
+	 * 
+	 * @throws IOException
+	 */
+	@Test
+	public void testJumpPoints() throws IOException {
+		final O5mFileBuilder builder = new O5mFileBuilder();
+		builder.header().reset();
+		builder.node(1, 10, 20, "name", "first");
+		builder.jumpPoint();
+		builder.node(2, 10, 20);
+		builder.raw(O5mReader.NODE_ENTRY, 0xff, 0xff, 0xff, 0x0f);
+		builder.jumpPoint();
+		builder.reset();
+		builder.way(1, new long[] { 1, 2 }, "highway", "track");
+		builder.jumpPoint();
+		builder.reset();
+		builder.relation(1, new Type[] { Type.WAY }, new long[] { 1 }, new String[] { "outer" },
+				"type", "multipolygon");
+		builder.writeTo(file);
+		final List<String> relations = read(O5mReader.RELATIONS);
+		assertEquals(1, relations.size());
+		assertEquals("r1,WAY:outer{type=multipolygon}", relations.get(0));
+		try {
+			read(O5mReader.ALL_TYPES);
+			fail("Broken dataset was not noticed");
+		} catch (final EOFException e) {
+			// expected, the length of the broken node runs behind the file
+		}
+	}
+}
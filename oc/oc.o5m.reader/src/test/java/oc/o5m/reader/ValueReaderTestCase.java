@@ -20,6 +20,7 @@
 package oc.o5m.reader;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
 
 import java.io.IOException;
 import java.nio.ByteBuffer;
@@ -143,4 +144,46 @@ public class ValueReaderTestCase {
 		assertEquals(pair[1], "JohN");
 	}
 
+	/**
+	 * Two nodes with the same author, the second one refers to the author and
+	 * the tag of the first one.
+	 */
+	private static final byte NODES_WITH_AUTHOR[][] = new byte[][] {
+			{ 0x02, 0x01, 0x02, 0x02, 0x00, (byte) 0xfc, 0x07, 0x00, 0x4a, 0x6f, 0x00, 0x00, 0x00,
+					0x00, 0x61, 0x00, 0x62, 0x00 },
+			{ 0x02, 0x01, 0x02, 0x02, 0x02, 0x00, 0x00, 0x01 } };
+
+	/**
+	 * Test method for
+	 * {@link oc.o5m.reader.O5mReader#setSkipMetadata(boolean)}
+	 * .
+	 */
+	@Test
+	public void testSkipMetadata() throws IOException {
+		final O5mReader reader = new O5mReader();
+		O5mNode node = new O5mNode();
+		for (final byte data[] : NODES_WITH_AUTHOR) {
+			node.readFromBuffer(ByteBuffer.wrap(data), reader);
+			assertEquals(1, node.getVersion());
+			assertEquals("1020", node.getUid());
+			assertEquals("Jo", node.getAuthor());
+			assertEquals(1, node.getTagCount());
+			assertEquals("a", node.getKeys()[0]);
+			assertEquals("b", node.getValues()[0]);
+		}
+		final O5mReader skipping = new O5mReader();
+		skipping.setSkipMetadata(true);
+		node = new O5mNode();
+		for (final byte data[] : NODES_WITH_AUTHOR) {
+			node.readFromBuffer(ByteBuffer.wrap(data), skipping);
+			assertEquals(0, node.getVersion());
+			assertNull(node.getUid());
+			assertNull(node.getAuthor());
+			assertEquals(1, node.getTagCount());
+			assertEquals("a", node.getKeys()[0]);
+			assertEquals("b", node.getValues()[0]);
+		}
+		assertEquals(2, node.getNodeId());
+	}
+
 }
@@ -0,0 +1,32 @@
+/**
+ * Copyright (C) 2026 Oliver Schünemann
+ * 
+ * This program is free software; you can redistribute it and/or modify it under the terms of the 
+ * GNU General Public License as published by the Free Software Foundation; either version 2 of 
+ * the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; 
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. 
+ * See the GNU General Public License for more details. 
+ * 
+ * You should have received a copy of the GNU General Public License along with this program; 
+ * if not, write to the Free Software Foundation, Inc., 51 Franklin St, Fifth Floor, 
+ * Boston, MA 02110, USA 
+ * 
+ * @since 19.10.2026
+ * @version 1.0
+ * @author oliver
+ */
+package oc.osm.handler;
+
+/**
+ * Handler that may be called from several threads at the same time and does
+ * not need the elements in the order of the source file. Readers decoding a
+ * file in parallel hand the elements to such a handler directly from their
+ * threads, instead of bringing them into file order first.
+ * 
+ * @author oliver
+ */
+public interface ConcurrentOsmHandler extends OsmHandler {
+	// marker for handlers that are thread safe and independent of the order
+}
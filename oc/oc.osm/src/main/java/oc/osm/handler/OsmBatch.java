@@ -0,0 +1,126 @@
+/**
+ * Copyright (C) 2026 Oliver Schünemann
+ * 
+ * This program is free software; you can redistribute it and/or modify it under the terms of the 
+ * GNU General Public License as published by the Free Software Foundation; either version 2 of 
+ * the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; 
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. 
+ * See the GNU General Public License for more details. 
+ * 
+ * You should have received a copy of the GNU General Public License along with this program; 
+ * if not, write to the Free Software Foundation, Inc., 51 Franklin St, Fifth Floor, 
+ * Boston, MA 02110, USA 
+ * 
+ * @since 19.10.2026
+ * @version 1.0
+ * @author oliver
+ */
+package oc.osm.handler;
+
+import java.util.Arrays;
+
+/**
+ * A batch of elements of one type, handed to an {@link OsmBatchHandler} at
+ * once instead of element by element. Batches are taken from an
+ * {@link OsmBatchPool} and reused: the handler gives a batch back by calling
+ * {@link #recycle()} as soon as it is done with the elements, which may be
+ * after the call of the handler returned.
+ * 
+ * @author oliver
+ */
+public final class OsmBatch<T> {
+	private final OsmBatchPool<T> pool;
+	private final Object elements[];
+	private int size = 0;
+
+	/**
+	 * Creates a batch that does not belong to a pool
+	 * 
+	 * @param capacity
+	 *            maximum number of elements in the batch
+	 */
+	public OsmBatch(final int capacity) {
+		this(null, capacity);
+	}
+
+	/**
+	 * @param pool
+	 *            the pool the batch is given back to, may be null
+	 * @param capacity
+	 *            maximum number of elements in the batch
+	 */
+	OsmBatch(final OsmBatchPool<T> pool, final int capacity) {
+		super();
+		this.pool = pool;
+		elements = new Object[capacity];
+	}
+
+	/**
+	 * @param element
+	 *            element to append
+	 * @throws IllegalStateException
+	 *             when the batch is full
+	 */
+	public void add(final T element) {
+		if (size == elements.length) {
+			throw new IllegalStateException("Batch of " + size + " elements is full");
+		}
+		elements[size++] = element;
+	}
+
+	/**
+	 * @param index
+	 *            index of the element in the batch
+	 * @return the element
+	 */
+	@SuppressWarnings("unchecked")
+	public T get(final int index) {
+		if (index >= size) {
+			throw new IndexOutOfBoundsException("Index " + index + " of a batch with " + size
+					+ " elements");
+		}
+		return (T) elements[index];
+	}
+
+	/**
+	 * @return number of elements in the batch
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * @return true when no element fits into the batch anymore
+	 */
+	public boolean isFull() {
+		return size == elements.length;
+	}
+
+	/**
+	 * @return true when the batch has no elements
+	 */
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * Forgets the elements, so that they can be garbage collected
+	 */
+	public void clear() {
+		Arrays.fill(elements, 0, size, null);
+		size = 0;
+	}
+
+	/**
+	 * Clears the batch and gives it back to its pool. The batch must not be
+	 * used anymore afterwards.
+	 */
+	public void recycle() {
+		clear();
+		if (pool != null) {
+			pool.giveBack(this);
+		}
+	}
+}
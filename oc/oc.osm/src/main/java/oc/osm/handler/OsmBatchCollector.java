@@ -0,0 +1,139 @@
+/**
+ * Copyright (C) 2026 Oliver Schünemann
+ * 
+ * This program is free software; you can redistribute it and/or modify it under the terms of the 
+ * GNU General Public License as published by the Free Software Foundation; either version 2 of 
+ * the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; 
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. 
+ * See the GNU General Public License for more details. 
+ * 
+ * You should have received a copy of the GNU General Public License along with this program; 
+ * if not, write to the Free Software Foundation, Inc., 51 Franklin St, Fifth Floor, 
+ * Boston, MA 02110, USA 
+ * 
+ * @since 19.10.2026
+ * @version 1.0
+ * @author oliver
+ */
+package oc.osm.handler;
+
+import java.io.IOException;
+
+import oc.osm.type.Node;
+import oc.osm.type.Relation;
+import oc.osm.type.Way;
+
+/**
+ * Collects the elements a reader hands to an {@link OsmHandler} into batches
+ * for an {@link OsmBatchHandler}. A batch is handed over when it is full or
+ * when an element of another type follows, so the batch handler gets the
+ * elements in the order of the file. The batches are taken from one pool per
+ * type, so a reader waits when the batch handler falls behind.
+ * 
+ * The reader must not reuse the elements it hands over, and
+ * {@link #flush()} must be called after the last element.
+ * 
+ * @author oliver
+ */
+public class OsmBatchCollector implements OsmHandler {
+	private final OsmBatchHandler handler;
+	private final OsmBatchPool<Node> nodePool;
+	private final OsmBatchPool<Way> wayPool;
+	private final OsmBatchPool<Relation> relationPool;
+	private OsmBatch<Node> nodes = null;
+	private OsmBatch<Way> ways = null;
+	private OsmBatch<Relation> relations = null;
+
+	/**
+	 * @param handler
+	 *            the handler getting the batches
+	 * @param batches
+	 *            number of batches of each type
+	 * @param capacity
+	 *            maximum number of elements in a batch
+	 */
+	public OsmBatchCollector(final OsmBatchHandler handler, final int batches,
+			final int capacity) {
+		super();
+		this.handler = handler;
+		nodePool = new OsmBatchPool<>(batches, capacity);
+		wayPool = new OsmBatchPool<>(batches, capacity);
+		relationPool = new OsmBatchPool<>(batches, capacity);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see oc.osm.handler.OsmHandler#newNode(oc.osm.type.Node)
+	 */
+	@Override
+	public void newNode(final Node node) throws IOException {
+		if (nodes == null) {
+			flush();
+			nodes = nodePool.take();
+		}
+		nodes.add(node);
+		if (nodes.isFull()) {
+			flush();
+		}
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see oc.osm.handler.OsmHandler#newWay(oc.osm.type.Way)
+	 */
+	@Override
+	public void newWay(final Way way) throws IOException {
+		if (ways == null) {
+			flush();
+			ways = wayPool.take();
+		}
+		ways.add(way);
+		if (ways.isFull()) {
+			flush();
+		}
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see oc.osm.handler.OsmHandler#newRelation(oc.osm.type.Relation)
+	 */
+	@Override
+	public void newRelation(final Relation relation) throws IOException {
+		if (relations == null) {
+			flush();
+			relations = relationPool.take();
+		}
+		relations.add(relation);
+		if (relations.isFull()) {
+			flush();
+		}
+	}
+
+	/**
+	 * Hands the batch collected so far to the batch handler
+	 * 
+	 * @throws IOException
+	 *             when the batch handler fails
+	 */
+	public void flush() throws IOException {
+		// at most one batch is open, the others were handed over at the switch
+		if (nodes != null) {
+			final OsmBatch<Node> batch = nodes;
+			nodes = null;
+			handler.newNodes(batch);
+		} else if (ways != null) {
+			final OsmBatch<Way> batch = ways;
+			ways = null;
+			handler.newWays(batch);
+		} else if (relations != null) {
+			final OsmBatch<Relation> batch = relations;
+			relations = null;
+			handler.newRelations(batch);
+		}
+	}
+}
@@ -0,0 +1,61 @@
+/**
+ * Copyright (C) 2026 Oliver Schünemann
+ * 
+ * This program is free software; you can redistribute it and/or modify it under the terms of the 
+ * GNU General Public License as published by the Free Software Foundation; either version 2 of 
+ * the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; 
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. 
+ * See the GNU General Public License for more details. 
+ * 
+ * You should have received a copy of the GNU General Public License along with this program; 
+ * if not, write to the Free Software Foundation, Inc., 51 Franklin St, Fifth Floor, 
+ * Boston, MA 02110, USA 
+ * 
+ * @since 19.10.2026
+ * @version 1.0
+ * @author oliver
+ */
+package oc.osm.handler;
+
+import java.io.IOException;
+
+import oc.osm.type.Node;
+import oc.osm.type.Relation;
+import oc.osm.type.Way;
+
+/**
+ * Handler getting the elements of a source file in batches, see
+ * {@link OsmBatchCollector}. The batches arrive in the order of the file, a
+ * batch holds elements of one type only. The handler owns a batch until it
+ * calls {@link OsmBatch#recycle()}, so it may pass it on to other threads.
+ * 
+ * @author oliver
+ */
+public interface OsmBatchHandler {
+
+	/**
+	 * Called for every batch of nodes in the source file
+	 * 
+	 * @param nodes
+	 * @throws IOException
+	 */
+	void newNodes(OsmBatch<Node> nodes) throws IOException;
+
+	/**
+	 * Called for every batch of ways in the source file
+	 * 
+	 * @param ways
+	 * @throws IOException
+	 */
+	void newWays(OsmBatch<Way> ways) throws IOException;
+
+	/**
+	 * Called for every batch of relations in the source file
+	 * 
+	 * @param relations
+	 * @throws IOException
+	 */
+	void newRelations(OsmBatch<Relation> relations) throws IOException;
+}
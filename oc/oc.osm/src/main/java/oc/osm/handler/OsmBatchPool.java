@@ -0,0 +1,74 @@
+/**
+ * Copyright (C) 2026 Oliver Schünemann
+ * 
+ * This program is free software; you can redistribute it and/or modify it under the terms of the 
+ * GNU General Public License as published by the Free Software Foundation; either version 2 of 
+ * the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; 
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. 
+ * See the GNU General Public License for more details. 
+ * 
+ * You should have received a copy of the GNU General Public License along with this program; 
+ * if not, write to the Free Software Foundation, Inc., 51 Franklin St, Fifth Floor, 
+ * Boston, MA 02110, USA 
+ * 
+ * @since 19.10.2026
+ * @version 1.0
+ * @author oliver
+ */
+package oc.osm.handler;
+
+import java.io.InterruptedIOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * A fixed number of reusable {@link OsmBatch}es. Taking a batch blocks while
+ * all of them are in use, so the pool bounds the number of elements on their
+ * way from a reader to a slower consumer.
+ * 
+ * @author oliver
+ */
+public final class OsmBatchPool<T> {
+	private final BlockingQueue<OsmBatch<T>> free;
+
+	/**
+	 * @param batches
+	 *            number of batches in the pool
+	 * @param capacity
+	 *            maximum number of elements in each batch
+	 */
+	public OsmBatchPool(final int batches, final int capacity) {
+		super();
+		if (batches < 1 || capacity < 1) {
+			throw new IllegalArgumentException("Pool needs at least one batch of one element");
+		}
+		free = new ArrayBlockingQueue<>(batches);
+		for (int i = 0; i < batches; ++i) {
+			free.add(new OsmBatch<>(this, capacity));
+		}
+	}
+
+	/**
+	 * @return an empty batch, waits until one is recycled when all are in use
+	 * @throws InterruptedIOException
+	 *             when the thread is interrupted while waiting
+	 */
+	public OsmBatch<T> take() throws InterruptedIOException {
+		try {
+			return free.take();
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Interrupted while waiting for a free batch");
+		}
+	}
+
+	/**
+	 * @param batch
+	 *            a recycled batch of this pool
+	 */
+	void giveBack(final OsmBatch<T> batch) {
+		free.add(batch);
+	}
+}
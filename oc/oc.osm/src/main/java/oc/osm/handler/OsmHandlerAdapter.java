@@ -0,0 +1,141 @@
+/**
+ * Copyright (C) 2026 Oliver Schünemann
+ * 
+ * This program is free software; you can redistribute it and/or modify it under the terms of the 
+ * GNU General Public License as published by the Free Software Foundation; either version 2 of 
+ * the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; 
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. 
+ * See the GNU General Public License for more details. 
+ * 
+ * You should have received a copy of the GNU General Public License along with this program; 
+ * if not, write to the Free Software Foundation, Inc., 51 Franklin St, Fifth Floor, 
+ * Boston, MA 02110, USA 
+ * 
+ * @since 19.10.2026
+ * @version 1.0
+ * @author oliver
+ */
+package oc.osm.handler;
+
+import java.io.IOException;
+
+import oc.osm.type.Member;
+import oc.osm.type.Member.Type;
+import oc.osm.type.Node;
+import oc.osm.type.Relation;
+import oc.osm.type.Way;
+
+/**
+ * Builds Node, Way and Relation instances from the primitive callbacks and
+ * hands them to an {@link OsmHandler}. Every callback creates new instances,
+ * so the handler may keep them.
+ * 
+ * @author oliver
+ */
+public class OsmHandlerAdapter implements PrimitiveOsmHandler {
+	private final OsmHandler handler;
+
+	/**
+	 * @param handler
+	 *            handler getting the elements
+	 */
+	public OsmHandlerAdapter(final OsmHandler handler) {
+		super();
+		this.handler = handler;
+	}
+
+	/**
+	 * @return the handler getting the elements
+	 */
+	public OsmHandler getHandler() {
+		return handler;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see oc.osm.handler.PrimitiveOsmHandler#node(long, int, int,
+	 * java.lang.String[], java.lang.String[], int)
+	 */
+	@Override
+	public void node(final long id, final int lat, final int lon, final String[] keys,
+			final String[] values, final int tags) throws IOException {
+		final Node node = new Node();
+		node.setId(id);
+		node.setLat(lat);
+		node.setLon(lon);
+		for (int i = 0; i < tags; ++i) {
+			node.addProperty(keys[i], values[i]);
+		}
+		handler.newNode(node);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see oc.osm.handler.PrimitiveOsmHandler#way(long, long[], int,
+	 * java.lang.String[], java.lang.String[], int)
+	 */
+	@Override
+	@SuppressWarnings("PMD.AvoidInstantiatingObjectsInLoops")
+	public void way(final long id, final long[] refs, final int refCount, final String[] keys,
+			final String[] values, final int tags) throws IOException {
+		final Way way = new Way();
+		way.setId(id);
+		for (int i = 0; i < tags; ++i) {
+			way.addProperty(keys[i], values[i]);
+		}
+		for (int i = 0; i < refCount; ++i) {
+			final Node node = new Node();
+			node.setId(refs[i]);
+			way.addNode(node);
+		}
+		handler.newWay(way);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see oc.osm.handler.PrimitiveOsmHandler#relation(long,
+	 * oc.osm.type.Member.Type[], long[], java.lang.String[], int,
+	 * java.lang.String[], java.lang.String[], int)
+	 */
+	@Override
+	@SuppressWarnings("PMD.AvoidInstantiatingObjectsInLoops")
+	public void relation(final long id, final Type[] memberTypes, final long[] memberIds,
+			final String[] roles, final int memberCount, final String[] keys,
+			final String[] values, final int tags) throws IOException {
+		final Relation relation = new Relation();
+		relation.setId(id);
+		for (int i = 0; i < tags; ++i) {
+			relation.addProperty(keys[i], values[i]);
+		}
+		for (int i = 0; i < memberCount; ++i) {
+			final Member member = new Member();
+			member.setRole(roles[i]);
+			switch (memberTypes[i]) {
+			case NODE:
+				final Node node = new Node();
+				node.setId(memberIds[i]);
+				member.setRef(node);
+				break;
+			case WAY:
+				final Way way = new Way();
+				way.setId(memberIds[i]);
+				member.setRef(way);
+				break;
+			case RELATION:
+				final Relation rel = new Relation();
+				rel.setId(memberIds[i]);
+				member.setRef(rel);
+				break;
+			default:
+				continue;
+			}
+			relation.addMember(member);
+		}
+		handler.newRelation(relation);
+	}
+}
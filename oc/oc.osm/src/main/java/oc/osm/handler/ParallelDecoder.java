@@ -0,0 +1,300 @@
+/**
+ * Copyright (C) 2026 Oliver Schünemann
+ * 
+ * This program is free software; you can redistribute it and/or modify it under the terms of the 
+ * GNU General Public License as published by the Free Software Foundation; either version 2 of 
+ * the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; 
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. 
+ * See the GNU General Public License for more details. 
+ * 
+ * You should have received a copy of the GNU General Public License along with this program; 
+ * if not, write to the Free Software Foundation, Inc., 51 Franklin St, Fifth Floor, 
+ * Boston, MA 02110, USA 
+ * 
+ * @since 19.10.2026
+ * @version 1.0
+ * @author oliver
+ */
+package oc.osm.handler;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import oc.osm.type.Node;
+import oc.osm.type.Relation;
+import oc.osm.type.Way;
+
+/**
+ * Decodes the independent parts of a source file with several threads. The
+ * readers split their files into tasks and implement the decoding of a
+ * single task.
+ * 
+ * The decoded elements of each task are collected in batches and put into a
+ * bounded queue of the task. The calling thread takes the batches task by task
+ * and calls the handler, so the handler gets the elements in file order. As
+ * the tasks are started in file order, the task the caller waits for is always
+ * running. A {@link ConcurrentOsmHandler} is called directly by the decoding
+ * threads instead.
+ * 
+ * When the handler or a task fails, the remaining tasks are cancelled. Their
+ * threads are daemon threads, a thread that does not end cannot keep the JVM
+ * alive after a failed conversion.
+ * 
+ * @author oliver
+ */
+public abstract class ParallelDecoder {
+	private static final int BATCH_SIZE = 1024;
+	private static final int QUEUE_CAPACITY = 4;
+
+	private final String source;
+	private final int threads;
+
+	/**
+	 * @param source
+	 *            name of the decoded file for the messages
+	 * @param threads
+	 *            number of threads decoding the tasks
+	 */
+	protected ParallelDecoder(final String source, final int threads) {
+		super();
+		this.source = source;
+		this.threads = threads;
+	}
+
+	/**
+	 * Decodes a single task.
+	 * 
+	 * @param task
+	 *            start and end position of the task
+	 * @param handler
+	 *            callback for the elements
+	 * @throws IOException
+	 */
+	protected abstract void decode(long[] task, OsmHandler handler) throws IOException;
+
+	/**
+	 * Decodes all tasks and waits for them.
+	 * 
+	 * @param tasks
+	 *            start and end position of each task
+	 * @param handler
+	 *            callback for the elements
+	 * @throws IOException
+	 *             the first failure of a task
+	 */
+	public void decode(final List<long[]> tasks, final OsmHandler handler) throws IOException {
+		final ExecutorService executor = Executors.newFixedThreadPool(threads, new ThreadFactory() {
+			private final AtomicInteger counter = new AtomicInteger();
+
+			@Override
+			public Thread newThread(final Runnable r) {
+				final Thread thread = new Thread(r, "Decode " + source + " #"
+						+ counter.incrementAndGet());
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+		try {
+			if (handler instanceof ConcurrentOsmHandler) {
+				decodeUnordered(executor, tasks, handler);
+			} else {
+				decodeOrdered(executor, tasks, handler);
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	/**
+	 * Lets the threads call the handler directly.
+	 */
+	private void decodeUnordered(final ExecutorService executor, final List<long[]> tasks,
+			final OsmHandler handler) throws IOException {
+		final List<Future<Void>> futures = new ArrayList<>();
+		for (final long[] task : tasks) {
+			futures.add(executor.submit(new Callable<Void>() {
+				@Override
+				public Void call() throws IOException {
+					decode(task, handler);
+					return null;
+				}
+			}));
+		}
+		for (final Future<Void> future : futures) {
+			try {
+				future.get();
+			} catch (final InterruptedException e) {
+				throw new InterruptedIOException("Interrupted while decoding " + source);
+			} catch (final ExecutionException e) {
+				throw toIOException(e.getCause());
+			}
+		}
+	}
+
+	/**
+	 * Brings the elements decoded by the threads into file order. When the
+	 * handler fails, the tasks are cancelled and their queues cleared, so no
+	 * thread waits for room in a queue that is no longer taken from.
+	 */
+	private void decodeOrdered(final ExecutorService executor, final List<long[]> tasks,
+			final OsmHandler handler) throws IOException {
+		final AtomicBoolean cancelled = new AtomicBoolean(false);
+		final List<BlockingQueue<Batch>> queues = new ArrayList<>();
+		for (final long[] task : tasks) {
+			final BlockingQueue<Batch> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+			queues.add(queue);
+			executor.submit(new Callable<Void>() {
+				@Override
+				public Void call() throws InterruptedException {
+					final BatchingHandler batches = new BatchingHandler(queue, cancelled);
+					Throwable error = null;
+					try {
+						decode(task, batches);
+					} catch (final Throwable t) {
+						error = t;
+					}
+					batches.finish(error);
+					return null;
+				}
+			});
+		}
+		try {
+			for (final BlockingQueue<Batch> queue : queues) {
+				Batch batch;
+				do {
+					batch = queue.take();
+					for (final Object element : batch.elements) {
+						if (element instanceof Node) {
+							handler.newNode((Node) element);
+						} else if (element instanceof Way) {
+							handler.newWay((Way) element);
+						} else {
+							handler.newRelation((Relation) element);
+						}
+					}
+				} while (!batch.last);
+				if (batch.error != null) {
+					throw toIOException(batch.error);
+				}
+			}
+		} catch (final InterruptedException e) {
+			throw new InterruptedIOException("Interrupted while decoding " + source);
+		} finally {
+			cancelled.set(true);
+			for (final BlockingQueue<Batch> queue : queues) {
+				queue.clear();
+			}
+		}
+	}
+
+	/**
+	 * @param t
+	 *            failure of a decoding thread
+	 * @return the failure as IOException
+	 */
+	private IOException toIOException(final Throwable t) {
+		if (t instanceof IOException) {
+			return (IOException) t;
+		}
+		return new IOException("Failed to decode " + source, t);
+	}
+
+	/**
+	 * Elements decoded by a task, the last batch of a task carries the failure
+	 * of the task if there was one.
+	 * 
+	 * @author oliver
+	 */
+	private static class Batch {
+		private final List<Object> elements;
+		private final boolean last;
+		private final Throwable error;
+
+		public Batch(final List<Object> elements, final boolean last, final Throwable error) {
+			super();
+			this.elements = elements;
+			this.last = last;
+			this.error = error;
+		}
+	}
+
+	/**
+	 * Handler collecting the elements of a task into batches.
+	 * 
+	 * @author oliver
+	 */
+	private static class BatchingHandler implements OsmHandler {
+		private final BlockingQueue<Batch> queue;
+		private final AtomicBoolean cancelled;
+		private List<Object> elements = new ArrayList<>(BATCH_SIZE);
+
+		public BatchingHandler(final BlockingQueue<Batch> queue, final AtomicBoolean cancelled) {
+			super();
+			this.queue = queue;
+			this.cancelled = cancelled;
+		}
+
+		private void add(final Object element) throws IOException {
+			if (cancelled.get()) {
+				throw new InterruptedIOException("Reading was cancelled");
+			}
+			elements.add(element);
+			if (elements.size() >= BATCH_SIZE) {
+				try {
+					queue.put(new Batch(elements, false, null));
+				} catch (final InterruptedException e) {
+					throw new InterruptedIOException("Reading was cancelled");
+				}
+				elements = new ArrayList<>(BATCH_SIZE);
+			}
+		}
+
+		/**
+		 * Puts the remaining elements as last batch. Once the decoding is
+		 * cancelled, nobody takes from the queue any more, the batch is only
+		 * offered then.
+		 * 
+		 * @param error
+		 *            failure of the task, null when it succeeded
+		 * @throws InterruptedException
+		 *             when the thread is interrupted while waiting for room
+		 */
+		public void finish(final Throwable error) throws InterruptedException {
+			final Batch batch = new Batch(elements, true, error);
+			if (cancelled.get()) {
+				queue.offer(batch);
+			} else {
+				queue.put(batch);
+			}
+		}
+
+		@Override
+		public void newNode(final Node node) throws IOException {
+			add(node);
+		}
+
+		@Override
+		public void newWay(final Way way) throws IOException {
+			add(way);
+		}
+
+		@Override
+		public void newRelation(final Relation relation) throws IOException {
+			add(relation);
+		}
+	}
+}
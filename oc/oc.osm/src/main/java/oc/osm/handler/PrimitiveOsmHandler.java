@@ -0,0 +1,101 @@
+/**
+ * Copyright (C) 2026 Oliver Schünemann
+ * 
+ * This program is free software; you can redistribute it and/or modify it under the terms of the 
+ * GNU General Public License as published by the Free Software Foundation; either version 2 of 
+ * the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; 
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. 
+ * See the GNU General Public License for more details. 
+ * 
+ * You should have received a copy of the GNU General Public License along with this program; 
+ * if not, write to the Free Software Foundation, Inc., 51 Franklin St, Fifth Floor, 
+ * Boston, MA 02110, USA 
+ * 
+ * @since 19.10.2026
+ * @version 1.0
+ * @author oliver
+ */
+package oc.osm.handler;
+
+import java.io.IOException;
+
+import oc.osm.type.Member.Type;
+
+/**
+ * Low level callback of the source file readers that gets the elements as
+ * primitive values instead of Node, Way and Relation instances. The readers
+ * reuse the arrays between the callbacks, so the handler must copy whatever it
+ * wants to keep. Only the first entries up to the given count of an array are
+ * valid, the arrays may be longer.
+ * 
+ * @see OsmHandlerAdapter for calling an {@link OsmHandler}
+ * @author oliver
+ */
+public interface PrimitiveOsmHandler {
+
+	/**
+	 * Called once for every node in the source file
+	 * 
+	 * @param id
+	 *            id of the node
+	 * @param lat
+	 *            latitude in 1e-7 degrees
+	 * @param lon
+	 *            longitude in 1e-7 degrees
+	 * @param keys
+	 *            keys of the tags
+	 * @param values
+	 *            values of the tags
+	 * @param tags
+	 *            number of tags
+	 * @throws IOException
+	 */
+	void node(long id, int lat, int lon, String keys[], String values[], int tags)
+			throws IOException;
+
+	/**
+	 * Called once for every way in the source file
+	 * 
+	 * @param id
+	 *            id of the way
+	 * @param refs
+	 *            ids of the nodes of the way
+	 * @param refCount
+	 *            number of nodes
+	 * @param keys
+	 *            keys of the tags
+	 * @param values
+	 *            values of the tags
+	 * @param tags
+	 *            number of tags
+	 * @throws IOException
+	 */
+	void way(long id, long refs[], int refCount, String keys[], String values[], int tags)
+			throws IOException;
+
+	/**
+	 * Called once for every relation in the source file
+	 * 
+	 * @param id
+	 *            id of the relation
+	 * @param memberTypes
+	 *            types of the members
+	 * @param memberIds
+	 *            ids of the members
+	 * @param roles
+	 *            roles of the members
+	 * @param memberCount
+	 *            number of members
+	 * @param keys
+	 *            keys of the tags
+	 * @param values
+	 *            values of the tags
+	 * @param tags
+	 *            number of tags
+	 * @throws IOException
+	 */
+	void relation(long id, Type memberTypes[], long memberIds[], String roles[], int memberCount,
+			String keys[], String values[], int tags) throws IOException;
+}
@@ -24,6 +24,7 @@ import java.io.IOException;
 import java.io.ObjectInput;
 import java.io.ObjectOutput;
 
+import oc.io.HeapSized;
 import oc.io.StreamIo;
 
 /**
@@ -31,7 +32,12 @@ import oc.io.StreamIo;
  * 
  * @author oliver
  */
-public class Member implements Externalizable {
+public class Member implements Externalizable, HeapSized {
+	/**
+	 * Object header, fields, slot in the member list and the role string
+	 * without its characters
+	 */
+	private static final int HEAP_SIZE = 72;
 
 	public enum Type {
 		NODE, WAY, RELATION, MAX
@@ -47,6 +53,20 @@ public class Member implements Externalizable {
 		super();
 	}
 
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see oc.io.HeapSized#getHeapSize()
+	 */
+	@Override
+	public long getHeapSize() {
+		long size = HEAP_SIZE + role.length();
+		if (ref instanceof HeapSized) {
+			size += ((HeapSized) ref).getHeapSize();
+		}
+		return size;
+	}
+
 	/*
 	 * (non-Javadoc)
 	 * 
@@ -54,7 +74,8 @@ public class Member implements Externalizable {
 	 */
 	@Override
 	public void writeExternal(final ObjectOutput out) throws IOException {
-		StreamIo.writeString(out, role);
+		StreamIo.writeFormat(out);
+		StreamIo.writeSampledString(out, role);
 		out.writeByte(type.ordinal());
 		if (!Type.MAX.equals(type)) {
 			ref.writeExternal(out);
@@ -68,7 +89,12 @@ public class Member implements Externalizable {
 	 */
 	@Override
 	public void readExternal(final ObjectInput in) throws IOException, ClassNotFoundException {
-		role = StreamIo.readString(in);
+		final int format = StreamIo.readFormat(in);
+		if (format == StreamIo.FORMAT_VARINT) {
+			role = StreamIo.readCompactString(in);
+		} else {
+			role = StreamIo.completeString(in, format);
+		}
 		type = types[in.readByte()];
 		switch (type) {
 		case NODE:
@@ -19,6 +19,8 @@
  */
 package oc.osm.type;
 
+import java.io.DataInput;
+import java.io.DataOutput;
 import java.io.Externalizable;
 import java.io.IOException;
 import java.io.ObjectInput;
@@ -28,6 +30,7 @@ import java.util.Map;
 import java.util.Set;
 
 import oc.io.ExternalizableFactory;
+import oc.io.HeapSized;
 import oc.io.StreamIo;
 
 /**
@@ -41,7 +44,15 @@ import oc.io.StreamIo;
  * 
  * @author oliver
  */
-public class Node implements Externalizable {
+public class Node implements Externalizable, HeapSized {
+	/**
+	 * Object header, fields and empty property map of a Node on the heap
+	 */
+	static final int HEAP_SIZE = 104;
+	/**
+	 * Map entry and the two strings of a property without their characters
+	 */
+	private static final int PROPERTY_HEAP_SIZE = 112;
 
 	protected long id = 0;
 	protected int lat = 0;
@@ -138,11 +149,24 @@ public class Node implements Externalizable {
 	/*
 	 * (non-Javadoc)
 	 * 
-	 * @see java.io.Externalizable#writeExternal(java.io.ObjectOutput)
+	 * @see oc.io.HeapSized#getHeapSize()
 	 */
 	@Override
-	public void writeExternal(final ObjectOutput out) throws IOException {
-		writeExternal(out, true);
+	public long getHeapSize() {
+		return HEAP_SIZE + propsHeapSize(props);
+	}
+
+	/**
+	 * @param props
+	 *            properties of an element
+	 * @return estimated amount of heap bytes the properties use
+	 */
+	static long propsHeapSize(final Map<String, String> props) {
+		long size = 0;
+		for (final Map.Entry<String, String> entry : props.entrySet()) {
+			size += PROPERTY_HEAP_SIZE + entry.getKey().length() + entry.getValue().length();
+		}
+		return size;
 	}
 
 	/*
@@ -150,19 +174,30 @@ public class Node implements Externalizable {
 	 * 
 	 * @see java.io.Externalizable#writeExternal(java.io.ObjectOutput)
 	 */
+	@Override
+	public void writeExternal(final ObjectOutput out) throws IOException {
+		writeExternal(out, true);
+	}
+
+	/**
+	 * Writes the node in the {@link StreamIo#FORMAT_VARINT} format
+	 * 
+	 * @param out
+	 *            destination
+	 * @param containProps
+	 *            false to write the node without its properties
+	 * @throws IOException
+	 */
 	public void writeExternal(final ObjectOutput out, final boolean containProps)
 			throws IOException {
-		out.writeLong(id);
-		out.writeInt(lat);
-		out.writeInt(lon);
-		if (containProps && !props.isEmpty()) {
-			out.writeInt(keySet.size());
-			for (final String key : keySet) {
-				StreamIo.writeString(out, key);
-				StreamIo.writeString(out, props.get(key));
-			}
+		StreamIo.writeFormat(out);
+		StreamIo.writeSignedVarint(out, id);
+		StreamIo.writeSignedVarint(out, lat);
+		StreamIo.writeSignedVarint(out, lon);
+		if (containProps) {
+			writeProps(out, props);
 		} else {
-			out.writeInt(0);
+			StreamIo.writeVarint(out, 0);
 		}
 	}
 
@@ -173,10 +208,97 @@ public class Node implements Externalizable {
 	 */
 	@Override
 	public void readExternal(final ObjectInput in) throws IOException, ClassNotFoundException {
+		readExternal(in, true);
+	}
+
+	/**
+	 * Counterpart of {@link #writeExternal(ObjectOutput, boolean)}, reads the
+	 * format before as well
+	 * 
+	 * @param in
+	 *            source of the node
+	 * @param containProps
+	 *            false to skip the properties instead of reading them
+	 * @throws IOException
+	 */
+	public void readExternal(final ObjectInput in, final boolean containProps)
+			throws IOException {
 		props.clear();
-		id = in.readLong();
-		lat = in.readInt();
-		lon = in.readInt();
+		final int format = StreamIo.readFormat(in);
+		if (format != StreamIo.FORMAT_VARINT) {
+			id = StreamIo.completeLong(in, format);
+			lat = in.readInt();
+			lon = in.readInt();
+			if (containProps) {
+				readFixedProps(in, props);
+			} else {
+				final int size = in.readInt();
+				for (int i = 0; i < size; ++i) {
+					StreamIo.skipString(in);
+					StreamIo.skipString(in);
+				}
+			}
+			return;
+		}
+		id = StreamIo.readSignedVarint(in);
+		lat = (int) StreamIo.readSignedVarint(in);
+		lon = (int) StreamIo.readSignedVarint(in);
+		if (containProps) {
+			readProps(in, props);
+		} else {
+			final int size = StreamIo.readSize(in);
+			for (int i = 0; i < size; ++i) {
+				StreamIo.skipProperty(in);
+			}
+		}
+	}
+
+	/**
+	 * Writes properties in the {@link StreamIo#FORMAT_VARINT} format
+	 * 
+	 * @param out
+	 *            destination
+	 * @param props
+	 *            properties of an element
+	 * @throws IOException
+	 */
+	static void writeProps(final DataOutput out, final Map<String, String> props)
+			throws IOException {
+		StreamIo.writeVarint(out, props.size());
+		for (final Map.Entry<String, String> entry : props.entrySet()) {
+			StreamIo.writeProperty(out, entry.getKey(), entry.getValue());
+		}
+	}
+
+	/**
+	 * Counterpart of {@link #writeProps(DataOutput, Map)}
+	 * 
+	 * @param in
+	 *            source
+	 * @param props
+	 *            receives the properties
+	 * @throws IOException
+	 */
+	static void readProps(final DataInput in, final Map<String, String> props)
+			throws IOException {
+		final int size = StreamIo.readSize(in);
+		for (int i = 0; i < size; ++i) {
+			StreamIo.readProperty(in, props);
+		}
+	}
+
+	/**
+	 * Reads properties written before the {@link StreamIo#FORMAT_VARINT}
+	 * format
+	 * 
+	 * @param in
+	 *            source
+	 * @param props
+	 *            receives the properties
+	 * @throws IOException
+	 */
+	static void readFixedProps(final ObjectInput in, final Map<String, String> props)
+			throws IOException {
 		final int size = in.readInt();
 		for (int i = 0; i < size; ++i) {
 			final String key = StreamIo.readString(in);
@@ -203,4 +325,42 @@ public class Node implements Externalizable {
 		}
 
 	}
+
+	/**
+	 * Factory that creates Nodes reading only id and coordinates, their
+	 * properties are skipped. It gives a cheap coordinate only view of a file
+	 * of complete nodes.
+	 * 
+	 * @author oliver
+	 */
+	public static class CoordinateFactory implements ExternalizableFactory<Node> {
+
+		/*
+		 * (non-Javadoc)
+		 * 
+		 * @see oc.io.ExternalizableFactory#construct()
+		 */
+		@Override
+		public Node construct() {
+			return new CoordinateNode();
+		}
+	}
+
+	/**
+	 * Node that skips its properties when it is read
+	 * 
+	 * @author oliver
+	 */
+	private static class CoordinateNode extends Node {
+
+		/*
+		 * (non-Javadoc)
+		 * 
+		 * @see oc.osm.type.Node#readExternal(java.io.ObjectInput)
+		 */
+		@Override
+		public void readExternal(final ObjectInput in) throws IOException {
+			readExternal(in, false);
+		}
+	}
 }
@@ -27,9 +27,9 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
 
 import oc.io.ExternalizableFactory;
+import oc.io.HeapSized;
 import oc.io.StreamIo;
 import oc.osm.type.Member.Type;
 
@@ -43,11 +43,15 @@ import oc.osm.type.Member.Type;
  * 
  * @author oliver
  */
-public class Relation implements Externalizable {
+public class Relation implements Externalizable, HeapSized {
+	/**
+	 * Object header, fields, empty member list and property map of a
+	 * Relation on the heap
+	 */
+	private static final int HEAP_SIZE = 136;
 	private long id = 0;
 	private final List<Member> members = new ArrayList<>();
 	private final Map<String, String> props = new HashMap<String, String>();
-	private final Set<String> keySet = props.keySet();
 
 	/**
 	 * @return the id
@@ -231,6 +235,20 @@ public class Relation implements Externalizable {
 		return bounds;
 	}
 
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see oc.io.HeapSized#getHeapSize()
+	 */
+	@Override
+	public long getHeapSize() {
+		long size = HEAP_SIZE + Node.propsHeapSize(props);
+		for (final Member member : members) {
+			size += member.getHeapSize();
+		}
+		return size;
+	}
+
 	/*
 	 * (non-Javadoc)
 	 * 
@@ -238,13 +256,10 @@ public class Relation implements Externalizable {
 	 */
 	@Override
 	public void writeExternal(final ObjectOutput out) throws IOException {
-		out.writeLong(id);
-		out.writeInt(keySet.size());
-		for (final String key : keySet) {
-			StreamIo.writeString(out, key);
-			StreamIo.writeString(out, props.get(key));
-		}
-		out.writeInt(members.size());
+		StreamIo.writeFormat(out);
+		StreamIo.writeSignedVarint(out, id);
+		Node.writeProps(out, props);
+		StreamIo.writeVarint(out, members.size());
 		for (final Member member : members) {
 			member.writeExternal(out);
 		}
@@ -260,14 +275,17 @@ public class Relation implements Externalizable {
 	public void readExternal(final ObjectInput in) throws IOException, ClassNotFoundException {
 		props.clear();
 		members.clear();
-		id = in.readLong();
-		int size = in.readInt();
-		for (int i = 0; i < size; ++i) {
-			final String key = StreamIo.readString(in);
-			final String value = StreamIo.readString(in);
-			props.put(key, value);
+		final int format = StreamIo.readFormat(in);
+		final int size;
+		if (format == StreamIo.FORMAT_VARINT) {
+			id = StreamIo.readSignedVarint(in);
+			Node.readProps(in, props);
+			size = StreamIo.readSize(in);
+		} else {
+			id = StreamIo.completeLong(in, format);
+			Node.readFixedProps(in, props);
+			size = in.readInt();
 		}
-		size = in.readInt();
 		for (int i = 0; i < size; ++i) {
 			final Member member = new Member();
 			member.readExternal(in);
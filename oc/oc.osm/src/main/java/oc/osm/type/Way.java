@@ -30,6 +30,7 @@ import java.util.Map;
 import java.util.Set;
 
 import oc.io.ExternalizableFactory;
+import oc.io.HeapSized;
 import oc.io.StreamIo;
 
 /**
@@ -39,13 +40,22 @@ import oc.io.StreamIo;
  * each way has its unique ID and can have several properties that describe the
  * usage of it.
  * 
+ * Only the ids and coordinates of the nodes are serialized, see
+ * {@link WayGeometryCodec}. Id and properties use the variable length numbers
+ * of {@link StreamIo}.
+ * 
  * @see <a href="https://wiki.openstreetmap.org/wiki/Way">Way</a> for further
  *      details
  * 
  * 
  * @author oliver
  */
-public class Way implements Externalizable {
+public class Way implements Externalizable, HeapSized {
+	/**
+	 * Object header, fields, empty node list and property map of a Way on the
+	 * heap
+	 */
+	private static final int HEAP_SIZE = 136;
 	protected long id = 0;
 	protected List<Node> nodes = new ArrayList<>();
 	protected final Map<String, String> props = new HashMap<String, String>();
@@ -170,20 +180,29 @@ public class Way implements Externalizable {
 	/*
 	 * (non-Javadoc)
 	 * 
-	 * @see java.io.Externalizable#writeExternal(java.io.ObjectOutput)
+	 * @see oc.io.HeapSized#getHeapSize()
 	 */
 	@Override
-	public void writeExternal(final ObjectOutput out) throws IOException {
-		out.writeLong(id);
-		out.writeInt(keySet.size());
-		for (final String key : keySet) {
-			StreamIo.writeString(out, key);
-			StreamIo.writeString(out, props.get(key));
-		}
-		out.writeInt(nodes.size());
+	public long getHeapSize() {
+		long size = HEAP_SIZE + Node.propsHeapSize(props);
 		for (final Node node : nodes) {
-			node.writeExternal(out, false);
+			// the vertex and its slot in the list
+			size += node.getHeapSize() + 8;
 		}
+		return size;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see java.io.Externalizable#writeExternal(java.io.ObjectOutput)
+	 */
+	@Override
+	public void writeExternal(final ObjectOutput out) throws IOException {
+		StreamIo.writeFormat(out);
+		StreamIo.writeSignedVarint(out, id);
+		Node.writeProps(out, props);
+		WayGeometryCodec.writeVertices(out, nodes, true);
 	}
 
 	/*
@@ -192,22 +211,18 @@ public class Way implements Externalizable {
 	 * @see java.io.Externalizable#readExternal(java.io.ObjectInput)
 	 */
 	@Override
-	@SuppressWarnings("PMD.AvoidInstantiatingObjectsInLoops")
 	public void readExternal(final ObjectInput in) throws IOException, ClassNotFoundException {
 		props.clear();
 		nodes.clear();
-		id = in.readLong();
-		int size = in.readInt();
-		for (int i = 0; i < size; ++i) {
-			final String key = StreamIo.readString(in);
-			final String value = StreamIo.readString(in);
-			props.put(key, value);
-		}
-		size = in.readInt();
-		for (int i = 0; i < size; ++i) {
-			final Node node = new Node();
-			node.readExternal(in);
-			nodes.add(node);
+		final int format = StreamIo.readFormat(in);
+		if (format == StreamIo.FORMAT_VARINT) {
+			id = StreamIo.readSignedVarint(in);
+			Node.readProps(in, props);
+			WayGeometryCodec.readVertices(in, nodes);
+		} else {
+			id = StreamIo.completeLong(in, format);
+			Node.readFixedProps(in, props);
+			WayGeometryCodec.read(in, nodes);
 		}
 	}
 
@@ -0,0 +1,141 @@
+/**
+ * Copyright (C) 2026 Oliver Schünemann
+ * 
+ * This program is free software; you can redistribute it and/or modify it under the terms of the 
+ * GNU General Public License as published by the Free Software Foundation; either version 2 of 
+ * the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; 
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. 
+ * See the GNU General Public License for more details. 
+ * 
+ * You should have received a copy of the GNU General Public License along with this program; 
+ * if not, write to the Free Software Foundation, Inc., 51 Franklin St, Fifth Floor, 
+ * Boston, MA 02110, USA 
+ * 
+ * @since 19.10.2026
+ * @version 1.0
+ * @author oliver
+ */
+package oc.osm.type;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.StreamCorruptedException;
+import java.util.List;
+
+import oc.io.StreamIo;
+
+/**
+ * Serializes the nodes of a way. Up to now each vertex was written as Node
+ * without properties: id, latitude, longitude and an empty property count, 20
+ * bytes. The vertices of a way are close to each other, so the codec writes
+ * the differences to the previous vertex as zig zag encoded numbers of
+ * variable length, which needs 1 to 3 bytes for most values:
+ *
+ * <pre>
+ * byte   flags, NODE_IDS when the node ids are written
+ * varint vertex count
+ * per vertex: [zigzag id delta], zigzag lat delta, zigzag lon delta
+ * </pre>
+ *
+ * Ways in the {@link StreamIo#FORMAT_VARINT} format write their vertices so.
+ * Ways written before have an int vertex count followed by the vertices as
+ * Nodes, {@link #read(ObjectInput, List)} keeps these files readable.
+ *
+ * @author oliver
+ */
+public final class WayGeometryCodec {
+	/**
+	 * Flag marking that the node ids are written
+	 */
+	static final int NODE_IDS = 1;
+
+	private WayGeometryCodec() {
+		// only static methods
+	}
+
+	/**
+	 * Writes the vertices of a way.
+	 *
+	 * @param out
+	 *            destination
+	 * @param nodes
+	 *            the vertices, their properties are not written
+	 * @param nodeIds
+	 *            false to omit the node ids, they are read as 0 then
+	 * @throws IOException
+	 */
+	public static void writeVertices(final DataOutput out, final List<Node> nodes,
+			final boolean nodeIds) throws IOException {
+		out.writeByte(nodeIds ? NODE_IDS : 0);
+		StreamIo.writeVarint(out, nodes.size());
+		long id = 0;
+		long lat = 0;
+		long lon = 0;
+		for (final Node node : nodes) {
+			if (nodeIds) {
+				id = StreamIo.writeDelta(out, node.getId(), id);
+			}
+			lat = StreamIo.writeDelta(out, node.getLat(), lat);
+			lon = StreamIo.writeDelta(out, node.getLon(), lon);
+		}
+	}
+
+	/**
+	 * Reads the vertices of a way written before the codec was introduced.
+	 *
+	 * @param in
+	 *            source
+	 * @param nodes
+	 *            receives the vertices
+	 * @throws StreamCorruptedException
+	 *             when the vertex count is negative
+	 * @throws IOException
+	 */
+	@SuppressWarnings("PMD.AvoidInstantiatingObjectsInLoops")
+	public static void read(final ObjectInput in, final List<Node> nodes) throws IOException {
+		final int count = in.readInt();
+		if (count < 0) {
+			throw new StreamCorruptedException("Way with " + count + " vertices");
+		}
+		for (int i = 0; i < count; ++i) {
+			final Node node = new Node();
+			node.readExternal(in, true);
+			nodes.add(node);
+		}
+	}
+
+	/**
+	 * Counterpart of {@link #writeVertices(DataOutput, List, boolean)}
+	 *
+	 * @param in
+	 *            source
+	 * @param nodes
+	 *            receives the vertices
+	 * @throws IOException
+	 */
+	@SuppressWarnings("PMD.AvoidInstantiatingObjectsInLoops")
+	public static void readVertices(final DataInput in, final List<Node> nodes)
+			throws IOException {
+		final boolean nodeIds = (in.readByte() & NODE_IDS) != 0;
+		final int size = StreamIo.readSize(in);
+		long id = 0;
+		long lat = 0;
+		long lon = 0;
+		for (int i = 0; i < size; ++i) {
+			final Node node = new Node();
+			if (nodeIds) {
+				id = StreamIo.readDelta(in, id);
+				node.setId(id);
+			}
+			lat = StreamIo.readDelta(in, lat);
+			lon = StreamIo.readDelta(in, lon);
+			node.setLat((int) lat);
+			node.setLon((int) lon);
+			nodes.add(node);
+		}
+	}
+}
@@ -0,0 +1,197 @@
+/**
+ * Copyright (C) 2026 Oliver Schünemann
+ * 
+ * This program is free software; you can redistribute it and/or modify it under the terms of the 
+ * GNU General Public License as published by the Free Software Foundation; either version 2 of 
+ * the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; 
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. 
+ * See the GNU General Public License for more details. 
+ * 
+ * You should have received a copy of the GNU General Public License along with this program; 
+ * if not, write to the Free Software Foundation, Inc., 51 Franklin St, Fifth Floor, 
+ * Boston, MA 02110, USA 
+ * 
+ * @since 19.10.2026
+ * @version 1.0
+ * @author oliver
+ */
+package oc.pbf.reader;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+import oc.io.base.MappedFile;
+
+/**
+ * Header of a single blob within a pbf file. A blob starts with the length
+ * of its BlobHeader as 4 byte big endian number, the BlobHeader names the type
+ * of the blob and the size of the Blob message following it. The Blob holds
+ * the block either raw or zlib compressed. The instance is reused for all
+ * blobs of a file, reading the header does not touch the Blob.
+ *
+ * @author oliver
+ */
+final class PbfBlob {
+	/**
+	 * Limits of the format, larger headers or blobs are corrupt
+	 */
+	static final int MAX_HEADER_SIZE = 64 << 10;
+	static final int MAX_BLOB_SIZE = 32 << 20;
+
+	private static final int HEADER_TYPE = ProtobufReader.tag(1,
+			ProtobufReader.LENGTH_DELIMITED);
+	private static final int HEADER_DATA_SIZE = ProtobufReader.tag(3, ProtobufReader.VARINT);
+	private static final int RAW = ProtobufReader.tag(1, ProtobufReader.LENGTH_DELIMITED);
+	private static final int RAW_SIZE = ProtobufReader.tag(2, ProtobufReader.VARINT);
+	private static final int ZLIB_DATA = ProtobufReader.tag(3, ProtobufReader.LENGTH_DELIMITED);
+	private static final String COMPRESSIONS[] = { "lzma", "bzip2", "lz4", "zstd" };
+	private static final int FIRST_UNSUPPORTED_FIELD = 4;
+
+	private String type;
+	private long position;
+	private long dataStart;
+	private int length;
+
+	/**
+	 * Reads the header of the blob at the position.
+	 *
+	 * @param in
+	 *            the mapped file
+	 * @param start
+	 *            position of the header length of the blob
+	 * @throws EOFException
+	 *             when the file ends within the blob
+	 * @throws IOException
+	 */
+	void read(final MappedFile in, final long start) throws IOException {
+		position = start;
+		if (start + 4 > in.size()) {
+			throw new EOFException("PBF file is truncated in the header length of the blob at "
+					+ start);
+		}
+		final int headerLength = in.slice(start, 4).getInt();
+		if (headerLength < 0 || headerLength > MAX_HEADER_SIZE) {
+			throw new IOException("Blob header of " + headerLength + " bytes at " + start
+					+ " exceeds the limit of " + MAX_HEADER_SIZE);
+		}
+		final ByteBuffer header = in.slice(start + 4, headerLength);
+		type = null;
+		length = -1;
+		int tag;
+		while ((tag = ProtobufReader.readTag(header)) != 0) {
+			if (tag == HEADER_TYPE) {
+				type = ProtobufReader.readString(header);
+			} else if (tag == HEADER_DATA_SIZE) {
+				length = (int) ProtobufReader.readVarint(header);
+			} else {
+				ProtobufReader.skip(header, tag);
+			}
+		}
+		if (type == null || length < 0) {
+			throw new IOException("Blob header at " + start + " has no type or size");
+		}
+		if (length > MAX_BLOB_SIZE) {
+			throw new IOException("Blob of " + length + " bytes at " + start
+					+ " exceeds the limit of " + MAX_BLOB_SIZE);
+		}
+		dataStart = start + 4 + headerLength;
+		if (dataStart + length > in.size()) {
+			throw new EOFException("PBF file is truncated, blob of type " + type + " at " + start
+					+ " needs " + length + " bytes, but only " + (in.size() - dataStart)
+					+ " are left");
+		}
+	}
+
+	/**
+	 * @return type of the blob, OSMHeader or OSMData
+	 */
+	String getType() {
+		return type;
+	}
+
+	/**
+	 * @return position of the next blob
+	 */
+	long getEnd() {
+		return dataStart + length;
+	}
+
+	/**
+	 * @param in
+	 *            the mapped file
+	 * @param inflater
+	 *            inflater for zlib compressed blobs, it is reset before use
+	 * @return the uncompressed block, a slice of the mapping when the blob is
+	 *         not compressed
+	 * @throws IOException
+	 *             when the blob is corrupt or compressed with an unsupported
+	 *             method
+	 */
+	ByteBuffer getBlock(final MappedFile in, final Inflater inflater) throws IOException {
+		final ByteBuffer blob = in.slice(dataStart, length);
+		ByteBuffer raw = null;
+		ByteBuffer zlib = null;
+		long rawSize = -1;
+		int tag;
+		while ((tag = ProtobufReader.readTag(blob)) != 0) {
+			if (tag == RAW) {
+				raw = ProtobufReader.readMessage(blob);
+			} else if (tag == RAW_SIZE) {
+				rawSize = ProtobufReader.readVarint(blob);
+			} else if (tag == ZLIB_DATA) {
+				zlib = ProtobufReader.readMessage(blob);
+			} else if ((tag >>> 3) >= FIRST_UNSUPPORTED_FIELD
+					&& (tag >>> 3) < FIRST_UNSUPPORTED_FIELD + COMPRESSIONS.length) {
+				throw new IOException("Blob at " + position + " is compressed with "
+						+ COMPRESSIONS[(tag >>> 3) - FIRST_UNSUPPORTED_FIELD]
+						+ ", only zlib is supported");
+			} else {
+				ProtobufReader.skip(blob, tag);
+			}
+		}
+		if (raw != null) {
+			return raw;
+		}
+		if (zlib == null || rawSize < 0 || rawSize > MAX_BLOB_SIZE) {
+			throw new IOException("Blob at " + position + " has neither raw nor zlib data");
+		}
+		return ByteBuffer.wrap(inflate(zlib, (int) rawSize, inflater));
+	}
+
+	private byte[] inflate(final ByteBuffer zlib, final int rawSize, final Inflater inflater)
+			throws IOException {
+		final byte input[] = new byte[zlib.remaining()];
+		zlib.get(input);
+		final byte block[] = new byte[rawSize];
+		final byte surplus[] = new byte[1];
+		inflater.reset();
+		inflater.setInput(input);
+		int inflated = 0;
+		try {
+			while (!inflater.finished()) {
+				if (inflated < rawSize) {
+					inflated += inflater.inflate(block, inflated, rawSize - inflated);
+				} else if (inflater.inflate(surplus) > 0) {
+					throw new IOException("Blob at " + position + " inflates to more than its "
+							+ "raw size of " + rawSize + " bytes");
+				}
+				if (!inflater.finished() && (inflater.needsInput() || inflater.needsDictionary())) {
+					throw new EOFException("Zlib data of the blob at " + position
+							+ " is truncated");
+				}
+			}
+		} catch (final DataFormatException e) {
+			throw new IOException("Corrupt zlib data in the blob at " + position, e);
+		}
+		if (inflated != rawSize) {
+			throw new IOException("Blob at " + position + " inflates to " + inflated
+					+ " bytes instead of its raw size of " + rawSize);
+		}
+		return block;
+	}
+}
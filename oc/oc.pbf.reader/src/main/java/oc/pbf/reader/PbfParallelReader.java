@@ -0,0 +1,135 @@
+/**
+ * Copyright (C) 2026 Oliver Schünemann
+ * 
+ * This program is free software; you can redistribute it and/or modify it under the terms of the 
+ * GNU General Public License as published by the Free Software Foundation; either version 2 of 
+ * the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; 
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. 
+ * See the GNU General Public License for more details. 
+ * 
+ * You should have received a copy of the GNU General Public License along with this program; 
+ * if not, write to the Free Software Foundation, Inc., 51 Franklin St, Fifth Floor, 
+ * Boston, MA 02110, USA 
+ * 
+ * @since 19.10.2026
+ * @version 1.0
+ * @author oliver
+ */
+package oc.pbf.reader;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.Inflater;
+
+import oc.io.base.MappedFile;
+import oc.osm.handler.ConcurrentOsmHandler;
+import oc.osm.handler.OsmHandler;
+import oc.osm.handler.OsmHandlerAdapter;
+import oc.osm.handler.ParallelDecoder;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Decodes a pbf file with several threads. Every blob of the file can be
+ * decompressed and decoded on its own, so a pre-scan reads only the blob
+ * headers and splits the file into tasks of consecutive blobs. Each task is
+ * decoded by its own PbfReader. The header block is checked by the pre-scan,
+ * so a file requiring unknown features fails before any thread is started.
+ *
+ * The handler gets the elements in file order, unless it is a
+ * {@link ConcurrentOsmHandler}, see {@link ParallelDecoder}.
+ *
+ * @author oliver
+ */
+final class PbfParallelReader {
+	/**
+	 * Blobs are collected into tasks of at least this size
+	 */
+	static final long MIN_TASK_SIZE = 4L << 20;
+
+	private final File f;
+	private final int threads;
+	private final long minTaskSize;
+	private static final Logger logger = LogManager.getLogger(PbfParallelReader.class.getName());
+
+	/**
+	 * @param f
+	 *            the pbf file
+	 * @param threads
+	 *            number of threads decoding the file
+	 * @param minTaskSize
+	 *            minimum number of bytes decoded by a task
+	 */
+	PbfParallelReader(final File f, final int threads, final long minTaskSize) {
+		super();
+		this.f = f;
+		this.threads = threads;
+		this.minTaskSize = minTaskSize;
+	}
+
+	/**
+	 * Reads the complete file.
+	 *
+	 * @param handler
+	 *            callback for the elements
+	 * @throws IOException
+	 */
+	void read(final OsmHandler handler) throws IOException {
+		final List<long[]> tasks = split();
+		if (threads <= 1 || tasks.size() <= 1) {
+			new PbfReader().readFile(f, handler);
+			return;
+		}
+		logger.debug("Decode {} parts of {} with {} threads", tasks.size(), f, threads);
+		new ParallelDecoder(f.toString(), threads) {
+			@Override
+			protected void decode(final long[] task, final OsmHandler taskHandler)
+					throws IOException {
+				try (MappedFile in = new MappedFile(f)) {
+					new PbfReader().decode(in, task[0], task[1], new OsmHandlerAdapter(
+							taskHandler));
+				}
+			}
+		}.decode(tasks, handler);
+	}
+
+	/**
+	 * Reads all blob headers and splits the file between blobs.
+	 *
+	 * @return start and end position of each task
+	 * @throws IOException
+	 */
+	List<long[]> split() throws IOException {
+		final List<long[]> tasks = new ArrayList<>();
+		final PbfBlob blob = new PbfBlob();
+		try (MappedFile in = new MappedFile(f)) {
+			long taskStart = 0;
+			long position = 0;
+			while (position < in.size()) {
+				blob.read(in, position);
+				if (PbfReader.OSM_HEADER.equals(blob.getType())) {
+					final Inflater inflater = new Inflater();
+					try {
+						PbfReader.checkHeader(blob.getBlock(in, inflater));
+					} finally {
+						inflater.end();
+					}
+				}
+				position = blob.getEnd();
+				if (position - taskStart >= minTaskSize) {
+					tasks.add(new long[] { taskStart, position });
+					taskStart = position;
+				}
+			}
+			if (taskStart < position || tasks.isEmpty()) {
+				tasks.add(new long[] { taskStart, position });
+			}
+		}
+		return tasks;
+	}
+}
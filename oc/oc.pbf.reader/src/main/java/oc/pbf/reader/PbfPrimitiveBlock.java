@@ -0,0 +1,473 @@
+/**
+ * Copyright (C) 2026 Oliver Schünemann
+ * 
+ * This program is free software; you can redistribute it and/or modify it under the terms of the 
+ * GNU General Public License as published by the Free Software Foundation; either version 2 of 
+ * the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; 
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. 
+ * See the GNU General Public License for more details. 
+ * 
+ * You should have received a copy of the GNU General Public License along with this program; 
+ * if not, write to the Free Software Foundation, Inc., 51 Franklin St, Fifth Floor, 
+ * Boston, MA 02110, USA 
+ * 
+ * @since 19.10.2026
+ * @version 1.0
+ * @author oliver
+ */
+package oc.pbf.reader;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import oc.osm.handler.PrimitiveOsmHandler;
+import oc.osm.type.Member.Type;
+
+/**
+ * Decodes the PrimitiveBlock of an OSMData blob and calls the handler for
+ * each element in it. The strings of the elements are indices into the string
+ * table of the block, ids, coordinates and references of dense nodes, ways and
+ * relations are delta coded. The coordinates are stored in units of the
+ * granularity of the block, they are converted to 1e-7 degrees.
+ *
+ * The instance is reused for all blocks decoded by one thread, so are the
+ * arrays handed to the handler.
+ *
+ * @author oliver
+ */
+final class PbfPrimitiveBlock {
+	private static final int LENGTH_DELIMITED = ProtobufReader.LENGTH_DELIMITED;
+	private static final int VARINT = ProtobufReader.VARINT;
+
+	private static final int BLOCK_STRING_TABLE = ProtobufReader.tag(1, LENGTH_DELIMITED);
+	private static final int BLOCK_GROUP = ProtobufReader.tag(2, LENGTH_DELIMITED);
+	private static final int BLOCK_GRANULARITY = ProtobufReader.tag(17, VARINT);
+	private static final int BLOCK_LAT_OFFSET = ProtobufReader.tag(19, VARINT);
+	private static final int BLOCK_LON_OFFSET = ProtobufReader.tag(20, VARINT);
+	private static final int STRING = ProtobufReader.tag(1, LENGTH_DELIMITED);
+
+	private static final int GROUP_NODES = ProtobufReader.tag(1, LENGTH_DELIMITED);
+	private static final int GROUP_DENSE = ProtobufReader.tag(2, LENGTH_DELIMITED);
+	private static final int GROUP_WAYS = ProtobufReader.tag(3, LENGTH_DELIMITED);
+	private static final int GROUP_RELATIONS = ProtobufReader.tag(4, LENGTH_DELIMITED);
+
+	/**
+	 * Field numbers of the elements, their tags depend on whether repeated
+	 * fields are packed
+	 */
+	private static final int ID = 1;
+	private static final int KEYS = 2;
+	private static final int VALUES = 3;
+	private static final int LAT = 8;
+	private static final int LON = 9;
+	private static final int DENSE_KEYS_VALUES = 10;
+	private static final int WAY_REFS = 8;
+	private static final int ROLES = 8;
+	private static final int MEMBER_IDS = 9;
+	private static final int MEMBER_TYPES = 10;
+
+	private static final int DEFAULT_GRANULARITY = 100;
+	/**
+	 * Nanodegrees per unit of the coordinates handed to the handler
+	 */
+	private static final long NANO_PER_UNIT = 100;
+	private static final Type MEMBER_TYPE_VALUES[] = { Type.NODE, Type.WAY, Type.RELATION };
+
+	private String strings[] = new String[1024];
+	private int stringCount;
+	private long granularity;
+	private long latOffset;
+	private long lonOffset;
+	private final List<ByteBuffer> groups = new ArrayList<>();
+
+	private final PackedNumbers ids = new PackedNumbers();
+	private final PackedNumbers lats = new PackedNumbers();
+	private final PackedNumbers lons = new PackedNumbers();
+	private final PackedNumbers keys = new PackedNumbers();
+	private final PackedNumbers values = new PackedNumbers();
+	private final PackedNumbers refs = new PackedNumbers();
+	private final PackedNumbers roles = new PackedNumbers();
+	private final PackedNumbers types = new PackedNumbers();
+	private String keyStrings[] = new String[16];
+	private String valueStrings[] = new String[16];
+	private Type memberTypes[] = new Type[16];
+	private String memberRoles[] = new String[16];
+
+	private long nodeCount;
+	private long wayCount;
+	private long relationCount;
+
+	/**
+	 * Numbers of a repeated field, written packed or one by one
+	 */
+	private static final class PackedNumbers {
+		private long numbers[] = new long[256];
+		private int size;
+
+		void clear() {
+			size = 0;
+		}
+
+		/**
+		 * Appends the numbers of the field
+		 *
+		 * @param buffer
+		 *            the message behind the tag of the field
+		 * @param tag
+		 *            tag of the field
+		 * @param signed
+		 *            true for zig zag encoded numbers
+		 * @throws IOException
+		 */
+		void read(final ByteBuffer buffer, final int tag, final boolean signed)
+				throws IOException {
+			if ((tag & 7) == VARINT) {
+				add(signed ? ProtobufReader.readSignedVarint(buffer) : ProtobufReader
+						.readVarint(buffer));
+			} else if ((tag & 7) == LENGTH_DELIMITED) {
+				final ByteBuffer packed = ProtobufReader.readMessage(buffer);
+				while (packed.hasRemaining()) {
+					add(signed ? ProtobufReader.readSignedVarint(packed) : ProtobufReader
+							.readVarint(packed));
+				}
+			} else {
+				throw new IOException("Field " + (tag >>> 3) + " has wire type " + (tag & 7)
+						+ " instead of a number");
+			}
+		}
+
+		private void add(final long number) {
+			if (size == numbers.length) {
+				numbers = Arrays.copyOf(numbers, size * 2);
+			}
+			numbers[size++] = number;
+		}
+
+		/**
+		 * Replaces the deltas by the numbers they add up to
+		 */
+		void sumUp() {
+			for (int i = 1; i < size; ++i) {
+				numbers[i] += numbers[i - 1];
+			}
+		}
+	}
+
+	/**
+	 * Decodes the block and calls the handler for each element.
+	 *
+	 * @param block
+	 *            the uncompressed PrimitiveBlock
+	 * @param handler
+	 *            callback for the elements
+	 * @throws IOException
+	 *             when the block is corrupt or the handler fails
+	 */
+	void decode(final ByteBuffer block, final PrimitiveOsmHandler handler) throws IOException {
+		stringCount = 0;
+		granularity = DEFAULT_GRANULARITY;
+		latOffset = 0;
+		lonOffset = 0;
+		groups.clear();
+		int tag;
+		// the groups are written before granularity and offsets
+		while ((tag = ProtobufReader.readTag(block)) != 0) {
+			if (tag == BLOCK_STRING_TABLE) {
+				readStrings(ProtobufReader.readMessage(block));
+			} else if (tag == BLOCK_GROUP) {
+				groups.add(ProtobufReader.readMessage(block));
+			} else if (tag == BLOCK_GRANULARITY) {
+				granularity = ProtobufReader.readVarint(block);
+			} else if (tag == BLOCK_LAT_OFFSET) {
+				latOffset = ProtobufReader.readVarint(block);
+			} else if (tag == BLOCK_LON_OFFSET) {
+				lonOffset = ProtobufReader.readVarint(block);
+			} else {
+				ProtobufReader.skip(block, tag);
+			}
+		}
+		for (final ByteBuffer group : groups) {
+			decodeGroup(group, handler);
+		}
+		groups.clear();
+	}
+
+	/**
+	 * @return number of nodes decoded so far
+	 */
+	long getNodeCount() {
+		return nodeCount;
+	}
+
+	/**
+	 * @return number of ways decoded so far
+	 */
+	long getWayCount() {
+		return wayCount;
+	}
+
+	/**
+	 * @return number of relations decoded so far
+	 */
+	long getRelationCount() {
+		return relationCount;
+	}
+
+	private void readStrings(final ByteBuffer table) throws IOException {
+		int tag;
+		while ((tag = ProtobufReader.readTag(table)) != 0) {
+			if (tag == STRING) {
+				if (stringCount == strings.length) {
+					strings = Arrays.copyOf(strings, stringCount * 2);
+				}
+				strings[stringCount++] = ProtobufReader.readString(table);
+			} else {
+				ProtobufReader.skip(table, tag);
+			}
+		}
+	}
+
+	private void decodeGroup(final ByteBuffer group, final PrimitiveOsmHandler handler)
+			throws IOException {
+		int tag;
+		while ((tag = ProtobufReader.readTag(group)) != 0) {
+			if (tag == GROUP_DENSE) {
+				decodeDenseNodes(ProtobufReader.readMessage(group), handler);
+			} else if (tag == GROUP_NODES) {
+				decodeNode(ProtobufReader.readMessage(group), handler);
+			} else if (tag == GROUP_WAYS) {
+				decodeWay(ProtobufReader.readMessage(group), handler);
+			} else if (tag == GROUP_RELATIONS) {
+				decodeRelation(ProtobufReader.readMessage(group), handler);
+			} else {
+				// changesets
+				ProtobufReader.skip(group, tag);
+			}
+		}
+	}
+
+	private void decodeDenseNodes(final ByteBuffer dense, final PrimitiveOsmHandler handler)
+			throws IOException {
+		ids.clear();
+		lats.clear();
+		lons.clear();
+		keys.clear();
+		int tag;
+		while ((tag = ProtobufReader.readTag(dense)) != 0) {
+			switch (tag >>> 3) {
+			case ID:
+				ids.read(dense, tag, true);
+				break;
+			case LAT:
+				lats.read(dense, tag, true);
+				break;
+			case LON:
+				lons.read(dense, tag, true);
+				break;
+			case DENSE_KEYS_VALUES:
+				keys.read(dense, tag, false);
+				break;
+			default:
+				// dense info
+				ProtobufReader.skip(dense, tag);
+			}
+		}
+		if (lats.size != ids.size || lons.size != ids.size) {
+			throw new IOException("Dense nodes with " + ids.size + " ids, but " + lats.size
+					+ " latitudes and " + lons.size + " longitudes");
+		}
+		ids.sumUp();
+		lats.sumUp();
+		lons.sumUp();
+		int keyValue = 0;
+		for (int i = 0; i < ids.size; ++i) {
+			int tags = 0;
+			// the keys and values of all nodes, each node's ended by 0
+			while (keyValue < keys.size && keys.numbers[keyValue] != 0) {
+				if (keyValue + 1 == keys.size) {
+					throw new IOException("Key without value in the tags of dense node "
+							+ ids.numbers[i]);
+				}
+				addTag(tags++, keys.numbers[keyValue], keys.numbers[keyValue + 1]);
+				keyValue += 2;
+			}
+			++keyValue;
+			handler.node(ids.numbers[i], coordinate(lats.numbers[i], latOffset),
+					coordinate(lons.numbers[i], lonOffset), keyStrings, valueStrings, tags);
+		}
+		nodeCount += ids.size;
+	}
+
+	private void decodeNode(final ByteBuffer node, final PrimitiveOsmHandler handler)
+			throws IOException {
+		long id = 0;
+		long lat = 0;
+		long lon = 0;
+		keys.clear();
+		values.clear();
+		int tag;
+		while ((tag = ProtobufReader.readTag(node)) != 0) {
+			switch (tag >>> 3) {
+			case ID:
+				id = ProtobufReader.readSignedVarint(node);
+				break;
+			case KEYS:
+				keys.read(node, tag, false);
+				break;
+			case VALUES:
+				values.read(node, tag, false);
+				break;
+			case LAT:
+				lat = ProtobufReader.readSignedVarint(node);
+				break;
+			case LON:
+				lon = ProtobufReader.readSignedVarint(node);
+				break;
+			default:
+				ProtobufReader.skip(node, tag);
+			}
+		}
+		handler.node(id, coordinate(lat, latOffset), coordinate(lon, lonOffset), keyStrings,
+				valueStrings, readTags(id));
+		++nodeCount;
+	}
+
+	private void decodeWay(final ByteBuffer way, final PrimitiveOsmHandler handler)
+			throws IOException {
+		long id = 0;
+		keys.clear();
+		values.clear();
+		refs.clear();
+		int tag;
+		while ((tag = ProtobufReader.readTag(way)) != 0) {
+			switch (tag >>> 3) {
+			case ID:
+				id = ProtobufReader.readVarint(way);
+				break;
+			case KEYS:
+				keys.read(way, tag, false);
+				break;
+			case VALUES:
+				values.read(way, tag, false);
+				break;
+			case WAY_REFS:
+				refs.read(way, tag, true);
+				break;
+			default:
+				// info and the coordinates of the LocationsOnWays feature
+				ProtobufReader.skip(way, tag);
+			}
+		}
+		refs.sumUp();
+		handler.way(id, refs.numbers, refs.size, keyStrings, valueStrings, readTags(id));
+		++wayCount;
+	}
+
+	private void decodeRelation(final ByteBuffer relation, final PrimitiveOsmHandler handler)
+			throws IOException {
+		long id = 0;
+		keys.clear();
+		values.clear();
+		roles.clear();
+		refs.clear();
+		types.clear();
+		int tag;
+		while ((tag = ProtobufReader.readTag(relation)) != 0) {
+			switch (tag >>> 3) {
+			case ID:
+				id = ProtobufReader.readVarint(relation);
+				break;
+			case KEYS:
+				keys.read(relation, tag, false);
+				break;
+			case VALUES:
+				values.read(relation, tag, false);
+				break;
+			case ROLES:
+				roles.read(relation, tag, false);
+				break;
+			case MEMBER_IDS:
+				refs.read(relation, tag, true);
+				break;
+			case MEMBER_TYPES:
+				types.read(relation, tag, false);
+				break;
+			default:
+				ProtobufReader.skip(relation, tag);
+			}
+		}
+		if (roles.size != refs.size || types.size != refs.size) {
+			throw new IOException("Relation " + id + " has " + refs.size + " members, but "
+					+ roles.size + " roles and " + types.size + " types");
+		}
+		refs.sumUp();
+		if (memberTypes.length < refs.size) {
+			memberTypes = new Type[refs.size * 2];
+			memberRoles = new String[refs.size * 2];
+		}
+		for (int i = 0; i < refs.size; ++i) {
+			final long type = types.numbers[i];
+			if (type < 0 || type >= MEMBER_TYPE_VALUES.length) {
+				throw new IOException("Unknown member type " + type + " in relation " + id);
+			}
+			memberTypes[i] = MEMBER_TYPE_VALUES[(int) type];
+			memberRoles[i] = string(roles.numbers[i]);
+		}
+		handler.relation(id, memberTypes, refs.numbers, memberRoles, refs.size, keyStrings,
+				valueStrings, readTags(id));
+		++relationCount;
+	}
+
+	/**
+	 * Looks up the keys and values of a node, way or relation
+	 *
+	 * @return number of tags
+	 */
+	private int readTags(final long id) throws IOException {
+		if (keys.size != values.size) {
+			throw new IOException("Element " + id + " has " + keys.size + " keys, but "
+					+ values.size + " values");
+		}
+		for (int i = 0; i < keys.size; ++i) {
+			addTag(i, keys.numbers[i], values.numbers[i]);
+		}
+		return keys.size;
+	}
+
+	private void addTag(final int index, final long key, final long value) throws IOException {
+		if (index == keyStrings.length) {
+			keyStrings = Arrays.copyOf(keyStrings, index * 2);
+			valueStrings = Arrays.copyOf(valueStrings, index * 2);
+		}
+		keyStrings[index] = string(key);
+		valueStrings[index] = string(value);
+	}
+
+	private String string(final long index) throws IOException {
+		if (index < 0 || index >= stringCount) {
+			throw new IOException("String " + index + " is not in the string table of "
+					+ stringCount + " strings");
+		}
+		return strings[(int) index];
+	}
+
+	/**
+	 * @param value
+	 *            coordinate in units of the granularity
+	 * @param offset
+	 *            offset of the block in nanodegrees
+	 * @return the coordinate in 1e-7 degrees, rounded half away from zero
+	 */
+	private int coordinate(final long value, final long offset) {
+		final long nano = offset + granularity * value;
+		if (nano >= 0) {
+			return (int) ((nano + NANO_PER_UNIT / 2) / NANO_PER_UNIT);
+		}
+		return (int) -((NANO_PER_UNIT / 2 - nano) / NANO_PER_UNIT);
+	}
+}
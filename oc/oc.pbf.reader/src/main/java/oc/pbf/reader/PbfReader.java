@@ -0,0 +1,189 @@
+/**
+ * Copyright (C) 2026 Oliver Schünemann
+ * 
+ * This program is free software; you can redistribute it and/or modify it under the terms of the 
+ * GNU General Public License as published by the Free Software Foundation; either version 2 of 
+ * the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; 
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. 
+ * See the GNU General Public License for more details. 
+ * 
+ * You should have received a copy of the GNU General Public License along with this program; 
+ * if not, write to the Free Software Foundation, Inc., 51 Franklin St, Fifth Floor, 
+ * Boston, MA 02110, USA 
+ * 
+ * @since 19.10.2026
+ * @version 1.0
+ * @author oliver
+ */
+package oc.pbf.reader;
+
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.zip.Inflater;
+
+import oc.io.base.MappedFile;
+import oc.osm.handler.ConcurrentOsmHandler;
+import oc.osm.handler.OsmHandler;
+import oc.osm.handler.OsmHandlerAdapter;
+import oc.osm.handler.PrimitiveOsmHandler;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * <a href="https://wiki.openstreetmap.org/wiki/PBF_Format">PBF</a> is the
+ * protocol buffers based file format most osm data is published in. This
+ * implements a reader for it, using the common @see
+ * oc.osm.handler.OsmHandler as callback for found osm elements. The messages
+ * are decoded by hand, see {@link ProtobufReader}, no generated code is
+ * needed.
+ *
+ * A pbf file is a sequence of blobs, each holding an independent, usually
+ * zlib compressed block. The first one is the OSMHeader, the others are
+ * OSMData blocks with a string table and groups of nodes, dense nodes, ways
+ * and relations. The file is mapped into memory and uncompressed blocks are
+ * decoded as slices of the mapping.
+ *
+ * @author oliver
+ */
+public final class PbfReader {
+	/**
+	 * Types of the blobs
+	 */
+	public static final String OSM_HEADER = "OSMHeader";
+	public static final String OSM_DATA = "OSMData";
+
+	/**
+	 * Features a file may require, others make the reader fail
+	 */
+	private static final Set<String> SUPPORTED_FEATURES = new HashSet<>(Arrays.asList(
+			"OsmSchema-V0.6", "DenseNodes", "HistoricalInformation"));
+	private static final int REQUIRED_FEATURE = ProtobufReader.tag(4,
+			ProtobufReader.LENGTH_DELIMITED);
+
+	private static final Logger logger = LogManager.getLogger(PbfReader.class.getName());
+
+	/**
+	 * Reads the complete file and calls the handler for each element in it.
+	 *
+	 * @param f
+	 *            the pbf file
+	 * @param handler
+	 *            callback for the elements
+	 * @throws EOFException
+	 *             when the file is truncated
+	 * @throws IOException
+	 */
+	public void readFile(final File f, final OsmHandler handler) throws IOException {
+		readFile(f, new OsmHandlerAdapter(handler));
+	}
+
+	/**
+	 * Reads the complete file and calls the primitive handler for each element
+	 * in it, without creating Node, Way or Relation instances.
+	 *
+	 * @param f
+	 *            the pbf file
+	 * @param handler
+	 *            callback for the elements
+	 * @throws EOFException
+	 *             when the file is truncated
+	 * @throws IOException
+	 */
+	public void readFile(final File f, final PrimitiveOsmHandler handler) throws IOException {
+		try (MappedFile in = new MappedFile(f)) {
+			decode(in, 0, in.size(), handler);
+		}
+	}
+
+	/**
+	 * Reads the complete file with several threads. The blobs are decompressed
+	 * and decoded in parallel. The handler gets the elements in the order of
+	 * the file, unless it is a {@link ConcurrentOsmHandler}.
+	 *
+	 * @param f
+	 *            the pbf file
+	 * @param handler
+	 *            callback for the elements
+	 * @param threads
+	 *            number of threads decoding the file
+	 * @throws EOFException
+	 *             when the file is truncated
+	 * @throws IOException
+	 */
+	public void readFile(final File f, final OsmHandler handler, final int threads)
+			throws IOException {
+		new PbfParallelReader(f, threads, PbfParallelReader.MIN_TASK_SIZE).read(handler);
+	}
+
+	/**
+	 * Decodes all blobs between start and end. The file must start with an
+	 * OSMHeader blob, blobs of unknown types are skipped.
+	 *
+	 * @param in
+	 *            the mapped pbf file
+	 * @param start
+	 *            position of the first blob
+	 * @param end
+	 *            position behind the last blob
+	 * @param handler
+	 *            callback for the elements
+	 * @throws IOException
+	 */
+	void decode(final MappedFile in, final long start, final long end,
+			final PrimitiveOsmHandler handler) throws IOException {
+		if (start == 0 && end == 0) {
+			throw new EOFException("PBF file is empty");
+		}
+		final PbfBlob blob = new PbfBlob();
+		final PbfPrimitiveBlock block = new PbfPrimitiveBlock();
+		final Inflater inflater = new Inflater();
+		try {
+			long position = start;
+			while (position < end) {
+				blob.read(in, position);
+				if (OSM_HEADER.equals(blob.getType())) {
+					checkHeader(blob.getBlock(in, inflater));
+				} else if (position == 0) {
+					throw new IOException("PBF file does not start with an " + OSM_HEADER
+							+ " blob, but with " + blob.getType());
+				} else if (OSM_DATA.equals(blob.getType())) {
+					block.decode(blob.getBlock(in, inflater), handler);
+				}
+				position = blob.getEnd();
+			}
+		} finally {
+			inflater.end();
+		}
+		logger.debug("Number of Nodes     : {}", block.getNodeCount());
+		logger.debug("Number of Ways      : {}", block.getWayCount());
+		logger.debug("Number of Relations : {}", block.getRelationCount());
+	}
+
+	/**
+	 * @param header
+	 *            the uncompressed HeaderBlock
+	 * @throws IOException
+	 *             when the file requires a feature the reader does not know
+	 */
+	static void checkHeader(final ByteBuffer header) throws IOException {
+		int tag;
+		while ((tag = ProtobufReader.readTag(header)) != 0) {
+			if (tag == REQUIRED_FEATURE) {
+				final String feature = ProtobufReader.readString(header);
+				if (!SUPPORTED_FEATURES.contains(feature)) {
+					throw new IOException("PBF file requires the unsupported feature " + feature);
+				}
+			} else {
+				ProtobufReader.skip(header, tag);
+			}
+		}
+	}
+}
@@ -0,0 +1,198 @@
+/**
+ * Copyright (C) 2026 Oliver Schünemann
+ * 
+ * This program is free software; you can redistribute it and/or modify it under the terms of the 
+ * GNU General Public License as published by the Free Software Foundation; either version 2 of 
+ * the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; 
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. 
+ * See the GNU General Public License for more details. 
+ * 
+ * You should have received a copy of the GNU General Public License along with this program; 
+ * if not, write to the Free Software Foundation, Inc., 51 Franklin St, Fifth Floor, 
+ * Boston, MA 02110, USA 
+ * 
+ * @since 19.10.2026
+ * @version 1.0
+ * @author oliver
+ */
+package oc.pbf.reader;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Decodes the protocol buffers wire format the messages of a pbf file are
+ * written in. A message is read field by field from a ByteBuffer: the tag
+ * combines the field number with the wire type, embedded messages and
+ * strings are length delimited and handed out as slices, so their bytes are
+ * not copied.
+ *
+ * @author oliver
+ */
+final class ProtobufReader {
+	/**
+	 * Wire types of the fields
+	 */
+	static final int VARINT = 0;
+	static final int FIXED64 = 1;
+	static final int LENGTH_DELIMITED = 2;
+	static final int FIXED32 = 5;
+
+	private static final int MAX_VARINT_BYTES = 10;
+
+	private ProtobufReader() {
+		// only static methods
+	}
+
+	/**
+	 * @param field
+	 *            number of the field
+	 * @param wireType
+	 *            wire type of the field
+	 * @return the tag of the field with the wire type
+	 */
+	static int tag(final int field, final int wireType) {
+		return field << 3 | wireType;
+	}
+
+	/**
+	 * Reads the tag of the next field
+	 *
+	 * @param buffer
+	 *            the message
+	 * @return the field number and wire type, see {@link #tag(int, int)}, 0 at
+	 *         the end of the message
+	 * @throws IOException
+	 *             when the tag is invalid
+	 */
+	static int readTag(final ByteBuffer buffer) throws IOException {
+		if (!buffer.hasRemaining()) {
+			return 0;
+		}
+		final long tag = readVarint(buffer);
+		if (tag >>> 3 == 0 || tag > Integer.MAX_VALUE) {
+			throw new IOException("Invalid protobuf field tag " + tag);
+		}
+		return (int) tag;
+	}
+
+	/**
+	 * @param buffer
+	 *            the message
+	 * @return the next variable length number
+	 * @throws EOFException
+	 *             when the message ends within the number
+	 * @throws IOException
+	 */
+	static long readVarint(final ByteBuffer buffer) throws IOException {
+		long value = 0;
+		for (int i = 0; i < MAX_VARINT_BYTES; ++i) {
+			if (!buffer.hasRemaining()) {
+				throw new EOFException("Protobuf message ends within a number");
+			}
+			final byte b = buffer.get();
+			value |= (long) (b & 0x7f) << 7 * i;
+			if (b >= 0) {
+				return value;
+			}
+		}
+		throw new IOException("Protobuf number is longer than " + MAX_VARINT_BYTES + " bytes");
+	}
+
+	/**
+	 * @param buffer
+	 *            the message
+	 * @return the next zig zag encoded number of a sint32 or sint64 field
+	 * @throws IOException
+	 */
+	static long readSignedVarint(final ByteBuffer buffer) throws IOException {
+		return zigZag(readVarint(buffer));
+	}
+
+	/**
+	 * @param value
+	 *            zig zag encoded number
+	 * @return the signed number
+	 */
+	static long zigZag(final long value) {
+		return value >>> 1 ^ -(value & 1);
+	}
+
+	/**
+	 * @param buffer
+	 *            the message at a length delimited field
+	 * @return the field as slice of the message
+	 * @throws EOFException
+	 *             when the field reaches behind the end of the message
+	 * @throws IOException
+	 */
+	static ByteBuffer readMessage(final ByteBuffer buffer) throws IOException {
+		final long length = readVarint(buffer);
+		if (length < 0 || length > buffer.remaining()) {
+			throw new EOFException("Protobuf field of " + length + " bytes reaches behind its "
+					+ "message, only " + buffer.remaining() + " bytes are left");
+		}
+		final ByteBuffer message = buffer.slice();
+		message.limit((int) length);
+		buffer.position(buffer.position() + (int) length);
+		return message;
+	}
+
+	/**
+	 * @param buffer
+	 *            the message at a length delimited field
+	 * @return the field decoded as UTF-8 string
+	 * @throws IOException
+	 */
+	static String readString(final ByteBuffer buffer) throws IOException {
+		final ByteBuffer bytes = readMessage(buffer);
+		if (bytes.hasArray()) {
+			return new String(bytes.array(), bytes.arrayOffset() + bytes.position(),
+					bytes.remaining(), StandardCharsets.UTF_8);
+		}
+		final byte copy[] = new byte[bytes.remaining()];
+		bytes.get(copy);
+		return new String(copy, StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Skips the value of a field the reader is not interested in
+	 *
+	 * @param buffer
+	 *            the message behind the tag of the field
+	 * @param tag
+	 *            tag of the field
+	 * @throws IOException
+	 *             when the wire type is unknown
+	 */
+	static void skip(final ByteBuffer buffer, final int tag) throws IOException {
+		switch (tag & 7) {
+		case VARINT:
+			readVarint(buffer);
+			break;
+		case FIXED64:
+			skipBytes(buffer, 8);
+			break;
+		case LENGTH_DELIMITED:
+			readMessage(buffer);
+			break;
+		case FIXED32:
+			skipBytes(buffer, 4);
+			break;
+		default:
+			throw new IOException("Unsupported protobuf wire type " + (tag & 7) + " of field "
+					+ (tag >>> 3));
+		}
+	}
+
+	private static void skipBytes(final ByteBuffer buffer, final int count) throws EOFException {
+		if (buffer.remaining() < count) {
+			throw new EOFException("Protobuf message ends within a fixed size field");
+		}
+		buffer.position(buffer.position() + count);
+	}
+}
@@ -0,0 +1,394 @@
+/**
+ * Copyright (C) 2026 Oliver Schünemann
+ * 
+ * This program is free software; you can redistribute it and/or modify it under the terms of the 
+ * GNU General Public License as published by the Free Software Foundation; either version 2 of 
+ * the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; 
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. 
+ * See the GNU General Public License for more details. 
+ * 
+ * You should have received a copy of the GNU General Public License along with this program; 
+ * if not, write to the Free Software Foundation, Inc., 51 Franklin St, Fifth Floor, 
+ * Boston, MA 02110, USA 
+ * 
+ * @since 19.10.2026
+ * @version 1.0
+ * @author oliver
+ */
+package oc.pbf.reader;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.Deflater;
+
+import oc.osm.type.Member.Type;
+
+import org.apache.commons.io.FileUtils;
+
+/**
+ * Writes pbf files for the tests. The elements are collected into a block
+ * until {@link #block()} writes it as blob: the nodes as dense nodes, unless
+ * they are added as plain nodes, followed by the ways and the relations.
+ * Coordinates are given in 1e-7 degrees and written in units of the
+ * granularity of the block.
+ *
+ * @author oliver
+ */
+public class PbfFileBuilder {
+	private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+	private final List<String> strings = new ArrayList<>();
+	private final Map<String, Integer> stringIndex = new HashMap<>();
+	private final List<long[]> denseNodes = new ArrayList<>();
+	private final List<int[]> denseTags = new ArrayList<>();
+	private final ByteArrayOutputStream plainNodes = new ByteArrayOutputStream();
+	private final ByteArrayOutputStream ways = new ByteArrayOutputStream();
+	private final ByteArrayOutputStream relations = new ByteArrayOutputStream();
+	private boolean compress = true;
+	private int granularity = 100;
+	private long latOffset;
+	private long lonOffset;
+
+	/**
+	 * @param compress
+	 *            false to write the following blobs raw
+	 * @return this
+	 */
+	public PbfFileBuilder compress(final boolean compress) {
+		this.compress = compress;
+		return this;
+	}
+
+	/**
+	 * Sets granularity and offsets of the current block
+	 *
+	 * @return this
+	 */
+	public PbfFileBuilder granularity(final int granularity, final long latOffset,
+			final long lonOffset) {
+		this.granularity = granularity;
+		this.latOffset = latOffset;
+		this.lonOffset = lonOffset;
+		return this;
+	}
+
+	/**
+	 * Writes the OSMHeader blob
+	 *
+	 * @param requiredFeatures
+	 *            features the file requires
+	 * @return this
+	 * @throws IOException
+	 */
+	public PbfFileBuilder header(final String... requiredFeatures) throws IOException {
+		final ByteArrayOutputStream header = new ByteArrayOutputStream();
+		for (final String feature : requiredFeatures) {
+			writeBytes(header, 4, feature.getBytes(StandardCharsets.UTF_8));
+		}
+		writeBytes(header, 16, "oc test".getBytes(StandardCharsets.UTF_8));
+		return blob(PbfReader.OSM_HEADER, header.toByteArray());
+	}
+
+	/**
+	 * Adds a node to the dense nodes of the block
+	 *
+	 * @param tags
+	 *            keys and values alternating
+	 * @return this
+	 */
+	public PbfFileBuilder node(final long id, final int lat, final int lon, final String... tags) {
+		denseNodes.add(new long[] { id, units(lat, latOffset), units(lon, lonOffset) });
+		final int indices[] = new int[tags.length];
+		for (int i = 0; i < tags.length; ++i) {
+			indices[i] = string(tags[i]);
+		}
+		denseTags.add(indices);
+		return this;
+	}
+
+	/**
+	 * Adds a node as plain node to the block
+	 *
+	 * @param tags
+	 *            keys and values alternating
+	 * @return this
+	 */
+	public PbfFileBuilder plainNode(final long id, final int lat, final int lon,
+			final String... tags) {
+		final ByteArrayOutputStream node = new ByteArrayOutputStream();
+		writeTag(node, 1, ProtobufReader.VARINT);
+		writeVarint(node, zigZag(id));
+		writeTags(node, tags);
+		writeTag(node, 8, ProtobufReader.VARINT);
+		writeVarint(node, zigZag(units(lat, latOffset)));
+		writeTag(node, 9, ProtobufReader.VARINT);
+		writeVarint(node, zigZag(units(lon, lonOffset)));
+		writeBytes(plainNodes, 1, node.toByteArray());
+		return this;
+	}
+
+	/**
+	 * @param tags
+	 *            keys and values alternating
+	 * @return this
+	 */
+	public PbfFileBuilder way(final long id, final long refs[], final String... tags) {
+		final ByteArrayOutputStream way = new ByteArrayOutputStream();
+		writeTag(way, 1, ProtobufReader.VARINT);
+		writeVarint(way, id);
+		writeTags(way, tags);
+		writeBytes(way, 8, packed(delta(refs), true));
+		writeBytes(ways, 3, way.toByteArray());
+		return this;
+	}
+
+	/**
+	 * @param tags
+	 *            keys and values alternating
+	 * @return this
+	 */
+	public PbfFileBuilder relation(final long id, final Type types[], final long ids[],
+			final String roles[], final String... tags) {
+		final ByteArrayOutputStream relation = new ByteArrayOutputStream();
+		writeTag(relation, 1, ProtobufReader.VARINT);
+		writeVarint(relation, id);
+		writeTags(relation, tags);
+		final long roleIndices[] = new long[roles.length];
+		final long typeValues[] = new long[types.length];
+		for (int i = 0; i < roles.length; ++i) {
+			roleIndices[i] = string(roles[i]);
+			typeValues[i] = types[i].ordinal();
+		}
+		writeBytes(relation, 8, packed(roleIndices, false));
+		writeBytes(relation, 9, packed(delta(ids), true));
+		writeBytes(relation, 10, packed(typeValues, false));
+		writeBytes(relations, 4, relation.toByteArray());
+		return this;
+	}
+
+	/**
+	 * Writes the collected elements as OSMData blob and starts a new block
+	 *
+	 * @return this
+	 * @throws IOException
+	 */
+	public PbfFileBuilder block() throws IOException {
+		final ByteArrayOutputStream block = new ByteArrayOutputStream();
+		final ByteArrayOutputStream table = new ByteArrayOutputStream();
+		for (final String string : strings) {
+			writeBytes(table, 1, string.getBytes(StandardCharsets.UTF_8));
+		}
+		writeBytes(block, 1, table.toByteArray());
+		if (!denseNodes.isEmpty()) {
+			writeBytes(block, 2, group(2, dense()));
+		}
+		if (plainNodes.size() > 0) {
+			writeBytes(block, 2, plainNodes.toByteArray());
+		}
+		if (ways.size() > 0) {
+			writeBytes(block, 2, ways.toByteArray());
+		}
+		if (relations.size() > 0) {
+			writeBytes(block, 2, relations.toByteArray());
+		}
+		if (granularity != 100) {
+			writeTag(block, 17, ProtobufReader.VARINT);
+			writeVarint(block, granularity);
+		}
+		if (latOffset != 0) {
+			writeTag(block, 19, ProtobufReader.VARINT);
+			writeVarint(block, latOffset);
+		}
+		if (lonOffset != 0) {
+			writeTag(block, 20, ProtobufReader.VARINT);
+			writeVarint(block, lonOffset);
+		}
+		strings.clear();
+		stringIndex.clear();
+		denseNodes.clear();
+		denseTags.clear();
+		plainNodes.reset();
+		ways.reset();
+		relations.reset();
+		granularity = 100;
+		latOffset = lonOffset = 0;
+		return blob(PbfReader.OSM_DATA, block.toByteArray());
+	}
+
+	/**
+	 * Writes a blob
+	 *
+	 * @param type
+	 *            type of the blob
+	 * @param data
+	 *            the uncompressed block
+	 * @return this
+	 */
+	public PbfFileBuilder blob(final String type, final byte data[]) {
+		final ByteArrayOutputStream blob = new ByteArrayOutputStream();
+		if (compress) {
+			final Deflater deflater = new Deflater();
+			deflater.setInput(data);
+			deflater.finish();
+			final byte compressed[] = new byte[data.length + 1024];
+			final int length = deflater.deflate(compressed);
+			deflater.end();
+			writeTag(blob, 2, ProtobufReader.VARINT);
+			writeVarint(blob, data.length);
+			writeTag(blob, 3, ProtobufReader.LENGTH_DELIMITED);
+			writeVarint(blob, length);
+			blob.write(compressed, 0, length);
+		} else {
+			writeBytes(blob, 1, data);
+		}
+		final ByteArrayOutputStream header = new ByteArrayOutputStream();
+		writeBytes(header, 1, type.getBytes(StandardCharsets.UTF_8));
+		writeTag(header, 3, ProtobufReader.VARINT);
+		writeVarint(header, blob.size());
+		final int length = header.size();
+		out.write(length >>> 24);
+		out.write(length >>> 16 & 0xff);
+		out.write(length >>> 8 & 0xff);
+		out.write(length & 0xff);
+		out.write(header.toByteArray(), 0, length);
+		out.write(blob.toByteArray(), 0, blob.size());
+		return this;
+	}
+
+	/**
+	 * @return the complete file
+	 */
+	public byte[] build() {
+		return out.toByteArray();
+	}
+
+	/**
+	 * @param f
+	 *            file to write
+	 * @throws IOException
+	 */
+	public void writeTo(final File f) throws IOException {
+		FileUtils.writeByteArrayToFile(f, build());
+	}
+
+	private byte[] dense() {
+		final ByteArrayOutputStream dense = new ByteArrayOutputStream();
+		final long ids[] = new long[denseNodes.size()];
+		final long lats[] = new long[denseNodes.size()];
+		final long lons[] = new long[denseNodes.size()];
+		final List<Long> keysValues = new ArrayList<>();
+		boolean tagged = false;
+		for (int i = 0; i < ids.length; ++i) {
+			ids[i] = denseNodes.get(i)[0];
+			lats[i] = denseNodes.get(i)[1];
+			lons[i] = denseNodes.get(i)[2];
+			for (final int index : denseTags.get(i)) {
+				keysValues.add(Long.valueOf(index));
+				tagged = true;
+			}
+			keysValues.add(Long.valueOf(0));
+		}
+		writeBytes(dense, 1, packed(delta(ids), true));
+		writeBytes(dense, 8, packed(delta(lats), true));
+		writeBytes(dense, 9, packed(delta(lons), true));
+		if (tagged) {
+			final long values[] = new long[keysValues.size()];
+			for (int i = 0; i < values.length; ++i) {
+				values[i] = keysValues.get(i).longValue();
+			}
+			writeBytes(dense, 10, packed(values, false));
+		}
+		return dense.toByteArray();
+	}
+
+	private static byte[] group(final int field, final byte data[]) {
+		final ByteArrayOutputStream group = new ByteArrayOutputStream();
+		writeBytes(group, field, data);
+		return group.toByteArray();
+	}
+
+	private void writeTags(final ByteArrayOutputStream element, final String tags[]) {
+		final long keys[] = new long[tags.length / 2];
+		final long values[] = new long[tags.length / 2];
+		for (int i = 0; i < keys.length; ++i) {
+			keys[i] = string(tags[2 * i]);
+			values[i] = string(tags[2 * i + 1]);
+		}
+		if (keys.length > 0) {
+			writeBytes(element, 2, packed(keys, false));
+			writeBytes(element, 3, packed(values, false));
+		}
+	}
+
+	/**
+	 * @return index of the string in the string table, which starts with the
+	 *         empty string
+	 */
+	private int string(final String string) {
+		if (strings.isEmpty()) {
+			strings.add("");
+			stringIndex.put("", Integer.valueOf(0));
+		}
+		Integer index = stringIndex.get(string);
+		if (index == null) {
+			index = Integer.valueOf(strings.size());
+			strings.add(string);
+			stringIndex.put(string, index);
+		}
+		return index.intValue();
+	}
+
+	private long units(final int coordinate, final long offset) {
+		return (coordinate * 100L - offset) / granularity;
+	}
+
+	private static long[] delta(final long values[]) {
+		final long ret[] = new long[values.length];
+		long last = 0;
+		for (int i = 0; i < values.length; ++i) {
+			ret[i] = values[i] - last;
+			last = values[i];
+		}
+		return ret;
+	}
+
+	private static byte[] packed(final long values[], final boolean signed) {
+		final ByteArrayOutputStream packed = new ByteArrayOutputStream();
+		for (final long value : values) {
+			writeVarint(packed, signed ? zigZag(value) : value);
+		}
+		return packed.toByteArray();
+	}
+
+	private static long zigZag(final long value) {
+		return value << 1 ^ value >> 63;
+	}
+
+	private static void writeTag(final ByteArrayOutputStream out, final int field,
+			final int wireType) {
+		writeVarint(out, ProtobufReader.tag(field, wireType));
+	}
+
+	private static void writeBytes(final ByteArrayOutputStream out, final int field,
+			final byte bytes[]) {
+		writeTag(out, field, ProtobufReader.LENGTH_DELIMITED);
+		writeVarint(out, bytes.length);
+		out.write(bytes, 0, bytes.length);
+	}
+
+	private static void writeVarint(final ByteArrayOutputStream out, final long value) {
+		long rest = value;
+		while ((rest & ~0x7fL) != 0) {
+			out.write((int) (rest & 0x7f) | 0x80);
+			rest >>>= 7;
+		}
+		out.write((int) rest);
+	}
+}
@@ -0,0 +1,133 @@
+/**
+ * Copyright (C) 2026 Oliver Schünemann
+ * 
+ * This program is free software; you can redistribute it and/or modify it under the terms of the 
+ * GNU General Public License as published by the Free Software Foundation; either version 2 of 
+ * the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; 
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. 
+ * See the GNU General Public License for more details. 
+ * 
+ * You should have received a copy of the GNU General Public License along with this program; 
+ * if not, write to the Free Software Foundation, Inc., 51 Franklin St, Fifth Floor, 
+ * Boston, MA 02110, USA 
+ * 
+ * @since 19.10.2026
+ * @version 1.0
+ * @author oliver
+ */
+package oc.pbf.reader;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Set;
+import java.util.TreeSet;
+
+import oc.osm.handler.ConcurrentOsmHandler;
+import oc.osm.type.Node;
+import oc.pbf.reader.PbfReaderTestCase.RecordingHandler;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * @author oliver
+ * 
+ */
+public class PbfParallelReaderTestCase {
+
+	private static final int BLOCKS = 6;
+	private static final int NODES_PER_BLOCK = 800;
+
+	private File file = null;
+
+	/**
+	 * Writes a file of several blocks of nodes followed by a block of ways
+	 * 
+	 * @throws IOException
+	 */
+	@Before
+	public void setup() throws IOException {
+		file = File.createTempFile("parallel", "pbf");
+		final PbfFileBuilder builder = new PbfFileBuilder().header("OsmSchema-V0.6",
+				"DenseNodes");
+		long id = 0;
+		for (int block = 0; block < BLOCKS; ++block) {
+			for (int i = 0; i < NODES_PER_BLOCK; ++i) {
+				++id;
+				builder.node(id, (int) id * 10, (int) -id * 20, "name", "node" + id % 7);
+			}
+			builder.block();
+		}
+		for (int i = 1; i < 100; ++i) {
+			builder.way(i, new long[] { i, i + 1 }, "highway", "track");
+		}
+		builder.block().writeTo(file);
+	}
+
+	@After
+	public void tearDown() {
+		file.delete();
+	}
+
+	@Test
+	public void testSplit() throws IOException {
+		assertEquals(BLOCKS + 2, new PbfParallelReader(file, 4, 0).split().size());
+		assertEquals(1, new PbfParallelReader(file, 4, PbfParallelReader.MIN_TASK_SIZE).split()
+				.size());
+	}
+
+	@Test
+	public void testOrdered() throws IOException {
+		final RecordingHandler expected = new RecordingHandler();
+		new PbfReader().readFile(file, expected);
+		assertEquals(BLOCKS * NODES_PER_BLOCK + 99, expected.elements.size());
+		final RecordingHandler handler = new RecordingHandler();
+		new PbfParallelReader(file, 3, 0).read(handler);
+		assertEquals(expected.elements, handler.elements);
+	}
+
+	@Test
+	public void testUnordered() throws IOException {
+		final RecordingHandler expected = new RecordingHandler();
+		new PbfReader().readFile(file, expected);
+		final Set<String> nodes = Collections.synchronizedSet(new TreeSet<String>());
+		final class ConcurrentHandler extends RecordingHandler implements ConcurrentOsmHandler {
+			@Override
+			public void newNode(final Node node) throws IOException {
+				nodes.add("n" + node.getId() + "," + node.getLat() + "," + node.getLon()
+						+ node.getProps());
+			}
+		}
+		new PbfParallelReader(file, 3, 0).read(new ConcurrentHandler());
+		assertEquals(new TreeSet<>(expected.elements.subList(0, BLOCKS * NODES_PER_BLOCK)),
+				nodes);
+	}
+
+	@Test
+	public void testFailure() {
+		final RecordingHandler failing = new RecordingHandler() {
+			@Override
+			public void newNode(final Node node) throws IOException {
+				if (node.getId() == 2000) {
+					throw new IOException("failing at 2000");
+				}
+				super.newNode(node);
+			}
+		};
+		try {
+			new PbfParallelReader(file, 3, 0).read(failing);
+			fail("Failure of the handler was not passed on");
+		} catch (final IOException e) {
+			assertEquals("failing at 2000", e.getMessage());
+		}
+		assertTrue(failing.elements.size() < 2000);
+	}
+}
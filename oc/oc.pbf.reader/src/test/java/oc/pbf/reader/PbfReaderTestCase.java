@@ -0,0 +1,195 @@
+/**
+ * Copyright (C) 2026 Oliver Schünemann
+ * 
+ * This program is free software; you can redistribute it and/or modify it under the terms of the 
+ * GNU General Public License as published by the Free Software Foundation; either version 2 of 
+ * the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; 
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. 
+ * See the GNU General Public License for more details. 
+ * 
+ * You should have received a copy of the GNU General Public License along with this program; 
+ * if not, write to the Free Software Foundation, Inc., 51 Franklin St, Fifth Floor, 
+ * Boston, MA 02110, USA 
+ * 
+ * @since 19.10.2026
+ * @version 1.0
+ * @author oliver
+ */
+package oc.pbf.reader;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.io.EOFException;
+import java.io.Externalizable;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import oc.osm.handler.OsmHandler;
+import oc.osm.type.Member;
+import oc.osm.type.Member.Type;
+import oc.osm.type.Node;
+import oc.osm.type.Relation;
+import oc.osm.type.Way;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * @author oliver
+ * 
+ */
+public class PbfReaderTestCase {
+
+	private File file = null;
+
+	@Before
+	public void setup() throws IOException {
+		file = File.createTempFile("reader", "pbf");
+	}
+
+	@After
+	public void tearDown() {
+		file.delete();
+	}
+
+	/**
+	 * Handler recording the elements as text
+	 * 
+	 * @author oliver
+	 */
+	static class RecordingHandler implements OsmHandler {
+		final List<String> elements = new ArrayList<>();
+
+		@Override
+		public void newNode(final Node node) throws IOException {
+			elements.add("n" + node.getId() + "," + node.getLat() + "," + node.getLon()
+					+ node.getProps());
+		}
+
+		@Override
+		public void newWay(final Way way) throws IOException {
+			final StringBuilder builder = new StringBuilder("w" + way.getId());
+			for (final Node node : way.getNodes()) {
+				builder.append(',').append(node.getId());
+			}
+			elements.add(builder.append(way.getProps()).toString());
+		}
+
+		@Override
+		public void newRelation(final Relation relation) throws IOException {
+			final StringBuilder builder = new StringBuilder("r" + relation.getId());
+			for (final Member member : relation.getMembers()) {
+				builder.append(',').append(member.getType()).append(id(member.getRef()))
+						.append(':').append(member.getRole());
+			}
+			elements.add(builder.append(relation.getProps()).toString());
+		}
+	}
+
+	private static long id(final Externalizable ref) {
+		if (ref instanceof Node) {
+			return ((Node) ref).getId();
+		} else if (ref instanceof Way) {
+			return ((Way) ref).getId();
+		}
+		return ((Relation) ref).getId();
+	}
+
+	private List<String> read() throws IOException {
+		final RecordingHandler handler = new RecordingHandler();
+		new PbfReader().readFile(file, handler);
+		return handler.elements;
+	}
+
+	@Test
+	public void testDenseNodes() throws IOException {
+		final PbfFileBuilder builder = new PbfFileBuilder().header("OsmSchema-V0.6",
+				"DenseNodes");
+		builder.node(1, 525162700, 133777300, "name", "Test Punkt");
+		builder.node(2, -525162700, -1799999999);
+		builder.node(5, 0, 1, "name", "Grüße", "highway", "bus_stop");
+		builder.block().writeTo(file);
+		assertEquals(Arrays.asList("n1,525162700,133777300{name=Test Punkt}",
+				"n2,-525162700,-1799999999{}", "n5,0,1{name=Grüße, highway=bus_stop}"), read());
+	}
+
+	/**
+	 * Coordinates stored with another granularity and offsets
+	 * 
+	 * @throws IOException
+	 */
+	@Test
+	public void testGranularity() throws IOException {
+		final PbfFileBuilder builder = new PbfFileBuilder().header();
+		builder.granularity(1000, 100000000000L, -5000);
+		builder.node(1, 525162700, 133777300);
+		builder.plainNode(2, -10, 20, "name", "plain");
+		builder.block().writeTo(file);
+		assertEquals(Arrays.asList("n1,525162700,133777300{}", "n2,-10,20{name=plain}"), read());
+	}
+
+	@Test
+	public void testElements() throws IOException {
+		final PbfFileBuilder builder = new PbfFileBuilder().header();
+		builder.node(10, 1, 1).node(11, 2, 2).node(12, 3, 3).block();
+		builder.way(2, new long[] { 10, 11, 12, 10 }, "highway", "track");
+		builder.way(3, new long[] { 12, 11 });
+		builder.block();
+		builder.relation(4, new Type[] { Type.NODE, Type.WAY, Type.RELATION }, new long[] { 10,
+				2, 4 }, new String[] { "label", "outer", "" }, "type", "multipolygon");
+		builder.block().writeTo(file);
+		assertEquals(Arrays.asList("n10,1,1{}", "n11,2,2{}", "n12,3,3{}",
+				"w2,10,11,12,10{highway=track}", "w3,12,11{}",
+				"r4,NODE10:label,WAY2:outer,RELATION4:{type=multipolygon}"), read());
+	}
+
+	/**
+	 * Raw blobs are read as well, blobs of unknown types are skipped.
+	 * 
+	 * @throws IOException
+	 */
+	@Test
+	public void testRawBlobs() throws IOException {
+		final PbfFileBuilder builder = new PbfFileBuilder().compress(false).header();
+		builder.node(1, 10, 20, "name", "raw").block();
+		builder.blob("OSMIndex", new byte[] { 1, 2, 3 });
+		builder.compress(true).node(2, 30, 40).block().writeTo(file);
+		assertEquals(Arrays.asList("n1,10,20{name=raw}", "n2,30,40{}"), read());
+	}
+
+	@Test(expected = IOException.class)
+	public void testUnsupportedFeature() throws IOException {
+		new PbfFileBuilder().header("OsmSchema-V0.6", "Has_Metadata_Of_Mars").node(1, 1, 1)
+				.block().writeTo(file);
+		read();
+	}
+
+	@Test(expected = IOException.class)
+	public void testNoHeader() throws IOException {
+		new PbfFileBuilder().node(1, 1, 1).block().writeTo(file);
+		read();
+	}
+
+	@Test
+	public void testTruncated() throws IOException {
+		final byte pbf[] = new PbfFileBuilder().header().node(1, 1, 1, "name", "cut").block()
+				.build();
+		for (final int length : new int[] { 0, 2, 10, pbf.length - 1 }) {
+			FileUtils.writeByteArrayToFile(file, Arrays.copyOf(pbf, length));
+			try {
+				read();
+				fail("Truncated file of " + length + " bytes was not noticed");
+			} catch (final EOFException e) {
+				// expected
+			}
+		}
+	}
+}
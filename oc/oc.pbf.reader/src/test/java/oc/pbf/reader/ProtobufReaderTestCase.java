@@ -0,0 +1,88 @@
+/**
+ * Copyright (C) 2026 Oliver Schünemann
+ * 
+ * This program is free software; you can redistribute it and/or modify it under the terms of the 
+ * GNU General Public License as published by the Free Software Foundation; either version 2 of 
+ * the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; 
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. 
+ * See the GNU General Public License for more details. 
+ * 
+ * You should have received a copy of the GNU General Public License along with this program; 
+ * if not, write to the Free Software Foundation, Inc., 51 Franklin St, Fifth Floor, 
+ * Boston, MA 02110, USA 
+ * 
+ * @since 19.10.2026
+ * @version 1.0
+ * @author oliver
+ */
+package oc.pbf.reader;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import org.junit.Test;
+
+/**
+ * @author oliver
+ * 
+ */
+public class ProtobufReaderTestCase {
+
+	private static ByteBuffer buffer(final int... bytes) {
+		final ByteBuffer buffer = ByteBuffer.allocate(bytes.length);
+		for (final int b : bytes) {
+			buffer.put((byte) b);
+		}
+		buffer.flip();
+		return buffer;
+	}
+
+	@Test
+	public void testVarint() throws IOException {
+		final ByteBuffer buffer = buffer(0x00, 0x7f, 0xac, 0x02, 0xff, 0xff, 0xff, 0xff, 0xff,
+				0xff, 0xff, 0xff, 0xff, 0x01);
+		assertEquals(0, ProtobufReader.readVarint(buffer));
+		assertEquals(127, ProtobufReader.readVarint(buffer));
+		assertEquals(300, ProtobufReader.readVarint(buffer));
+		assertEquals(-1, ProtobufReader.readVarint(buffer));
+		assertEquals(false, buffer.hasRemaining());
+	}
+
+	@Test
+	public void testZigZag() {
+		assertEquals(0, ProtobufReader.zigZag(0));
+		assertEquals(-1, ProtobufReader.zigZag(1));
+		assertEquals(1, ProtobufReader.zigZag(2));
+		assertEquals(Long.MAX_VALUE, ProtobufReader.zigZag(-2));
+		assertEquals(Long.MIN_VALUE, ProtobufReader.zigZag(-1));
+	}
+
+	/**
+	 * Reads a message with a string, a skipped fixed 32 field and a number
+	 * 
+	 * @throws IOException
+	 */
+	@Test
+	public void testFields() throws IOException {
+		final ByteBuffer buffer = buffer(0x0a, 0x02, 'o', 'c', 0x15, 1, 2, 3, 4, 0x18, 0x05);
+		assertEquals(ProtobufReader.tag(1, ProtobufReader.LENGTH_DELIMITED),
+				ProtobufReader.readTag(buffer));
+		assertEquals("oc", ProtobufReader.readString(buffer));
+		final int fixed = ProtobufReader.readTag(buffer);
+		assertEquals(ProtobufReader.tag(2, ProtobufReader.FIXED32), fixed);
+		ProtobufReader.skip(buffer, fixed);
+		assertEquals(ProtobufReader.tag(3, ProtobufReader.VARINT), ProtobufReader.readTag(buffer));
+		assertEquals(5, ProtobufReader.readVarint(buffer));
+		assertEquals(0, ProtobufReader.readTag(buffer));
+	}
+
+	@Test(expected = EOFException.class)
+	public void testMessageBehindEnd() throws IOException {
+		ProtobufReader.readMessage(buffer(0x05, 1, 2));
+	}
+}
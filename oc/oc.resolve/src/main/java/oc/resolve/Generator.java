@@ -22,16 +22,26 @@ package oc.resolve;
 import java.io.File;
 import java.io.IOException;
 
-import oc.io.ExternalizableWriter;
+import oc.io.CodecContext;
+import oc.io.MultiReferenceResolver;
+import oc.io.base.IdBitSet;
+import oc.io.base.MemoryBudget;
+import oc.io.stage.Stage;
+import oc.io.stage.StageManifest;
+import oc.io.stage.StageScheduler;
 import oc.o5m.reader.O5mReader;
-import oc.osm.handler.OsmHandler;
+import oc.osm.handler.OsmBatchCollector;
 import oc.osm.type.Node;
 import oc.osm.type.Relation;
 import oc.osm.type.Way;
-import oc.resolve.supp.RelationNodeResolver;
+import oc.pbf.reader.PbfReader;
+import oc.resolve.supp.CoordinateNodeSource;
+import oc.resolve.supp.NodeJoin;
 import oc.resolve.supp.RelationRelationResolver;
 import oc.resolve.supp.RelationWayResolver;
+import oc.resolve.supp.WayNodeFilter;
 import oc.resolve.supp.WayNodeResolver;
+import oc.sax.reader.OsmXmlScanner;
 import oc.sax.reader.SaxReader;
 
 import org.apache.logging.log4j.LogManager;
@@ -42,7 +52,8 @@ import org.apache.logging.log4j.Logger;
  * and calls them in the correct order to resolve all of them. As a result there
  * will be 4 files in the output folder:
  * <ul style="list-style-type:disc">
- * <li>nodes.dat contains all nodes in the source file</li>
+ * <li>nodes.dat contains all nodes in the source file, or only the nodes with
+ * tags or outside of ways, see {@link #setDropWayNodes(boolean)}</li>
  * <li>resways.dat contains all resolved ways. That means all nodes belonging to
  * a way have correct coordinates set.</li>
  * <li>resfiltways.dat contains all resolved ways like the resways.dat file, but
@@ -52,6 +63,10 @@ import org.apache.logging.log4j.Logger;
  * <li>resrelation.dat contains all resolved relations. That means the ways and
  * nodes are completely copied from the source.
  * </ul>
+ * The progress is recorded in a manifest in the temp folder. When the
+ * generator is started again after it was interrupted, the steps whose results
+ * are still valid are skipped and interrupted sorts continue where they
+ * stopped.
  * 
  * @author oliver
  * 
@@ -61,7 +76,6 @@ public class Generator {
 	protected final File dataPath;
 	protected final File tempPath;
 	protected final File nodeFile;
-	protected final File simpleNodeFile;
 	protected final File wayFile;
 	protected final File relationFile;
 	protected final File resolvedWayFile;
@@ -69,6 +83,46 @@ public class Generator {
 
 	protected final File resolvedRelationFile;
 	protected final File tempRelationFile;
+	protected final File relationWayFile;
+	protected final File manifestFile;
+	protected final File allNodeFile;
+	protected final File wayNodeIdFile;
+	protected final File coordinateFile;
+	protected final int threads;
+	protected final long memoryBudget;
+	/**
+	 * Memory of a sorting stage, the sorters size their first level files to
+	 * the same share of the budget
+	 */
+	protected final long sortMemory;
+	/**
+	 * Reads xml source files with the SaxReader instead of the OsmXmlScanner
+	 */
+	private boolean saxReader = false;
+	/**
+	 * Reads binary source files with the PbfReader instead of the O5mReader
+	 */
+	private boolean pbfFile = false;
+	/**
+	 * Writes only the nodes with tags or outside of ways to the node file
+	 */
+	private boolean dropWayNodes = false;
+	/**
+	 * Budget the buffers of the stages are reserved from
+	 */
+	private final MemoryBudget budget;
+	/**
+	 * Dictionary and sampling of the files written and read by the stages,
+	 * always with the budget of the generator
+	 */
+	private CodecContext codecContext;
+
+	/**
+	 * Rough estimates of the memory the other stages need. Scans only need the
+	 * buffers of their streams.
+	 */
+	private static final long READ_MEMORY = 32L << 20;
+	private static final long SCAN_MEMORY = 16L << 20;
 
 	private static final Logger logger = LogManager.getLogger(Generator.class.getName());
 
@@ -83,15 +137,53 @@ public class Generator {
 	 * @throws IOException
 	 */
 	public Generator(final File dataPath, final File tempPath) throws IOException {
+		this(dataPath, tempPath, Runtime.getRuntime().availableProcessors(), MemoryBudget
+				.getGlobal().getTotal());
+	}
+
+	/**
+	 * Constructor configuring output and temp path and the resources the
+	 * resolving may use.
+	 * 
+	 * @param dataPath
+	 *            this folder will be used as output folder. All the resulting
+	 *            files will be stored here
+	 * @param tempPath
+	 *            this will be used for intermediate results.
+	 * @param threads
+	 *            maximum number of resolving steps running in parallel and
+	 *            number of partitions the nodes of the ways are resolved in
+	 * @param memoryBudget
+	 *            maximum memory in bytes the steps running in parallel may
+	 *            use together. The buffers of the steps are reserved from a
+	 *            {@link MemoryBudget} of this size, handed to them with the
+	 *            {@link CodecContext}.
+	 * @throws IOException
+	 */
+	public Generator(final File dataPath, final File tempPath, final int threads,
+			final long memoryBudget) throws IOException {
+		if (threads < 1) {
+			throw new IllegalArgumentException("At least 1 thread is needed, not " + threads);
+		}
+		this.threads = threads;
+		this.memoryBudget = memoryBudget;
+		sortMemory = memoryBudget / threads;
+		budget = new MemoryBudget(memoryBudget);
+		budget.setParallelism(threads);
+		codecContext = CodecContext.getDefault().withMemoryBudget(budget);
 		this.dataPath = dataPath;
 		this.tempPath = tempPath;
 		nodeFile = new File(dataPath, "nodes.dat");
-		simpleNodeFile = new File(tempPath, "snodes.dat");
 		wayFile = new File(dataPath, "ways.dat");
 		relationFile = new File(dataPath, "relations.dat");
 		resolvedWayFile = new File(dataPath, "resways.dat");
 		resolvedFilteredWayFile = new File(dataPath, "resfiltways.dat");
 		tempRelationFile = new File(tempPath, "temprelation.dat");
+		relationWayFile = new File(tempPath, "relationways.dat");
+		manifestFile = new File(tempPath, "stages.manifest");
+		allNodeFile = new File(tempPath, "allnodes.dat");
+		wayNodeIdFile = new File(tempPath, "waynodes.ids");
+		coordinateFile = new File(tempPath, "coordinates.dat");
 		resolvedRelationFile = new File(dataPath, "resrelation.dat");
 	}
 
@@ -99,120 +191,313 @@ public class Generator {
 	 * this resolves the complete source file. Resolving means that all
 	 * references ways and relations have are replaced by the referenced
 	 * element. For ways that are nodes and for relations that are nodes, ways
-	 * and other relations.
+	 * and other relations. The single steps are run by a StageScheduler, so
+	 * that steps not depending on each other can run in parallel. Steps that
+	 * were completed by an earlier, interrupted run are skipped.
 	 * 
 	 * @param f
-	 *            source file either in o5m or osm.gz format
+	 *            source file either in o5m, pbf or osm format, plain or
+	 *            compressed
 	 * @param xmlFile
-	 *            true when the source file is in osm.gz format
+	 *            true when the source file is in osm format
 	 * @throws IOException
 	 */
 	public void readFile(final File f, final boolean xmlFile) throws IOException {
-		final ExternalizableWriter<Node> nodeWriter = new ExternalizableWriter<>(nodeFile);
-		final ExternalizableWriter<Node> sNodeWriter = new ExternalizableWriter<>(simpleNodeFile);
-		final ExternalizableWriter<Way> wayWriter = new ExternalizableWriter<>(wayFile);
-		final ExternalizableWriter<Relation> relationWriter = new ExternalizableWriter<>(
-				relationFile);
-		final LocalOsmHandler handler = new LocalOsmHandler(nodeWriter, sNodeWriter, wayWriter,
-				relationWriter);
-		logger.info("Start Reading source file");
-		if (xmlFile) {
-			SaxReader.readFile(f, handler);
+		final StageScheduler scheduler = new StageScheduler(threads, memoryBudget);
+		scheduler.setManifest(new StageManifest(manifestFile));
+		// the resolvers need all nodes, the vertices of ways are dropped later
+		final File sourceNodeFile = dropWayNodes ? allNodeFile : nodeFile;
+		// the ids of the way nodes take up to a GB, reserved from the budget.
+		// How many is only known after reading, but the read stage runs alone
+		// anyway, as every other stage depends on it.
+		final Stage read = scheduler.addStage(new Stage("Read source file",
+				dropWayNodes ? memoryBudget : READ_MEMORY) {
+			@Override
+			public void run() throws IOException {
+				readSourceFile(f, xmlFile, sourceNodeFile);
+			}
+		}).addInput(f).addOutput(sourceNodeFile, coordinateFile, wayFile, relationFile)
+				.addParameter("xml", Boolean.valueOf(xmlFile))
+				.addParameter("sax", Boolean.valueOf(xmlFile && saxReader))
+				.addParameter("pbf", Boolean.valueOf(!xmlFile && pbfFile))
+				.addParameter("dropWayNodes", Boolean.valueOf(dropWayNodes));
+		if (dropWayNodes) {
+			read.addOutput(wayNodeIdFile);
+			scheduler.addStage(new Stage("Drop untagged nodes of ways", SCAN_MEMORY) {
+				/**
+				 * The file holds the allocated pages of the set, it takes as
+				 * much memory as the file is long.
+				 */
+				@Override
+				public long getMemory() {
+					return super.getMemory() + wayNodeIdFile.length();
+				}
+
+				@Override
+				public void run() throws IOException {
+					final IdBitSet wayNodes = IdBitSet.readFrom(wayNodeIdFile,
+							codecContext.getMemoryBudget());
+					try {
+						WayNodeFilter.filter(nodeFile, allNodeFile, wayNodes, codecContext);
+					} finally {
+						wayNodes.release();
+					}
+				}
+			}).addInput(allNodeFile, wayNodeIdFile).addOutput(nodeFile);
+		}
+
+		// the node scans read the ids and coordinates only
+		final NodeJoin nodeJoin = new NodeJoin(new CoordinateNodeSource(coordinateFile), tempPath);
+		nodeJoin.getResolver().setCheckpoints(true);
+		nodeJoin.getResolver().setCodecContext(codecContext);
+		final MultiReferenceResolver<Node>.Referer<?> relationNodes = nodeJoin.addRelations(
+				tempRelationFile, relationFile);
+		scheduler.addStage(prepareStage("Sort node references of relations", relationNodes))
+				.addInput(relationFile);
+		final Stage scanNodes = scheduler.addStage(new Stage("Resolve nodes", SCAN_MEMORY) {
+			@Override
+			public void run() throws IOException {
+				nodeJoin.getResolver().scan();
+			}
+		}).addInput(coordinateFile).addInput(relationNodes.getReferenceFile())
+				.addOutput(relationNodes.getResolvedRefFile());
+		if (threads > 1) {
+			// the way node join is the biggest one, it is worth its own scan of
+			// the nodes when it can be split into partitions. The scan for
+			// the relations decodes only the blocks with referenced nodes.
+			scheduler.addStage(new Stage("Resolve nodes of ways in " + threads + " partitions",
+					memoryBudget) {
+				@Override
+				public void run() throws IOException {
+					WayNodeResolver.resolveNodes(resolvedWayFile, wayFile,
+							new CoordinateNodeSource(coordinateFile), tempPath, threads,
+							codecContext);
+				}
+			}).addInput(wayFile, coordinateFile).addOutput(resolvedWayFile)
+					.addParameter("partitions", Integer.valueOf(threads));
 		} else {
-			final O5mReader o5mReader = new O5mReader();
-			o5mReader.readFile(f, handler);
+			final MultiReferenceResolver<Node>.Referer<?> wayNodes = nodeJoin.addWays(
+					resolvedWayFile, wayFile);
+			scheduler.addStage(prepareStage("Sort node references of ways", wayNodes)).addInput(
+					wayFile);
+			scanNodes.addInput(wayNodes.getReferenceFile()).addOutput(
+					wayNodes.getResolvedRefFile());
+			scheduler.addStage(finishStage("Write ways with resolved nodes", wayNodes))
+					.addInput(wayFile).addOutput(resolvedWayFile);
 		}
-		nodeWriter.close();
-		sNodeWriter.close();
-		wayWriter.close();
-		relationWriter.close();
-		logger.info("Resolve Nodes for Ways");
-		WayNodeResolver.resolveNodes(resolvedWayFile, wayFile, simpleNodeFile, tempPath);
-		logger.info("Resolve Nodes for Relations");
-		RelationNodeResolver.resolveNodes(tempRelationFile, relationFile, simpleNodeFile, tempPath);
-		logger.info("Resolve Ways for Relations");
-		RelationWayResolver.resolveWays(resolvedRelationFile, tempRelationFile, resolvedWayFile,
-				tempPath);
-		logger.info("Resolve Relations for Relations");
-		RelationRelationResolver.resolve(resolvedRelationFile, tempPath);
-		logger.info("Drop Ways that are contained in Relations");
-		RelationWayResolver.dropRelatedWays(resolvedFilteredWayFile, resolvedRelationFile,
+		scheduler.addStage(finishStage("Write relations with resolved nodes", relationNodes))
+				.addInput(relationFile).addOutput(tempRelationFile);
+
+		final MultiReferenceResolver<Way> wayJoin = RelationWayResolver.createWayResolver(
 				resolvedWayFile, tempPath);
+		wayJoin.setCheckpoints(true);
+		wayJoin.setCodecContext(codecContext);
+		wayJoin.setUnreferencedFile(resolvedFilteredWayFile);
+		final MultiReferenceResolver<Way>.Referer<?> relationWays = RelationWayResolver
+				.addReferer(wayJoin, relationWayFile, tempRelationFile);
+		scheduler.addStage(prepareStage("Sort way references of relations", relationWays))
+				.addInput(tempRelationFile);
+		scheduler.addStage(new Stage("Resolve ways and drop ways contained in relations",
+				SCAN_MEMORY) {
+			@Override
+			public void run() throws IOException {
+				wayJoin.scan();
+			}
+		}).addInput(resolvedWayFile, relationWays.getReferenceFile())
+				.addOutput(resolvedFilteredWayFile, relationWays.getResolvedRefFile());
+		scheduler.addStage(finishStage("Write relations with resolved ways", relationWays))
+				.addInput(tempRelationFile).addOutput(relationWayFile);
+
+		scheduler.addStage(new Stage("Resolve relations for relations", sortMemory) {
+			@Override
+			public void run() throws IOException {
+				RelationRelationResolver.resolve(relationWayFile, resolvedRelationFile, tempPath,
+						codecContext);
+			}
+		}).addInput(relationWayFile).addOutput(resolvedRelationFile);
+
+		scheduler.run();
+		if (codecContext.getStringCache() != null) {
+			logger.info("String cache: {}", codecContext.getStringCache());
+		}
 		logger.info("Tidy up");
-		simpleNodeFile.delete();
 		wayFile.delete();
 		relationFile.delete();
 		tempRelationFile.delete();
+		relationWayFile.delete();
+		allNodeFile.delete();
+		wayNodeIdFile.delete();
+		coordinateFile.delete();
 		logger.info("Finished");
 	}
 
 	/**
-	 * Callback handler from input file reader. This can handle the callbacks
-	 * from O5M and OSM handler.
-	 * 
-	 * @author oliver
-	 */
-	private static class LocalOsmHandler implements OsmHandler {
-		private final ExternalizableWriter<Node> nodeWriter;
-		private final ExternalizableWriter<Node> sNodeWriter;
-		private final ExternalizableWriter<Way> wayWriter;
-		private final ExternalizableWriter<Relation> relationWriter;
-		private final Node secondNode = new Node();
-
-		public LocalOsmHandler(final ExternalizableWriter<Node> nodeWriter,
-				final ExternalizableWriter<Node> sNodeWriter,
-				final ExternalizableWriter<Way> wayWriter,
-				final ExternalizableWriter<Relation> relationWriter) {
-			super();
-			this.nodeWriter = nodeWriter;
-			this.sNodeWriter = sNodeWriter;
-			this.wayWriter = wayWriter;
-			this.relationWriter = relationWriter;
-		}
+	 * @param saxReader
+	 *            true to read xml source files with the generic xml parser of
+	 *            the {@link SaxReader} instead of the {@link OsmXmlScanner}
+	 */
+	public void setSaxReader(final boolean saxReader) {
+		this.saxReader = saxReader;
+	}
 
-		/*
-		 * (non-Javadoc)
-		 * 
-		 * @see oc.osm.handler.OsmHandler#newNode(oc.osm.type.Node)
-		 */
-		@Override
-		public void newNode(final Node node) {
-			try {
-				secondNode.setId(node.getId());
-				secondNode.setLat(node.getLat());
-				secondNode.setLon(node.getLon());
-				nodeWriter.writeExternalizable(node);
-				sNodeWriter.writeExternalizable(secondNode);
-			} catch (final IOException e) {
-				logger.error("Unable to write Node", e);
+	/**
+	 * @param pbfFile
+	 *            true when a source file not in osm format is a pbf file, read
+	 *            by the {@link PbfReader}, instead of an o5m file
+	 */
+	public void setPbfFile(final boolean pbfFile) {
+		this.pbfFile = pbfFile;
+	}
+
+	/**
+	 * @param dropWayNodes
+	 *            true to write only the nodes with tags or outside of ways to
+	 *            nodes.dat. The untagged vertices of ways are most of the
+	 *            nodes, their coordinates are kept in the resolved ways.
+	 */
+	public void setDropWayNodes(final boolean dropWayNodes) {
+		this.dropWayNodes = dropWayNodes;
+	}
+
+	/**
+	 * @param codecContext
+	 *            dictionary and sampling the files of the conversion are
+	 *            written with, its memory budget is replaced by the one of
+	 *            the generator
+	 */
+	public void setCodecContext(final CodecContext codecContext) {
+		this.codecContext = codecContext.withMemoryBudget(budget);
+	}
+
+	/**
+	 * Forgets the progress of earlier runs, so that the next call of readFile
+	 * runs all steps.
+	 */
+	public void discardProgress() {
+		manifestFile.delete();
+	}
+
+	/**
+	 * Creates the stage sorting the references of a Referer. The name of the
+	 * file with the sorted references is known before, so it is declared as
+	 * output for the stage scanning the referenced file.
+	 * 
+	 * @param name
+	 *            name of the stage
+	 * @param referer
+	 *            the Referer to prepare
+	 * @return the stage
+	 */
+	private Stage prepareStage(final String name,
+			final MultiReferenceResolver<?>.Referer<?> referer) {
+		return new Stage(name, sortMemory) {
+			@Override
+			public void run() throws IOException {
+				// the sort of an earlier run belongs to other references
+				if (!isResumed()) {
+					referer.discardCheckpoints();
+				}
+				referer.prepare();
 			}
-		}
+		}.addOutput(referer.getReferenceFile());
+	}
 
-		/*
-		 * (non-Javadoc)
-		 * 
-		 * @see oc.osm.handler.OsmHandler#newWay(oc.osm.type.Way)
-		 */
-		@Override
-		public void newWay(final Way way) {
-			try {
-				wayWriter.writeExternalizable(way);
-			} catch (final IOException e) {
-				logger.error("Unable to write Way", e);
+	/**
+	 * Creates the stage sorting the resolved references of a Referer and
+	 * writing the result.
+	 * 
+	 * @param name
+	 *            name of the stage
+	 * @param referer
+	 *            the Referer to finish
+	 * @return the stage
+	 */
+	private Stage finishStage(final String name,
+			final MultiReferenceResolver<?>.Referer<?> referer) {
+		return new Stage(name, sortMemory) {
+			@Override
+			public void run() throws IOException {
+				referer.finish();
 			}
+		}.addInput(referer.getResolvedRefFile());
+	}
+
+	/**
+	 * Reads the source file and writes the nodes, ways and relations to their
+	 * files. The reader hands the elements in batches to the
+	 * {@link SourceWriter}, which serializes and writes them in its own
+	 * threads.
+	 * 
+	 * @param f
+	 *            source file either in o5m, pbf or osm format, plain or
+	 *            compressed
+	 * @param xmlFile
+	 *            true when the source file is in osm format
+	 * @param sourceNodeFile
+	 *            file for all nodes of the source file
+	 * @throws IOException
+	 */
+	private void readSourceFile(final File f, final boolean xmlFile, final File sourceNodeFile)
+			throws IOException {
+		if (!dropWayNodes) {
+			readSourceFile(f, xmlFile, sourceNodeFile, null);
+			return;
+		}
+		final IdBitSet wayNodes = new IdBitSet(codecContext.getMemoryBudget());
+		try {
+			readSourceFile(f, xmlFile, sourceNodeFile, wayNodes);
+			wayNodes.writeTo(wayNodeIdFile);
+		} finally {
+			wayNodes.release();
 		}
+	}
 
-		/*
-		 * (non-Javadoc)
-		 * 
-		 * @see oc.osm.handler.OsmHandler#newRelation(oc.osm.type.Relation)
-		 */
-		@Override
-		public void newRelation(final Relation relation) {
+	/**
+	 * @param f
+	 *            source file
+	 * @param xmlFile
+	 *            true when the source file is in osm format
+	 * @param sourceNodeFile
+	 *            file for all nodes of the source file
+	 * @param wayNodes
+	 *            set the writer adds the node ids of the ways to, null when
+	 *            they are not collected
+	 * @throws IOException
+	 */
+	private void readSourceFile(final File f, final boolean xmlFile, final File sourceNodeFile,
+			final IdBitSet wayNodes) throws IOException {
+		final SourceWriter writer = new SourceWriter(sourceNodeFile, coordinateFile, wayFile,
+				relationFile, wayNodes, codecContext);
+		Throwable failure = null;
+		try {
+			final OsmBatchCollector handler = new OsmBatchCollector(writer, SourceWriter.BATCHES,
+					SourceWriter.BATCH_SIZE);
+			if (xmlFile && saxReader) {
+				SaxReader.readFile(f, handler, threads);
+			} else if (xmlFile) {
+				OsmXmlScanner.readFile(f, handler, threads);
+			} else if (pbfFile) {
+				new PbfReader().readFile(f, handler, threads);
+			} else {
+				final O5mReader o5mReader = new O5mReader();
+				// none of the stages uses version, timestamp or author
+				o5mReader.setSkipMetadata(true);
+				o5mReader.readFile(f, handler, threads);
+			}
+			handler.flush();
+		} catch (final Throwable t) {
+			failure = t;
+			throw t;
+		} finally {
+			// a failure of the reader is more telling than the one of the
+			// writer it caused
 			try {
-				relationWriter.writeExternalizable(relation);
+				writer.close();
 			} catch (final IOException e) {
-				logger.error("Unable to write Relation", e);
+				if (failure == null) {
+					throw e;
+				}
+				failure.addSuppressed(e);
 			}
 		}
 	}
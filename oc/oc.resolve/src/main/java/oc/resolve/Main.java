@@ -21,11 +21,15 @@ package oc.resolve;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashSet;
 import java.util.Set;
 
-import oc.io.StreamIo;
+import oc.io.CodecContext;
+import oc.io.TagDictionary;
+import oc.io.TagSampler;
+import oc.io.base.MemoryBudget;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -36,6 +40,11 @@ import org.apache.logging.log4j.Logger;
  */
 public class Main {
 
+	/**
+	 * Dictionary of tag keys the conversion starts with. It encodes the first
+	 * elements of a file, until the writer sampled enough tags to build the
+	 * dictionary of the file.
+	 */
 	public static final Set<String> tags = new HashSet<>(Arrays.asList("source", "building",
 			"highway", "addr:housenumber", "name", "addr:street", "addr:city", "addr:postcode",
 			"source:date", "created_by", "addr:country", "natural", "tiger:cfcc", "tiger:county",
@@ -298,6 +307,30 @@ public class Main {
 		super();
 	}
 
+	/**
+	 * @param size
+	 *            amount of bytes, optionally followed by k, m or g
+	 * @return the amount of bytes
+	 */
+	static long parseSize(final String size) {
+		final String lower = size.trim().toLowerCase();
+		final int shift;
+		switch (lower.isEmpty() ? ' ' : lower.charAt(lower.length() - 1)) {
+		case 'k':
+			shift = 10;
+			break;
+		case 'm':
+			shift = 20;
+			break;
+		case 'g':
+			shift = 30;
+			break;
+		default:
+			return Long.parseLong(lower);
+		}
+		return Long.parseLong(lower.substring(0, lower.length() - 1)) << shift;
+	}
+
 	/**
 	 * Starter for the Generator
 	 * 
@@ -314,9 +347,16 @@ public class Main {
 		boolean expectInputFile = false;
 		boolean expectOutputFile = false;
 		boolean expectTempFolder = false;
+		boolean expectThreads = false;
+		boolean expectMemory = false;
+		long memory = MemoryBudget.getGlobal().getTotal();
+		int threads = Runtime.getRuntime().availableProcessors();
 		boolean expectXMLFile = false;
 		boolean printUsage = false;
-		StreamIo.setDictionary(tags);
+		boolean resume = true;
+		boolean saxReader = false;
+		boolean pbfFile = false;
+		boolean dropWayNodes = false;
 		for (final String arg : args) {
 			if ("-i".equals(arg)) {
 				expectInputFile = true;
@@ -324,6 +364,10 @@ public class Main {
 				expectOutputFile = true;
 			} else if ("-t".equals(arg)) {
 				expectTempFolder = true;
+			} else if ("-j".equals(arg)) {
+				expectThreads = true;
+			} else if ("-m".equals(arg)) {
+				expectMemory = true;
 			} else if (expectInputFile) {
 				expectInputFile = false;
 				inputFile = new File(arg);
@@ -333,10 +377,27 @@ public class Main {
 			} else if (expectTempFolder) {
 				expectTempFolder = false;
 				tempFile = new File(arg);
+			} else if (expectThreads) {
+				expectThreads = false;
+				threads = Integer.parseInt(arg);
+			} else if (expectMemory) {
+				expectMemory = false;
+				memory = parseSize(arg);
 			} else if ("--in-osm".equals(arg)) {
 				expectXMLFile = true;
+				pbfFile = false;
 			} else if ("--in-o5m".equals(arg)) {
 				expectXMLFile = false;
+				pbfFile = false;
+			} else if ("--in-pbf".equals(arg)) {
+				expectXMLFile = false;
+				pbfFile = true;
+			} else if ("--drop-way-nodes".equals(arg)) {
+				dropWayNodes = true;
+			} else if ("--sax".equals(arg)) {
+				saxReader = true;
+			} else if ("--no-resume".equals(arg)) {
+				resume = false;
 			} else if ("--help".equals(arg)) {
 				printUsage = true;
 			}
@@ -355,12 +416,24 @@ public class Main {
 			helpLogger.debug("Missing Input File");
 			printUsage = true;
 		}
+		if (threads < 1) {
+			helpLogger.debug("At least 1 thread is needed");
+			printUsage = true;
+		}
 
 		if (printUsage) {
 			helpLogger
-					.debug("usage : java -jar oc.resolve.jar -i [Input File] -o [Output Folder] -t [Temp Folder], --in-osm --in-o5m");
+					.debug("usage : java -jar oc.resolve.jar -i [Input File] -o [Output Folder] -t [Temp Folder] -j [Threads] -m [Memory e.g. 40g], --in-osm --in-o5m --in-pbf --sax --drop-way-nodes --no-resume");
 		} else {
-			final Generator generator = new Generator(outputFile, tempFile);
+			final Generator generator = new Generator(outputFile, tempFile, threads, memory);
+			generator.setSaxReader(saxReader);
+			generator.setPbfFile(pbfFile);
+			generator.setDropWayNodes(dropWayNodes);
+			generator.setCodecContext(new CodecContext(TagDictionary.of(new ArrayList<>(tags)),
+					TagSampler.DEFAULT_SAMPLES));
+			if (!resume) {
+				generator.discardProgress();
+			}
 			generator.readFile(inputFile, expectXMLFile);
 		}
 	}
@@ -0,0 +1,344 @@
+/**
+ * Copyright (C) 2026 Oliver Schünemann
+ * 
+ * This program is free software; you can redistribute it and/or modify it under the terms of the 
+ * GNU General Public License as published by the Free Software Foundation; either version 2 of 
+ * the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; 
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. 
+ * See the GNU General Public License for more details. 
+ * 
+ * You should have received a copy of the GNU General Public License along with this program; 
+ * if not, write to the Free Software Foundation, Inc., 51 Franklin St, Fifth Floor, 
+ * Boston, MA 02110, USA 
+ * 
+ * @since 19.10.2026
+ * @version 1.0
+ * @author oliver
+ */
+package oc.resolve;
+
+import java.io.Externalizable;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+import oc.io.CodecContext;
+import oc.io.ExternalizableWriter;
+import oc.io.base.CoordinateFileWriter;
+import oc.io.base.DecoupledOutputStream;
+import oc.io.base.IdBitSet;
+import oc.osm.handler.OsmBatch;
+import oc.osm.handler.OsmBatchHandler;
+import oc.osm.type.Node;
+import oc.osm.type.Relation;
+import oc.osm.type.Way;
+
+/**
+ * Writes the elements of the source file to the node, way and relation
+ * files. Each node is written once with its tags, the resolvers read the
+ * compact coordinate file written next to it, see
+ * {@link oc.io.base.CoordinateFileWriter}. Reading the source file is split into a pipeline: the
+ * reader thread parses and collects the elements into batches, one thread
+ * per element type serializes the batches and one thread per file writes the
+ * serialized bytes, see {@link DecoupledOutputStream}. The stages are
+ * connected by bounded queues and the batches are recycled, so a slow stage
+ * holds back the ones in front of it without using more memory.
+ * 
+ * @author oliver
+ */
+final class SourceWriter implements OsmBatchHandler {
+	/**
+	 * Number of batches of each type and elements in a batch
+	 */
+	static final int BATCHES = 8;
+	static final int BATCH_SIZE = 1024;
+
+	private final BatchWriter<Node> nodes;
+	private final BatchWriter<Way> ways;
+	private final BatchWriter<Relation> relations;
+
+	/**
+	 * @param nodeFile
+	 *            file of the nodes with their tags
+	 * @param coordinateFile
+	 *            file of the ids and coordinates of the nodes
+	 * @param wayFile
+	 *            file of the ways
+	 * @param relationFile
+	 *            file of the relations
+	 * @param wayNodes
+	 *            collects the ids of the nodes referenced by ways, may be null.
+	 *            It is complete after {@link #close()}.
+	 * @throws IOException
+	 * @deprecated use
+	 *             {@link #SourceWriter(File, File, File, File, IdBitSet, CodecContext)}
+	 *             with the context of the conversion instead of the default
+	 *             one
+	 */
+	@Deprecated
+	SourceWriter(final File nodeFile, final File coordinateFile, final File wayFile,
+			final File relationFile, final IdBitSet wayNodes) throws IOException {
+		this(nodeFile, coordinateFile, wayFile, relationFile, wayNodes, CodecContext.getDefault());
+	}
+
+	/**
+	 * @param nodeFile
+	 *            file of the nodes with their tags
+	 * @param coordinateFile
+	 *            file of the ids and coordinates of the nodes
+	 * @param wayFile
+	 *            file of the ways
+	 * @param relationFile
+	 *            file of the relations
+	 * @param wayNodes
+	 *            collects the ids of the nodes referenced by ways, may be null.
+	 *            It is complete after {@link #close()}.
+	 * @param context
+	 *            context the node, way and relation files are written with
+	 * @throws IOException
+	 */
+	SourceWriter(final File nodeFile, final File coordinateFile, final File wayFile,
+			final File relationFile, final IdBitSet wayNodes, final CodecContext context)
+			throws IOException {
+		super();
+		final List<ExternalizableWriter<?>> opened = new ArrayList<>();
+		final ExternalizableWriter<Node> nodeWriter;
+		final ExternalizableWriter<Way> wayWriter;
+		final ExternalizableWriter<Relation> relationWriter;
+		final CoordinateFileWriter coordinateWriter;
+		try {
+			nodeWriter = open(nodeFile, context, opened);
+			wayWriter = open(wayFile, context, opened);
+			relationWriter = open(relationFile, context, opened);
+			coordinateWriter = new CoordinateFileWriter(new DecoupledOutputStream(
+					new FileOutputStream(coordinateFile), context.getMemoryBudget()));
+		} catch (final IOException e) {
+			// stop the threads of the streams opened so far
+			for (final ExternalizableWriter<?> writer : opened) {
+				writer.close();
+			}
+			throw e;
+		}
+		nodes = new BatchWriter<Node>("nodes") {
+			@Override
+			protected void write(final Node node) throws IOException {
+				nodeWriter.writeExternalizable(node);
+				coordinateWriter.write(node.getId(), node.getLat(), node.getLon());
+			}
+
+			@Override
+			protected void close() throws IOException {
+				try {
+					nodeWriter.close();
+				} finally {
+					coordinateWriter.close();
+				}
+			}
+		};
+		ways = new BatchWriter<Way>("ways") {
+			@Override
+			protected void write(final Way way) throws IOException {
+				wayWriter.writeExternalizable(way);
+				if (wayNodes != null) {
+					for (final Node node : way.getNodes()) {
+						wayNodes.set(node.getId());
+					}
+				}
+			}
+
+			@Override
+			protected void close() throws IOException {
+				wayWriter.close();
+			}
+		};
+		relations = new BatchWriter<Relation>("relations") {
+			@Override
+			protected void write(final Relation relation) throws IOException {
+				relationWriter.writeExternalizable(relation);
+			}
+
+			@Override
+			protected void close() throws IOException {
+				relationWriter.close();
+			}
+		};
+		nodes.start();
+		ways.start();
+		relations.start();
+	}
+
+	private static <T extends Externalizable> ExternalizableWriter<T> open(final File f,
+			final CodecContext context, final List<ExternalizableWriter<?>> opened)
+			throws IOException {
+		final ExternalizableWriter<T> writer = new ExternalizableWriter<>(
+				new DecoupledOutputStream(new FileOutputStream(f), context.getMemoryBudget()),
+				context);
+		opened.add(writer);
+		return writer;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see oc.osm.handler.OsmBatchHandler#newNodes(oc.osm.handler.OsmBatch)
+	 */
+	@Override
+	public void newNodes(final OsmBatch<Node> batch) throws IOException {
+		nodes.put(batch);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see oc.osm.handler.OsmBatchHandler#newWays(oc.osm.handler.OsmBatch)
+	 */
+	@Override
+	public void newWays(final OsmBatch<Way> batch) throws IOException {
+		ways.put(batch);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see
+	 * oc.osm.handler.OsmBatchHandler#newRelations(oc.osm.handler.OsmBatch)
+	 */
+	@Override
+	public void newRelations(final OsmBatch<Relation> batch) throws IOException {
+		relations.put(batch);
+	}
+
+	/**
+	 * Waits until all batches are written and closes the files.
+	 * 
+	 * @throws IOException
+	 *             the first failure of serializing or writing
+	 */
+	void close() throws IOException {
+		nodes.finish();
+		ways.finish();
+		relations.finish();
+		nodes.checkFailure();
+		ways.checkFailure();
+		relations.checkFailure();
+	}
+
+	/**
+	 * Thread serializing the batches of one element type. After a failure it
+	 * keeps taking and recycling batches, so the reader is not blocked until
+	 * it notices the failure. Unchecked failures, e.g. of an element that
+	 * cannot be serialized, are reported as IOException as well.
+	 * 
+	 * @author oliver
+	 */
+	private abstract static class BatchWriter<T> implements Runnable {
+		private final OsmBatch<T> end = new OsmBatch<>(1);
+		private final BlockingQueue<OsmBatch<T>> queue = new ArrayBlockingQueue<>(BATCHES + 1);
+		private final Thread thread;
+		private volatile IOException failure = null;
+
+		BatchWriter(final String name) {
+			super();
+			thread = new Thread(this, "Write " + name);
+		}
+
+		/**
+		 * Starts the thread, not done by the constructor, so that the fields of
+		 * subclasses are set before
+		 */
+		void start() {
+			thread.start();
+		}
+
+		/**
+		 * @param element
+		 *            element to serialize
+		 * @throws IOException
+		 */
+		protected abstract void write(T element) throws IOException;
+
+		/**
+		 * closes the files the elements are written to
+		 * 
+		 * @throws IOException
+		 */
+		protected abstract void close() throws IOException;
+
+		void put(final OsmBatch<T> batch) throws IOException {
+			checkFailure();
+			try {
+				queue.put(batch);
+			} catch (final InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new InterruptedIOException("Interrupted while queueing a batch");
+			}
+		}
+
+		void finish() throws InterruptedIOException {
+			try {
+				queue.put(end);
+				thread.join();
+			} catch (final InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new InterruptedIOException("Interrupted while finishing to write");
+			}
+		}
+
+		void checkFailure() throws IOException {
+			if (failure != null) {
+				throw failure;
+			}
+		}
+
+		/**
+		 * Keeps the first failure of the thread
+		 * 
+		 * @param t
+		 *            the failure
+		 */
+		private void fail(final Throwable t) {
+			if (failure == null) {
+				failure = t instanceof IOException ? (IOException) t : new IOException(
+						thread.getName() + " failed", t);
+			}
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * 
+		 * @see java.lang.Runnable#run()
+		 */
+		@Override
+		public void run() {
+			try {
+				OsmBatch<T> batch = queue.take();
+				while (batch != end) {
+					try {
+						for (int i = 0; failure == null && i < batch.size(); ++i) {
+							write(batch.get(i));
+						}
+					} catch (final Throwable t) {
+						fail(t);
+					}
+					batch.recycle();
+					batch = queue.take();
+				}
+			} catch (final InterruptedException e) {
+				fail(new InterruptedIOException("Interrupted while writing"));
+			} finally {
+				try {
+					close();
+				} catch (final Throwable t) {
+					fail(t);
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,116 @@
+/**
+ * Copyright (C) 2026 Oliver Schünemann
+ * 
+ * This program is free software; you can redistribute it and/or modify it under the terms of the 
+ * GNU General Public License as published by the Free Software Foundation; either version 2 of 
+ * the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; 
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. 
+ * See the GNU General Public License for more details. 
+ * 
+ * You should have received a copy of the GNU General Public License along with this program; 
+ * if not, write to the Free Software Foundation, Inc., 51 Franklin St, Fifth Floor, 
+ * Boston, MA 02110, USA 
+ * 
+ * @since 19.10.2026
+ * @version 1.0
+ * @author oliver
+ */
+package oc.resolve.supp;
+
+import java.io.File;
+import java.io.IOException;
+
+import oc.io.ManySource;
+import oc.io.base.CoordinateBlock;
+import oc.io.base.CoordinateFileReader;
+import oc.osm.type.Node;
+
+/**
+ * Reads the nodes for the resolvers from a coordinate file, see
+ * {@link oc.io.base.CoordinateFileWriter}. The file is decoded block by block
+ * into arrays, a Node is only filled when a reference asks for it. All nodes
+ * of a cursor share the same instance, they have no properties. A cursor that
+ * skips to an id looks up its block in the index of the file, the blocks in
+ * front of it are not decoded.
+ *
+ * @author oliver
+ */
+public final class CoordinateNodeSource implements ManySource<Node> {
+	private final File coordinateFile;
+
+	/**
+	 * @param coordinateFile
+	 *            coordinate file of the nodes sorted by id
+	 */
+	public CoordinateNodeSource(final File coordinateFile) {
+		super();
+		this.coordinateFile = coordinateFile;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see oc.io.ManySource#open(long)
+	 */
+	@Override
+	public Cursor<Node> open(final long fromId) throws IOException {
+		final CoordinateFileReader reader = new CoordinateFileReader(coordinateFile);
+		final int firstBlock = reader.findBlock(fromId);
+		return new Cursor<Node>() {
+			private final CoordinateBlock block = new CoordinateBlock();
+			private final Node node = new Node();
+			private int nextBlock = firstBlock;
+			private int index = 0;
+
+			@Override
+			public boolean next() throws IOException {
+				do {
+					index++;
+					while (index >= block.getSize()) {
+						if (nextBlock >= reader.getBlockCount()) {
+							return false;
+						}
+						reader.decode(nextBlock++, block);
+						index = 0;
+					}
+				} while (block.getIds()[index] < fromId);
+				return true;
+			}
+
+			@Override
+			public boolean skipTo(final long id) throws IOException {
+				final int idBlock = reader.findBlock(id);
+				if (idBlock >= nextBlock) {
+					// the id is behind the decoded block
+					nextBlock = idBlock;
+					index = block.getSize();
+				}
+				boolean found = next();
+				while (found && getId() < id) {
+					found = next();
+				}
+				return found;
+			}
+
+			@Override
+			public long getId() {
+				return block.getIds()[index];
+			}
+
+			@Override
+			public Node get() {
+				node.setId(block.getIds()[index]);
+				node.setLat(block.getLats()[index]);
+				node.setLon(block.getLons()[index]);
+				return node;
+			}
+
+			@Override
+			public void close() throws IOException {
+				reader.close();
+			}
+		};
+	}
+}
@@ -0,0 +1,125 @@
+/**
+ * Copyright (C) 2026 Oliver Schünemann
+ * 
+ * This program is free software; you can redistribute it and/or modify it under the terms of the 
+ * GNU General Public License as published by the Free Software Foundation; either version 2 of 
+ * the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; 
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. 
+ * See the GNU General Public License for more details. 
+ * 
+ * You should have received a copy of the GNU General Public License along with this program; 
+ * if not, write to the Free Software Foundation, Inc., 51 Franklin St, Fifth Floor, 
+ * Boston, MA 02110, USA 
+ * 
+ * @since 19.10.2026
+ * @version 1.0
+ * @author oliver
+ */
+package oc.resolve.supp;
+
+import java.io.File;
+import java.io.IOException;
+
+import oc.io.ManySource;
+import oc.io.MultiReferenceResolver;
+import oc.io.ReferenceResolver.ReferedHandler;
+import oc.osm.type.Node;
+
+/**
+ * Resolves the nodes of ways and relations with a single scan of the node
+ * file. The node file is by far the biggest input of the resolving, so reading
+ * it once for {@link WayNodeResolver} and {@link RelationNodeResolver} together
+ * saves a complete pass over it.
+ * 
+ * @author oliver
+ */
+public final class NodeJoin {
+
+	private final MultiReferenceResolver<Node> resolver;
+
+	/**
+	 * Wrapper for Nodes, that resolves everything the algorithm needs to know
+	 * about them.
+	 * 
+	 * @see oc.io.ReferenceResolver.ReferedHandler
+	 */
+	private final ReferedHandler<Node> manyHandler = new ReferedHandler<Node>() {
+
+		@Override
+		public long getId(final Node many) {
+			return many.getId();
+		}
+
+		@Override
+		public void setId(final Node many, final long id) {
+			many.setId(id);
+		}
+	};
+
+	/**
+	 * @param nodeFile
+	 *            File containing the nodes sorted by id, only their ids and
+	 *            coordinates are read
+	 * @param tempDir
+	 *            Directory for intermediate results
+	 */
+	public NodeJoin(final File nodeFile, final File tempDir) {
+		super();
+		resolver = new MultiReferenceResolver<>(nodeFile, tempDir, new Node.CoordinateFactory(),
+				manyHandler);
+	}
+
+	/**
+	 * @param nodes
+	 *            the nodes sorted by id, e.g. a {@link CoordinateNodeSource}
+	 * @param tempDir
+	 *            Directory for intermediate results
+	 */
+	public NodeJoin(final ManySource<Node> nodes, final File tempDir) {
+		super();
+		resolver = new MultiReferenceResolver<>(nodes, tempDir, new Node.CoordinateFactory(),
+				manyHandler);
+	}
+
+	/**
+	 * @param destFile
+	 *            File where the resolved ways shall be stored to
+	 * @param wayFile
+	 *            File containing the ways referencing the nodes
+	 * @return the registered Referer
+	 */
+	public MultiReferenceResolver<Node>.Referer<?> addWays(final File destFile, final File wayFile) {
+		return WayNodeResolver.addReferer(resolver, destFile, wayFile);
+	}
+
+	/**
+	 * @param destFile
+	 *            File where the relations with resolved nodes shall be stored
+	 *            to
+	 * @param relationFile
+	 *            File containing the relations referencing the nodes
+	 * @return the registered Referer
+	 */
+	public MultiReferenceResolver<Node>.Referer<?> addRelations(final File destFile,
+			final File relationFile) {
+		return RelationNodeResolver.addReferer(resolver, destFile, relationFile);
+	}
+
+	/**
+	 * @return the resolver that does the work
+	 */
+	public MultiReferenceResolver<Node> getResolver() {
+		return resolver;
+	}
+
+	/**
+	 * Resolves all registered ways and relations.
+	 * 
+	 * @throws IOException
+	 */
+	public void resolve() throws IOException {
+		resolver.resolve();
+	}
+}
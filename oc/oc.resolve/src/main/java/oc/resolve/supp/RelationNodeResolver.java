@@ -25,6 +25,8 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 
+import oc.io.ExternalizableSorter;
+import oc.io.MultiReferenceResolver;
 import oc.io.ReferenceResolver;
 import oc.io.ReferenceResolver.ReferedHandler;
 import oc.io.ReferenceResolver.RefererHandler;
@@ -41,7 +43,6 @@ import org.apache.logging.log4j.Logger;
  * @author oliver
  */
 public final class RelationNodeResolver {
-	private static final int MAX_SIZE = 10000;
 	private static final Logger logger = LogManager.getLogger(RelationNodeResolver.class.getName());
 
 	/**
@@ -137,7 +138,7 @@ public final class RelationNodeResolver {
 			final File tempDir) throws IOException {
 		ReferenceResolver.resolveReferences(destFile, relationFile, nodeFile, tempDir,
 				new Relation.RelationFactory(), new Node.NodeFactory(), manyHandler, oneHandler,
-				MAX_SIZE);
+				ExternalizableSorter.UNLIMITED);
 	}
 
 	/**
@@ -156,4 +157,24 @@ public final class RelationNodeResolver {
 		final RelationNodeResolver resolver = new RelationNodeResolver();
 		resolver.resolveNodes1(destFile, relationFile, nodeFile, tempDir);
 	}
+
+	/**
+	 * Registers the relations at a resolver that scans the node file for
+	 * several referers at once.
+	 * 
+	 * @param nodeResolver
+	 *            resolver reading the node file
+	 * @param destFile
+	 *            File where resolved References shall be stored to
+	 * @param relationFile
+	 *            File containing the relations referencing the nodes
+	 * @return the registered Referer
+	 */
+	public static MultiReferenceResolver<Node>.Referer<Relation> addReferer(
+			final MultiReferenceResolver<Node> nodeResolver, final File destFile,
+			final File relationFile) {
+		final RelationNodeResolver resolver = new RelationNodeResolver();
+		return nodeResolver.addReferer(destFile, relationFile, new Relation.RelationFactory(),
+				resolver.oneHandler, ExternalizableSorter.UNLIMITED);
+	}
 }
@@ -21,10 +21,13 @@ package oc.resolve.supp;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 
+import oc.io.CodecContext;
 import oc.io.ExternalizableFilter;
 import oc.io.ExternalizableFilter.ID;
 import oc.io.ExternalizableFilter.IDComparator;
@@ -33,7 +36,7 @@ import oc.io.ExternalizableFilter.SourceHandler;
 import oc.io.ExternalizableIterator;
 import oc.io.ExternalizableSorter;
 import oc.io.ExternalizableWriter;
-import oc.io.ReferenceResolver;
+import oc.io.MultiReferenceResolver;
 import oc.io.ReferenceResolver.ReferedHandler;
 import oc.io.ReferenceResolver.RefererHandler;
 import oc.osm.type.Member;
@@ -47,14 +50,16 @@ import org.apache.logging.log4j.Logger;
  * Resolves references within Relations to other Relations. When this class
  * finished processing a file of relation, each relation contains a complete
  * copy of the relations it refers to. All these resolved relations have copies
- * of the relations they refer to as well.
+ * of the relations they refer to as well. The result is moved to the
+ * destination file, so the source file can be kept without copying it first.
  * 
  * @author oliver
  */
 public class RelationRelationResolver {
 	private final File relationFile;
+	private final File destFile;
 	private final File tempPath;
-	private final static int MAX_SIZE = 1000;
+	private final CodecContext context;
 
 	private static final Logger logger = LogManager.getLogger(RelationRelationResolver.class
 			.getName());
@@ -101,17 +106,59 @@ public class RelationRelationResolver {
 		}
 	};
 
+	/**
+	 * @param relationFile
+	 *            the relations, resolved in place
+	 * @param tempPath
+	 *            Directory for intermediate results
+	 * @deprecated use
+	 *             {@link #RelationRelationResolver(File, File, File, CodecContext)}
+	 *             with the context of the conversion instead of the default
+	 *             one
+	 */
+	@Deprecated
 	public RelationRelationResolver(final File relationFile, final File tempPath) {
+		this(relationFile, tempPath, CodecContext.getDefault());
+	}
+
+	/**
+	 * @param relationFile
+	 *            the relations, resolved in place
+	 * @param tempPath
+	 *            Directory for intermediate results
+	 * @param context
+	 *            context of the relation files
+	 */
+	public RelationRelationResolver(final File relationFile, final File tempPath,
+			final CodecContext context) {
+		this(relationFile, relationFile, tempPath, context);
+	}
+
+	/**
+	 * @param relationFile
+	 *            the relations
+	 * @param destFile
+	 *            destination for the resolved relations, may be the relation
+	 *            file
+	 * @param tempPath
+	 *            Directory for intermediate results
+	 * @param context
+	 *            context of the relation files
+	 */
+	public RelationRelationResolver(final File relationFile, final File destFile,
+			final File tempPath, final CodecContext context) {
 		super();
 		this.relationFile = relationFile;
+		this.destFile = destFile;
 		this.tempPath = tempPath;
+		this.context = context;
 	}
 
 	@SuppressWarnings("PMD.AvoidInstantiatingObjectsInLoops")
 	private int generateIdFile(final File idFile, final File relationFile) throws IOException {
 		final ExternalizableIterator<Relation> relationIter = new ExternalizableIterator<>(
-				relationFile, new RelationFactory());
-		final ExternalizableWriter<ID> idWriter = new ExternalizableWriter<>(idFile);
+				relationFile, new RelationFactory(), context);
+		final ExternalizableWriter<ID> idWriter = new ExternalizableWriter<>(idFile, context);
 		int idCount = 0;
 		while (relationIter.hasNext()) {
 			final Relation relation = relationIter.next();
@@ -127,6 +174,7 @@ public class RelationRelationResolver {
 		if (idCount > 1) {
 			final ExternalizableSorter<ID> idSorter = new ExternalizableSorter<>(idFile, tempPath,
 					new IDFactory(), new IDComparator());
+			idSorter.setCodecContext(context);
 			idSorter.process();
 		}
 		return idCount;
@@ -135,7 +183,7 @@ public class RelationRelationResolver {
 	private void filterRelations(final File idFile, final File sourceFile, final File destFile)
 			throws IOException {
 		ExternalizableFilter.filter(sourceFile, destFile, idFile, new RelationFactory(),
-				new RelationSourceHandler(), true);
+				new RelationSourceHandler(), true, context);
 	}
 
 	private File mergeRelations(final int count, final File someRelationsFile,
@@ -157,9 +205,12 @@ public class RelationRelationResolver {
 		} else if (nextCount == 0) {
 			idFile.delete();
 		}
-		ReferenceResolver.resolveReferences(resultFile, manyRelationsFile, tempSomeReleationFile,
-				tempPath, new Relation.RelationFactory(), new Relation.RelationFactory(),
-				manyHandler, oneHandler, MAX_SIZE);
+		final MultiReferenceResolver<Relation> resolver = new MultiReferenceResolver<>(
+				tempSomeReleationFile, tempPath, new Relation.RelationFactory(), manyHandler);
+		resolver.setCodecContext(context);
+		resolver.addReferer(resultFile, manyRelationsFile, new Relation.RelationFactory(),
+				oneHandler, ExternalizableSorter.UNLIMITED);
+		resolver.resolve();
 		tempSomeReleationFile.delete();
 		return resultFile;
 	}
@@ -171,24 +222,65 @@ public class RelationRelationResolver {
 		if (count > 0) {
 			filterRelations(idFile, relationFile, destRelFile);
 			final File resultFile = mergeRelations(count, destRelFile, relationFile);
-			final ExternalizableIterator<Relation> relIter = new ExternalizableIterator<>(
-					resultFile, new RelationFactory());
-			final ExternalizableWriter<Relation> relWriter = new ExternalizableWriter<>(
-					relationFile);
-			while (relIter.hasNext()) {
-				relWriter.writeExternalizable(relIter.next());
-			}
-			relWriter.close();
-			relIter.close();
-			resultFile.delete();
+			Files.move(resultFile.toPath(), destFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+		} else if (!relationFile.equals(destFile)) {
+			// nothing to resolve
+			Files.copy(relationFile.toPath(), destFile.toPath(),
+					StandardCopyOption.REPLACE_EXISTING);
 		}
 		idFile.delete();
 		destRelFile.delete();
 	}
 
+	/**
+	 * Resolves the relations referenced by relations in place.
+	 * 
+	 * @param relationFile
+	 *            the relations
+	 * @param tempPath
+	 *            Directory for intermediate results
+	 * @throws IOException
+	 * @deprecated use {@link #resolve(File, File, File, CodecContext)} with
+	 *             the context of the conversion instead of the default one
+	 */
+	@Deprecated
 	public static void resolve(final File relationFile, final File tempPath) throws IOException {
+		resolve(relationFile, tempPath, CodecContext.getDefault());
+	}
+
+	/**
+	 * Resolves the relations referenced by relations in place.
+	 * 
+	 * @param relationFile
+	 *            the relations
+	 * @param tempPath
+	 *            Directory for intermediate results
+	 * @param context
+	 *            context of the relation files
+	 * @throws IOException
+	 */
+	public static void resolve(final File relationFile, final File tempPath,
+			final CodecContext context) throws IOException {
+		resolve(relationFile, relationFile, tempPath, context);
+	}
+
+	/**
+	 * Resolves the relations referenced by relations.
+	 * 
+	 * @param relationFile
+	 *            the relations, they are not changed
+	 * @param destFile
+	 *            destination for the resolved relations
+	 * @param tempPath
+	 *            Directory for intermediate results
+	 * @param context
+	 *            context of the relation files
+	 * @throws IOException
+	 */
+	public static void resolve(final File relationFile, final File destFile,
+			final File tempPath, final CodecContext context) throws IOException {
 		final RelationRelationResolver resolver = new RelationRelationResolver(relationFile,
-				tempPath);
+				destFile, tempPath, context);
 		resolver.resolve();
 	}
 
@@ -33,6 +33,7 @@ import oc.io.ExternalizableFilter.SourceHandler;
 import oc.io.ExternalizableIterator;
 import oc.io.ExternalizableSorter;
 import oc.io.ExternalizableWriter;
+import oc.io.MultiReferenceResolver;
 import oc.io.ReferenceResolver;
 import oc.io.ReferenceResolver.ReferedHandler;
 import oc.io.ReferenceResolver.RefererHandler;
@@ -53,7 +54,6 @@ import org.apache.logging.log4j.Logger;
  * @author oliver
  */
 public final class RelationWayResolver {
-	private static final int MAX_SIZE = 10000;
 	private static final Logger logger = LogManager.getLogger(RelationWayResolver.class.getName());
 
 	/**
@@ -222,7 +222,7 @@ public final class RelationWayResolver {
 			final File tempDir) throws IOException {
 		ReferenceResolver.resolveReferences(destFile, relationFile, wayFile, tempDir,
 				new Relation.RelationFactory(), new Way.WayFactory(), manyHandler, oneHandler,
-				MAX_SIZE);
+				ExternalizableSorter.UNLIMITED);
 	}
 
 	/**
@@ -235,13 +235,87 @@ public final class RelationWayResolver {
 	 * @param tempDir
 	 *            Directory for intermediate results
 	 * @throws IOException
+	 * @deprecated reads and writes the files with the default context, use
+	 *             {@link #createWayResolver(File, File)} and
+	 *             {@link #addReferer(MultiReferenceResolver, File, File)}
+	 *             with the context of the conversion
 	 */
+	@Deprecated
 	public static void resolveWays(final File destFile, final File relationFile,
 			final File wayFile, final File tempDir) throws IOException {
 		final RelationWayResolver resolver = new RelationWayResolver();
 		resolver.resolveWays1(destFile, relationFile, wayFile, tempDir);
 	}
 
+	/**
+	 * Does the work of resolveWays and dropRelatedWays together with a single
+	 * scan of the way file. The ways that are not referenced by any relation
+	 * are written to the filtered way file while the referenced ones are copied
+	 * to the relations.
+	 * 
+	 * @param destFile
+	 *            File where resolved References shall be stored to
+	 * @param filteredWayFile
+	 *            File where the not referenced Ways shall be stored to
+	 * @param relationFile
+	 *            File containing the relations referencing the ways
+	 * @param wayFile
+	 *            File containing the ways
+	 * @param tempDir
+	 *            Directory for intermediate results
+	 * @throws IOException
+	 * @deprecated reads and writes the files with the default context, use
+	 *             {@link #createWayResolver(File, File)} and
+	 *             {@link #addReferer(MultiReferenceResolver, File, File)}
+	 *             with the context of the conversion
+	 */
+	@Deprecated
+	public static void resolveWaysAndDropRelated(final File destFile,
+			final File filteredWayFile, final File relationFile, final File wayFile,
+			final File tempDir) throws IOException {
+		final MultiReferenceResolver<Way> wayResolver = createWayResolver(wayFile, tempDir);
+		addReferer(wayResolver, destFile, relationFile);
+		wayResolver.setUnreferencedFile(filteredWayFile);
+		wayResolver.resolve();
+	}
+
+	/**
+	 * Creates a resolver for the way file, that allows to run the phases of
+	 * the resolving separately.
+	 * 
+	 * @param wayFile
+	 *            File containing the ways
+	 * @param tempDir
+	 *            Directory for intermediate results
+	 * @return resolver for the ways
+	 */
+	public static MultiReferenceResolver<Way> createWayResolver(final File wayFile,
+			final File tempDir) {
+		final RelationWayResolver resolver = new RelationWayResolver();
+		return new MultiReferenceResolver<>(wayFile, tempDir, new Way.WayFactory(),
+				resolver.manyHandler);
+	}
+
+	/**
+	 * Registers relations at a resolver for ways, so that their ways are
+	 * resolved together with the other referers of the resolver.
+	 * 
+	 * @param wayResolver
+	 *            resolver scanning the way file
+	 * @param destFile
+	 *            File where resolved References shall be stored to
+	 * @param relationFile
+	 *            File containing the relations referencing the ways
+	 * @return the registered Referer
+	 */
+	public static MultiReferenceResolver<Way>.Referer<Relation> addReferer(
+			final MultiReferenceResolver<Way> wayResolver, final File destFile,
+			final File relationFile) {
+		final RelationWayResolver resolver = new RelationWayResolver();
+		return wayResolver.addReferer(destFile, relationFile, new Relation.RelationFactory(),
+				resolver.oneHandler, ExternalizableSorter.UNLIMITED);
+	}
+
 	/**
 	 * Filters out of the way file all ways, that are referenced by a relation.
 	 * 
@@ -252,7 +326,11 @@ public final class RelationWayResolver {
 	 * @param tempDir
 	 *            Directory for intermediate results
 	 * @throws IOException
+	 * @deprecated reads and writes the files with the default context, use
+	 *             {@link #createWayResolver(File, File)} with an unreferenced
+	 *             file and the context of the conversion
 	 */
+	@Deprecated
 	public static void dropRelatedWays(final File destFile, final File relationFile,
 			final File wayFile, final File tempDir) throws IOException {
 		final RelationWayResolver resolver = new RelationWayResolver();
@@ -0,0 +1,105 @@
+/**
+ * Copyright (C) 2026 Oliver Schünemann
+ * 
+ * This program is free software; you can redistribute it and/or modify it under the terms of the 
+ * GNU General Public License as published by the Free Software Foundation; either version 2 of 
+ * the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; 
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. 
+ * See the GNU General Public License for more details. 
+ * 
+ * You should have received a copy of the GNU General Public License along with this program; 
+ * if not, write to the Free Software Foundation, Inc., 51 Franklin St, Fifth Floor, 
+ * Boston, MA 02110, USA 
+ * 
+ * @since 19.10.2026
+ * @version 1.0
+ * @author oliver
+ */
+package oc.resolve.supp;
+
+import java.io.File;
+import java.io.IOException;
+
+import oc.io.CodecContext;
+import oc.io.ExternalizableIterator;
+import oc.io.ExternalizableWriter;
+import oc.io.base.IdBitSet;
+import oc.osm.type.Node;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Drops the nodes that are nothing but vertices of ways. Once the ways are
+ * resolved, their nodes carry the coordinates of these vertices, so a node
+ * without tags that is referenced by a way holds no information of its own.
+ * Most nodes of osm are such vertices. The ids of the referenced nodes are
+ * collected in an {@link IdBitSet} while the ways are read from the source
+ * file.
+ * 
+ * @author oliver
+ */
+public final class WayNodeFilter {
+	private static final Logger logger = LogManager.getLogger(WayNodeFilter.class.getName());
+
+	private WayNodeFilter() {
+		super();
+	}
+
+	/**
+	 * Copies the nodes that have tags or are not referenced by a way.
+	 * 
+	 * @param destFile
+	 *            File where the kept nodes shall be stored to
+	 * @param nodeFile
+	 *            File containing all nodes
+	 * @param wayNodes
+	 *            ids of the nodes referenced by ways
+	 * @throws IOException
+	 * @deprecated use {@link #filter(File, File, IdBitSet, CodecContext)} with
+	 *             the context of the conversion instead of the default one
+	 */
+	@Deprecated
+	public static void filter(final File destFile, final File nodeFile, final IdBitSet wayNodes)
+			throws IOException {
+		filter(destFile, nodeFile, wayNodes, CodecContext.getDefault());
+	}
+
+	/**
+	 * Copies the nodes that have tags or are not referenced by a way.
+	 * 
+	 * @param destFile
+	 *            File where the kept nodes shall be stored to
+	 * @param nodeFile
+	 *            File containing all nodes
+	 * @param wayNodes
+	 *            ids of the nodes referenced by ways
+	 * @param context
+	 *            context of the node files
+	 * @throws IOException
+	 */
+	public static void filter(final File destFile, final File nodeFile,
+			final IdBitSet wayNodes, final CodecContext context) throws IOException {
+		final ExternalizableIterator<Node> nodes = new ExternalizableIterator<>(nodeFile,
+				new Node.NodeFactory(), context);
+		final ExternalizableWriter<Node> writer = new ExternalizableWriter<>(destFile, context);
+		long all = 0;
+		long kept = 0;
+		try {
+			while (nodes.hasNext()) {
+				final Node node = nodes.next();
+				all++;
+				if (!node.getProps().isEmpty() || !wayNodes.get(node.getId())) {
+					writer.writeExternalizable(node);
+					kept++;
+				}
+			}
+		} finally {
+			nodes.close();
+			writer.close();
+		}
+		logger.info("Kept {} of {} nodes, the others are untagged vertices of ways", kept, all);
+	}
+}
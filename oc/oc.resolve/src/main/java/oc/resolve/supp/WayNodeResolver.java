@@ -25,6 +25,11 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 
+import oc.io.CodecContext;
+import oc.io.ExternalizableSorter;
+import oc.io.ManySource;
+import oc.io.MultiReferenceResolver;
+import oc.io.PartitionedReferenceResolver;
 import oc.io.ReferenceResolver;
 import oc.io.ReferenceResolver.ReferedHandler;
 import oc.io.ReferenceResolver.RefererHandler;
@@ -40,7 +45,6 @@ import org.apache.logging.log4j.Logger;
  */
 public final class WayNodeResolver {
 
-	private static final int MAX_SIZE = 100000;
 	private static final Logger logger = LogManager.getLogger(WayNodeResolver.class.getName());
 
 	private final ReferedHandler<Node> manyHandler = new ReferedHandler<Node>() {
@@ -91,15 +95,122 @@ public final class WayNodeResolver {
 	}
 
 	private void resolveNodes1(final File destFile, final File wayFile, final File nodeFile,
-			final File tempDir) throws IOException {
+			final File tempDir, final int partitions) throws IOException {
 		ReferenceResolver.resolveReferences(destFile, wayFile, nodeFile, tempDir,
-				new Way.WayFactory(), new Node.NodeFactory(), manyHandler, oneHandler, MAX_SIZE);
+				new Way.WayFactory(), new Node.CoordinateFactory(), manyHandler, oneHandler, ExternalizableSorter.UNLIMITED,
+				partitions);
+	}
+
+	private void resolveNodes1(final File destFile, final File wayFile,
+			final ManySource<Node> nodes, final File tempDir, final int partitions,
+			final CodecContext context) throws IOException {
+		final PartitionedReferenceResolver<Way, Node> resolver = new PartitionedReferenceResolver<>(
+				destFile, wayFile, nodes, tempDir, new Way.WayFactory(),
+				new Node.CoordinateFactory(), manyHandler, oneHandler,
+				ExternalizableSorter.UNLIMITED, partitions);
+		resolver.setCodecContext(context);
+		resolver.resolve();
 	}
 
 	public static void resolveNodes(final File destFile, final File wayFile, final File nodeFile,
 			final File tempDir) throws IOException {
+		resolveNodes(destFile, wayFile, nodeFile, tempDir, 1);
+	}
+
+	/**
+	 * Resolves the nodes of the ways with the id ranges of ways and nodes
+	 * split into partitions, that are resolved in parallel.
+	 * 
+	 * @param destFile
+	 *            File where the resolved ways shall be stored to
+	 * @param wayFile
+	 *            File containing the ways referencing the nodes
+	 * @param nodeFile
+	 *            File containing the nodes sorted by id, their properties are
+	 *            skipped, the ways keep only the coordinates of their nodes
+	 * @param tempDir
+	 *            Directory for intermediate results
+	 * @param partitions
+	 *            number of partitions resolved in parallel
+	 * @throws IOException
+	 */
+	public static void resolveNodes(final File destFile, final File wayFile, final File nodeFile,
+			final File tempDir, final int partitions) throws IOException {
+		final WayNodeResolver resolver = new WayNodeResolver();
+		resolver.resolveNodes1(destFile, wayFile, nodeFile, tempDir, partitions);
+	}
+
+	/**
+	 * Like {@link #resolveNodes(File, File, File, File, int)}, but the nodes
+	 * are read from a source, that is opened by every partition at the first
+	 * node id of its range.
+	 * 
+	 * @param destFile
+	 *            File where the resolved ways shall be stored to
+	 * @param wayFile
+	 *            File containing the ways referencing the nodes
+	 * @param nodes
+	 *            the nodes sorted by id, e.g. a {@link CoordinateNodeSource}
+	 * @param tempDir
+	 *            Directory for intermediate results
+	 * @param partitions
+	 *            number of partitions resolved in parallel
+	 * @throws IOException
+	 * @deprecated use
+	 *             {@link #resolveNodes(File, File, ManySource, File, int, CodecContext)}
+	 *             with the context of the conversion instead of the default
+	 *             one
+	 */
+	@Deprecated
+	public static void resolveNodes(final File destFile, final File wayFile,
+			final ManySource<Node> nodes, final File tempDir, final int partitions)
+			throws IOException {
+		resolveNodes(destFile, wayFile, nodes, tempDir, partitions, CodecContext.getDefault());
+	}
+
+	/**
+	 * Like {@link #resolveNodes(File, File, ManySource, File, int)} for way
+	 * files written with the given context
+	 * 
+	 * @param destFile
+	 *            File where the resolved ways shall be stored to
+	 * @param wayFile
+	 *            File containing the ways referencing the nodes
+	 * @param nodes
+	 *            the nodes sorted by id, e.g. a {@link CoordinateNodeSource}
+	 * @param tempDir
+	 *            Directory for intermediate results
+	 * @param partitions
+	 *            number of partitions resolved in parallel
+	 * @param context
+	 *            context of the way files
+	 * @throws IOException
+	 */
+	public static void resolveNodes(final File destFile, final File wayFile,
+			final ManySource<Node> nodes, final File tempDir, final int partitions,
+			final CodecContext context) throws IOException {
+		final WayNodeResolver resolver = new WayNodeResolver();
+		resolver.resolveNodes1(destFile, wayFile, nodes, tempDir, partitions, context);
+	}
+
+	/**
+	 * Registers the ways at a resolver that scans the node file for several
+	 * referers at once.
+	 * 
+	 * @param nodeResolver
+	 *            resolver reading the node file
+	 * @param destFile
+	 *            File where the resolved ways shall be stored to
+	 * @param wayFile
+	 *            File containing the ways referencing the nodes
+	 * @return the registered Referer
+	 */
+	public static MultiReferenceResolver<Node>.Referer<Way> addReferer(
+			final MultiReferenceResolver<Node> nodeResolver, final File destFile,
+			final File wayFile) {
 		final WayNodeResolver resolver = new WayNodeResolver();
-		resolver.resolveNodes1(destFile, wayFile, nodeFile, tempDir);
+		return nodeResolver.addReferer(destFile, wayFile, new Way.WayFactory(),
+				resolver.oneHandler, ExternalizableSorter.UNLIMITED);
 	}
 
 }
@@ -0,0 +1,345 @@
+/**
+ * Copyright (C) 2026 Oliver Schünemann
+ * 
+ * This program is free software; you can redistribute it and/or modify it under the terms of the 
+ * GNU General Public License as published by the Free Software Foundation; either version 2 of 
+ * the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; 
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. 
+ * See the GNU General Public License for more details. 
+ * 
+ * You should have received a copy of the GNU General Public License along with this program; 
+ * if not, write to the Free Software Foundation, Inc., 51 Franklin St, Fifth Floor, 
+ * Boston, MA 02110, USA 
+ * 
+ * @since 19.10.2026
+ * @version 1.0
+ * @author oliver
+ */
+package oc.resolve;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Externalizable;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.HashSet;
+
+import oc.io.ExternalizableIterator;
+import oc.io.ExternalizableWriter;
+import oc.io.StreamIo;
+import oc.io.TagSampler;
+import oc.osm.type.Member;
+import oc.osm.type.Node;
+import oc.osm.type.Relation;
+import oc.osm.type.Way;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Serialization of the elements with variable length numbers and reading of
+ * the fixed size format written before
+ * 
+ * @author oliver
+ * 
+ */
+public class ElementFormatTestCase {
+
+	@Before
+	public void setUp() {
+		StreamIo.setDictionary(new HashSet<String>(Arrays.asList("highway", "outer")));
+	}
+
+	@After
+	public void tearDown() {
+		StreamIo.setDictionary(new HashSet<String>());
+	}
+
+	private static Node node(final long id, final int lat, final int lon) {
+		final Node node = new Node();
+		node.setId(id);
+		node.setLat(lat);
+		node.setLon(lon);
+		return node;
+	}
+
+	private static byte[] write(final Externalizable... elements) throws IOException {
+		final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		final ObjectOutputStream out = new ObjectOutputStream(bytes);
+		for (final Externalizable element : elements) {
+			element.writeExternal(out);
+		}
+		out.close();
+		return bytes.toByteArray();
+	}
+
+	private static ObjectInputStream read(final byte bytes[]) throws IOException {
+		return new ObjectInputStream(new ByteArrayInputStream(bytes));
+	}
+
+	private static void writeOldString(final ObjectOutputStream out, final String str)
+			throws IOException {
+		out.writeInt(str.length());
+		out.writeBytes(str);
+	}
+
+	private static void writeOldNode(final ObjectOutputStream out, final Node node)
+			throws IOException {
+		out.writeLong(node.getId());
+		out.writeInt(node.getLat());
+		out.writeInt(node.getLon());
+		out.writeInt(node.getProps().size());
+		for (final String key : node.getProps().keySet()) {
+			writeOldString(out, key);
+			writeOldString(out, node.getProperty(key));
+		}
+	}
+
+	private static void assertNode(final Node expected, final Node node) {
+		assertEquals(expected.getId(), node.getId());
+		assertEquals(expected.getLat(), node.getLat());
+		assertEquals(expected.getLon(), node.getLon());
+		assertEquals(expected.getProps(), node.getProps());
+	}
+
+	@Test
+	public void testNode() throws Exception {
+		final Node nodes[] = { node(0, 0, 0), node(-5, Integer.MIN_VALUE, Integer.MAX_VALUE),
+				node(Long.MAX_VALUE, 525000000, 134000000) };
+		nodes[2].addProperty("highway", "traffic_signals");
+		nodes[2].addProperty("name", "Stra\u00dfe");
+		final ObjectInputStream in = read(write(nodes));
+		for (final Node expected : nodes) {
+			final Node node = new Node();
+			node.readExternal(in);
+			assertNode(expected, node);
+		}
+		assertEquals(0, in.available());
+	}
+
+	@Test
+	public void testSkipProperties() throws Exception {
+		final Node first = node(3, 4, 5);
+		first.addProperty("highway", "crossing");
+		first.addProperty("note", "long text");
+		final ObjectInputStream in = read(write(first, node(6, 7, 8)));
+		final Node node = new Node.CoordinateFactory().construct();
+		node.readExternal(in);
+		assertNode(node(3, 4, 5), node);
+		node.readExternal(in);
+		assertNode(node(6, 7, 8), node);
+	}
+
+	@Test
+	public void testRelation() throws Exception {
+		final Relation relation = new Relation();
+		relation.setId(77);
+		relation.addProperty("type", "multipolygon");
+		final Member member = new Member();
+		member.setRole("outer");
+		final Way way = new Way();
+		way.setId(12);
+		way.addNode(node(1, 2, 3));
+		member.setRef(way);
+		relation.addMember(member);
+		final Member empty = new Member();
+		empty.setRole("label");
+		relation.addMember(empty);
+		final Relation read = new Relation();
+		read.readExternal(read(write(relation)));
+		assertEquals(77, read.getId());
+		assertEquals(relation.getProps(), read.getProps());
+		assertEquals(2, read.getMembers().size());
+		assertEquals("outer", read.getMembers().get(0).getRole());
+		assertEquals(Member.Type.WAY, read.getMembers().get(0).getType());
+		final Way readWay = (Way) read.getMembers().get(0).getRef();
+		assertEquals(12, readWay.getId());
+		assertNode(node(1, 2, 3), readWay.getNodes().get(0));
+		assertEquals("label", read.getMembers().get(1).getRole());
+		assertEquals(Member.Type.MAX, read.getMembers().get(1).getType());
+	}
+
+	/**
+	 * Short values and roles read from a stream are the same instances, also
+	 * when they are not in the dictionary
+	 * 
+	 * @throws Exception
+	 */
+	@Test
+	public void testSharedStrings() throws Exception {
+		final Relation relations[] = new Relation[2];
+		for (int i = 0; i < relations.length; ++i) {
+			relations[i] = new Relation();
+			relations[i].setId(i);
+			relations[i].addProperty("type", "multipolygon");
+			final Member member = new Member();
+			member.setRole("inner");
+			relations[i].addMember(member);
+		}
+		final ObjectInputStream in = read(write(relations));
+		final Relation first = new Relation();
+		first.readExternal(in);
+		final Relation second = new Relation();
+		second.readExternal(in);
+		assertEquals("multipolygon", second.getProperty("type"));
+		assertSame(first.getProperty("type"), second.getProperty("type"));
+		assertEquals("inner", second.getMembers().get(0).getRole());
+		assertSame(first.getMembers().get(0).getRole(), second.getMembers().get(0).getRole());
+	}
+
+	/**
+	 * Elements written with fixed size numbers before are still readable
+	 * 
+	 * @throws Exception
+	 */
+	@Test
+	public void testOldFormat() throws Exception {
+		StreamIo.setDictionary(new HashSet<String>(Arrays.asList("outer")));
+		final Node withProps = node(-9, 10, 11);
+		withProps.addProperty("highway", "stop");
+		final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		final ObjectOutputStream out = new ObjectOutputStream(bytes);
+		writeOldNode(out, withProps);
+		writeOldNode(out, node(12, 13, 14));
+		// relation with a node member whose role is in the dictionary
+		out.writeLong(15);
+		out.writeInt(1);
+		writeOldString(out, "type");
+		writeOldString(out, "route");
+		out.writeInt(1);
+		out.writeInt(-1);
+		out.writeByte(Member.Type.NODE.ordinal());
+		writeOldNode(out, node(16, 17, 18));
+		out.close();
+
+		final ObjectInputStream in = read(bytes.toByteArray());
+		Node node = new Node();
+		node.readExternal(in);
+		assertNode(withProps, node);
+		node = new Node.CoordinateFactory().construct();
+		node.readExternal(in);
+		assertNode(node(12, 13, 14), node);
+		final Relation relation = new Relation();
+		relation.readExternal(in);
+		assertEquals(15, relation.getId());
+		assertEquals("route", relation.getProperty("type"));
+		assertEquals("outer", relation.getMembers().get(0).getRole());
+		assertNode(node(16, 17, 18), (Node) relation.getMembers().get(0).getRef());
+		assertEquals(0, in.available());
+	}
+
+	/**
+	 * A plain node without properties needs 20 bytes in the fixed size format,
+	 * absolute coordinates still need 4 to 5 bytes each
+	 * 
+	 * @throws IOException
+	 */
+	@Test
+	public void testSize() throws IOException {
+		final int before = write().length;
+		final Node nodes[] = new Node[100];
+		for (int i = 0; i < nodes.length; ++i) {
+			nodes[i] = node(4000000000L + i, 525000000 + i, 134000000 - i);
+		}
+		final int length = write(nodes).length - before;
+		assertTrue(length + " bytes", length < nodes.length * 17);
+	}
+
+	private static File writeWays(final String value, final int count) throws IOException {
+		final File f = File.createTempFile("ways", "dat");
+		final ExternalizableWriter<Way> writer = new ExternalizableWriter<>(f);
+		for (int i = 0; i < count; ++i) {
+			final Way way = new Way();
+			way.setId(i);
+			way.addProperty("highway", value);
+			way.addProperty("surface", "asphalt");
+			way.addProperty("name", "Street " + i);
+			writer.writeExternalizable(way);
+		}
+		writer.close();
+		return f;
+	}
+
+	private static void assertWays(final ExternalizableIterator<Way> iterator,
+			final String value, final int count) throws IOException {
+		for (int i = 0; i < count; ++i) {
+			assertTrue(iterator.hasNext());
+			final Way way = iterator.next();
+			assertEquals(i, way.getId());
+			assertEquals(value, way.getProperty("highway"));
+			assertEquals("asphalt", way.getProperty("surface"));
+			assertEquals("Street " + i, way.getProperty("name"));
+		}
+	}
+
+	/**
+	 * Each file is read with the dictionary sampled from its own elements,
+	 * also when files are concatenated
+	 * 
+	 * @throws IOException
+	 */
+	@Test
+	public void testFileDictionary() throws IOException {
+		final int count = TagSampler.DEFAULT_SAMPLES;
+		final File residential = writeWays("residential", count);
+		final File primary = writeWays("primary", count);
+		final File both = File.createTempFile("ways", "dat");
+		try {
+			final ExternalizableIterator<Way> first = new ExternalizableIterator<>(residential,
+					new Way.WayFactory());
+			final ExternalizableIterator<Way> second = new ExternalizableIterator<>(primary,
+					new Way.WayFactory());
+			assertWays(first, "residential", count);
+			assertWays(second, "primary", count);
+			assertFalse(first.hasNext());
+			assertFalse(second.hasNext());
+
+			try (FileOutputStream out = new FileOutputStream(both)) {
+				Files.copy(residential.toPath(), out);
+				Files.copy(primary.toPath(), out);
+			}
+			final ExternalizableIterator<Way> concatenated = new ExternalizableIterator<>(both,
+					new Way.WayFactory());
+			assertWays(concatenated, "residential", count);
+			assertWays(concatenated, "primary", count);
+			assertFalse(concatenated.hasNext());
+		} finally {
+			residential.delete();
+			primary.delete();
+			both.delete();
+		}
+	}
+
+	/**
+	 * After the sample the frequent tags are written as one byte each
+	 * 
+	 * @throws IOException
+	 */
+	@Test
+	public void testDictionarySize() throws IOException {
+		final File small = writeWays("residential", TagSampler.DEFAULT_SAMPLES / 3);
+		final File large = writeWays("residential", TagSampler.DEFAULT_SAMPLES / 3 + 10000);
+		try {
+			final long perWay = (large.length() - small.length()) / 10000;
+			// as text the two frequent tags alone need 36 bytes, the rest of
+			// a way about 20
+			assertTrue(perWay + " bytes per way", perWay < 24);
+		} finally {
+			small.delete();
+			large.delete();
+		}
+	}
+}
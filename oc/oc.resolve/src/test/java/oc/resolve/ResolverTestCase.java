@@ -27,13 +27,16 @@ import static org.junit.Assert.assertTrue;
 import java.io.Externalizable;
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.Files;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Random;
 import java.util.Set;
 import java.util.TreeSet;
 
+import oc.io.CodecContext;
 import oc.io.ExternalizableFactory;
 import oc.io.ExternalizableIterator;
 import oc.io.ExternalizableWriter;
@@ -272,6 +275,37 @@ public class ResolverTestCase {
 		tempDir.delete();
 	}
 
+	/**
+	 * Test method for
+	 * {@link oc.resolve.supp.RelationRelationResolver#resolve(java.io.File, java.io.File, java.io.File, oc.io.CodecContext)}
+	 * . The source file is kept.
+	 * 
+	 * @throws IOException
+	 */
+	@Test
+	public void testResolveRelationsToDest() throws IOException {
+		final File destFile = File.createTempFile("resolved", "dat");
+		final File tempDir = File.createTempFile("relationtemp", "");
+		tempDir.delete();
+		tempDir.mkdirs();
+		final byte[] source = Files.readAllBytes(relationFile.toPath());
+		RelationRelationResolver.resolve(relationFile, destFile, tempDir,
+				CodecContext.getDefault());
+		assertTrue(Arrays.equals(source, Files.readAllBytes(relationFile.toPath())));
+		final ExternalizableIterator<Relation> externalizableIterator = new ExternalizableIterator<>(
+				destFile, relationFactory);
+		int count = 0;
+		while (externalizableIterator.hasNext()) {
+			final Relation relation = externalizableIterator.next();
+			examinRelation(relation);
+			count++;
+		}
+		assertTrue(count > 0);
+		assertEquals(0, tempDir.list().length);
+		tempDir.delete();
+		destFile.delete();
+	}
+
 	/**
 	 * Test method for
 	 * {@link oc.resolve.supp.RelationWayResolver#resolveWays(java.io.File, java.io.File, java.io.File, java.io.File)}
@@ -313,7 +347,7 @@ public class ResolverTestCase {
 		tempDir.mkdirs();
 		RelationWayResolver.dropRelatedWays(destFile, relationFile, wayFile, tempDir);
 		final ExternalizableIterator<Relation> relationIter = new ExternalizableIterator<>(
-				destFile, relationFactory);
+				relationFile, relationFactory);
 		while (relationIter.hasNext()) {
 			final Relation relation = relationIter.next();
 			for (final Member member : relation.getMembers()) {
@@ -324,9 +358,12 @@ public class ResolverTestCase {
 		}
 		final ExternalizableIterator<Way> wayIter = new ExternalizableIterator<>(destFile,
 				new Way.WayFactory());
+		int count = 0;
 		while (wayIter.hasNext()) {
 			assertFalse(wayIds.contains(wayIter.next().getId()));
+			count++;
 		}
+		assertEquals(numberOfWays - wayIds.size(), count);
 		tempDir.delete();
 		destFile.delete();
 	}
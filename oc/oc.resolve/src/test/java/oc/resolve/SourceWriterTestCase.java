@@ -0,0 +1,279 @@
+/**
+ * Copyright (C) 2026 Oliver Schünemann
+ * 
+ * This program is free software; you can redistribute it and/or modify it under the terms of the 
+ * GNU General Public License as published by the Free Software Foundation; either version 2 of 
+ * the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; 
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. 
+ * See the GNU General Public License for more details. 
+ * 
+ * You should have received a copy of the GNU General Public License along with this program; 
+ * if not, write to the Free Software Foundation, Inc., 51 Franklin St, Fifth Floor, 
+ * Boston, MA 02110, USA 
+ * 
+ * @since 19.10.2026
+ * @version 1.0
+ * @author oliver
+ */
+package oc.resolve;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.Externalizable;
+import java.io.File;
+import java.io.IOException;
+import java.io.ObjectOutput;
+import java.util.ArrayList;
+import java.util.List;
+
+import oc.io.CodecContext;
+import oc.io.ExternalizableFactory;
+import oc.io.ExternalizableIterator;
+import oc.io.ManySource;
+import oc.io.base.IdBitSet;
+import oc.osm.handler.OsmBatch;
+import oc.osm.handler.OsmBatchCollector;
+import oc.osm.handler.OsmBatchHandler;
+import oc.osm.type.Node;
+import oc.osm.type.Relation;
+import oc.osm.type.Way;
+import oc.resolve.supp.CoordinateNodeSource;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * @author oliver
+ * 
+ */
+public class SourceWriterTestCase {
+
+	private File nodeFile = null;
+	private File coordinateFile = null;
+	private File wayFile = null;
+	private File relationFile = null;
+
+	@Before
+	public void setUp() throws IOException {
+		nodeFile = File.createTempFile("node", "dat");
+		coordinateFile = File.createTempFile("coordinate", "dat");
+		wayFile = File.createTempFile("way", "dat");
+		relationFile = File.createTempFile("relation", "dat");
+	}
+
+	@After
+	public void tearDown() {
+		nodeFile.delete();
+		coordinateFile.delete();
+		wayFile.delete();
+		relationFile.delete();
+	}
+
+	private static Node node(final long id) {
+		final Node node = new Node();
+		node.setId(id);
+		node.setLat((int) id * 3);
+		node.setLon((int) -id);
+		node.addProperty("name", "n" + id);
+		return node;
+	}
+
+	private static <T extends Externalizable> List<T> read(final File f,
+			final ExternalizableFactory<T> factory) throws IOException {
+		final List<T> elements = new ArrayList<>();
+		final ExternalizableIterator<T> iterator = new ExternalizableIterator<>(f, factory);
+		while (iterator.hasNext()) {
+			elements.add(iterator.next());
+		}
+		iterator.close();
+		return elements;
+	}
+
+	/**
+	 * Writes more elements than the batches of the pools hold
+	 * 
+	 * @throws IOException
+	 */
+	@Test
+	public void testWrite() throws IOException {
+		final int count = SourceWriter.BATCHES * SourceWriter.BATCH_SIZE * 3 + 17;
+		final IdBitSet wayNodes = new IdBitSet();
+		final SourceWriter writer = new SourceWriter(nodeFile, coordinateFile, wayFile,
+				relationFile, wayNodes);
+		final OsmBatchCollector collector = new OsmBatchCollector(writer,
+				SourceWriter.BATCHES, SourceWriter.BATCH_SIZE);
+		for (int i = 0; i < count; ++i) {
+			collector.newNode(node(i));
+		}
+		for (int i = 0; i < 100; ++i) {
+			final Way way = new Way();
+			way.setId(i);
+			way.addNode(node(i));
+			collector.newWay(way);
+		}
+		final Relation relation = new Relation();
+		relation.setId(5);
+		collector.newRelation(relation);
+		collector.flush();
+		writer.close();
+
+		final List<Node> nodes = read(nodeFile, new Node.NodeFactory());
+		final List<Node> simpleNodes = read(nodeFile, new Node.CoordinateFactory());
+		assertEquals(count, nodes.size());
+		assertEquals(count, simpleNodes.size());
+		for (int i = 0; i < count; ++i) {
+			assertEquals(i, nodes.get(i).getId());
+			assertEquals("n" + i, nodes.get(i).getProps().get("name"));
+			assertEquals(i, simpleNodes.get(i).getId());
+			assertEquals(i * 3, simpleNodes.get(i).getLat());
+			assertEquals(-i, simpleNodes.get(i).getLon());
+			assertEquals(0, simpleNodes.get(i).getProps().size());
+		}
+		final ManySource.Cursor<Node> coordinates = new CoordinateNodeSource(coordinateFile)
+				.open(Long.MIN_VALUE);
+		for (int i = 0; i < count; ++i) {
+			assertTrue(coordinates.next());
+			assertEquals(i, coordinates.getId());
+			assertEquals(i * 3, coordinates.get().getLat());
+			assertEquals(-i, coordinates.get().getLon());
+		}
+		assertFalse(coordinates.next());
+		coordinates.close();
+		// skipping looks up the blocks in the index
+		final ManySource.Cursor<Node> skipping = new CoordinateNodeSource(coordinateFile)
+				.open(Long.MIN_VALUE);
+		assertTrue(skipping.skipTo(5));
+		assertEquals(5, skipping.getId());
+		assertTrue(skipping.skipTo(5));
+		assertEquals(6, skipping.getId());
+		assertTrue(skipping.skipTo(count / 2));
+		assertEquals(count / 2, skipping.getId());
+		assertEquals(count / 2 * 3, skipping.get().getLat());
+		assertTrue(skipping.skipTo(count - 1));
+		assertEquals(-(count - 1), skipping.get().getLon());
+		assertFalse(skipping.skipTo(count));
+		skipping.close();
+		final List<Way> ways = read(wayFile, new Way.WayFactory());
+		assertEquals(100, ways.size());
+		assertEquals(99, ways.get(99).getId());
+		assertEquals(1, read(relationFile, new Relation.RelationFactory()).size());
+		assertEquals(100, wayNodes.cardinality());
+		assertTrue(wayNodes.get(99));
+		assertFalse(wayNodes.get(100));
+	}
+
+	/**
+	 * The collector hands over a batch when the type of the elements changes
+	 * 
+	 * @throws IOException
+	 */
+	@Test
+	public void testCollectorOrder() throws IOException {
+		final List<String> batches = new ArrayList<>();
+		final OsmBatchCollector collector = new OsmBatchCollector(new OsmBatchHandler() {
+			@Override
+			public void newNodes(final OsmBatch<Node> nodes) {
+				batches.add("n" + nodes.size());
+				nodes.recycle();
+			}
+
+			@Override
+			public void newWays(final OsmBatch<Way> ways) {
+				batches.add("w" + ways.size());
+				ways.recycle();
+			}
+
+			@Override
+			public void newRelations(final OsmBatch<Relation> relations) {
+				batches.add("r" + relations.size());
+				relations.recycle();
+			}
+		}, 1, 3);
+		for (int i = 0; i < 7; ++i) {
+			collector.newNode(node(i));
+		}
+		collector.newWay(new Way());
+		collector.newNode(node(8));
+		collector.newRelation(new Relation());
+		collector.newRelation(new Relation());
+		collector.flush();
+		collector.flush();
+		assertEquals("[n3, n3, n1, w1, n1, r2]", batches.toString());
+	}
+
+	/**
+	 * A failing file is reported, the reader is not blocked by it.
+	 * 
+	 * @throws IOException
+	 */
+	@Test
+	public void testFailure() throws IOException {
+		wayFile.delete();
+		assertFalse(wayFile.exists());
+		final File folder = wayFile;
+		folder.mkdir();
+		try {
+			new SourceWriter(nodeFile, coordinateFile, folder, relationFile, null);
+			fail("Way file in place of a folder was opened");
+		} catch (final IOException e) {
+			// expected
+		} finally {
+			folder.delete();
+		}
+		final SourceWriter writer = new SourceWriter(nodeFile, coordinateFile, wayFile,
+				relationFile, null);
+		final OsmBatchCollector collector = new OsmBatchCollector(writer, 2, 2);
+		final Way failing = new Way() {
+			@Override
+			public void writeExternal(final ObjectOutput out) throws IOException {
+				throw new IOException("failing way");
+			}
+		};
+		try {
+			for (int i = 0; i < 1000; ++i) {
+				collector.newWay(failing);
+			}
+			collector.flush();
+			writer.close();
+			fail("Failure of serializing was not thrown");
+		} catch (final IOException e) {
+			assertEquals("failing way", e.getMessage());
+		}
+	}
+
+	/**
+	 * An unchecked failure of serializing is reported as well, the batches
+	 * are still recycled, so the reader is not blocked.
+	 * 
+	 * @throws IOException
+	 */
+	@Test(timeout = 60000)
+	public void testUncheckedFailure() throws IOException {
+		final SourceWriter writer = new SourceWriter(nodeFile, coordinateFile, wayFile,
+				relationFile, null, CodecContext.getDefault());
+		final OsmBatchCollector collector = new OsmBatchCollector(writer, 2, 2);
+		final Way failing = new Way() {
+			@Override
+			public void writeExternal(final ObjectOutput out) throws IOException {
+				throw new IllegalStateException("failing way");
+			}
+		};
+		try {
+			for (int i = 0; i < 1000; ++i) {
+				collector.newWay(failing);
+			}
+			collector.flush();
+			writer.close();
+			fail("Failure of serializing was not thrown");
+		} catch (final IOException e) {
+			assertTrue(e.getCause() instanceof IllegalStateException);
+			assertEquals("failing way", e.getCause().getMessage());
+		}
+	}
+}
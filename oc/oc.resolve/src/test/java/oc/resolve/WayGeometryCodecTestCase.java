@@ -0,0 +1,228 @@
+/**
+ * Copyright (C) 2026 Oliver Schünemann
+ * 
+ * This program is free software; you can redistribute it and/or modify it under the terms of the 
+ * GNU General Public License as published by the Free Software Foundation; either version 2 of 
+ * the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; 
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. 
+ * See the GNU General Public License for more details. 
+ * 
+ * You should have received a copy of the GNU General Public License along with this program; 
+ * if not, write to the Free Software Foundation, Inc., 51 Franklin St, Fifth Floor, 
+ * Boston, MA 02110, USA 
+ * 
+ * @since 19.10.2026
+ * @version 1.0
+ * @author oliver
+ */
+package oc.resolve;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Externalizable;
+import java.io.File;
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutput;
+import java.io.ObjectOutputStream;
+import java.io.StreamCorruptedException;
+import java.util.ArrayList;
+import java.util.List;
+
+import oc.io.ExternalizableIterator;
+import oc.io.ExternalizableWriter;
+import oc.io.SizeEstimator;
+import oc.io.StreamIo;
+import oc.osm.type.Member;
+import oc.osm.type.Node;
+import oc.osm.type.Relation;
+import oc.osm.type.Way;
+import oc.osm.type.WayGeometryCodec;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * @author oliver
+ * 
+ */
+public class WayGeometryCodecTestCase {
+
+	private File f = null;
+
+	@Before
+	public void setUp() throws IOException {
+		f = File.createTempFile("ways", "dat");
+	}
+
+	@After
+	public void tearDown() {
+		f.delete();
+	}
+
+	private static Way way(final long id, final int vertices) {
+		final Way way = new Way();
+		way.setId(id);
+		way.addProperty("highway", "residential");
+		for (int i = 0; i < vertices; ++i) {
+			final Node node = new Node();
+			node.setId(4000000000L + i * 3);
+			node.setLat(525000000 + i * 117);
+			node.setLon(134000000 - i * 93);
+			way.addNode(node);
+		}
+		return way;
+	}
+
+	private static void assertGeometry(final Way expected, final Way way, final boolean ids) {
+		assertEquals(expected.getId(), way.getId());
+		assertEquals(expected.getProps(), way.getProps());
+		assertEquals(expected.getNodes().size(), way.getNodes().size());
+		for (int i = 0; i < way.getNodes().size(); ++i) {
+			final Node node = way.getNodes().get(i);
+			assertEquals(ids ? expected.getNodes().get(i).getId() : 0, node.getId());
+			assertEquals(expected.getNodes().get(i).getLat(), node.getLat());
+			assertEquals(expected.getNodes().get(i).getLon(), node.getLon());
+			assertEquals(0, node.getProps().size());
+		}
+	}
+
+	private List<Way> readWays() throws IOException {
+		final List<Way> ways = new ArrayList<>();
+		final ExternalizableIterator<Way> iterator = new ExternalizableIterator<>(f,
+				new Way.WayFactory());
+		while (iterator.hasNext()) {
+			ways.add(iterator.next());
+		}
+		return ways;
+	}
+
+	@Test
+	public void testWay() throws IOException {
+		final Way extreme = way(5, 3);
+		extreme.getNodes().get(0).setLat(Integer.MIN_VALUE);
+		extreme.getNodes().get(1).setLat(Integer.MAX_VALUE);
+		extreme.getNodes().get(1).setId(-17);
+		extreme.getNodes().get(2).setLon(Integer.MIN_VALUE);
+		final Way ways[] = { way(1, 0), way(2, 1), way(3, 500), extreme };
+		final ExternalizableWriter<Way> writer = new ExternalizableWriter<>(f);
+		for (final Way way : ways) {
+			writer.writeExternalizable(way);
+		}
+		writer.close();
+		final List<Way> read = readWays();
+		assertEquals(ways.length, read.size());
+		for (int i = 0; i < ways.length; ++i) {
+			assertGeometry(ways[i], read.get(i), true);
+		}
+	}
+
+	@Test
+	public void testWithoutIds() throws IOException {
+		final Way way = way(7, 20);
+		final ExternalizableWriter<Externalizable> writer = new ExternalizableWriter<>(f);
+		writer.writeExternalizable(new Externalizable() {
+			@Override
+			public void writeExternal(final ObjectOutput out) throws IOException {
+				StreamIo.writeFormat(out);
+				StreamIo.writeSignedVarint(out, way.getId());
+				StreamIo.writeVarint(out, 0);
+				WayGeometryCodec.writeVertices(out, way.getNodes(), false);
+			}
+
+			@Override
+			public void readExternal(final ObjectInput in) {
+				// only written
+			}
+		});
+		writer.close();
+		way.getProps().clear();
+		assertGeometry(way, readWays().get(0), false);
+	}
+
+	/**
+	 * Ways written before the codec was introduced are still readable
+	 * 
+	 * @throws IOException
+	 */
+	@Test
+	public void testOldFormat() throws IOException {
+		final Way way = way(9, 30);
+		final ExternalizableWriter<Externalizable> writer = new ExternalizableWriter<>(f);
+		writer.writeExternalizable(new Externalizable() {
+			@Override
+			public void writeExternal(final ObjectOutput out) throws IOException {
+				out.writeLong(way.getId());
+				out.writeInt(1);
+				out.writeInt(7);
+				out.write("highway".getBytes("UTF-8"));
+				out.writeInt(11);
+				out.write("residential".getBytes("UTF-8"));
+				out.writeInt(way.getNodes().size());
+				for (final Node node : way.getNodes()) {
+					out.writeLong(node.getId());
+					out.writeInt(node.getLat());
+					out.writeInt(node.getLon());
+					out.writeInt(0);
+				}
+			}
+
+			@Override
+			public void readExternal(final ObjectInput in) {
+				// only written
+			}
+		});
+		writer.close();
+		assertGeometry(way, readWays().get(0), true);
+	}
+
+	@Test(expected = StreamCorruptedException.class)
+	public void testNegativeCount() throws IOException {
+		final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		final ObjectOutputStream out = new ObjectOutputStream(bytes);
+		out.writeInt(-5);
+		out.close();
+		final ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(
+				bytes.toByteArray()));
+		WayGeometryCodec.read(in, new ArrayList<Node>());
+	}
+
+	/**
+	 * Close vertices need a third of the 20 bytes of the old format
+	 * 
+	 * @throws IOException
+	 */
+	@Test
+	public void testSize() throws IOException {
+		final ExternalizableWriter<Way> writer = new ExternalizableWriter<>(f);
+		writer.writeExternalizable(way(3, 1000));
+		writer.close();
+		assertTrue(f.length() + " bytes", f.length() < 1000 * 20 / 3);
+	}
+
+	/**
+	 * The heap size of the resolved elements is not taken from the compact
+	 * serialized form
+	 * 
+	 * @throws IOException
+	 */
+	@Test
+	public void testHeapSize() throws IOException {
+		final Way way = way(3, 100);
+		assertTrue(way.getHeapSize() > 100 * 100);
+		final Relation relation = new Relation();
+		final Member member = new Member();
+		member.setRef(way);
+		relation.addMember(member);
+		assertTrue(relation.getHeapSize() > way.getHeapSize());
+		final SizeEstimator<Way> estimator = new SizeEstimator<>();
+		assertTrue(estimator.estimate(way) > way.getHeapSize());
+	}
+}
@@ -0,0 +1,101 @@
+/**
+ * Copyright (C) 2026 Oliver Schünemann
+ * 
+ * This program is free software; you can redistribute it and/or modify it under the terms of the 
+ * GNU General Public License as published by the Free Software Foundation; either version 2 of 
+ * the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; 
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. 
+ * See the GNU General Public License for more details. 
+ * 
+ * You should have received a copy of the GNU General Public License along with this program; 
+ * if not, write to the Free Software Foundation, Inc., 51 Franklin St, Fifth Floor, 
+ * Boston, MA 02110, USA 
+ * 
+ * @since 19.10.2026
+ * @version 1.0
+ * @author oliver
+ */
+package oc.resolve;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import oc.io.ExternalizableIterator;
+import oc.io.ExternalizableWriter;
+import oc.io.base.IdBitSet;
+import oc.osm.type.Node;
+import oc.resolve.supp.WayNodeFilter;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * @author oliver
+ * 
+ */
+public class WayNodeFilterTestCase {
+
+	private File nodeFile = null;
+	private File destFile = null;
+
+	@Before
+	public void setUp() throws IOException {
+		nodeFile = File.createTempFile("node", "dat");
+		destFile = File.createTempFile("filtered", "dat");
+		final ExternalizableWriter<Node> writer = new ExternalizableWriter<>(nodeFile);
+		for (int i = 0; i < 1000; ++i) {
+			final Node node = new Node();
+			node.setId(i);
+			node.setLat(i);
+			node.setLon(-i);
+			if (i % 100 == 0) {
+				node.addProperty("highway", "crossing");
+			}
+			writer.writeExternalizable(node);
+		}
+		writer.close();
+	}
+
+	@After
+	public void tearDown() {
+		nodeFile.delete();
+		destFile.delete();
+	}
+
+	/**
+	 * Keeps the tagged nodes and the ones outside of ways
+	 * 
+	 * @throws IOException
+	 */
+	@Test
+	public void testFilter() throws IOException {
+		final IdBitSet wayNodes = new IdBitSet();
+		for (int i = 0; i < 900; ++i) {
+			wayNodes.set(i);
+		}
+		WayNodeFilter.filter(destFile, nodeFile, wayNodes);
+		final List<Long> ids = new ArrayList<>();
+		final ExternalizableIterator<Node> nodes = new ExternalizableIterator<>(destFile,
+				new Node.NodeFactory());
+		while (nodes.hasNext()) {
+			final Node node = nodes.next();
+			ids.add(Long.valueOf(node.getId()));
+			if (node.getId() < 900) {
+				assertEquals("crossing", node.getProperty("highway"));
+			}
+			assertEquals(-node.getId(), node.getLon());
+		}
+		nodes.close();
+		assertEquals(9 + 100, ids.size());
+		assertEquals(Long.valueOf(800), ids.get(8));
+		assertEquals(Long.valueOf(900), ids.get(9));
+		assertEquals(Long.valueOf(999), ids.get(ids.size() - 1));
+	}
+}
@@ -0,0 +1,432 @@
+/**
+ * Copyright (C) 2026 Oliver Schünemann
+ * 
+ * This program is free software; you can redistribute it and/or modify it under the terms of the 
+ * GNU General Public License as published by the Free Software Foundation; either version 2 of 
+ * the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; 
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. 
+ * See the GNU General Public License for more details. 
+ * 
+ * You should have received a copy of the GNU General Public License along with this program; 
+ * if not, write to the Free Software Foundation, Inc., 51 Franklin St, Fifth Floor, 
+ * Boston, MA 02110, USA 
+ * 
+ * @since 19.10.2026
+ * @version 1.0
+ * @author oliver
+ */
+package oc.sax.reader;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Queue;
+
+import org.apache.commons.compress.compressors.bzip2.BZip2CompressorInputStream;
+
+/**
+ * Splits a bzip2 file into its compressed blocks, so they can be
+ * decompressed independently of each other. The blocks are not byte aligned,
+ * they are found by the 48 bit magic number starting each block and the one
+ * starting the trailer of a stream. So the blocks of a file made up of
+ * several streams, as written by pbzip2 or lbzip2, are found as well as the
+ * ones of a single stream.
+ *
+ * A block is decompressed as a stream of its own: a stream header, the bits
+ * of the block and a trailer carrying the crc of the block as the crc of the
+ * stream. The magic numbers may also occur within the compressed data. A
+ * block cut at such a place fails to decompress, it is then decompressed
+ * up to the start of the following block or together with it.
+ *
+ * @author oliver
+ */
+final class Bzip2Blocks {
+	/**
+	 * Magic number starting each block
+	 */
+	static final long BLOCK_MAGIC = 0x314159265359L;
+	/**
+	 * Magic number starting the trailer of a stream
+	 */
+	static final long END_MAGIC = 0x177245385090L;
+	private static final int MAGIC_BITS = 48;
+	private static final long MAGIC_MASK = (1L << MAGIC_BITS) - 1;
+	private static final int CRC_BITS = 32;
+	/**
+	 * Header of the streams made for single blocks, the largest block size
+	 * fits the blocks of all streams.
+	 */
+	private static final byte STREAM_HEADER[] = { 'B', 'Z', 'h', '9' };
+	private static final int BUFFER_SIZE = 1 << 16;
+	/**
+	 * For each value of a byte the alignments of the magic numbers containing
+	 * it, bit n stands for a magic number followed by n bits
+	 */
+	private static final int CANDIDATES[] = new int[256];
+
+	static {
+		for (int shift = 0; shift < 8; ++shift) {
+			CANDIDATES[(int) (BLOCK_MAGIC >>> 16 - shift) & 0xff] |= 1 << shift;
+			CANDIDATES[(int) (END_MAGIC >>> 16 - shift) & 0xff] |= 1 << shift;
+		}
+	}
+
+	/**
+	 * A block as it is found in the file
+	 */
+	static final class Block {
+		private final byte data[];
+		private final int first;
+		private final long length;
+		private final long extent;
+		private final boolean complete;
+
+		/**
+		 * @param data
+		 *            bytes of the file holding the block
+		 * @param first
+		 *            bit of the first byte the block starts with
+		 * @param length
+		 *            number of bits of the block
+		 * @param extent
+		 *            number of bits up to the start of the next block, also
+		 *            covering a stream trailer and header in between
+		 * @param complete
+		 *            false when the file ends within the block
+		 */
+		Block(final byte data[], final int first, final long length, final long extent,
+				final boolean complete) {
+			super();
+			this.data = data;
+			this.first = first;
+			this.length = length;
+			this.extent = extent;
+			this.complete = complete;
+		}
+
+		/**
+		 * @param next
+		 *            the block following this one in the file
+		 * @return the block reaching from the start of this block to the end
+		 *         of the next one
+		 */
+		Block join(final Block next) {
+			final BitWriter writer = new BitWriter(extent + next.extent);
+			writer.copy(data, first, extent);
+			writer.copy(next.data, next.first, next.extent);
+			return new Block(writer.toByteArray(), 0, extent + next.length, extent
+					+ next.extent, next.complete);
+		}
+
+		/**
+		 * @return the block reaching up to the start of the next block, for
+		 *         a block cut by a trailer magic number within its data
+		 */
+		Block whole() {
+			return new Block(data, first, extent, extent, complete);
+		}
+
+		/**
+		 * @return the decompressed bytes of the block
+		 * @throws IOException
+		 *             when the block is truncated or does not match its crc
+		 */
+		byte[] decompress() throws IOException {
+			if (!complete) {
+				throw new EOFException("Bzip2 file ends within a block");
+			}
+			if (length < MAGIC_BITS + CRC_BITS) {
+				throw new IOException("Bzip2 block of " + length + " bits is too short");
+			}
+			final BitWriter writer = new BitWriter(length);
+			writer.copy(STREAM_HEADER, 0, STREAM_HEADER.length * 8L);
+			writer.copy(data, first, length);
+			writer.write(MAGIC_BITS, END_MAGIC);
+			writer.write(CRC_BITS, readBits(data, first + MAGIC_BITS, CRC_BITS));
+			final ByteArrayOutputStream out = new ByteArrayOutputStream(BUFFER_SIZE);
+			try (InputStream in = new BZip2CompressorInputStream(new ByteArrayInputStream(
+					writer.toByteArray()))) {
+				final byte buffer[] = new byte[BUFFER_SIZE];
+				int read;
+				while ((read = in.read(buffer)) >= 0) {
+					out.write(buffer, 0, read);
+				}
+			} catch (final RuntimeException e) {
+				throw new IOException("Corrupt bzip2 block", e);
+			}
+			return out.toByteArray();
+		}
+	}
+
+	/**
+	 * Result of decompressing a block
+	 */
+	static final class Decompressed {
+		private final byte data[];
+		private final IOException failure;
+		private final boolean joined;
+
+		private Decompressed(final byte data[], final IOException failure, final boolean joined) {
+			super();
+			this.data = data;
+			this.failure = failure;
+			this.joined = joined;
+		}
+
+		/**
+		 * Decompresses a block, when it fails the magic numbers it is found by
+		 * are taken for parts of the compressed data: The block is
+		 * decompressed up to the next block or together with it.
+		 *
+		 * @param block
+		 *            the block to decompress
+		 * @param next
+		 *            the following block, null for the last one
+		 * @return the decompressed bytes or the failure
+		 */
+		static Decompressed of(final Block block, final Block next) {
+			try {
+				return new Decompressed(block.decompress(), null, false);
+			} catch (final IOException e) {
+				if (block.length < block.extent) {
+					try {
+						return new Decompressed(block.whole().decompress(), null, false);
+					} catch (final IOException wholeFailure) {
+						// the trailer is a real one
+					}
+				}
+				if (next != null) {
+					try {
+						return new Decompressed(block.join(next).decompress(), null, true);
+					} catch (final IOException joinFailure) {
+						// report the failure of the block on its own
+					}
+				}
+				return new Decompressed(null, e, false);
+			}
+		}
+
+		/**
+		 * @return the decompressed bytes
+		 * @throws IOException
+		 *             the failure of decompressing
+		 */
+		byte[] getData() throws IOException {
+			if (failure != null) {
+				throw failure;
+			}
+			return data;
+		}
+
+		/**
+		 * @return true when the decompressed bytes include the following
+		 *         block, its own result has to be skipped.
+		 */
+		boolean isJoined() {
+			return joined;
+		}
+	}
+
+	private final InputStream in;
+	private final byte chunk[] = new byte[BUFFER_SIZE];
+	private final Queue<Block> found = new ArrayDeque<>();
+	/**
+	 * Bytes of the file from the one holding the start of the current block
+	 */
+	private byte pending[] = new byte[BUFFER_SIZE];
+	private int pendingLength;
+	/**
+	 * Bit position of the first pending byte in the file
+	 */
+	private long pendingStart;
+	private long position;
+	private long window;
+	private long blockStart = -1;
+	private long blockEnd = -1;
+	private boolean finished;
+
+	/**
+	 * @param in
+	 *            the bzip2 file, it is read sequentially
+	 */
+	Bzip2Blocks(final InputStream in) {
+		super();
+		this.in = in;
+	}
+
+	/**
+	 * @return the next block of the file, null at its end
+	 * @throws IOException
+	 */
+	Block next() throws IOException {
+		while (found.isEmpty() && !finished) {
+			final int read = in.read(chunk);
+			if (read < 0) {
+				finished = true;
+				if (blockStart >= 0) {
+					found.add(block(position, blockEnd >= 0));
+				}
+			} else {
+				for (int i = 0; i < read; ++i) {
+					scan(chunk[i]);
+				}
+				if (blockStart < 0) {
+					drop(position - 8 * 8);
+				}
+			}
+		}
+		return found.poll();
+	}
+
+	/**
+	 * Appends a byte and looks for the magic numbers ending in one of its
+	 * bits. Only the alignments whose byte before the last but one matches
+	 * the magic numbers are compared completely.
+	 */
+	private void scan(final byte b) {
+		if (pendingLength == pending.length) {
+			pending = Arrays.copyOf(pending, pending.length * 2);
+		}
+		pending[pendingLength++] = b;
+		window = window << 8 | b & 0xff;
+		position += 8;
+		final int candidates = CANDIDATES[(int) (window >>> 16) & 0xff];
+		if (candidates == 0) {
+			return;
+		}
+		for (int shift = 7; shift >= 0; --shift) {
+			if ((candidates & 1 << shift) == 0) {
+				continue;
+			}
+			final long magic = window >>> shift & MAGIC_MASK;
+			final long start = position - shift - MAGIC_BITS;
+			if (magic == BLOCK_MAGIC) {
+				if (blockStart >= 0) {
+					found.add(block(start, true));
+				}
+				drop(start);
+				blockStart = start;
+				blockEnd = -1;
+			} else if (magic == END_MAGIC && blockStart >= 0) {
+				blockEnd = start;
+			}
+		}
+	}
+
+	/**
+	 * @param end
+	 *            the position of the next block or the end of the file
+	 * @param complete
+	 *            true when the block has been ended by a magic number
+	 * @return the current block
+	 */
+	private Block block(final long end, final boolean complete) {
+		final int from = (int) ((blockStart - pendingStart) >>> 3);
+		final int to = (int) ((end - pendingStart + 7) >>> 3);
+		return new Block(Arrays.copyOfRange(pending, from, to), (int) (blockStart & 7),
+				(blockEnd >= 0 ? blockEnd : end) - blockStart, end - blockStart, complete);
+	}
+
+	/**
+	 * Drops the pending bytes before the one holding the given bit
+	 */
+	private void drop(final long bit) {
+		if (bit < pendingStart + 8) {
+			return;
+		}
+		final int count = (int) ((bit - pendingStart) >>> 3);
+		System.arraycopy(pending, count, pending, 0, pendingLength - count);
+		pendingLength -= count;
+		pendingStart += count * 8L;
+	}
+
+	/**
+	 * @return up to 32 bits starting at the given position
+	 */
+	private static long readBits(final byte data[], final long from, final int count) {
+		long value = 0;
+		for (long bit = from; bit < from + count; ++bit) {
+			value = value << 1 | data[(int) (bit >>> 3)] >>> (7 - (bit & 7)) & 1;
+		}
+		return value;
+	}
+
+	/**
+	 * Writes bits to a byte array, the last byte is padded with zeros.
+	 */
+	private static final class BitWriter {
+		private byte bytes[];
+		private int size;
+		private long buffer;
+		private int count;
+
+		/**
+		 * @param bits
+		 *            expected number of bits
+		 */
+		BitWriter(final long bits) {
+			super();
+			bytes = new byte[(int) (bits >>> 3) + BUFFER_SIZE];
+		}
+
+		/**
+		 * @param bits
+		 *            number of bits, at most 48
+		 * @param value
+		 *            the bits in its lowest bits
+		 */
+		void write(final int bits, final long value) {
+			buffer = buffer << bits | value & (1L << bits) - 1;
+			count += bits;
+			while (count >= 8) {
+				count -= 8;
+				if (size == bytes.length) {
+					bytes = Arrays.copyOf(bytes, size * 2);
+				}
+				bytes[size++] = (byte) (buffer >>> count);
+			}
+		}
+
+		/**
+		 * Copies bits of a byte array
+		 */
+		void copy(final byte data[], final int first, final long length) {
+			final long end = first + length;
+			long bit = first;
+			if (first == 0 && count == 0) {
+				final int whole = (int) (length >>> 3);
+				if (bytes.length - size < whole) {
+					bytes = Arrays.copyOf(bytes, size + whole + BUFFER_SIZE);
+				}
+				System.arraycopy(data, 0, bytes, size, whole);
+				size += whole;
+				bit += whole * 8L;
+			}
+			for (; bit + 8 <= end; bit += 8) {
+				final int index = (int) (bit >>> 3);
+				final int shift = (int) (bit & 7);
+				int value = (data[index] & 0xff) << shift;
+				if (shift > 0) {
+					value |= (data[index + 1] & 0xff) >>> 8 - shift;
+				}
+				write(8, value);
+			}
+			if (bit < end) {
+				write((int) (end - bit), readBits(data, bit, (int) (end - bit)));
+			}
+		}
+
+		byte[] toByteArray() {
+			if (count > 0) {
+				write(8 - count, 0);
+			}
+			return Arrays.copyOf(bytes, size);
+		}
+	}
+}
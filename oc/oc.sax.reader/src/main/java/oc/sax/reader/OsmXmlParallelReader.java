@@ -0,0 +1,218 @@
+/**
+ * Copyright (C) 2026 Oliver Schünemann
+ * 
+ * This program is free software; you can redistribute it and/or modify it under the terms of the 
+ * GNU General Public License as published by the Free Software Foundation; either version 2 of 
+ * the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; 
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. 
+ * See the GNU General Public License for more details. 
+ * 
+ * You should have received a copy of the GNU General Public License along with this program; 
+ * if not, write to the Free Software Foundation, Inc., 51 Franklin St, Fifth Floor, 
+ * Boston, MA 02110, USA 
+ * 
+ * @since 19.10.2026
+ * @version 1.0
+ * @author oliver
+ */
+package oc.sax.reader;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import oc.io.base.MappedFile;
+import oc.osm.handler.ConcurrentOsmHandler;
+import oc.osm.handler.OsmHandler;
+import oc.osm.handler.OsmHandlerAdapter;
+import oc.osm.handler.ParallelDecoder;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Scans an uncompressed OSM XML file with several threads. The nodes, ways
+ * and relations do not depend on each other, so the file is cut into tasks
+ * in front of the start tags of these elements. A start tag is only taken as
+ * cut at the beginning of a line, like the files written by osmosis or
+ * osmconvert have them, comments between the elements are not expected. Each
+ * task is scanned by its own {@link OsmXmlScanner} from the memory mapped
+ * file.
+ * 
+ * The handler gets the elements in file order, unless it is a
+ * {@link ConcurrentOsmHandler}, see {@link ParallelDecoder}.
+ * 
+ * @author oliver
+ */
+final class OsmXmlParallelReader {
+	/**
+	 * Number of bytes after which a task looks for its end
+	 */
+	static final long TASK_SIZE = 16L << 20;
+
+	private static final byte NODE_NAME[] = { 'n', 'o', 'd', 'e' };
+	private static final byte WAY_NAME[] = { 'w', 'a', 'y' };
+	private static final byte RELATION_NAME[] = { 'r', 'e', 'l', 'a', 't', 'i', 'o', 'n' };
+
+	private final File f;
+	private final int threads;
+	private final long taskSize;
+	private static final Logger logger = LogManager.getLogger(OsmXmlParallelReader.class
+			.getName());
+
+	/**
+	 * @param f
+	 *            the uncompressed osm file
+	 * @param threads
+	 *            number of threads scanning the file
+	 * @param taskSize
+	 *            number of bytes after which a task looks for its end
+	 */
+	OsmXmlParallelReader(final File f, final int threads, final long taskSize) {
+		super();
+		this.f = f;
+		this.threads = threads;
+		this.taskSize = taskSize;
+	}
+
+	/**
+	 * Reads the complete file.
+	 * 
+	 * @param handler
+	 *            callback for the elements
+	 * @throws IOException
+	 */
+	void read(final OsmHandler handler) throws IOException {
+		final List<long[]> tasks = split();
+		if (threads <= 1 || tasks.size() <= 1) {
+			OsmXmlScanner.readFile(f, handler);
+			return;
+		}
+		logger.debug("Scan {} parts of {} with {} threads", tasks.size(), f, threads);
+		new ParallelDecoder(f.toString(), threads) {
+			@Override
+			protected void decode(final long[] task, final OsmHandler taskHandler)
+					throws IOException {
+				try (MappedFile in = new MappedFile(f)) {
+					new OsmXmlScanner(new OsmHandlerAdapter(taskHandler))
+							.scan(new RangeInputStream(in, task[0], task[1]));
+				}
+			}
+		}.decode(tasks, handler);
+	}
+
+	/**
+	 * Splits the file in front of the first element starting a line after
+	 * each multiple of the task size.
+	 * 
+	 * @return start and end position of each task
+	 * @throws IOException
+	 */
+	List<long[]> split() throws IOException {
+		final List<long[]> tasks = new ArrayList<>();
+		try (MappedFile in = new MappedFile(f)) {
+			long taskStart = 0;
+			long position = taskStart + taskSize;
+			while (position < in.size()) {
+				position = nextElement(in, position);
+				if (position < 0) {
+					break;
+				}
+				tasks.add(new long[] { taskStart, position });
+				taskStart = position;
+				position = taskStart + taskSize;
+			}
+			tasks.add(new long[] { taskStart, in.size() });
+		}
+		return tasks;
+	}
+
+	/**
+	 * Looks for the start tag of a node, way or relation at the beginning of
+	 * a line, only indented by whitespace.
+	 * 
+	 * @param in
+	 *            the file
+	 * @param from
+	 *            position the next line starts behind
+	 * @return position of the '&lt;' of the start tag, -1 when there is none
+	 *         up to the end of the file
+	 * @throws IOException
+	 */
+	static long nextElement(final MappedFile in, final long from) throws IOException {
+		long position = from;
+		while (true) {
+			int c = in.get(position);
+			while (c >= 0 && c != '\n') {
+				c = in.get(++position);
+			}
+			if (c < 0) {
+				return -1;
+			}
+			do {
+				c = in.get(++position);
+			} while (c == ' ' || c == '\t');
+			if (c == '<' && (isName(in, position + 1, NODE_NAME) || isName(in, position + 1, WAY_NAME)
+					|| isName(in, position + 1, RELATION_NAME))) {
+				return position;
+			}
+		}
+	}
+
+	/**
+	 * @return true when the name is at the position, followed by a byte
+	 *         ending the name
+	 */
+	private static boolean isName(final MappedFile in, final long position, final byte name[])
+			throws IOException {
+		for (int i = 0; i < name.length; ++i) {
+			if (in.get(position + i) != name[i]) {
+				return false;
+			}
+		}
+		final int c = in.get(position + name.length);
+		return c == ' ' || c == '\t' || c == '\r' || c == '\n' || c == '>' || c == '/';
+	}
+
+	/**
+	 * Stream of a range of the mapped file. The bytes are copied from slices
+	 * of the mapping, so the range may be bigger than the mapped window.
+	 * 
+	 * @author oliver
+	 */
+	private static class RangeInputStream extends InputStream {
+		private final MappedFile in;
+		private final long end;
+		private long position;
+
+		public RangeInputStream(final MappedFile in, final long start, final long end) {
+			super();
+			this.in = in;
+			this.position = start;
+			this.end = end;
+		}
+
+		@Override
+		public int read() throws IOException {
+			if (position >= end) {
+				return -1;
+			}
+			return in.get(position++);
+		}
+
+		@Override
+		public int read(final byte[] b, final int off, final int len) throws IOException {
+			if (position >= end) {
+				return -1;
+			}
+			final int length = (int) Math.min(len, end - position);
+			in.slice(position, length).get(b, off, length);
+			position += length;
+			return length;
+		}
+	}
+}
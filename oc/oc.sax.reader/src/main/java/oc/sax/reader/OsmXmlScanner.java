@@ -0,0 +1,868 @@
+/**
+ * Copyright (C) 2026 Oliver Schünemann
+ * 
+ * This program is free software; you can redistribute it and/or modify it under the terms of the 
+ * GNU General Public License as published by the Free Software Foundation; either version 2 of 
+ * the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; 
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. 
+ * See the GNU General Public License for more details. 
+ * 
+ * You should have received a copy of the GNU General Public License along with this program; 
+ * if not, write to the Free Software Foundation, Inc., 51 Franklin St, Fifth Floor, 
+ * Boston, MA 02110, USA 
+ * 
+ * @since 19.10.2026
+ * @version 1.0
+ * @author oliver
+ */
+package oc.sax.reader;
+
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import oc.osm.handler.ConcurrentOsmHandler;
+import oc.osm.handler.OsmHandler;
+import oc.osm.handler.OsmHandlerAdapter;
+import oc.osm.handler.PrimitiveOsmHandler;
+import oc.osm.type.Member.Type;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Reads OSM XML files without a generic XML parser. The scanner works on the
+ * raw UTF-8 bytes and only knows the elements node, way, nd, relation, member
+ * and tag, all other elements are skipped. Ids and coordinates are parsed
+ * from the bytes, only keys, values and roles become strings, and entities
+ * are only decoded in attribute values containing an ampersand.
+ * 
+ * The behaviour for the known elements is the one of {@link SaxReader}, with
+ * the difference that coordinates are rounded exactly to 1e-7 degrees. The
+ * file may be plain, gzip or bzip2 compressed.
+ * 
+ * @author oliver
+ */
+public final class OsmXmlScanner {
+
+	private static final int BUFFER_SIZE = 1 << 16;
+	private static final int MAX_CACHED_LENGTH = 24;
+	private static final int CACHE_SIZE = 1 << 10;
+	private static final int COORDINATE_DIGITS = 7;
+
+	private static final byte NODE_NAME[] = bytes("node");
+	private static final byte WAY_NAME[] = bytes("way");
+	private static final byte NODE_REF_NAME[] = bytes("nd");
+	private static final byte RELATION_NAME[] = bytes("relation");
+	private static final byte MEMBER_NAME[] = bytes("member");
+	private static final byte TAG_NAME[] = bytes("tag");
+	private static final byte ID_ATTR_NAME[] = bytes("id");
+	private static final byte LAT_ATTR_NAME[] = bytes("lat");
+	private static final byte LON_ATTR_NAME[] = bytes("lon");
+	private static final byte REF_ATTR_NAME[] = bytes("ref");
+	private static final byte TYPE_ATTR_NAME[] = bytes("type");
+	private static final byte ROLE_ATTR_NAME[] = bytes("role");
+	private static final byte KEY_ATTR_NAME[] = bytes("k");
+	private static final byte VALUE_ATTR_NAME[] = bytes("v");
+
+	/**
+	 * Kinds of the elements the scanner knows
+	 */
+	private static final int OTHER = 0;
+	private static final int NODE = 1;
+	private static final int WAY = 2;
+	private static final int NODE_REF = 3;
+	private static final int RELATION = 4;
+	private static final int MEMBER = 5;
+	private static final int TAG = 6;
+
+	/**
+	 * Terminators of the skipped markup as the last bytes read
+	 */
+	private static final int END_OF_COMMENT = '-' << 16 | '-' << 8 | '>';
+	private static final int END_OF_CDATA = ']' << 16 | ']' << 8 | '>';
+	private static final int END_OF_INSTRUCTION = '?' << 8 | '>';
+
+	private static final Logger logger = LogManager.getLogger(OsmXmlScanner.class.getName());
+
+	private final PrimitiveOsmHandler handler;
+	private InputStream in;
+	private final byte buffer[] = new byte[BUFFER_SIZE];
+	private int position;
+	private int limit;
+
+	private byte name[] = new byte[64];
+	private int nameLength;
+	private byte value[] = new byte[256];
+	private int valueLength;
+
+	private final String cache[] = new String[CACHE_SIZE];
+	private final byte cacheBytes[][] = new byte[CACHE_SIZE][];
+
+	private long id;
+	private int lat;
+	private int lon;
+	private String keys[] = new String[16];
+	private String values[] = new String[16];
+	private int tags;
+	private long refs[] = new long[256];
+	private int refCount;
+	private Type memberTypes[] = new Type[64];
+	private long memberIds[] = new long[64];
+	private String roles[] = new String[64];
+	private int memberCount;
+	private boolean relationActive = false;
+	private boolean wayActive = false;
+	private boolean nodeActive = false;
+
+	/**
+	 * Attributes of the current nd, member or tag element
+	 */
+	private long ref;
+	private Type memberType;
+	private String role;
+	private String key;
+	private String tagValue;
+
+	private long numberOfNodes = 0;
+	private long numberOfWays = 0;
+	private long numberOfRelations = 0;
+	private long numberOfNodeWayRefs = 0;
+	private long numberOfNodeRelRefs = 0;
+	private long numberOfWayRelRefs = 0;
+	private long numberOfRelRelRefs = 0;
+
+	/**
+	 * @param handler
+	 *            callback for the elements
+	 */
+	OsmXmlScanner(final PrimitiveOsmHandler handler) {
+		this.handler = handler;
+	}
+
+	/**
+	 * Reads the complete file and calls the handler for each element in it.
+	 * 
+	 * @param f
+	 *            the osm, osm.gz, BGZF or osm.bz2 file
+	 * @param handler
+	 *            callback for the elements
+	 * @throws IOException
+	 */
+	public static void readFile(final File f, final OsmHandler handler) throws IOException {
+		readFile(f, new OsmHandlerAdapter(handler));
+	}
+
+	/**
+	 * Reads the complete file and calls the primitive handler for each element
+	 * in it, without creating Node, Way or Relation instances. A compressed
+	 * file is decompressed by one other thread.
+	 * 
+	 * @param f
+	 *            the osm, osm.gz, BGZF or osm.bz2 file
+	 * @param handler
+	 *            callback for the elements
+	 * @throws IOException
+	 */
+	public static void readFile(final File f, final PrimitiveOsmHandler handler)
+			throws IOException {
+		readStream(f, handler, 1);
+	}
+
+	/**
+	 * Reads the complete file with several threads. An uncompressed file is
+	 * cut into parts at its nodes, ways and relations, which are scanned in
+	 * parallel. The handler gets the elements in the order of the file, unless
+	 * it is a {@link ConcurrentOsmHandler}. A compressed file is scanned by the
+	 * calling thread, the members of a BGZF file and the blocks of a bzip2
+	 * file are decompressed in parallel.
+	 * 
+	 * @param f
+	 *            the osm, osm.gz, BGZF or osm.bz2 file
+	 * @param handler
+	 *            callback for the elements
+	 * @param threads
+	 *            number of threads scanning or decompressing the file
+	 * @throws IOException
+	 */
+	public static void readFile(final File f, final OsmHandler handler, final int threads)
+			throws IOException {
+		if (SourceInput.format(f) == SourceInput.Format.PLAIN) {
+			new OsmXmlParallelReader(f, threads, OsmXmlParallelReader.TASK_SIZE).read(handler);
+		} else {
+			logger.debug("{} is compressed, it is scanned by one thread", f);
+			readStream(f, new OsmHandlerAdapter(handler), threads);
+		}
+	}
+
+	private static void readStream(final File f, final PrimitiveOsmHandler handler,
+			final int threads) throws IOException {
+		try (InputStream in = SourceInput.open(f, threads)) {
+			final OsmXmlScanner scanner = new OsmXmlScanner(handler);
+			scanner.scan(in);
+			scanner.logStatistics();
+		}
+	}
+
+	/**
+	 * Scans the stream up to its end. The stream does not need to contain a
+	 * complete document, it may be any sequence of elements.
+	 * 
+	 * @param stream
+	 *            the uncompressed xml
+	 * @throws IOException
+	 */
+	void scan(final InputStream stream) throws IOException {
+		in = stream;
+		position = 0;
+		limit = 0;
+		while (skipTo('<')) {
+			final int c = next();
+			if (c == '/') {
+				readName(next());
+				skipPast('>');
+				endElement(kind());
+			} else if (c == '?') {
+				skipPast(END_OF_INSTRUCTION, 0xffff);
+			} else if (c == '!') {
+				skipDeclaration();
+			} else {
+				readName(c);
+				final int kind = kind();
+				startElement(kind);
+				if (readAttributes(kind)) {
+					endElement(kind);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Logs the number of elements read
+	 */
+	void logStatistics() {
+		logger.debug("Number of Nodes     : {}", numberOfNodes);
+		logger.debug("Number of Ways      : {}", numberOfWays);
+		logger.debug("Number of Relations : {}", numberOfRelations);
+		logger.debug("Way Node References : {}", numberOfNodeWayRefs);
+		logger.debug("Relation Refs Nodes : {}, Ways : {}, Relations : {}", numberOfNodeRelRefs,
+				numberOfWayRelRefs, numberOfRelRelRefs);
+	}
+
+	private void startElement(final int kind) {
+		switch (kind) {
+		case NODE:
+			id = 0;
+			lat = 0;
+			lon = 0;
+			tags = 0;
+			nodeActive = true;
+			numberOfNodes++;
+			break;
+		case WAY:
+			id = 0;
+			tags = 0;
+			refCount = 0;
+			wayActive = true;
+			numberOfWays++;
+			break;
+		case RELATION:
+			id = 0;
+			tags = 0;
+			memberCount = 0;
+			relationActive = true;
+			numberOfRelations++;
+			break;
+		case NODE_REF:
+			ref = 0;
+			break;
+		case MEMBER:
+			ref = 0;
+			memberType = null;
+			role = "";
+			break;
+		case TAG:
+			key = null;
+			tagValue = null;
+			break;
+		default:
+			break;
+		}
+	}
+
+	/**
+	 * Reads the attributes up to the end of the start tag
+	 * 
+	 * @param kind
+	 *            kind of the element
+	 * @return true when the element is closed by the start tag
+	 * @throws IOException
+	 */
+	private boolean readAttributes(final int kind) throws IOException {
+		while (true) {
+			final int c = skipWhitespace();
+			if (c == '>') {
+				break;
+			} else if (c == '/') {
+				skipPast('>');
+				finishStartTag(kind);
+				return true;
+			}
+			readName(c);
+			if (skipWhitespace() != '=') {
+				throw new IOException("Missing value of attribute '" + name() + "'");
+			}
+			final int quote = skipWhitespace();
+			if (quote != '"' && quote != '\'') {
+				throw new IOException("Unquoted value of attribute '" + name() + "'");
+			}
+			readValue(quote);
+			attribute(kind);
+		}
+		finishStartTag(kind);
+		return false;
+	}
+
+	/**
+	 * Takes over the attribute just read, named by the last name read.
+	 * 
+	 * @param kind
+	 *            kind of the element
+	 * @throws IOException
+	 */
+	private void attribute(final int kind) throws IOException {
+		switch (kind) {
+		case NODE:
+			if (isName(ID_ATTR_NAME)) {
+				id = parseLong();
+			} else if (isName(LAT_ATTR_NAME)) {
+				lat = parseCoordinate();
+			} else if (isName(LON_ATTR_NAME)) {
+				lon = parseCoordinate();
+			}
+			break;
+		case WAY:
+		case RELATION:
+			if (isName(ID_ATTR_NAME)) {
+				id = parseLong();
+			}
+			break;
+		case NODE_REF:
+			if (isName(REF_ATTR_NAME)) {
+				ref = parseLong();
+			}
+			break;
+		case MEMBER:
+			if (isName(REF_ATTR_NAME)) {
+				ref = parseLong();
+			} else if (isName(TYPE_ATTR_NAME)) {
+				memberType = memberType();
+			} else if (isName(ROLE_ATTR_NAME)) {
+				role = string();
+			}
+			break;
+		case TAG:
+			if (isName(KEY_ATTR_NAME)) {
+				key = string();
+			} else if (isName(VALUE_ATTR_NAME)) {
+				tagValue = string();
+			}
+			break;
+		default:
+			break;
+		}
+	}
+
+	/**
+	 * Called when all attributes of an element are read, adds the references,
+	 * members and tags to the active element.
+	 * 
+	 * @param kind
+	 *            kind of the element
+	 * @throws IOException
+	 */
+	private void finishStartTag(final int kind) throws IOException {
+		if (kind == NODE_REF && wayActive) {
+			if (refCount == refs.length) {
+				refs = Arrays.copyOf(refs, refCount * 2);
+			}
+			refs[refCount++] = ref;
+			numberOfNodeWayRefs++;
+		} else if (kind == MEMBER && relationActive && memberType != null) {
+			switch (memberType) {
+			case NODE:
+				numberOfNodeRelRefs++;
+				break;
+			case WAY:
+				numberOfWayRelRefs++;
+				break;
+			default:
+				numberOfRelRelRefs++;
+				break;
+			}
+			if (memberCount == memberIds.length) {
+				memberTypes = Arrays.copyOf(memberTypes, memberCount * 2);
+				memberIds = Arrays.copyOf(memberIds, memberCount * 2);
+				roles = Arrays.copyOf(roles, memberCount * 2);
+			}
+			memberTypes[memberCount] = memberType;
+			memberIds[memberCount] = ref;
+			roles[memberCount] = role;
+			memberCount++;
+		} else if (kind == TAG) {
+			if (!nodeActive && !wayActive && !relationActive) {
+				throw new IOException("Unexpected Tag '" + key + "'");
+			}
+			if (tags == keys.length) {
+				keys = Arrays.copyOf(keys, tags * 2);
+				values = Arrays.copyOf(values, tags * 2);
+			}
+			keys[tags] = key;
+			values[tags] = tagValue;
+			tags++;
+		}
+	}
+
+	private void endElement(final int kind) throws IOException {
+		if (kind == NODE && nodeActive) {
+			handler.node(id, lat, lon, keys, values, tags);
+			nodeActive = false;
+		} else if (kind == WAY && wayActive) {
+			handler.way(id, refs, refCount, keys, values, tags);
+			wayActive = false;
+		} else if (kind == RELATION && relationActive) {
+			handler.relation(id, memberTypes, memberIds, roles, memberCount, keys, values, tags);
+			relationActive = false;
+		}
+	}
+
+	/**
+	 * @return the kind of the element named by the last name read
+	 */
+	private int kind() {
+		switch (nameLength) {
+		case 2:
+			return isName(NODE_REF_NAME) ? NODE_REF : OTHER;
+		case 3:
+			if (isName(TAG_NAME)) {
+				return TAG;
+			}
+			return isName(WAY_NAME) ? WAY : OTHER;
+		case 4:
+			return isName(NODE_NAME) ? NODE : OTHER;
+		case 6:
+			return isName(MEMBER_NAME) ? MEMBER : OTHER;
+		case 8:
+			return isName(RELATION_NAME) ? RELATION : OTHER;
+		default:
+			return OTHER;
+		}
+	}
+
+	private boolean isName(final byte expected[]) {
+		if (nameLength != expected.length) {
+			return false;
+		}
+		for (int i = 0; i < nameLength; ++i) {
+			if (name[i] != expected[i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * @return the member type named by the value, null for unknown types
+	 */
+	private Type memberType() {
+		if (isValue(NODE_NAME)) {
+			return Type.NODE;
+		} else if (isValue(WAY_NAME)) {
+			return Type.WAY;
+		} else if (isValue(RELATION_NAME)) {
+			return Type.RELATION;
+		}
+		return null;
+	}
+
+	private boolean isValue(final byte expected[]) {
+		if (valueLength != expected.length) {
+			return false;
+		}
+		for (int i = 0; i < valueLength; ++i) {
+			if (value[i] != expected[i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Parses the value as a decimal number
+	 * 
+	 * @return the number
+	 * @throws IOException
+	 *             if the value is no number
+	 */
+	private long parseLong() throws IOException {
+		int i = 0;
+		final boolean negative = valueLength > 0 && value[0] == '-';
+		if (negative || valueLength > 0 && value[0] == '+') {
+			i++;
+		}
+		if (i == valueLength || valueLength - i > 19) {
+			throw new IOException("Invalid number '" + string() + "'");
+		}
+		long result = 0;
+		for (; i < valueLength; ++i) {
+			final int digit = value[i] - '0';
+			if (digit < 0 || digit > 9) {
+				throw new IOException("Invalid number '" + string() + "'");
+			}
+			result = result * 10 + digit;
+		}
+		return negative ? -result : result;
+	}
+
+	/**
+	 * Parses the value as a coordinate in degrees with fixed point. The result
+	 * is rounded half away from zero. Values in exponent notation are parsed
+	 * as double.
+	 * 
+	 * @return the coordinate in 1e-7 degrees
+	 * @throws IOException
+	 *             if the value is no number
+	 */
+	private int parseCoordinate() throws IOException {
+		int i = 0;
+		final boolean negative = valueLength > 0 && value[0] == '-';
+		if (negative || valueLength > 0 && value[0] == '+') {
+			i++;
+		}
+		long result = 0;
+		int digits = 0;
+		int fraction = -1;
+		boolean roundUp = false;
+		for (; i < valueLength; ++i) {
+			final int c = value[i];
+			if (c >= '0' && c <= '9') {
+				if (fraction < 0) {
+					result = result * 10 + c - '0';
+				} else if (fraction < COORDINATE_DIGITS) {
+					result = result * 10 + c - '0';
+					fraction++;
+				} else if (fraction == COORDINATE_DIGITS) {
+					roundUp = c >= '5';
+					fraction++;
+				}
+				digits++;
+				if (fraction < 0 && digits > 4) {
+					return parseDoubleCoordinate();
+				}
+			} else if (c == '.' && fraction < 0) {
+				fraction = 0;
+			} else {
+				return parseDoubleCoordinate();
+			}
+		}
+		if (digits == 0) {
+			throw new IOException("Invalid coordinate '" + string() + "'");
+		}
+		for (int f = Math.max(fraction, 0); f < COORDINATE_DIGITS; ++f) {
+			result *= 10;
+		}
+		if (roundUp) {
+			result++;
+		}
+		return (int) (negative ? -result : result);
+	}
+
+	private int parseDoubleCoordinate() throws IOException {
+		final String coordinate = string();
+		try {
+			return (int) Math.round(Double.parseDouble(coordinate) * 1e7);
+		} catch (final NumberFormatException e) {
+			throw new IOException("Invalid coordinate '" + coordinate + "'", e);
+		}
+	}
+
+	/**
+	 * Creates the string of the value. Short strings are taken from a cache,
+	 * keys, roles and most values repeat often.
+	 * 
+	 * @return the value as string
+	 */
+	private String string() {
+		if (valueLength > MAX_CACHED_LENGTH) {
+			return new String(value, 0, valueLength, StandardCharsets.UTF_8);
+		}
+		int hash = valueLength;
+		for (int i = 0; i < valueLength; ++i) {
+			hash = hash * 31 + value[i];
+		}
+		final int slot = (hash ^ hash >>> 12) & CACHE_SIZE - 1;
+		final byte cached[] = cacheBytes[slot];
+		if (cached != null && isValue(cached)) {
+			return cache[slot];
+		}
+		final String string = new String(value, 0, valueLength, StandardCharsets.UTF_8);
+		cacheBytes[slot] = Arrays.copyOf(value, valueLength);
+		cache[slot] = string;
+		return string;
+	}
+
+	/**
+	 * Reads a name starting with the given byte. It ends before whitespace,
+	 * '=', '/' or '>'.
+	 * 
+	 * @param first
+	 *            first byte of the name
+	 * @throws IOException
+	 */
+	private void readName(final int first) throws IOException {
+		if (first < 0) {
+			throw new EOFException("Unexpected end of file");
+		}
+		nameLength = 0;
+		int c = first;
+		while (c > ' ' && c != '=' && c != '/' && c != '>') {
+			if (nameLength == name.length) {
+				name = Arrays.copyOf(name, nameLength * 2);
+			}
+			name[nameLength++] = (byte) c;
+			if (position == limit && !fill()) {
+				return;
+			}
+			c = buffer[position++] & 0xff;
+		}
+		position--;
+	}
+
+	/**
+	 * Reads an attribute value up to the closing quote. Whitespace characters
+	 * are replaced by spaces and entities are decoded like an xml parser does.
+	 * 
+	 * @param quote
+	 *            the quote the value started with
+	 * @throws IOException
+	 */
+	private void readValue(final int quote) throws IOException {
+		valueLength = 0;
+		boolean entities = false;
+		while (true) {
+			if (position == limit && !fill()) {
+				throw new EOFException("Unexpected end of file in attribute value");
+			}
+			int c = buffer[position++];
+			if (c == quote) {
+				break;
+			} else if (c == '&') {
+				entities = true;
+			} else if (c == '\r') {
+				// a line break is one space, also when written as \r\n
+				if ((position < limit || fill()) && buffer[position] == '\n') {
+					position++;
+				}
+				c = ' ';
+			} else if (c == '\n' || c == '\t') {
+				c = ' ';
+			}
+			if (valueLength == value.length) {
+				value = Arrays.copyOf(value, valueLength * 2);
+			}
+			value[valueLength++] = (byte) c;
+		}
+		if (entities) {
+			decodeEntities();
+		}
+	}
+
+	/**
+	 * Replaces the entities and character references in the value. The
+	 * decoded value is never longer than the encoded one, so it is done in
+	 * place.
+	 * 
+	 * @throws IOException
+	 *             for unknown entities
+	 */
+	private void decodeEntities() throws IOException {
+		int out = 0;
+		for (int i = 0; i < valueLength; ++i) {
+			final byte c = value[i];
+			if (c != '&') {
+				value[out++] = c;
+				continue;
+			}
+			int end = i + 1;
+			while (end < valueLength && value[end] != ';') {
+				end++;
+			}
+			if (end == valueLength) {
+				throw new IOException("Unterminated entity in attribute '" + name() + "'");
+			}
+			final String entity = new String(value, i + 1, end - i - 1, StandardCharsets.UTF_8);
+			switch (entity) {
+			case "amp":
+				value[out++] = '&';
+				break;
+			case "lt":
+				value[out++] = '<';
+				break;
+			case "gt":
+				value[out++] = '>';
+				break;
+			case "quot":
+				value[out++] = '"';
+				break;
+			case "apos":
+				value[out++] = '\'';
+				break;
+			default:
+				out = writeUtf8(out, codePoint(entity));
+				break;
+			}
+			i = end;
+		}
+		valueLength = out;
+	}
+
+	private static int codePoint(final String entity) throws IOException {
+		try {
+			if (entity.startsWith("#x")) {
+				return Integer.parseInt(entity.substring(2), 16);
+			} else if (entity.startsWith("#")) {
+				return Integer.parseInt(entity.substring(1));
+			}
+		} catch (final NumberFormatException e) {
+			throw new IOException("Invalid character reference '&" + entity + ";'", e);
+		}
+		throw new IOException("Unknown entity '&" + entity + ";'");
+	}
+
+	private int writeUtf8(final int out, final int codePoint) throws IOException {
+		if (!Character.isValidCodePoint(codePoint)) {
+			throw new IOException("Invalid character reference " + codePoint);
+		}
+		final byte encoded[] = new String(Character.toChars(codePoint))
+				.getBytes(StandardCharsets.UTF_8);
+		System.arraycopy(encoded, 0, value, out, encoded.length);
+		return out + encoded.length;
+	}
+
+	/**
+	 * Skips a comment, a CDATA section or a declaration like DOCTYPE, the
+	 * {@code <!} is already read.
+	 * 
+	 * @throws IOException
+	 */
+	private void skipDeclaration() throws IOException {
+		final int c = next();
+		if (c == '-') {
+			skipPast(END_OF_COMMENT, 0xffffff);
+		} else if (c == '[') {
+			skipPast(END_OF_CDATA, 0xffffff);
+		} else if (c != '>') {
+			skipPast('>');
+		}
+	}
+
+	/**
+	 * Skips up to and including the next occurrence of the byte
+	 * 
+	 * @param c
+	 *            the byte to look for
+	 * @return false at the end of the stream
+	 * @throws IOException
+	 */
+	private boolean skipTo(final int c) throws IOException {
+		while (true) {
+			for (int i = position; i < limit; ++i) {
+				if (buffer[i] == c) {
+					position = i + 1;
+					return true;
+				}
+			}
+			position = limit;
+			if (!fill()) {
+				return false;
+			}
+		}
+	}
+
+	private void skipPast(final int c) throws IOException {
+		if (!skipTo(c)) {
+			throw new EOFException("Unexpected end of file");
+		}
+	}
+
+	/**
+	 * Skips up to and including the terminator
+	 * 
+	 * @param terminator
+	 *            the bytes of the terminator
+	 * @param mask
+	 *            covering the bytes of the terminator
+	 * @throws IOException
+	 */
+	private void skipPast(final int terminator, final int mask) throws IOException {
+		int window = 0;
+		while (window != terminator) {
+			final int c = next();
+			if (c < 0) {
+				throw new EOFException("Unexpected end of file");
+			}
+			window = (window << 8 | c) & mask;
+		}
+	}
+
+	/**
+	 * @return the first byte that is no whitespace
+	 * @throws IOException
+	 */
+	private int skipWhitespace() throws IOException {
+		int c;
+		do {
+			c = next();
+		} while (c == ' ' || c == '\n' || c == '\r' || c == '\t');
+		if (c < 0) {
+			throw new EOFException("Unexpected end of file");
+		}
+		return c;
+	}
+
+	private int next() throws IOException {
+		if (position == limit && !fill()) {
+			return -1;
+		}
+		return buffer[position++] & 0xff;
+	}
+
+	/**
+	 * Refills the buffer, which has to be completely consumed
+	 * 
+	 * @return false at the end of the stream
+	 * @throws IOException
+	 */
+	private boolean fill() throws IOException {
+		int read;
+		do {
+			read = in.read(buffer, 0, buffer.length);
+		} while (read == 0);
+		position = 0;
+		limit = Math.max(read, 0);
+		return read > 0;
+	}
+
+	private static byte[] bytes(final String string) {
+		return string.getBytes(StandardCharsets.US_ASCII);
+	}
+
+	private String name() {
+		return new String(name, 0, nameLength, StandardCharsets.UTF_8);
+	}
+}
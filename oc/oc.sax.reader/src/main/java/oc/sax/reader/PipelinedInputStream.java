@@ -0,0 +1,419 @@
+/**
+ * Copyright (C) 2026 Oliver Schünemann
+ * 
+ * This program is free software; you can redistribute it and/or modify it under the terms of the 
+ * GNU General Public License as published by the Free Software Foundation; either version 2 of 
+ * the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; 
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. 
+ * See the GNU General Public License for more details. 
+ * 
+ * You should have received a copy of the GNU General Public License along with this program; 
+ * if not, write to the Free Software Foundation, Inc., 51 Franklin St, Fifth Floor, 
+ * Boston, MA 02110, USA 
+ * 
+ * @since 19.10.2026
+ * @version 1.0
+ * @author oliver
+ */
+package oc.sax.reader;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.zip.GZIPInputStream;
+
+import oc.sax.reader.Bzip2Blocks.Block;
+import oc.sax.reader.Bzip2Blocks.Decompressed;
+
+import org.apache.commons.compress.compressors.bzip2.BZip2CompressorInputStream;
+
+/**
+ * Stream of decompressed blocks that are produced by other threads. A feeder
+ * thread reads the compressed file and puts the blocks into a bounded queue,
+ * the reading thread only copies them. So decompressing and parsing run on
+ * different cores.
+ * 
+ * The members of a BGZF file, as written by bgzip, carry their compressed
+ * size in their header. The feeder only reads the members and hands them to
+ * a pool of threads inflating them, the queue holds the results in file
+ * order. The blocks of a bzip2 file are found by their magic numbers, see
+ * {@link Bzip2Blocks}, and decompressed the same way.
+ * 
+ * @author oliver
+ */
+final class PipelinedInputStream extends InputStream {
+	/**
+	 * Size of the blocks of a gzip stream that is inflated by the feeder
+	 */
+	static final int BLOCK_SIZE = 1 << 18;
+	private static final int BUFFER_SIZE = 1 << 16;
+	private static final int QUEUE_CAPACITY = 8;
+	/**
+	 * Marks the end of the blocks
+	 */
+	private static final byte END[] = new byte[0];
+	/**
+	 * Result of a block that has been decompressed together with the previous
+	 * one
+	 */
+	private static final byte JOINED[] = new byte[0];
+
+	/**
+	 * Data of the first bzip2 block
+	 */
+	private static final Function<Decompressed, byte[]> DATA = new Function<Decompressed, byte[]>() {
+		@Override
+		public byte[] apply(final Decompressed decompressed) {
+			return data(decompressed);
+		}
+	};
+
+	/**
+	 * Data of a following bzip2 block, unless the previous one has been
+	 * decompressed together with it
+	 */
+	private static final BiFunction<Decompressed, Decompressed, byte[]> UNLESS_JOINED = new BiFunction<Decompressed, Decompressed, byte[]>() {
+		@Override
+		public byte[] apply(final Decompressed previous, final Decompressed decompressed) {
+			return previous.isJoined() ? JOINED : data(decompressed);
+		}
+	};
+
+	private final BlockingQueue<Future<byte[]>> queue;
+	private final ExecutorService feeder = Executors.newSingleThreadExecutor();
+	private final ExecutorService pool;
+	private final String source;
+	private byte block[] = new byte[0];
+	private int position;
+
+	private PipelinedInputStream(final File f, final int capacity, final ExecutorService pool) {
+		super();
+		this.queue = new ArrayBlockingQueue<>(capacity);
+		this.pool = pool;
+		this.source = f.toString();
+	}
+
+	/**
+	 * Inflates a gzip file, also one with several members, by a feeder
+	 * thread.
+	 * 
+	 * @param f
+	 *            the gzip file
+	 * @return stream of the inflated bytes
+	 */
+	static PipelinedInputStream gzip(final File f) {
+		return sequential(f, false);
+	}
+
+	/**
+	 * Decompresses a bzip2 file, the blocks are decompressed in parallel.
+	 * 
+	 * @param f
+	 *            the bzip2 file
+	 * @param threads
+	 *            number of threads decompressing the blocks, with one thread
+	 *            the file is decompressed by the feeder
+	 * @return stream of the decompressed bytes
+	 */
+	static PipelinedInputStream bzip2(final File f, final int threads) {
+		if (threads <= 1) {
+			return sequential(f, true);
+		}
+		final ExecutorService pool = Executors.newFixedThreadPool(threads);
+		final PipelinedInputStream stream = new PipelinedInputStream(f, threads * QUEUE_CAPACITY,
+				pool);
+		stream.feed(new Callable<Void>() {
+			@Override
+			public Void call() throws IOException, InterruptedException {
+				try (InputStream in = new FileInputStream(f)) {
+					final Bzip2Blocks blocks = new Bzip2Blocks(in);
+					CompletableFuture<Decompressed> previous = null;
+					Block block = blocks.next();
+					while (block != null) {
+						final Block next = blocks.next();
+						final CompletableFuture<Decompressed> decompressed = decompress(block,
+								next, pool);
+						if (previous == null) {
+							stream.put(decompressed.thenApply(DATA));
+						} else {
+							stream.put(previous.thenCombine(decompressed, UNLESS_JOINED));
+						}
+						previous = decompressed;
+						block = next;
+					}
+				}
+				return null;
+			}
+		});
+		return stream;
+	}
+
+	/**
+	 * Decompresses a gzip or bzip2 file by a feeder thread
+	 */
+	private static PipelinedInputStream sequential(final File f, final boolean bzip2) {
+		final PipelinedInputStream stream = new PipelinedInputStream(f, QUEUE_CAPACITY, null);
+		stream.feed(new Callable<Void>() {
+			@Override
+			public Void call() throws IOException, InterruptedException {
+				try (InputStream in = bzip2 ? new BZip2CompressorInputStream(
+						new BufferedInputStream(new FileInputStream(f), BUFFER_SIZE), true)
+						: new GZIPInputStream(new FileInputStream(f), BUFFER_SIZE)) {
+					while (true) {
+						final byte block[] = new byte[BLOCK_SIZE];
+						final int length = readFully(in, block, block.length);
+						if (length == 0) {
+							break;
+						}
+						stream.put(length < BLOCK_SIZE ? Arrays.copyOf(block, length)
+								: block);
+					}
+				}
+				return null;
+			}
+		});
+		return stream;
+	}
+
+	/**
+	 * Inflates the members of a BGZF file in parallel.
+	 * 
+	 * @param f
+	 *            the BGZF file
+	 * @param threads
+	 *            number of threads inflating the members
+	 * @return stream of the inflated bytes
+	 */
+	static PipelinedInputStream bgzf(final File f, final int threads) {
+		final ExecutorService pool = Executors.newFixedThreadPool(threads);
+		final PipelinedInputStream stream = new PipelinedInputStream(f, threads * QUEUE_CAPACITY,
+				pool);
+		stream.feed(new Callable<Void>() {
+			@Override
+			public Void call() throws IOException, InterruptedException {
+				try (DataInputStream in = new DataInputStream(new BufferedInputStream(
+						new FileInputStream(f), BUFFER_SIZE))) {
+					byte member[];
+					while ((member = readMember(in)) != null) {
+						final byte compressed[] = member;
+						stream.put(pool.submit(new Callable<byte[]>() {
+							@Override
+							public byte[] call() throws IOException {
+								return inflate(compressed);
+							}
+						}));
+					}
+				}
+				return null;
+			}
+		});
+		return stream;
+	}
+
+	/**
+	 * Reads the next member of a BGZF file
+	 * 
+	 * @param in
+	 *            the file at the start of a member
+	 * @return the complete member, null at the end of the file
+	 * @throws IOException
+	 *             when the member has no BGZF header
+	 */
+	static byte[] readMember(final DataInputStream in) throws IOException {
+		final byte header[] = new byte[SourceInput.GZIP_HEADER_SIZE];
+		final int length = readFully(in, header, header.length);
+		if (length == 0) {
+			return null;
+		}
+		final int blockSize = SourceInput.bgzfBlockSize(header, length);
+		if (blockSize < length) {
+			throw new IOException("No BGZF block header");
+		}
+		final byte member[] = Arrays.copyOf(header, blockSize);
+		in.readFully(member, length, blockSize - length);
+		return member;
+	}
+
+	/**
+	 * @param member
+	 *            a complete gzip member
+	 * @return the inflated bytes, taking their size from the trailer
+	 * @throws IOException
+	 */
+	static byte[] inflate(final byte member[]) throws IOException {
+		final int last = member.length - 1;
+		final int size = (member[last] & 0xff) << 24 | (member[last - 1] & 0xff) << 16
+				| (member[last - 2] & 0xff) << 8 | member[last - 3] & 0xff;
+		final byte inflated[] = new byte[size];
+		try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(member), member.length)) {
+			if (readFully(in, inflated, size) < size || in.read() >= 0) {
+				throw new IOException("Inflated size of BGZF block does not match its trailer");
+			}
+		}
+		return inflated;
+	}
+
+	/**
+	 * Decompresses a bzip2 block by the pool
+	 */
+	private static CompletableFuture<Decompressed> decompress(final Block block,
+			final Block next, final ExecutorService pool) {
+		return CompletableFuture.supplyAsync(new Supplier<Decompressed>() {
+			@Override
+			public Decompressed get() {
+				return Decompressed.of(block, next);
+			}
+		}, pool);
+	}
+
+	private static byte[] data(final Decompressed decompressed) {
+		try {
+			return decompressed.getData();
+		} catch (final IOException e) {
+			throw new CompletionException(e);
+		}
+	}
+
+	/**
+	 * Runs the feeder, it puts the end marker or its failure behind the
+	 * blocks.
+	 */
+	private void feed(final Callable<Void> feeding) {
+		feeder.submit(new Callable<Void>() {
+			@Override
+			public Void call() throws InterruptedException {
+				final CompletableFuture<byte[]> last = new CompletableFuture<>();
+				try {
+					feeding.call();
+					last.complete(END);
+				} catch (final InterruptedException e) {
+					return null;
+				} catch (final Throwable t) {
+					last.completeExceptionally(t);
+				}
+				queue.put(last);
+				return null;
+			}
+		});
+	}
+
+	private void put(final byte block[]) throws InterruptedException {
+		queue.put(CompletableFuture.completedFuture(block));
+	}
+
+	private void put(final Future<byte[]> block) throws InterruptedException {
+		queue.put(block);
+	}
+
+	/**
+	 * Takes the next block from the queue
+	 * 
+	 * @return false at the end of the stream
+	 * @throws IOException
+	 *             failure of the feeder or the inflating threads
+	 */
+	private boolean nextBlock() throws IOException {
+		while (position == block.length) {
+			if (block == END) {
+				return false;
+			}
+			try {
+				block = queue.take().get();
+			} catch (final InterruptedException e) {
+				throw new InterruptedIOException("Interrupted while decompressing " + source);
+			} catch (final ExecutionException e) {
+				block = END;
+				if (e.getCause() instanceof IOException) {
+					throw (IOException) e.getCause();
+				}
+				throw new IOException("Failed to decompress " + source, e.getCause());
+			}
+			position = 0;
+		}
+		return true;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see java.io.InputStream#read()
+	 */
+	@Override
+	public int read() throws IOException {
+		if (!nextBlock()) {
+			return -1;
+		}
+		return block[position++] & 0xff;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see java.io.InputStream#read(byte[], int, int)
+	 */
+	@Override
+	public int read(final byte[] b, final int off, final int len) throws IOException {
+		if (len == 0) {
+			return 0;
+		}
+		if (!nextBlock()) {
+			return -1;
+		}
+		final int length = Math.min(len, block.length - position);
+		System.arraycopy(block, position, b, off, length);
+		position += length;
+		return length;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see java.io.InputStream#close()
+	 */
+	@Override
+	public void close() {
+		feeder.shutdownNow();
+		if (pool != null) {
+			pool.shutdownNow();
+		}
+		queue.clear();
+	}
+
+	/**
+	 * Reads until the buffer is full or the stream ends
+	 * 
+	 * @return number of bytes read
+	 */
+	private static int readFully(final InputStream in, final byte buffer[], final int length)
+			throws IOException {
+		int read = 0;
+		while (read < length) {
+			final int count = in.read(buffer, read, length - read);
+			if (count < 0) {
+				break;
+			}
+			read += count;
+		}
+		return read;
+	}
+}
@@ -20,16 +20,14 @@
 package oc.sax.reader;
 
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.IOException;
-import java.util.zip.GZIPInputStream;
+import java.io.InputStream;
+import java.util.Arrays;
 
 import oc.osm.handler.OsmHandler;
-import oc.osm.type.Member;
+import oc.osm.handler.OsmHandlerAdapter;
+import oc.osm.handler.PrimitiveOsmHandler;
 import oc.osm.type.Member.Type;
-import oc.osm.type.Node;
-import oc.osm.type.Relation;
-import oc.osm.type.Way;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -103,10 +101,19 @@ public final class SaxReader implements ContentHandler {
 	 * 
 	 */
 	private static final String WAY_NODE_NAME = "way";
-	private final OsmHandler handler;
-	private Node node = null;
-	private Way way = null;
-	private Relation relation = null;
+	private final PrimitiveOsmHandler handler;
+	private long id;
+	private int lat;
+	private int lon;
+	private String keys[] = new String[16];
+	private String values[] = new String[16];
+	private int tags;
+	private long refs[] = new long[256];
+	private int refCount;
+	private Type memberTypes[] = new Type[64];
+	private long memberIds[] = new long[64];
+	private String roles[] = new String[64];
+	private int memberCount;
 	private boolean relationActive = false;
 	private boolean wayActive = false;
 	private boolean nodeActive = false;
@@ -121,18 +128,75 @@ public final class SaxReader implements ContentHandler {
 	private long numberOfWayRelRefs = 0;
 	private long numberOfRelRelRefs = 0;
 
-	private SaxReader(final OsmHandler handler) {
+	private SaxReader(final PrimitiveOsmHandler handler) {
 		this.handler = handler;
 	}
 
+	/**
+	 * Reads the complete file, compressed files are decompressed by one other
+	 * thread.
+	 * 
+	 * @param f
+	 *            the osm, osm.gz, BGZF or osm.bz2 file
+	 * @param handler
+	 *            callback for the elements
+	 * @throws IOException
+	 */
 	public static void readFile(final File f, final OsmHandler handler) throws IOException {
+		readFile(f, new OsmHandlerAdapter(handler), 1);
+	}
+
+	/**
+	 * Reads the complete file, the members of a BGZF file and the blocks of a
+	 * bzip2 file are decompressed by several threads.
+	 * 
+	 * @param f
+	 *            the osm, osm.gz, BGZF or osm.bz2 file
+	 * @param handler
+	 *            callback for the elements
+	 * @param threads
+	 *            number of threads decompressing the file
+	 * @throws IOException
+	 */
+	public static void readFile(final File f, final OsmHandler handler, final int threads)
+			throws IOException {
+		readFile(f, new OsmHandlerAdapter(handler), threads);
+	}
+
+	/**
+	 * Reads the complete file and calls the primitive handler for each element
+	 * in it, without creating Node, Way or Relation instances.
+	 * 
+	 * @param f
+	 *            the osm, osm.gz, BGZF or osm.bz2 file
+	 * @param handler
+	 *            callback for the elements
+	 * @throws IOException
+	 */
+	public static void readFile(final File f, final PrimitiveOsmHandler handler)
+			throws IOException {
+		readFile(f, handler, 1);
+	}
+
+	/**
+	 * Reads the complete file and calls the primitive handler for each element
+	 * in it, without creating Node, Way or Relation instances.
+	 * 
+	 * @param f
+	 *            the osm, osm.gz, BGZF or osm.bz2 file
+	 * @param handler
+	 *            callback for the elements
+	 * @param threads
+	 *            number of threads decompressing the file
+	 * @throws IOException
+	 */
+	public static void readFile(final File f, final PrimitiveOsmHandler handler,
+			final int threads) throws IOException {
 		final SaxReader saxReader = new SaxReader(handler);
-		try {
+		try (InputStream in = SourceInput.open(f, threads)) {
 			final XMLReader reader = XMLReaderFactory.createXMLReader();
-			final GZIPInputStream gis = new GZIPInputStream(new FileInputStream(f));
 			reader.setContentHandler(saxReader);
-			reader.parse(new InputSource(gis));
-			gis.close();
+			reader.parse(new InputSource(in));
 		} catch (final SAXException e) {
 			throw new IOException("Error occured parsing Document", e);
 		}
@@ -148,71 +212,67 @@ public final class SaxReader implements ContentHandler {
 	public void startElement(final String uri, final String localName, final String qName,
 			final Attributes atts) throws SAXException {
 		if (NODE_NODE_NAME.equals(localName)) {
-			final long id = Long.parseLong(atts.getValue(ID_ATTR_NAME));
-			final int lat = (int) (scale * Double.parseDouble(atts.getValue(LAT_ATTR_NAME)) + 0.5);
-			final int lon = (int) (scale * Double.parseDouble(atts.getValue(LON_ATTR_NAME)) + 0.5);
-			node = new Node();
-			node.setId(id);
-			node.setLat(lat);
-			node.setLon(lon);
+			id = Long.parseLong(atts.getValue(ID_ATTR_NAME));
+			lat = (int) (scale * Double.parseDouble(atts.getValue(LAT_ATTR_NAME)) + 0.5);
+			lon = (int) (scale * Double.parseDouble(atts.getValue(LON_ATTR_NAME)) + 0.5);
+			tags = 0;
 			nodeActive = true;
 			numberOfNodes++;
 		} else if (WAY_NODE_NAME.equals(localName)) {
-			final long id = Long.parseLong(atts.getValue(ID_ATTR_NAME));
-			way = new Way();
-			way.setId(id);
+			id = Long.parseLong(atts.getValue(ID_ATTR_NAME));
+			tags = 0;
+			refCount = 0;
 			wayActive = true;
 			numberOfWays++;
 		} else if (NODE_REF_NAME.equals(localName) && wayActive) {
-			final long ref = Long.parseLong(atts.getValue(REF_ATTR_NAME));
-			final Node refNode = new Node();
-			refNode.setId(ref);
-			way.addNode(refNode);
+			if (refCount == refs.length) {
+				refs = Arrays.copyOf(refs, refCount * 2);
+			}
+			refs[refCount++] = Long.parseLong(atts.getValue(REF_ATTR_NAME));
 			numberOfNodeWayRefs++;
 		} else if (RELATION_NODE_NAME.equals(localName)) {
-			final long id = Long.parseLong(atts.getValue(ID_ATTR_NAME));
+			id = Long.parseLong(atts.getValue(ID_ATTR_NAME));
+			tags = 0;
+			memberCount = 0;
 			relationActive = true;
-			relation = new Relation();
-			relation.setId(id);
-			atts.getLength();
 			numberOfRelations++;
 		} else if (MEMBER_NODE_NAME.equals(localName) && relationActive) {
-			final Member member = new Member();
 			final String type = atts.getValue(TYPE_ATTR_NAME);
 			final long ref = Long.parseLong(atts.getValue(REF_ATTR_NAME));
 			final String role = atts.getValue(ROLE_ATTR_NAME);
+			final Type memberType;
 			if (NODE_NODE_NAME.equals(type)) {
-				final Node node = new Node();
-				node.setId(ref);
-				member.setRef(node);
+				memberType = Type.NODE;
 				numberOfNodeRelRefs++;
 			} else if (WAY_NODE_NAME.equals(type)) {
-				final Way way = new Way();
-				way.setId(ref);
-				member.setRef(way);
+				memberType = Type.WAY;
 				numberOfWayRelRefs++;
 			} else if (RELATION_NODE_NAME.equals(type)) {
-				final Relation relation = new Relation();
-				relation.setId(ref);
-				member.setRef(relation);
+				memberType = Type.RELATION;
 				numberOfRelRelRefs++;
+			} else {
+				return;
 			}
-			member.setRole(role == null ? "" : role);
-			if (!Type.MAX.equals(member.getType())) {
-				relation.addMember(member);
+			if (memberCount == memberIds.length) {
+				memberTypes = Arrays.copyOf(memberTypes, memberCount * 2);
+				memberIds = Arrays.copyOf(memberIds, memberCount * 2);
+				roles = Arrays.copyOf(roles, memberCount * 2);
 			}
+			memberTypes[memberCount] = memberType;
+			memberIds[memberCount] = ref;
+			roles[memberCount] = role == null ? "" : role;
+			memberCount++;
 		} else if (TAG_NODE_NAME.equals(localName)) {
-			final String key = atts.getValue(KEY_ATTR_NAME);
-			final String value = atts.getValue(VALUE_ATTR_NAME);
-			if (nodeActive) {
-				node.addProperty(key, value);
-			} else if (wayActive) {
-				way.addProperty(key, value);
-			} else if (relationActive) {
-				relation.addProperty(key, value);
-			} else {
-				throw new SAXException("Unexpected Tag '" + key + "'");
+			if (!nodeActive && !wayActive && !relationActive) {
+				throw new SAXException("Unexpected Tag '" + atts.getValue(KEY_ATTR_NAME) + "'");
+			}
+			if (tags == keys.length) {
+				keys = Arrays.copyOf(keys, tags * 2);
+				values = Arrays.copyOf(values, tags * 2);
 			}
+			keys[tags] = atts.getValue(KEY_ATTR_NAME);
+			values[tags] = atts.getValue(VALUE_ATTR_NAME);
+			tags++;
 		}
 	}
 
@@ -227,13 +287,14 @@ public final class SaxReader implements ContentHandler {
 			throws SAXException {
 		try {
 			if (NODE_NODE_NAME.equals(localName) && nodeActive) {
-				handler.newNode(node);
+				handler.node(id, lat, lon, keys, values, tags);
 				nodeActive = false;
 			} else if (WAY_NODE_NAME.equals(localName) && wayActive) {
-				handler.newWay(way);
+				handler.way(id, refs, refCount, keys, values, tags);
 				wayActive = false;
 			} else if (RELATION_NODE_NAME.equals(localName) && relationActive) {
-				handler.newRelation(relation);
+				handler.relation(id, memberTypes, memberIds, roles, memberCount, keys, values,
+						tags);
 				relationActive = false;
 			}
 		} catch (final IOException e) {
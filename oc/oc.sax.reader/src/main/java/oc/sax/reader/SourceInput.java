@@ -0,0 +1,143 @@
+/**
+ * Copyright (C) 2026 Oliver Schünemann
+ * 
+ * This program is free software; you can redistribute it and/or modify it under the terms of the 
+ * GNU General Public License as published by the Free Software Foundation; either version 2 of 
+ * the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; 
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. 
+ * See the GNU General Public License for more details. 
+ * 
+ * You should have received a copy of the GNU General Public License along with this program; 
+ * if not, write to the Free Software Foundation, Inc., 51 Franklin St, Fifth Floor, 
+ * Boston, MA 02110, USA 
+ * 
+ * @since 19.10.2026
+ * @version 1.0
+ * @author oliver
+ */
+package oc.sax.reader;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Opens the xml source files. The format is recognized by the first bytes of
+ * the file, not by its name.
+ * 
+ * @author oliver
+ */
+final class SourceInput {
+	/**
+	 * Formats of the source files
+	 */
+	enum Format {
+		/**
+		 * Uncompressed xml
+		 */
+		PLAIN,
+		/**
+		 * Gzip with one or more members
+		 */
+		GZIP,
+		/**
+		 * Gzip with members carrying their size, as written by bgzip
+		 */
+		BGZF,
+		/**
+		 * Bzip2 with one or more streams, as written by bzip2, pbzip2 or
+		 * lbzip2
+		 */
+		BZIP2
+	}
+
+	/**
+	 * Bytes of the gzip header up to and including the BGZF extra field
+	 */
+	static final int GZIP_HEADER_SIZE = 18;
+	private static final int BUFFER_SIZE = 1 << 16;
+	private static final int FEXTRA = 4;
+
+	private SourceInput() {
+		// only static methods
+	}
+
+	/**
+	 * @param f
+	 *            the source file
+	 * @return the format of the file
+	 * @throws IOException
+	 */
+	static Format format(final File f) throws IOException {
+		final byte header[] = new byte[GZIP_HEADER_SIZE];
+		int length = 0;
+		try (InputStream in = new FileInputStream(f)) {
+			int read;
+			while (length < header.length
+					&& (read = in.read(header, length, header.length - length)) > 0) {
+				length += read;
+			}
+		}
+		if (length >= 4 && header[0] == 'B' && header[1] == 'Z' && header[2] == 'h'
+				&& header[3] >= '1' && header[3] <= '9') {
+			return Format.BZIP2;
+		}
+		if (length < 2 || (header[0] & 0xff) != 0x1f || (header[1] & 0xff) != 0x8b) {
+			return Format.PLAIN;
+		}
+		return bgzfBlockSize(header, length) < 0 ? Format.GZIP : Format.BGZF;
+	}
+
+	/**
+	 * Opens the file for reading the uncompressed xml. Compressed files are
+	 * decompressed by other threads, see {@link PipelinedInputStream}.
+	 * 
+	 * @param f
+	 *            the source file
+	 * @param threads
+	 *            number of threads decompressing a BGZF or bzip2 file
+	 * @return stream of the xml
+	 * @throws IOException
+	 */
+	static InputStream open(final File f, final int threads) throws IOException {
+		switch (format(f)) {
+		case BGZF:
+			if (threads > 1) {
+				return PipelinedInputStream.bgzf(f, threads);
+			}
+			return PipelinedInputStream.gzip(f);
+		case GZIP:
+			return PipelinedInputStream.gzip(f);
+		case BZIP2:
+			return PipelinedInputStream.bzip2(f, threads);
+		default:
+			return new BufferedInputStream(new FileInputStream(f), BUFFER_SIZE);
+		}
+	}
+
+	/**
+	 * Takes the size of the member from the BC field of a BGZF header
+	 * 
+	 * @param header
+	 *            first bytes of the member
+	 * @param length
+	 *            number of valid bytes in the header
+	 * @return the size of the member in bytes, -1 when it is no BGZF member
+	 */
+	static int bgzfBlockSize(final byte header[], final int length) {
+		if (length < GZIP_HEADER_SIZE || (header[0] & 0xff) != 0x1f
+				|| (header[1] & 0xff) != 0x8b || header[2] != 8 || (header[3] & FEXTRA) == 0) {
+			return -1;
+		}
+		final int extraLength = (header[10] & 0xff) | (header[11] & 0xff) << 8;
+		if (extraLength != 6 || header[12] != 'B' || header[13] != 'C' || header[14] != 2
+				|| header[15] != 0) {
+			return -1;
+		}
+		return ((header[16] & 0xff) | (header[17] & 0xff) << 8) + 1;
+	}
+}
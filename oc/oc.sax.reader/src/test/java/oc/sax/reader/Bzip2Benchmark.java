@@ -0,0 +1,111 @@
+/**
+ * Copyright (C) 2026 Oliver Schünemann
+ * 
+ * This program is free software; you can redistribute it and/or modify it under the terms of the 
+ * GNU General Public License as published by the Free Software Foundation; either version 2 of 
+ * the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; 
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. 
+ * See the GNU General Public License for more details. 
+ * 
+ * You should have received a copy of the GNU General Public License along with this program; 
+ * if not, write to the Free Software Foundation, Inc., 51 Franklin St, Fifth Floor, 
+ * Boston, MA 02110, USA 
+ * 
+ * @since 19.10.2026
+ * @version 1.0
+ * @author oliver
+ */
+package oc.sax.reader;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import org.apache.commons.compress.compressors.bzip2.BZip2CompressorOutputStream;
+
+/**
+ * Compares the throughput of decompressing a bzip2 file by the feeder thread
+ * with decompressing its blocks in parallel. Without a file an xml file of
+ * random nodes is compressed into a temporary one.
+ * 
+ * Usage: Bzip2Benchmark [file.osm.bz2] [threads]
+ * 
+ * @author oliver
+ */
+public final class Bzip2Benchmark {
+	private static final int GENERATED_SIZE = 64 << 20;
+	private static final int ROUNDS = 3;
+
+	private Bzip2Benchmark() {
+		// only main
+	}
+
+	/**
+	 * @param args
+	 *            the bzip2 file and the number of threads, at least two to
+	 *            decompress the blocks in parallel, both optional
+	 * @throws IOException
+	 */
+	public static void main(final String[] args) throws IOException {
+		final File file = args.length > 0 ? new File(args[0]) : generate();
+		final int threads = args.length > 1 ? Integer.parseInt(args[1]) : Math.max(2, Runtime
+				.getRuntime().availableProcessors());
+		try {
+			for (int round = 0; round < ROUNDS; ++round) {
+				report("1 thread", 1, file);
+				report(threads + " threads", threads, file);
+			}
+		} finally {
+			if (args.length == 0) {
+				file.delete();
+			}
+		}
+	}
+
+	private static void report(final String name, final int threads, final File file)
+			throws IOException {
+		final long start = System.nanoTime();
+		final long size = read(threads, file);
+		final double seconds = (System.nanoTime() - start) / 1e9;
+		System.out.printf("%-12s %8.1f MB/s decompressed, %6.1f MB/s compressed, %.2f s%n", name,
+				size / seconds / (1 << 20), file.length() / seconds / (1 << 20), seconds);
+	}
+
+	private static long read(final int threads, final File file) throws IOException {
+		final byte buffer[] = new byte[1 << 16];
+		long size = 0;
+		try (InputStream in = PipelinedInputStream.bzip2(file, threads)) {
+			int read;
+			while ((read = in.read(buffer)) >= 0) {
+				size += read;
+			}
+		}
+		return size;
+	}
+
+	private static File generate() throws IOException {
+		final File file = File.createTempFile("benchmark", ".osm.bz2");
+		final Random random = new Random(5);
+		try (OutputStream out = new BZip2CompressorOutputStream(new FileOutputStream(file))) {
+			out.write("<?xml version='1.0' encoding='UTF-8'?>\n<osm version=\"0.6\">\n"
+					.getBytes(StandardCharsets.UTF_8));
+			long written = 0;
+			for (long id = 1; written < GENERATED_SIZE; ++id) {
+				final byte node[] = ("  <node id=\"" + id + "\" lat=\""
+						+ (random.nextInt(1800000000) - 900000000) / 1e7 + "\" lon=\""
+						+ (random.nextInt(1800000000) - 900000000) / 5e6 + "\" version=\""
+						+ (1 + random.nextInt(5)) + "\"/>\n").getBytes(StandardCharsets.UTF_8);
+				out.write(node);
+				written += node.length;
+			}
+			out.write("</osm>\n".getBytes(StandardCharsets.UTF_8));
+		}
+		return file;
+	}
+}
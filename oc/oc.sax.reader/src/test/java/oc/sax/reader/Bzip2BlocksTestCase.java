@@ -0,0 +1,182 @@
+/**
+ * Copyright (C) 2026 Oliver Schünemann
+ * 
+ * This program is free software; you can redistribute it and/or modify it under the terms of the 
+ * GNU General Public License as published by the Free Software Foundation; either version 2 of 
+ * the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; 
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. 
+ * See the GNU General Public License for more details. 
+ * 
+ * You should have received a copy of the GNU General Public License along with this program; 
+ * if not, write to the Free Software Foundation, Inc., 51 Franklin St, Fifth Floor, 
+ * Boston, MA 02110, USA 
+ * 
+ * @since 19.10.2026
+ * @version 1.0
+ * @author oliver
+ */
+package oc.sax.reader;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Random;
+
+import oc.sax.reader.Bzip2Blocks.Block;
+import oc.sax.reader.Bzip2Blocks.Decompressed;
+
+import org.apache.commons.compress.compressors.bzip2.BZip2CompressorOutputStream;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * @author oliver
+ * 
+ */
+public class Bzip2BlocksTestCase {
+	/**
+	 * Bits of the stream header
+	 */
+	private static final int HEADER_BITS = 32;
+
+	private byte data[];
+
+	@Before
+	public void setup() throws IOException {
+		final Random random = new Random(23);
+		final StringBuilder builder = new StringBuilder();
+		while (builder.length() < 300000) {
+			builder.append("  <node id=\"").append(random.nextInt(100000)).append("\"/>\n");
+		}
+		data = builder.toString().getBytes("UTF-8");
+	}
+
+	/**
+	 * @param blockSize
+	 *            block size of the stream in 100 kb
+	 * @return the data as one bzip2 stream
+	 */
+	static byte[] bzip2(final byte bytes[], final int from, final int to, final int blockSize)
+			throws IOException {
+		final ByteArrayOutputStream out = new ByteArrayOutputStream();
+		try (BZip2CompressorOutputStream bzip2 = new BZip2CompressorOutputStream(out, blockSize)) {
+			bzip2.write(bytes, from, to - from);
+		}
+		return out.toByteArray();
+	}
+
+	private static byte[] decompress(final byte compressed[]) throws IOException {
+		final Bzip2Blocks blocks = new Bzip2Blocks(new ByteArrayInputStream(compressed));
+		final ByteArrayOutputStream out = new ByteArrayOutputStream();
+		Block block = blocks.next();
+		while (block != null) {
+			final Block next = blocks.next();
+			out.write(block.decompress());
+			block = next;
+		}
+		return out.toByteArray();
+	}
+
+	/**
+	 * @return bit position of the stream trailer
+	 */
+	private static long trailer(final byte compressed[]) {
+		long window = 0;
+		long found = -1;
+		for (long bit = 0; bit < compressed.length * 8L; ++bit) {
+			window = window << 1 | compressed[(int) (bit >>> 3)] >>> (7 - (bit & 7)) & 1;
+			if ((window & 0xffffffffffffL) == Bzip2Blocks.END_MAGIC) {
+				found = bit + 1 - 48;
+			}
+		}
+		return found;
+	}
+
+	/**
+	 * @return the bytes from the one holding the given bit
+	 */
+	private static byte[] from(final byte compressed[], final long bit) {
+		return Arrays.copyOfRange(compressed, (int) (bit >>> 3), compressed.length);
+	}
+
+	@Test
+	public void testBlocks() throws IOException {
+		final byte compressed[] = bzip2(data, 0, data.length, 1);
+		assertArrayEquals(data, decompress(compressed));
+		final Bzip2Blocks blocks = new Bzip2Blocks(new ByteArrayInputStream(compressed));
+		int count = 0;
+		while (blocks.next() != null) {
+			++count;
+		}
+		assertEquals(true, count >= 3);
+	}
+
+	@Test
+	public void testStreams() throws IOException {
+		final ByteArrayOutputStream out = new ByteArrayOutputStream();
+		out.write(bzip2(data, 0, 1000, 9));
+		out.write(bzip2(data, 1000, 1000, 5));
+		out.write(bzip2(data, 1000, data.length, 2));
+		assertArrayEquals(data, decompress(out.toByteArray()));
+		assertEquals(0, decompress(bzip2(data, 0, 0, 9)).length);
+		assertEquals(0, decompress(new byte[0]).length);
+	}
+
+	/**
+	 * A block cut by a magic number within its data is decompressed together
+	 * with the following one.
+	 * 
+	 * @throws IOException
+	 */
+	@Test
+	public void testFalseBlockMagic() throws IOException {
+		final byte part[] = Arrays.copyOf(data, 50000);
+		final byte compressed[] = bzip2(part, 0, part.length, 1);
+		final long length = trailer(compressed) - HEADER_BITS;
+		final long cut = length / 2 + 3;
+		final Block first = new Block(from(compressed, HEADER_BITS), 0, cut, cut, true);
+		final long rest = length - cut;
+		final Block second = new Block(from(compressed, HEADER_BITS + cut),
+				(int) (HEADER_BITS + cut & 7), rest, rest, true);
+		final Decompressed decompressed = Decompressed.of(first, second);
+		assertEquals(true, decompressed.isJoined());
+		assertArrayEquals(part, decompressed.getData());
+		try {
+			Decompressed.of(second, null).getData();
+			fail("Second half of the block was decompressed");
+		} catch (final IOException e) {
+			// expected, it is no block
+		}
+	}
+
+	/**
+	 * A block cut by a trailer magic number within its data is decompressed
+	 * up to the next block.
+	 * 
+	 * @throws IOException
+	 */
+	@Test
+	public void testFalseTrailerMagic() throws IOException {
+		final byte part[] = Arrays.copyOf(data, 50000);
+		final byte compressed[] = bzip2(part, 0, part.length, 1);
+		final long length = trailer(compressed) - HEADER_BITS;
+		final Block block = new Block(from(compressed, HEADER_BITS), 0, length / 2, length, true);
+		final Decompressed decompressed = Decompressed.of(block, null);
+		assertEquals(false, decompressed.isJoined());
+		assertArrayEquals(part, decompressed.getData());
+	}
+
+	@Test(expected = EOFException.class)
+	public void testTruncated() throws IOException {
+		final byte compressed[] = bzip2(data, 0, data.length, 1);
+		decompress(Arrays.copyOf(compressed, compressed.length - 100));
+	}
+}
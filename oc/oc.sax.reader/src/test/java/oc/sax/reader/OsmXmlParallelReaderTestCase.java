@@ -0,0 +1,209 @@
+/**
+ * Copyright (C) 2026 Oliver Schünemann
+ * 
+ * This program is free software; you can redistribute it and/or modify it under the terms of the 
+ * GNU General Public License as published by the Free Software Foundation; either version 2 of 
+ * the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; 
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. 
+ * See the GNU General Public License for more details. 
+ * 
+ * You should have received a copy of the GNU General Public License along with this program; 
+ * if not, write to the Free Software Foundation, Inc., 51 Franklin St, Fifth Floor, 
+ * Boston, MA 02110, USA 
+ * 
+ * @since 19.10.2026
+ * @version 1.0
+ * @author oliver
+ */
+package oc.sax.reader;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.zip.GZIPOutputStream;
+
+import oc.io.base.MappedFile;
+import oc.osm.handler.ConcurrentOsmHandler;
+import oc.osm.handler.OsmHandler;
+import oc.osm.type.Node;
+import oc.osm.type.Relation;
+import oc.osm.type.Way;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * @author oliver
+ * 
+ */
+public class OsmXmlParallelReaderTestCase {
+
+	private static final int NODES = 2000;
+	private static final int WAYS = 300;
+	private static final int RELATIONS = 50;
+	private static final long TASK_SIZE = 4096;
+
+	private File file = null;
+
+	/**
+	 * Writes a file indented like the ones of osmosis.
+	 * 
+	 * @throws IOException
+	 */
+	@Before
+	public void setup() throws IOException {
+		file = File.createTempFile("parallel", "osm");
+		write(new FileOutputStream(file));
+	}
+
+	private static void write(final OutputStream out) throws IOException {
+		try (Writer writer = new OutputStreamWriter(out, StandardCharsets.UTF_8)) {
+			writer.write("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n<osm version=\"0.6\">\n");
+			writer.write("  <bounds minlat=\"52\" minlon=\"13\" maxlat=\"53\" maxlon=\"14\"/>\n");
+			for (int i = 1; i <= NODES; ++i) {
+				writer.write("  <node id=\"" + i + "\" lat=\"52." + i + "\" lon=\"-13." + i + "\"");
+				if (i % 3 == 0) {
+					writer.write(">\n    <tag k=\"name\" v=\"&lt;node &amp; " + i + "\"/>\n  </node>\n");
+				} else {
+					writer.write("/>\n");
+				}
+			}
+			for (int i = 1; i <= WAYS; ++i) {
+				writer.write("  <way id=\"" + i + "\">\n    <nd ref=\"" + i + "\"/>\n    <nd ref=\""
+						+ (i + 1) + "\"/>\n    <tag k=\"highway\" v=\"track\"/>\n  </way>\n");
+			}
+			for (int i = 1; i <= RELATIONS; ++i) {
+				writer.write("  <relation id=\"" + i + "\">\n    <member type=\"way\" ref=\"" + i
+						+ "\" role=\"outer\"/>\n    <tag k=\"type\" v=\"multipolygon\"/>\n"
+						+ "  </relation>\n");
+			}
+			writer.write("</osm>\n");
+		}
+	}
+
+	@After
+	public void tearDown() {
+		file.delete();
+	}
+
+	/**
+	 * Handler recording the elements as text
+	 * 
+	 * @author oliver
+	 */
+	private static class RecordingHandler implements OsmHandler {
+		protected final List<String> elements = Collections
+				.synchronizedList(new ArrayList<String>());
+
+		@Override
+		public void newNode(final Node node) throws IOException {
+			elements.add("n" + node.getId() + ":" + node.getLat() + ":" + node.getLon()
+					+ node.getProps());
+		}
+
+		@Override
+		public void newWay(final Way way) throws IOException {
+			elements.add("w" + way.getId() + ":" + way.getNodes().size() + way.getProps());
+		}
+
+		@Override
+		public void newRelation(final Relation relation) throws IOException {
+			elements.add("r" + relation.getId() + ":" + relation.getMembers().get(0).getRole()
+					+ relation.getProps());
+		}
+	}
+
+	@Test
+	public void testSplit() throws IOException {
+		final List<long[]> tasks = new OsmXmlParallelReader(file, 4, TASK_SIZE).split();
+		assertTrue(tasks.size() > 10);
+		try (MappedFile in = new MappedFile(file)) {
+			long end = 0;
+			for (final long[] task : tasks) {
+				assertEquals(end, task[0]);
+				if (end > 0) {
+					assertEquals('<', in.get(end));
+				}
+				if (task[1] < in.size()) {
+					assertTrue(task[1] - task[0] >= TASK_SIZE);
+				}
+				end = task[1];
+			}
+			assertEquals(in.size(), end);
+		}
+		assertEquals(1, new OsmXmlParallelReader(file, 4, OsmXmlParallelReader.TASK_SIZE)
+				.split().size());
+	}
+
+	@Test
+	public void testOrdered() throws IOException {
+		final RecordingHandler expected = new RecordingHandler();
+		OsmXmlScanner.readFile(file, expected);
+		assertEquals(NODES + WAYS + RELATIONS, expected.elements.size());
+		final RecordingHandler parallel = new RecordingHandler();
+		new OsmXmlParallelReader(file, 3, TASK_SIZE).read(parallel);
+		assertEquals(expected.elements, parallel.elements);
+	}
+
+	@Test
+	public void testUnordered() throws IOException {
+		final RecordingHandler expected = new RecordingHandler();
+		OsmXmlScanner.readFile(file, expected);
+		final RecordingHandler parallel = new ConcurrentRecordingHandler();
+		new OsmXmlParallelReader(file, 3, TASK_SIZE).read(parallel);
+		assertEquals(new TreeSet<>(expected.elements), new TreeSet<>(parallel.elements));
+		assertEquals(expected.elements.size(), parallel.elements.size());
+	}
+
+	@Test
+	public void testCompressed() throws IOException {
+		final RecordingHandler expected = new RecordingHandler();
+		OsmXmlScanner.readFile(file, expected);
+		write(new GZIPOutputStream(new FileOutputStream(file)));
+		final RecordingHandler compressed = new RecordingHandler();
+		OsmXmlScanner.readFile(file, compressed, 3);
+		assertEquals(expected.elements, compressed.elements);
+	}
+
+	@Test
+	public void testFailure() {
+		final RecordingHandler failing = new RecordingHandler() {
+			@Override
+			public void newWay(final Way way) throws IOException {
+				throw new IOException("failed");
+			}
+		};
+		try {
+			new OsmXmlParallelReader(file, 3, TASK_SIZE).read(failing);
+			fail("Failure of the handler was not reported");
+		} catch (final IOException e) {
+			assertEquals("failed", e.getMessage());
+		}
+		assertTrue(failing.elements.size() <= NODES);
+	}
+
+	/**
+	 * Thread safe variant of the recording handler
+	 * 
+	 * @author oliver
+	 */
+	private static class ConcurrentRecordingHandler extends RecordingHandler implements
+			ConcurrentOsmHandler {
+		// the list is synchronized already
+	}
+}
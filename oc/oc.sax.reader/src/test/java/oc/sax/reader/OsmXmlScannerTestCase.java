@@ -0,0 +1,191 @@
+/**
+ * Copyright (C) 2026 Oliver Schünemann
+ * 
+ * This program is free software; you can redistribute it and/or modify it under the terms of the 
+ * GNU General Public License as published by the Free Software Foundation; either version 2 of 
+ * the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; 
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. 
+ * See the GNU General Public License for more details. 
+ * 
+ * You should have received a copy of the GNU General Public License along with this program; 
+ * if not, write to the Free Software Foundation, Inc., 51 Franklin St, Fifth Floor, 
+ * Boston, MA 02110, USA 
+ * 
+ * @since 19.10.2026
+ * @version 1.0
+ * @author oliver
+ */
+package oc.sax.reader;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.Externalizable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import oc.osm.handler.OsmHandler;
+import oc.osm.type.Member;
+import oc.osm.type.Node;
+import oc.osm.type.Relation;
+import oc.osm.type.Way;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Compares the elements the scanner reads with the ones of the SaxReader and
+ * checks the parts of xml the test file does not contain.
+ * 
+ * @author oliver
+ */
+public class OsmXmlScannerTestCase {
+
+	private File file = null;
+
+	@Before
+	public void setup() throws IOException {
+		file = File.createTempFile("scanner", "osm");
+	}
+
+	@After
+	public void tearDown() {
+		file.delete();
+	}
+
+	/**
+	 * Handler recording the elements as text
+	 * 
+	 * @author oliver
+	 */
+	private static class RecordingHandler implements OsmHandler {
+		private final List<String> elements = new ArrayList<>();
+
+		@Override
+		public void newNode(final Node node) throws IOException {
+			elements.add("n" + node.getId() + "," + node.getLat() + "," + node.getLon()
+					+ node.getProps());
+		}
+
+		@Override
+		public void newWay(final Way way) throws IOException {
+			final StringBuilder builder = new StringBuilder("w" + way.getId());
+			for (final Node node : way.getNodes()) {
+				builder.append(',').append(node.getId());
+			}
+			elements.add(builder.append(way.getProps()).toString());
+		}
+
+		@Override
+		public void newRelation(final Relation relation) throws IOException {
+			final StringBuilder builder = new StringBuilder("r" + relation.getId());
+			for (final Member member : relation.getMembers()) {
+				builder.append(',').append(member.getType()).append(id(member.getRef()))
+						.append(':').append(member.getRole());
+			}
+			elements.add(builder.append(relation.getProps()).toString());
+		}
+	}
+
+	private static long id(final Externalizable ref) {
+		if (ref instanceof Node) {
+			return ((Node) ref).getId();
+		} else if (ref instanceof Way) {
+			return ((Way) ref).getId();
+		}
+		return ((Relation) ref).getId();
+	}
+
+	private List<String> scan() throws IOException {
+		final RecordingHandler handler = new RecordingHandler();
+		OsmXmlScanner.readFile(file, handler);
+		return handler.elements;
+	}
+
+	private void write(final String xml) throws IOException {
+		FileUtils.writeByteArrayToFile(file, xml.getBytes(StandardCharsets.UTF_8));
+	}
+
+	/**
+	 * Test method for
+	 * {@link oc.sax.reader.OsmXmlScanner#readFile(java.io.File, oc.osm.handler.OsmHandler)}
+	 * .
+	 * 
+	 * @throws IOException
+	 */
+	@Test
+	public void testReadFile() throws IOException {
+		final InputStream is = OsmXmlScannerTestCase.class.getResourceAsStream("junit.osm.gz");
+		FileUtils.copyInputStreamToFile(is, file);
+		final RecordingHandler saxHandler = new RecordingHandler();
+		SaxReader.readFile(file, saxHandler);
+		final List<String> elements = scan();
+		assertEquals(3, elements.size());
+		assertEquals(saxHandler.elements, elements);
+		assertEquals("n1,525162700,133777300{name=Test Punkt}", elements.get(0));
+
+		final InputStream plain = OsmXmlScannerTestCase.class.getResourceAsStream("junit.osm");
+		FileUtils.copyInputStreamToFile(plain, file);
+		assertEquals(saxHandler.elements, scan());
+	}
+
+	@Test
+	public void testEntities() throws IOException {
+		write("<?xml version='1.0' encoding='UTF-8'?>\n<!DOCTYPE osm>\n<osm>\n"
+				+ "<!-- <node id=\"7\" lat=\"1\" lon=\"1\"/> -->\n"
+				+ "<node id='4' lat='1' lon='2'>\n"
+				+ " <tag k=\"name\" v=\"A &amp; B &lt;&gt; &quot;C&quot; &apos;D&apos;\"/>\n"
+				+ " <tag k = \"note\" v=\"&#83;tra&#xDF;e&#x1F600;\"/>\n"
+				+ " <tag k=\"lines\" v=\"a\r\nb\tc\nd\"/>\n"
+				+ " <tag k=\"ü\" v=\"Grüße\"/>\n" + "</node>\n</osm>\n");
+		final List<String> elements = scan();
+		assertEquals(1, elements.size());
+		final String element = elements.get(0);
+		assertEquals(true, element.contains("name=A & B <> \"C\" 'D'"));
+		assertEquals(true, element.contains("note=Straße😀"));
+		assertEquals(true, element.contains("lines=a b c d"));
+		assertEquals(true, element.contains("ü=Grüße"));
+	}
+
+	@Test
+	public void testCoordinates() throws IOException {
+		write("<osm>\n<node id=\"1\" lat=\"-0.00000005\" lon=\"-179.9999999\"/>\n"
+				+ "<node id=\"2\" lat=\"1.23456785\" lon=\"1.23456784999\"/>\n"
+				+ "<node id=\"3\" lat=\"12.5\" lon=\"-12\"/>\n"
+				+ "<node id=\"4\" lat=\"1e-7\" lon=\"+.5\"/>\n"
+				+ "<node id=\"-5\" lat=\"-52.51627\" lon=\"180.0000000\"/>\n</osm>");
+		final List<String> elements = scan();
+		assertEquals(5, elements.size());
+		assertEquals("n1,-1,-1799999999{}", elements.get(0));
+		assertEquals("n2,12345679,12345678{}", elements.get(1));
+		assertEquals("n3,125000000,-120000000{}", elements.get(2));
+		assertEquals("n4,1,5000000{}", elements.get(3));
+		assertEquals("n-5,-525162700,1800000000{}", elements.get(4));
+	}
+
+	@Test
+	public void testMembers() throws IOException {
+		write("<osm><way id=\"2\"><nd ref=\"10\"/><nd ref=\"11\"></nd></way>"
+				+ "<relation id=\"3\"><member type=\"node\" ref=\"10\" role=\"label\"/>"
+				+ "<member type=\"area\" ref=\"1\" role=\"x\"/>"
+				+ "<member type=\"relation\" ref=\"4\"/>"
+				+ "<tag k=\"type\" v=\"site\"/></relation><nd ref=\"12\"/></osm>");
+		final List<String> elements = scan();
+		assertEquals(2, elements.size());
+		assertEquals("w2,10,11{}", elements.get(0));
+		assertEquals("r3,NODE10:label,RELATION4:{type=site}", elements.get(1));
+	}
+
+	@Test(expected = IOException.class)
+	public void testUnexpectedTag() throws IOException {
+		write("<osm><tag k=\"name\" v=\"nowhere\"/></osm>");
+		scan();
+	}
+}
@@ -0,0 +1,207 @@
+/**
+ * Copyright (C) 2026 Oliver Schünemann
+ * 
+ * This program is free software; you can redistribute it and/or modify it under the terms of the 
+ * GNU General Public License as published by the Free Software Foundation; either version 2 of 
+ * the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; 
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. 
+ * See the GNU General Public License for more details. 
+ * 
+ * You should have received a copy of the GNU General Public License along with this program; 
+ * if not, write to the Free Software Foundation, Inc., 51 Franklin St, Fifth Floor, 
+ * Boston, MA 02110, USA 
+ * 
+ * @since 19.10.2026
+ * @version 1.0
+ * @author oliver
+ */
+package oc.sax.reader;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * @author oliver
+ * 
+ */
+public class PipelinedInputStreamTestCase {
+
+	private static final int BGZF_BLOCK = 0xff00;
+
+	private File file = null;
+	private byte data[];
+
+	/**
+	 * Creates some compressible data spanning several blocks
+	 */
+	@Before
+	public void setup() throws IOException {
+		file = File.createTempFile("pipeline", "gz");
+		final Random random = new Random(17);
+		final StringBuilder builder = new StringBuilder();
+		while (builder.length() < 3 * PipelinedInputStream.BLOCK_SIZE + 1234) {
+			builder.append("  <node id=\"").append(random.nextInt(100000)).append("\"/>\n");
+		}
+		data = builder.toString().getBytes("UTF-8");
+	}
+
+	@After
+	public void tearDown() {
+		file.delete();
+	}
+
+	private static byte[] gzip(final byte bytes[], final int from, final int to)
+			throws IOException {
+		final ByteArrayOutputStream out = new ByteArrayOutputStream();
+		try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+			gzip.write(bytes, from, to - from);
+		}
+		return out.toByteArray();
+	}
+
+	/**
+	 * Writes the data as BGZF members followed by the empty end of file member
+	 */
+	private static byte[] bgzf(final byte bytes[]) throws IOException {
+		final ByteArrayOutputStream out = new ByteArrayOutputStream();
+		for (int from = 0; from < bytes.length; from += BGZF_BLOCK) {
+			bgzfMember(out, Arrays.copyOfRange(bytes, from, Math.min(bytes.length, from
+					+ BGZF_BLOCK)));
+		}
+		bgzfMember(out, new byte[0]);
+		return out.toByteArray();
+	}
+
+	private static void bgzfMember(final ByteArrayOutputStream out, final byte bytes[]) {
+		final Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+		deflater.setInput(bytes);
+		deflater.finish();
+		final byte compressed[] = new byte[bytes.length + 1024];
+		final int length = deflater.deflate(compressed);
+		deflater.end();
+		final CRC32 crc = new CRC32();
+		crc.update(bytes);
+		final int size = SourceInput.GZIP_HEADER_SIZE + length + 8 - 1;
+		final int header[] = { 0x1f, 0x8b, 8, 4, 0, 0, 0, 0, 0, 0xff, 6, 0, 'B', 'C', 2, 0,
+				size & 0xff, size >>> 8 };
+		for (final int b : header) {
+			out.write(b);
+		}
+		out.write(compressed, 0, length);
+		writeInt(out, (int) crc.getValue());
+		writeInt(out, bytes.length);
+	}
+
+	private static void writeInt(final ByteArrayOutputStream out, final int value) {
+		for (int i = 0; i < 4; ++i) {
+			out.write(value >>> 8 * i & 0xff);
+		}
+	}
+
+	private byte[] read(final int threads) throws IOException {
+		try (InputStream in = SourceInput.open(file, threads)) {
+			return IOUtils.toByteArray(in);
+		}
+	}
+
+	@Test
+	public void testPlain() throws IOException {
+		FileUtils.writeByteArrayToFile(file, data);
+		assertEquals(SourceInput.Format.PLAIN, SourceInput.format(file));
+		assertArrayEquals(data, read(3));
+	}
+
+	@Test
+	public void testGzip() throws IOException {
+		FileUtils.writeByteArrayToFile(file, gzip(data, 0, data.length));
+		assertEquals(SourceInput.Format.GZIP, SourceInput.format(file));
+		assertArrayEquals(data, read(3));
+	}
+
+	@Test
+	public void testMultiMember() throws IOException {
+		final ByteArrayOutputStream out = new ByteArrayOutputStream();
+		out.write(gzip(data, 0, 1000));
+		out.write(gzip(data, 1000, data.length));
+		FileUtils.writeByteArrayToFile(file, out.toByteArray());
+		assertEquals(SourceInput.Format.GZIP, SourceInput.format(file));
+		assertArrayEquals(data, read(3));
+	}
+
+	@Test
+	public void testBgzf() throws IOException {
+		FileUtils.writeByteArrayToFile(file, bgzf(data));
+		assertEquals(SourceInput.Format.BGZF, SourceInput.format(file));
+		assertArrayEquals(data, read(3));
+		assertArrayEquals(data, read(1));
+	}
+
+	@Test
+	public void testBzip2() throws IOException {
+		FileUtils.writeByteArrayToFile(file, Bzip2BlocksTestCase.bzip2(data, 0, data.length, 1));
+		assertEquals(SourceInput.Format.BZIP2, SourceInput.format(file));
+		assertArrayEquals(data, read(3));
+		assertArrayEquals(data, read(1));
+	}
+
+	@Test
+	public void testBzip2Streams() throws IOException {
+		final ByteArrayOutputStream out = new ByteArrayOutputStream();
+		for (int from = 0; from < data.length; from += 150000) {
+			out.write(Bzip2BlocksTestCase.bzip2(data, from, Math.min(data.length, from + 150000),
+					2));
+		}
+		FileUtils.writeByteArrayToFile(file, out.toByteArray());
+		assertEquals(SourceInput.Format.BZIP2, SourceInput.format(file));
+		assertArrayEquals(data, read(3));
+		assertArrayEquals(data, read(1));
+	}
+
+	@Test
+	public void testTruncated() throws IOException {
+		final byte bgzf[] = bgzf(data);
+		FileUtils.writeByteArrayToFile(file, Arrays.copyOf(bgzf, bgzf.length / 2));
+		try {
+			read(3);
+			fail("Truncated file was not noticed");
+		} catch (final EOFException e) {
+			// expected, the last member is incomplete
+		}
+		final byte gzip[] = gzip(data, 0, data.length);
+		FileUtils.writeByteArrayToFile(file, Arrays.copyOf(gzip, gzip.length / 2));
+		try {
+			read(3);
+			fail("Truncated file was not noticed");
+		} catch (final EOFException e) {
+			// expected
+		}
+		final byte bzip2[] = Bzip2BlocksTestCase.bzip2(data, 0, data.length, 1);
+		FileUtils.writeByteArrayToFile(file, Arrays.copyOf(bzip2, bzip2.length / 2));
+		try {
+			read(3);
+			fail("Truncated file was not noticed");
+		} catch (final EOFException e) {
+			// expected, the file ends within a block
+		}
+	}
+}
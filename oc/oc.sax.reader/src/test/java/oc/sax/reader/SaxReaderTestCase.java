@@ -27,6 +27,7 @@ import java.io.IOException;
 import java.io.InputStream;
 
 import oc.osm.handler.OsmHandler;
+import oc.osm.handler.PrimitiveOsmHandler;
 import oc.osm.type.Member;
 import oc.osm.type.Node;
 import oc.osm.type.Relation;
@@ -90,4 +91,100 @@ public class SaxReaderTestCase {
 			}
 		});
 	}
+
+	/**
+	 * Test method for
+	 * {@link oc.sax.reader.SaxReader#readFile(java.io.File, oc.osm.handler.PrimitiveOsmHandler)}
+	 * .
+	 * 
+	 * @throws IOException
+	 */
+	@Test
+	public void testReadFilePrimitive() throws IOException {
+		final InputStream is = SaxReaderTestCase.class.getResourceAsStream("junit.osm.gz");
+		final File f = File.createTempFile("junit_test", "osm");
+		FileUtils.copyInputStreamToFile(is, f);
+		final int calls[] = new int[1];
+
+		SaxReader.readFile(f, new PrimitiveOsmHandler() {
+
+			@Override
+			public void way(final long id, final long[] refs, final int refCount,
+					final String[] keys, final String[] values, final int tags) throws IOException {
+				assertEquals(2, id);
+				assertEquals(1, refCount);
+				assertEquals(1, refs[0]);
+				assertEquals(1, tags);
+				assertEquals("highway", keys[0]);
+				assertEquals("motorway", values[0]);
+				calls[0]++;
+			}
+
+			@Override
+			public void relation(final long id, final Member.Type[] memberTypes,
+					final long[] memberIds, final String[] roles, final int memberCount,
+					final String[] keys, final String[] values, final int tags) throws IOException {
+				assertEquals(3, id);
+				assertEquals(1, memberCount);
+				assertEquals(Member.Type.WAY, memberTypes[0]);
+				assertEquals(2, memberIds[0]);
+				assertEquals("inner", roles[0]);
+				assertEquals(2, tags);
+				final int type = "type".equals(keys[0]) ? 0 : 1;
+				assertEquals("type", keys[type]);
+				assertEquals("multipolygon", values[type]);
+				calls[0]++;
+			}
+
+			@Override
+			public void node(final long id, final int lat, final int lon, final String[] keys,
+					final String[] values, final int tags) throws IOException {
+				assertEquals(1, id);
+				assertTrue(520000000 < lat);
+				assertTrue(530000000 > lat);
+				assertTrue(130000000 < lon);
+				assertTrue(140000000 > lon);
+				assertEquals("name", keys[0]);
+				assertEquals("Test Punkt", values[0]);
+				calls[0]++;
+			}
+		});
+		assertEquals(3, calls[0]);
+	}
+
+	/**
+	 * An uncompressed file is recognized by its content
+	 * 
+	 * @throws IOException
+	 */
+	@Test
+	public void testReadPlainFile() throws IOException {
+		final InputStream is = SaxReaderTestCase.class.getResourceAsStream("junit.osm");
+		final File f = File.createTempFile("junit_test", "osm");
+		FileUtils.copyInputStreamToFile(is, f);
+		final int calls[] = new int[1];
+
+		SaxReader.readFile(f, new OsmHandler() {
+
+			@Override
+			public void newWay(final Way way) throws IOException {
+				assertEquals(2, way.getId());
+				calls[0]++;
+			}
+
+			@Override
+			public void newRelation(final Relation relation) throws IOException {
+				assertEquals(3, relation.getId());
+				calls[0]++;
+			}
+
+			@Override
+			public void newNode(final Node node) throws IOException {
+				assertEquals("Test Punkt", node.getProperty("name"));
+				calls[0]++;
+			}
+		}, 2);
+		assertEquals(3, calls[0]);
+		f.delete();
+	}
 }